@@ -0,0 +1,129 @@
+package aoop.asteroids.benchmark;
+
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game.SingleplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.GameObject;
+import aoop.asteroids.model.game_object.Spaceship;
+
+import java.awt.*;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BenchmarkWorlds builds the games the benchmarks run on. Every game is filled from the same seed, so a benchmark
+ * measures the same world on every run, and a change can be compared to the numbers from before it.
+ *
+ * The world grows with the number of objects, so that they are as crowded as 100 objects in a window of the default
+ * size, whatever their number : a benchmark at a larger count measures more of the same game, not a denser one.
+ */
+public final class BenchmarkWorlds {
+    /** seed of every game, see Game.setSeed() **/
+    public static final long SEED = 42;
+
+    /** number of ships in a multiplayer game **/
+    public static final int SHIP_COUNT = 8;
+
+    /** number of objects that fill a world of the default size **/
+    private static final int OBJECTS_PER_DEFAULT_WORLD = 100;
+
+    private BenchmarkWorlds() {
+    }
+
+    /**
+     * @param objectCount number of asteroids and bullets
+     * @return width and height of a world that holds that many objects as crowded as a default one
+     */
+    public static int worldSize(int objectCount) {
+        double scale = Math.sqrt(Math.max(1, objectCount) / (double) OBJECTS_PER_DEFAULT_WORLD);
+        return (int) Math.max(Game.DEFAULT_WORLD_WIDTH, Game.DEFAULT_WORLD_WIDTH * scale);
+    }
+
+    /**
+     * creates a multiplayer game, without a server, of SHIP_COUNT ships and the given number of asteroids and bullets
+     *
+     * @param objectCount number of asteroids and bullets, two asteroids for every bullet
+     * @return the game
+     */
+    public static MultiplayerGame multiplayerGame(int objectCount) {
+        MultiplayerGame game = new MultiplayerGame();
+        prepare(game, objectCount);
+        for (int i = 0; i < SHIP_COUNT; i++) {
+            Spaceship ship = new Spaceship("player" + i, new Color(8000 + i));
+            ship.resetAtRandomLocation(game.getWorldWidth(), game.getWorldHeight(), game.getRandom());
+            ship.setDirection(game.getRandom().nextDouble() * 2 * Math.PI);
+            game.addShip(ship);
+        }
+        fill(game, objectCount);
+        return game;
+    }
+
+    /**
+     * creates a single player game with the given number of asteroids and bullets
+     *
+     * @param objectCount number of asteroids and bullets, two asteroids for every bullet
+     * @return the game
+     */
+    public static SingleplayerGame singleplayerGame(int objectCount) {
+        SingleplayerGame game = new SingleplayerGame("player");
+        prepare(game, objectCount);
+        fill(game, objectCount);
+        return game;
+    }
+
+    /**
+     * brings every object back to life, and lets it collide right away, so that the collision checks find the same
+     * collisions every time they run on the game
+     *
+     * @param game game whose asteroids and bullets to revive
+     * @param ships ships of the game
+     */
+    public static void revive(Game game, List<Spaceship> ships) {
+        revive(game.getAsteroids());
+        revive(game.getBullets());
+        revive(ships);
+    }
+
+    private static void revive(List<? extends GameObject> objects) {
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject object = objects.get(i);
+            object.setDestroyed(false);
+            object.setStepsUntilCollisionPossible(0);
+        }
+    }
+
+    /**
+     * sizes and seeds the game
+     */
+    private static void prepare(Game game, int objectCount) {
+        int size = worldSize(objectCount);
+        game.setWorldSize(size, size);
+        game.setSeed(SEED);
+    }
+
+    /**
+     * adds the asteroids and bullets at random locations, moving in random directions, drawn from the game's generator
+     */
+    private static void fill(Game game, int objectCount) {
+        Random rng = game.getRandom();
+        AsteroidSize[] sizes = AsteroidSize.values();
+        int width = game.getWorldWidth();
+        int height = game.getWorldHeight();
+        for (int i = 0; i < objectCount; i++) {
+            double x = rng.nextDouble() * width;
+            double y = rng.nextDouble() * height;
+            if (i % 3 == 2) {
+                game.getBullets().add(new Bullet(x, y, rng.nextDouble() * 30 - 15, rng.nextDouble() * 30 - 15));
+            } else {
+                game.getAsteroids().add(new Asteroid(
+                        new Point.Double(x, y),
+                        new Point.Double(rng.nextDouble() * 6 - 3, rng.nextDouble() * 6 - 3),
+                        sizes[rng.nextInt(sizes.length)]
+                ));
+            }
+        }
+    }
+}
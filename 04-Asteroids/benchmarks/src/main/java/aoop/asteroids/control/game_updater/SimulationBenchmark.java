@@ -0,0 +1,158 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.benchmark.BenchmarkWorlds;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game.SingleplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.Spaceship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the steps of a game tick on the objects of a game, at increasing numbers of asteroids and bullets: moving
+ * every object, the collision checks of both updaters, and removing the destroyed objects.
+ *
+ * The collision checks destroy what they find, and removing the destroyed objects breaks asteroids up, so those run on
+ * a game that is put back in the same state before every call. Putting it back is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+    /**
+     * a multiplayer and a single player game with the same asteroids and bullets, and their updaters
+     */
+    @State(Scope.Thread)
+    public static class Games {
+        @Param({"100", "1000", "10000"})
+        public int objectCount;
+
+        MultiplayerGame multiplayerGame;
+        MultiplayerGameUpdater multiplayerUpdater;
+        SingleplayerGame singleplayerGame;
+        SingleplayerGameUpdater singleplayerUpdater;
+
+        @Setup(Level.Trial)
+        public void createGames() {
+            this.multiplayerGame = BenchmarkWorlds.multiplayerGame(this.objectCount);
+            this.multiplayerUpdater = new MultiplayerGameUpdater(this.multiplayerGame);
+            this.singleplayerGame = BenchmarkWorlds.singleplayerGame(this.objectCount);
+            this.singleplayerUpdater = new SingleplayerGameUpdater(this.singleplayerGame);
+        }
+    }
+
+    /**
+     * the games, with every object alive and able to collide before every call
+     */
+    @State(Scope.Thread)
+    public static class RevivedGames extends Games {
+        @Setup(Level.Invocation)
+        public void revive() {
+            BenchmarkWorlds.revive(this.multiplayerGame, this.multiplayerGame.getShips());
+            BenchmarkWorlds.revive(this.singleplayerGame, Collections.singletonList(this.singleplayerGame.getMyShip()));
+        }
+    }
+
+    /**
+     * the multiplayer game, with the asteroids and bullets it started with before every call, every fourth of which
+     * is destroyed
+     */
+    @State(Scope.Thread)
+    public static class DestroyedObjects extends Games {
+        private List<Asteroid> asteroids;
+        private List<Bullet> bullets;
+
+        @Setup(Level.Trial)
+        public void keepObjects() {
+            this.asteroids = new ArrayList<>(this.multiplayerGame.getAsteroids());
+            this.bullets = new ArrayList<>(this.multiplayerGame.getBullets());
+        }
+
+        @Setup(Level.Invocation)
+        public void destroyObjects() {
+            ArrayList<Asteroid> gameAsteroids = this.multiplayerGame.getAsteroids();
+            gameAsteroids.clear();
+            for (int i = 0; i < this.asteroids.size(); i++) {
+                Asteroid asteroid = this.asteroids.get(i);
+                Asteroid copy = new Asteroid(new Point.Double(), new Point.Double(), asteroid.getSize());
+                copy.getLocation().setLocation(asteroid.getLocation());
+                copy.getVelocity().setLocation(asteroid.getVelocity());
+                copy.setDestroyed(i % 4 == 0);
+                gameAsteroids.add(copy);
+            }
+            ArrayList<Bullet> gameBullets = this.multiplayerGame.getBullets();
+            gameBullets.clear();
+            for (int i = 0; i < this.bullets.size(); i++) {
+                Bullet bullet = this.bullets.get(i);
+                Bullet copy = new Bullet(bullet.getLocation().x, bullet.getLocation().y, bullet.getVelocity().x, bullet.getVelocity().y);
+                copy.setDestroyed(i % 4 == 0);
+                gameBullets.add(copy);
+            }
+        }
+    }
+
+    /**
+     * moves every object of the multiplayer game one step, see GameObject.nextStep()
+     */
+    @Benchmark
+    public void nextStep(Games games) {
+        MultiplayerGame game = games.multiplayerGame;
+        int width = game.getWorldWidth();
+        int height = game.getWorldHeight();
+        ArrayList<Asteroid> asteroids = game.getAsteroids();
+        for (int i = 0; i < asteroids.size(); i++) {
+            asteroids.get(i).nextStep(width, height);
+        }
+        ArrayList<Bullet> bullets = game.getBullets();
+        for (int i = 0; i < bullets.size(); i++) {
+            bullets.get(i).nextStep(width, height);
+        }
+        ArrayList<Spaceship> ships = game.getShips();
+        for (int i = 0; i < ships.size(); i++) {
+            ships.get(i).nextStep(width, height);
+        }
+    }
+
+    /**
+     * checks the collisions of the multiplayer game, between SHIP_COUNT ships, the asteroids and the bullets
+     */
+    @Benchmark
+    public void multiplayerCheckCollisions(RevivedGames games) {
+        games.multiplayerUpdater.checkCollisions();
+    }
+
+    /**
+     * checks the collisions of the single player game, between the player's ship, the asteroids and the bullets
+     */
+    @Benchmark
+    public void singleplayerCheckCollisions(RevivedGames games) {
+        games.singleplayerUpdater.checkCollisions();
+    }
+
+    /**
+     * removes the destroyed asteroids and bullets of the multiplayer game, adding the successors of the asteroids
+     */
+    @Benchmark
+    public void removeDestroyedObjects(DestroyedObjects games) {
+        games.multiplayerUpdater.removeDestroyedObjects();
+    }
+}
@@ -0,0 +1,86 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.benchmark.BenchmarkWorlds;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.store.WorldStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks game ticks on a WorldStore, holding the same asteroids and bullets as the games of SimulationBenchmark:
+ * moving every object, which compares to SimulationBenchmark.nextStep() on the objects themselves, and a whole tick of
+ * WorldStoreStepper.
+ *
+ * A tick destroys what collides and breaks asteroids up, so the whole tick runs on a store that is loaded from the
+ * game again before every call. Loading it is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldStoreStepperBenchmark {
+    /**
+     * a multiplayer game, and a store loaded from it
+     */
+    @State(Scope.Thread)
+    public static class World {
+        @Param({"100", "1000", "10000"})
+        public int objectCount;
+
+        MultiplayerGame game;
+        WorldStore store;
+
+        @Setup(Level.Trial)
+        public void createWorld() {
+            this.game = BenchmarkWorlds.multiplayerGame(this.objectCount);
+            this.store = new WorldStore(this.game.getWorldWidth(), this.game.getWorldHeight());
+            this.store.load(this.game, this.game.getShips());
+        }
+    }
+
+    /**
+     * the store, loaded from the game as it was created before every call, with every ship alive
+     */
+    @State(Scope.Thread)
+    public static class ReloadedWorld extends World {
+        final WorldStoreStepper stepper = new WorldStoreStepper();
+
+        @Setup(Level.Invocation)
+        public void reload() {
+            BenchmarkWorlds.revive(this.game, this.game.getShips());
+            this.game.setSeed(BenchmarkWorlds.SEED);
+            this.store.load(this.game, this.game.getShips());
+        }
+    }
+
+    /**
+     * moves every asteroid and bullet of the store one step, see EntityStore.move()
+     */
+    @Benchmark
+    public void move(World world) {
+        WorldStore store = world.store;
+        store.getAsteroids().move(store.getWidth(), store.getHeight());
+        store.getBullets().move(store.getWidth(), store.getHeight());
+    }
+
+    /**
+     * runs one game tick on the store, see WorldStoreStepper.step()
+     */
+    @Benchmark
+    public void step(ReloadedWorld world) {
+        world.stepper.step(world.store);
+    }
+}
@@ -0,0 +1,78 @@
+package aoop.asteroids.model.entity;
+
+import aoop.asteroids.benchmark.BenchmarkWorlds;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.packet.PacketType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a client reading a GAME_MODEL packet, from the received bytes up to the new lists set in its game, see
+ * Client.processGameData() and Client.setGameModel(). The packet is written like a ServerModelPacket is.
+ *
+ * The client is a spectator of a server that does not exist : it only opens its socket, and nothing is received or
+ * sent through it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int objectCount;
+
+    private Spectator client;
+    private ByteBuffer packet;
+
+    @Setup(Level.Trial)
+    public void createPacket() throws IOException {
+        MultiplayerGame game = BenchmarkWorlds.multiplayerGame(this.objectCount);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeInt(PacketType.GAME_MODEL.getId());
+        out.writeObject(game.getAsteroids());
+        out.writeObject(game.getBullets());
+        out.writeObject(game.getShips());
+        out.flush();
+        this.packet = ByteBuffer.wrap(bytes.toByteArray());
+
+        this.client = new Spectator(new Address(InetAddress.getLoopbackAddress(), 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void closeClient() {
+        if (this.client.transport != null) this.client.transport.close();
+    }
+
+    /**
+     * reads the packet, and sets the game model it holds in the client's game
+     *
+     * @return the client's game
+     */
+    @Benchmark
+    public MultiplayerGame setGameModel() throws IOException, ClassNotFoundException {
+        this.packet.rewind();
+        this.client.processGameData(this.packet);
+        return this.client.game;
+    }
+}
@@ -0,0 +1,132 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.benchmark.BenchmarkWorlds;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.GameObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing the game model the server sends its clients, in both formats : a GAME_MODEL packet, which is the
+ * game's lists written by an ObjectOutputStream, and a SNAPSHOT, in full and as the difference with the snapshot of
+ * the tick before. Reading a snapshot back is measured here as well; reading a GAME_MODEL packet is measured on the
+ * client, see ClientBenchmark.
+ *
+ * Nothing is sent : the packets are only written into their buffers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameModelBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int objectCount;
+
+    private ServerModelPacket serverModelPacket;
+
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private final WorldSnapshot baseline = new WorldSnapshot();
+    private final WorldSnapshot snapshot = new WorldSnapshot();
+    private ByteBuffer buffer;
+
+    /** a keyframe, and the history it is read into. every read gets a newer tick, or it would be dropped as late **/
+    private ByteBuffer keyframe;
+    private final SnapshotHistory history = new SnapshotHistory();
+    private int keyframeTick = 0;
+
+    @Setup(Level.Trial)
+    public void createGame() {
+        MultiplayerGame game = BenchmarkWorlds.multiplayerGame(this.objectCount);
+        this.serverModelPacket = new ServerModelPacket(null, PacketType.GAME_MODEL, game);
+        this.serverModelPacket.byteOut = new GamePacket.PacketOutputStream();
+
+        // The snapshot of the tick before, then the one after every object moved one step.
+        this.baseline.capture(game, 0);
+        nextStep(game.getAsteroids(), game);
+        nextStep(game.getBullets(), game);
+        nextStep(game.getShips(), game);
+        this.snapshot.capture(game, 1);
+
+        this.buffer = ByteBuffer.allocate(64 + 64 * this.objectCount);
+        this.codec.encode(this.snapshot, null, this.buffer);
+        this.buffer.flip();
+        this.keyframe = ByteBuffer.allocate(this.buffer.remaining());
+        this.keyframe.put(this.buffer);
+        this.keyframe.flip();
+    }
+
+    private static void nextStep(List<? extends GameObject> objects, MultiplayerGame game) {
+        for (GameObject object : objects) {
+            object.nextStep(game.getWorldWidth(), game.getWorldHeight());
+        }
+    }
+
+    /**
+     * writes a GAME_MODEL packet, like GamePacket.sendPacket() does before sending it
+     *
+     * @return number of bytes written
+     */
+    @Benchmark
+    public int serverModelPacketEncode() throws IOException {
+        ServerModelPacket packet = this.serverModelPacket;
+        packet.byteOut.reset();
+        packet.out = new ObjectOutputStream(packet.byteOut);
+        packet.writePacket();
+        packet.out.flush();
+        return packet.byteOut.size();
+    }
+
+    /**
+     * writes a snapshot in full, as sent to a client that acknowledged none yet
+     *
+     * @return number of bytes written
+     */
+    @Benchmark
+    public int snapshotEncodeKeyframe() {
+        this.buffer.clear();
+        this.codec.encode(this.snapshot, null, this.buffer);
+        return this.buffer.position();
+    }
+
+    /**
+     * writes a snapshot as the difference with the snapshot of the tick before
+     *
+     * @return number of bytes written
+     */
+    @Benchmark
+    public int snapshotEncodeDelta() {
+        this.buffer.clear();
+        this.codec.encode(this.snapshot, this.baseline, this.buffer);
+        return this.buffer.position();
+    }
+
+    /**
+     * reads a snapshot written in full into the history, like a client does
+     *
+     * @return the snapshot read
+     */
+    @Benchmark
+    public WorldSnapshot snapshotDecodeKeyframe() {
+        this.keyframe.putInt(0, ++this.keyframeTick);
+        this.keyframe.rewind();
+        return this.codec.decode(this.keyframe, this.history);
+    }
+}
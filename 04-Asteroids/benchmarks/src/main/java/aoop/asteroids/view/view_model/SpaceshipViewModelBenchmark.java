@@ -0,0 +1,70 @@
+package aoop.asteroids.view.view_model;
+
+import aoop.asteroids.control.game_updater.GameUpdater;
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game_object.Spaceship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks drawing a spaceship into an offscreen image the size of the game's window, the way a game panel draws
+ * every ship of every frame : through a new SpaceshipViewModel, between two game ticks, with or without its exhaust
+ * flame, and with or without the antialiasing the panels turn on.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SpaceshipViewModelBenchmark {
+    @Param({"false", "true"})
+    public boolean accelerating;
+
+    @Param({"false", "true"})
+    public boolean antialiasing;
+
+    private BufferedImage image;
+    private Graphics2D graphics2D;
+    private Spaceship ship;
+
+    @Setup(Level.Trial)
+    public void createImage() {
+        this.image = new BufferedImage(Game.DEFAULT_WORLD_WIDTH, Game.DEFAULT_WORLD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        this.graphics2D = this.image.createGraphics();
+        if (this.antialiasing) {
+            this.graphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        this.ship = new Spaceship("player", Color.WHITE);
+        this.ship.setDirection(0.3);
+        this.ship.setAccelerateKeyPressed(this.accelerating);
+    }
+
+    @TearDown(Level.Trial)
+    public void disposeGraphics() {
+        this.graphics2D.dispose();
+    }
+
+    /**
+     * draws the ship halfway between two game ticks
+     */
+    @Benchmark
+    public void drawSpaceship() {
+        new SpaceshipViewModel(this.ship).drawObject(this.graphics2D, (long) (GameUpdater.MILLISECONDS_PER_TICK / 2));
+    }
+}
@@ -1,5 +1,6 @@
 package aoop.asteroids;
 
+import aoop.asteroids.database.Database;
 import aoop.asteroids.view.MenuFrame;
 
 /**
@@ -12,5 +13,6 @@ public class Asteroids {
         }
 
         new MenuFrame();
+        Database.loadLeaderboard();
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package aoop.asteroids;
+
+import aoop.asteroids.control.game_updater.MultiplayerGameUpdater;
+import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.ClientConnection;
+import aoop.asteroids.model.entity.DatagramTransport;
+import aoop.asteroids.model.entity.RoomManager;
+import aoop.asteroids.model.game.Game;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Main class of a dedicated Asteroids server, which runs without Swing, so it can run on a machine without a display.
+ * It hosts any number of independent games, or rooms, on port 55555, see RoomManager. The server has no player of its
+ * own: every room accepts players until enough of them joined, or until they waited long enough, and then starts its
+ * game. When fewer than two players are left, the room closes. With a view radius, players are only sent the objects
+ * around their own ship, see InterestArea. The world can be made larger than the window of a player, whose view then
+ * follows its ship, so that a room has space for many players. To save bandwidth, the game model can be sent after
+ * every so many game ticks only, and the number of game models a player is sent per second can be capped.
+ *
+ * usage : DedicatedServer [--min-players N] [--start-timeout SECONDS] [--threads N] [--max-rooms N]
+ *                        [--view-radius PIXELS] [--world-size WIDTHxHEIGHT] [--ticks-per-snapshot N]
+ *                        [--max-snapshot-rate PER_SECOND]
+ */
+public class DedicatedServer {
+    /** port the server listens on, which is where clients look for it **/
+    private static final int PORT = 55555;
+
+    /** number of players at which a game starts right away **/
+    private static final int DEFAULT_MIN_PLAYERS = 4;
+
+    /** seconds after the first player joined at which a game starts with fewer players, as long as there are two **/
+    private static final int DEFAULT_START_TIMEOUT_SECONDS = 30;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int minPlayers = DEFAULT_MIN_PLAYERS;
+        int startTimeout = DEFAULT_START_TIMEOUT_SECONDS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxRooms = RoomManager.DEFAULT_MAX_ROOMS;
+        double viewRadius = 0;
+        int worldWidth = Game.DEFAULT_WORLD_WIDTH;
+        int worldHeight = Game.DEFAULT_WORLD_HEIGHT;
+        int ticksPerSnapshot = MultiplayerGameUpdater.TICKS_PER_SNAPSHOT;
+        int maxSnapshotRate = ClientConnection.MAX_SNAPSHOTS_PER_SECOND;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--min-players":
+                        minPlayers = Integer.parseInt(args[++i]);
+                        break;
+                    case "--start-timeout":
+                        startTimeout = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-rooms":
+                        maxRooms = Integer.parseInt(args[++i]);
+                        break;
+                    case "--view-radius":
+                        viewRadius = Double.parseDouble(args[++i]);
+                        break;
+                    case "--world-size":
+                        String[] size = args[++i].split("x");
+                        worldWidth = Integer.parseInt(size[0]);
+                        worldHeight = Integer.parseInt(size[1]);
+                        if (worldWidth <= 0 || worldHeight <= 0) throw new IllegalArgumentException(args[i]);
+                        break;
+                    case "--ticks-per-snapshot":
+                        ticksPerSnapshot = Integer.parseInt(args[++i]);
+                        if (ticksPerSnapshot <= 0) throw new IllegalArgumentException(args[i]);
+                        break;
+                    case "--max-snapshot-rate":
+                        maxSnapshotRate = Integer.parseInt(args[++i]);
+                        if (maxSnapshotRate < 0) throw new IllegalArgumentException(args[i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("usage : DedicatedServer [--min-players N] [--start-timeout SECONDS] [--threads N] "
+                    + "[--max-rooms N] [--view-radius PIXELS] [--world-size WIDTHxHEIGHT] [--ticks-per-snapshot N] "
+                    + "[--max-snapshot-rate PER_SECOND]");
+            return;
+        }
+
+        DatagramTransport transport;
+        try {
+            transport = DatagramTransport.open(new InetSocketAddress(Address.getValidIP(), PORT));
+        } catch (IOException e) {
+            System.out.println("could not open the server socket");
+            return;
+        }
+        RoomManager roomManager = new RoomManager(transport, threads, maxRooms, minPlayers, startTimeout);
+        roomManager.setInterestRadius(viewRadius);
+        roomManager.setWorldSize(worldWidth, worldHeight);
+        roomManager.setTicksPerSnapshot(ticksPerSnapshot);
+        roomManager.setMaxSnapshotRate(maxSnapshotRate);
+        Runtime.getRuntime().addShutdownHook(new Thread(roomManager::close));
+        System.out.println("dedicated server listening on "
+                + transport.getLocalAddress().getAddress().getHostAddress() + ":" + transport.getLocalPort());
+        roomManager.run();
+    }
+}
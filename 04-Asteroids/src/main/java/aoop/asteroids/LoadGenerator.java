@@ -0,0 +1,201 @@
+package aoop.asteroids;
+
+import aoop.asteroids.control.game_updater.MultiplayerGameUpdater;
+import aoop.asteroids.control.game_updater.TickStatistics;
+import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.BotJoiner;
+import aoop.asteroids.model.entity.ClientConnection;
+import aoop.asteroids.model.entity.DatagramTransport;
+import aoop.asteroids.model.entity.RoomManager;
+import aoop.asteroids.model.entity.Server;
+import aoop.asteroids.model.game.Game;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Main class of a load test, which runs a dedicated server and a number of BotJoiners in one process, without Swing.
+ * The server listens on the loopback address, on a free port, and hosts a single room that starts once every bot
+ * joined. After a short warm up, the game is measured for a number of seconds, after which the generator reports, for
+ * every bot, the snapshots it received per second, the end-to-end latency of its input and the share of the snapshots
+ * sent to it that it could not use, and for the server, how long its ticks and its broadcasts took and how late they
+ * ran, see TickStatistics.
+ *
+ * A room closes when fewer than two players are left, so at least two bots are needed.
+ *
+ * usage : LoadGenerator [--players N] [--duration SECONDS] [--threads N] [--view-radius PIXELS]
+ *                      [--world-size WIDTHxHEIGHT] [--ticks-per-snapshot N] [--max-snapshot-rate PER_SECOND]
+ */
+public class LoadGenerator {
+    private static final int DEFAULT_PLAYERS = 8;
+    private static final int DEFAULT_DURATION_SECONDS = 10;
+
+    /** seconds the game runs before it is measured, so that every bot is past its first keyframe **/
+    private static final int WARM_UP_SECONDS = 2;
+
+    /** seconds to wait for every bot to join and the game to start **/
+    private static final int START_TIMEOUT_SECONDS = 10;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int players = DEFAULT_PLAYERS;
+        int duration = DEFAULT_DURATION_SECONDS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double viewRadius = 0;
+        int worldWidth = Game.DEFAULT_WORLD_WIDTH;
+        int worldHeight = Game.DEFAULT_WORLD_HEIGHT;
+        int ticksPerSnapshot = MultiplayerGameUpdater.TICKS_PER_SNAPSHOT;
+        int maxSnapshotRate = ClientConnection.MAX_SNAPSHOTS_PER_SECOND;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--players":
+                        players = Integer.parseInt(args[++i]);
+                        if (players < 2) throw new IllegalArgumentException(args[i]);
+                        break;
+                    case "--duration":
+                        duration = Integer.parseInt(args[++i]);
+                        if (duration <= 0) throw new IllegalArgumentException(args[i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--view-radius":
+                        viewRadius = Double.parseDouble(args[++i]);
+                        break;
+                    case "--world-size":
+                        String[] size = args[++i].split("x");
+                        worldWidth = Integer.parseInt(size[0]);
+                        worldHeight = Integer.parseInt(size[1]);
+                        if (worldWidth <= 0 || worldHeight <= 0) throw new IllegalArgumentException(args[i]);
+                        break;
+                    case "--ticks-per-snapshot":
+                        ticksPerSnapshot = Integer.parseInt(args[++i]);
+                        if (ticksPerSnapshot <= 0) throw new IllegalArgumentException(args[i]);
+                        break;
+                    case "--max-snapshot-rate":
+                        maxSnapshotRate = Integer.parseInt(args[++i]);
+                        if (maxSnapshotRate < 0) throw new IllegalArgumentException(args[i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("usage : LoadGenerator [--players N] [--duration SECONDS] [--threads N] "
+                    + "[--view-radius PIXELS] [--world-size WIDTHxHEIGHT] [--ticks-per-snapshot N] "
+                    + "[--max-snapshot-rate PER_SECOND]");
+            return;
+        }
+
+        DatagramTransport transport;
+        try {
+            transport = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        } catch (IOException e) {
+            System.out.println("could not open the server socket");
+            return;
+        }
+        RoomManager roomManager = new RoomManager(transport, threads, 1, players, START_TIMEOUT_SECONDS);
+        roomManager.setInterestRadius(viewRadius);
+        roomManager.setWorldSize(worldWidth, worldHeight);
+        roomManager.setTicksPerSnapshot(ticksPerSnapshot);
+        roomManager.setMaxSnapshotRate(maxSnapshotRate);
+        new Thread(roomManager).start();
+
+        Address serverAddress = new Address(InetAddress.getLoopbackAddress(), transport.getLocalPort());
+        BotJoiner[] bots = new BotJoiner[players];
+        for (int i = 0; i < players; i++) {
+            bots[i] = new BotJoiner(i, serverAddress);
+            bots[i].safeRun();
+        }
+
+        try {
+            run(roomManager, bots, duration);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            for (BotJoiner bot : bots) {
+                bot.getGame().abort();
+            }
+            roomManager.close();
+        }
+    }
+
+    /**
+     * waits for the game to start, measures it and prints the report
+     *
+     * @param roomManager the server
+     * @param bots the players
+     * @param duration seconds to measure
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private static void run(RoomManager roomManager, BotJoiner[] bots, int duration) throws InterruptedException {
+        Server room = null;
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_SECONDS * 2000L;
+        while (room == null || room.getGame().getTickStatistics() == null) {
+            if (System.currentTimeMillis() > deadline) {
+                System.out.println("the game did not start, are the bots able to reach the server?");
+                return;
+            }
+            Thread.sleep(100);
+            room = roomManager.getRoom(RoomManager.DEFAULT_ROOM);
+        }
+        Thread.sleep(WARM_UP_SECONDS * 1000L);
+
+        TickStatistics tickStatistics = room.getGame().getTickStatistics();
+        ClientConnection[] connections = new ClientConnection[bots.length];
+        long[] sentBefore = new long[bots.length];
+        long[] droppedBefore = new long[bots.length];
+        for (int i = 0; i < bots.length; i++) {
+            connections[i] = findConnection(room, bots[i]);
+            if (connections[i] != null) sentBefore[i] = connections[i].getSentSnapshotCount();
+            droppedBefore[i] = bots[i].getDroppedSnapshotCount();
+            bots[i].resetStatistics();
+        }
+        tickStatistics.reset();
+        long start = System.nanoTime();
+
+        Thread.sleep(duration * 1000L);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long totalSent = 0;
+        long totalUsed = 0;
+        System.out.println(String.format("%-8s %12s %12s %12s %8s", "client", "snapshots/s", "latency avg", "latency max", "loss"));
+        for (int i = 0; i < bots.length; i++) {
+            BotJoiner bot = bots[i];
+            long used = bot.getSnapshotCount() + bot.getDroppedSnapshotCount() - droppedBefore[i];
+            long sent = connections[i] == null ? 0 : connections[i].getSentSnapshotCount() - sentBefore[i];
+            totalSent += sent;
+            totalUsed += used;
+            System.out.println(String.format("%-8s %12.1f %9.2f ms %9.2f ms %7.1f%%",
+                    bot.getNickname(),
+                    bot.getSnapshotCount() / seconds,
+                    bot.getAverageLatencyMillis(),
+                    bot.getMaxLatencyMillis(),
+                    loss(sent, used)
+            ));
+        }
+        System.out.println(String.format("%d clients, %d snapshots sent, %.1f%% lost", bots.length, totalSent, loss(totalSent, totalUsed)));
+        System.out.println("server: " + tickStatistics);
+    }
+
+    /**
+     * @return connection of the server to the bot, told apart by the port the bot sends from, or null if it left
+     */
+    private static ClientConnection findConnection(Server room, BotJoiner bot) {
+        int port = bot.getTransport().getLocalPort();
+        for (ClientConnection connection : room.getClients()) {
+            if (connection.getAddress().getPort() == port) return connection;
+        }
+        return null;
+    }
+
+    /**
+     * @return percentage of the sent snapshots that did not arrive, snapshots still on their way counting as lost
+     */
+    private static double loss(long sent, long arrived) {
+        return sent == 0 ? 0 : Math.max(0, 100.0 * (sent - arrived) / sent);
+    }
+}
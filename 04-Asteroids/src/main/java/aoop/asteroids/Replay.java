@@ -0,0 +1,46 @@
+package aoop.asteroids;
+
+import aoop.asteroids.control.game_updater.ReplayPlayer;
+import aoop.asteroids.control.game_updater.ReplayRecorder;
+import aoop.asteroids.view.ReplayFrame;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Main class that plays a replay recorded by a ReplayRecorder. Games are recorded when the game or the dedicated server
+ * is started with -Dasteroids.replays=DIRECTORY. By default the replay is shown in a window at the speed of the game;
+ * headless, it runs as fast as the game ticks allow, and prints how long they took, so that a heavy match can be
+ * profiled offline.
+ *
+ * usage : Replay FILE [--headless]
+ */
+public class Replay {
+    public static void main(String[] args) {
+        boolean headless = args.length == 2 && args[1].equals("--headless");
+        if (args.length != 1 && !headless) {
+            System.out.println("usage : Replay FILE [--headless]");
+            System.out.println("games are recorded into DIRECTORY when started with -D"
+                    + ReplayRecorder.DIRECTORY_PROPERTY + "=DIRECTORY");
+            return;
+        }
+        if (headless) {
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        try {
+            ReplayPlayer player = new ReplayPlayer(new File(args[0]));
+            if (!headless) {
+                new ReplayFrame(player);
+            }
+            long start = System.nanoTime();
+            player.play(!headless);
+            long elapsed = System.nanoTime() - start;
+            System.out.println("played in " + elapsed / 1_000_000 + " ms, " + player.getTickStatistics());
+            System.out.println("keyframes: " + player.getKeyframeCount()
+                    + ", not matched by the replayed game: " + player.getDivergentKeyframeCount());
+        } catch (IOException e) {
+            System.out.println("could not play " + args[0] + " : " + e.getMessage());
+        }
+    }
+}
@@ -35,6 +35,12 @@ public class PlayerKeyListener extends Observable implements KeyListener {
 	 */
 	private Spaceship ship;
 
+	/**
+	 * Which of the keys are held down. The ship's own fields may be overwritten by a game model received from a server,
+	 * so the keys are also remembered here.
+	 */
+	private volatile boolean accelerating, turningLeft, turningRight, firing;
+
 	/**
 	 * Constructs a new player Key listener to control the given ship.
 	 * @param ship The ship that this Key listener will control.
@@ -56,18 +62,22 @@ public class PlayerKeyListener extends Observable implements KeyListener {
 	public void keyPressed(KeyEvent event) {
 		switch (event.getKeyCode()) {
 			case ACCELERATION_KEY:
+				this.accelerating = true;
 				this.ship.setAccelerateKeyPressed(true);
 				updateObservers();
 				break;
 			case LEFT_KEY:
+				this.turningLeft = true;
 				this.ship.setTurnLeftKeyPressed(true);
 				updateObservers();
 				break;
 			case RIGHT_KEY:
+				this.turningRight = true;
 				this.ship.setTurnRightKeyPressed(true);
 				updateObservers();
 				break;
 			case FIRE_WEAPON_KEY:
+				this.firing = true;
 				this.ship.setIsFiring(true);
 				updateObservers();
 		}
@@ -82,18 +92,22 @@ public class PlayerKeyListener extends Observable implements KeyListener {
 	public void keyReleased(KeyEvent event) {
 		switch (event.getKeyCode()) {
 			case ACCELERATION_KEY:
+				this.accelerating = false;
 				this.ship.setAccelerateKeyPressed(false);
 				updateObservers();
 				break;
 			case LEFT_KEY:
+				this.turningLeft = false;
 				this.ship.setTurnLeftKeyPressed(false);
 				updateObservers();
 				break;
 			case RIGHT_KEY:
+				this.turningRight = false;
 				this.ship.setTurnRightKeyPressed(false);
 				updateObservers();
 				break;
 			case FIRE_WEAPON_KEY:
+				this.firing = false;
 				this.ship.setIsFiring(false);
 				updateObservers();
 		}
@@ -108,6 +122,34 @@ public class PlayerKeyListener extends Observable implements KeyListener {
 	@Override
 	public void keyTyped(KeyEvent event) {}
 
+	/**
+	 * @return true if the key that accelerates is held down.
+	 */
+	public boolean isAccelerating() {
+		return this.accelerating;
+	}
+
+	/**
+	 * @return true if the key that turns left is held down.
+	 */
+	public boolean isTurningLeft() {
+		return this.turningLeft;
+	}
+
+	/**
+	 * @return true if the key that turns right is held down.
+	 */
+	public boolean isTurningRight() {
+		return this.turningRight;
+	}
+
+	/**
+	 * @return true if the key that fires the weapon is held down.
+	 */
+	public boolean isFiring() {
+		return this.firing;
+	}
+
 	private void updateObservers() {
 		setChanged();
 		notifyObservers();
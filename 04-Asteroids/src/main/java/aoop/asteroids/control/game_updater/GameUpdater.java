@@ -2,10 +2,15 @@ package aoop.asteroids.control.game_updater;
 
 import aoop.asteroids.model.game.Game;
 import aoop.asteroids.model.game_object.*;
+import aoop.asteroids.packet.WorldSnapshot;
+import aoop.asteroids.util.ObjectPool;
+import aoop.asteroids.util.TripleBuffer;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A runnable object which, when started in a thread, runs the main game loop and periodically updates the game's model
@@ -17,7 +22,7 @@ public abstract class GameUpdater implements Runnable {
      * The refresh rate of the display, in frames per second. Increasing this number makes the game look smoother, up to
      * a certain point where it's no longer noticeable.
      */
-    static final int DISPLAY_FPS = 120;
+    public static final int DISPLAY_FPS = 120;
 
     /**
      * The rate at which the game ticks (how often physics updates are applied), in frames per second. Increasing this
@@ -30,22 +35,63 @@ public abstract class GameUpdater implements Runnable {
      */
     public static final double MILLISECONDS_PER_TICK = 1000.0 / PHYSICS_FPS;
 
-    final static double millisecondsPerDisplayFrame = 1000.0 / DISPLAY_FPS;
+    /**
+     * The number of nanoseconds in a game tick, and in a display frame.
+     */
+    public static final long NANOSECONDS_PER_TICK = 1_000_000_000L / PHYSICS_FPS;
+    static final long NANOSECONDS_PER_DISPLAY_FRAME = 1_000_000_000L / DISPLAY_FPS;
+
+    /**
+     * The largest number of game ticks that are run back to back to catch up after the updater stalled (for instance
+     * during a garbage collection). Any ticks beyond this are dropped, so that the game slows down for a moment instead
+     * of freezing while it runs a long backlog of ticks.
+     */
+    static final int MAX_CATCH_UP_TICKS = 5;
+
+    /**
+     * time at the start of the current pass of the main loop, in System.nanoTime()
+     */
+    long currentTime;
 
     /**
-     * previous time at start of it main loop
+     * time at which the next game tick and the next display frame are due, in System.nanoTime()
      */
-    long previousTime;
+    long nextTickTime;
+    long nextDisplayFrameTime;
 
     /**
-     * time passed since last game tick
+     * time passed since the last game tick was due, in milliseconds. listeners use this to draw objects in between
+     * two game ticks
      */
     long timeSinceLastTick;
 
     /**
-     * time passed since last display update on screen
+     * Whether the game is drawn on screen. Without a display, the updater only wakes up for the game ticks.
+     */
+    boolean displayEnabled = true;
+
+    /**
+     * How late the game ticks ran.
+     */
+    final TickStatistics tickStatistics = new TickStatistics();
+
+    /**
+     * Broadphases of collision detection: the asteroids and bullets sorted by where they are, rebuilt every game tick.
+     */
+    final SpatialGrid asteroidGrid = new SpatialGrid();
+    final SpatialGrid bulletGrid = new SpatialGrid();
+
+    /**
+     * Bullets and asteroids that were removed from the game, to be reused for new ones. Together with reusing the lists
+     * of the game, this keeps the game ticks from creating any garbage once the pools are filled.
+     */
+    final ObjectPool<Bullet> bulletPool = new ObjectPool<>(() -> new Bullet(0, 0, 0, 0));
+    final ObjectPool<Asteroid> asteroidPool = new ObjectPool<>(() -> new Asteroid(new Point.Double(), new Point.Double(), AsteroidSize.SMALL));
+
+    /**
+     * Location of the asteroid that is being spawned, reused for every new asteroid, see findNewAsteroidLocation().
      */
-    long timeSinceLastDisplayFrame;
+    final Point.Double newAsteroidLocation = new Point.Double();
 
     /**
      * The default maximum number of asteroids that may be present in the game when starting.
@@ -74,6 +120,11 @@ public abstract class GameUpdater implements Runnable {
      */
     int asteroidsLimit;
 
+    /**
+     * Records the inputs of every game tick to a replay file, or null when the game is not recorded.
+     */
+    private volatile ReplayRecorder recorder;
+
     /**
      * constructor for GameUpdater
      * @param game The game that this updater will update when it's running.
@@ -84,31 +135,135 @@ public abstract class GameUpdater implements Runnable {
         this.asteroidsLimit = ASTEROIDS_LIMIT_DEFAULT;
     }
 
+    /**
+     * starts the clock of the main loop: the first game tick is due one tick from now, the first display frame now
+     */
+    void startClock() {
+        this.currentTime = System.nanoTime();
+        this.nextTickTime = this.currentTime + NANOSECONDS_PER_TICK;
+        this.nextDisplayFrameTime = this.currentTime;
+        this.timeSinceLastTick = 0L;
+    }
+
     /**
      * updates data regarding time
-     * timeSinceLastTick, timeSinceLastDisplayFrame, previousTime are updated
-     * to be used in checking for need to update physics or update display on screen
+     * currentTime is updated to be used in checking for need to update physics or update display on screen
      */
     void updateTimeData() {
-        long currentTime = System.currentTimeMillis();
-        long elapsedTime = currentTime - previousTime;
-        timeSinceLastTick += elapsedTime;
-        timeSinceLastDisplayFrame += elapsedTime;
-        previousTime = currentTime;
+        this.currentTime = System.nanoTime();
     }
 
     /**
-     * if enough time has passed, it updates physics.
+     * runs every game tick that is due. ticks run on a fixed schedule, so when the updater was held up, the ticks it
+     * missed are run back to back (up to MAX_CATCH_UP_TICKS, the rest are dropped).
+     * only this thread touches the game's objects. with a display, the state after each tick is published for the game
+     * panel, which draws that instead, so the ticks never wait for a repaint.
      */
     void updatePhysicsData() {
-        if (timeSinceLastTick >= MILLISECONDS_PER_TICK) { // Check if enough time has passed to update the physics.
-            synchronized (this.game) {
-                this.updatePhysics(); // Perform one 'step' in the game.
+        int ticks = 0;
+        while (this.currentTime - this.nextTickTime >= 0) {
+            if (ticks == MAX_CATCH_UP_TICKS) {
+                long skipped = (this.currentTime - this.nextTickTime) / NANOSECONDS_PER_TICK + 1;
+                this.tickStatistics.recordSkippedTicks(skipped);
+                this.nextTickTime += skipped * NANOSECONDS_PER_TICK;
+                break;
             }
-            timeSinceLastTick = 0L;
+            long start = System.nanoTime();
+            this.updatePhysics(); // Perform one 'step' in the game.
+            if (this.displayEnabled) {
+                this.publishTick();
+            }
+            this.tickStatistics.recordTick(start - this.nextTickTime, System.nanoTime() - start);
+            this.nextTickTime += NANOSECONDS_PER_TICK;
+            ticks++;
+            long broadcastStart = System.nanoTime();
+            this.onPhysicsUpdated();
+            this.tickStatistics.recordBroadcast(System.nanoTime() - broadcastStart);
+        }
+        this.timeSinceLastTick = Math.max(0L, (this.currentTime - (this.nextTickTime - NANOSECONDS_PER_TICK)) / 1_000_000L);
+    }
+
+    /**
+     * publishes the state of the game after the tick that just ran, see Game.getPublishedTicks()
+     */
+    void publishTick() {
+        TripleBuffer<WorldSnapshot> publishedTicks = this.game.getPublishedTicks();
+        this.captureTick(publishedTicks.getBackBuffer());
+        publishedTicks.publish();
+    }
+
+    /**
+     * starts recording the game ticks to a replay, see ReplayRecorder. the recorder is closed when the game loop ends
+     *
+     * @param recorder recorder to write the ticks to
+     */
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * hands the inputs for the game tick that is about to run to the recorder, if the game is recorded. the updaters
+     * call this at the start of every tick, once the inputs of the ships are applied
+     *
+     * @param ships ships of the game
+     */
+    void recordTick(List<Spaceship> ships) {
+        ReplayRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.recordTick(this, ships);
+        }
+    }
+
+    /**
+     * closes the recorder, if the game is recorded. called when the game loop ends
+     */
+    void stopRecording() {
+        ReplayRecorder recorder = this.recorder;
+        if (recorder != null) {
+            this.recorder = null;
+            recorder.close();
         }
     }
 
+    /**
+     * called after every game tick. does nothing by default
+     */
+    void onPhysicsUpdated() {
+    }
+
+    /**
+     * checks whether a display frame is due, and if so, schedules the next one. frames that were missed are not made up
+     * for, as only the most recent one is worth drawing.
+     *
+     * @return true if the display should be refreshed now
+     */
+    boolean isDisplayFrameDue() {
+        if (this.currentTime - this.nextDisplayFrameTime < 0) return false;
+        this.nextDisplayFrameTime += NANOSECONDS_PER_DISPLAY_FRAME;
+        if (this.currentTime - this.nextDisplayFrameTime >= 0) {
+            this.nextDisplayFrameTime = this.currentTime + NANOSECONDS_PER_DISPLAY_FRAME;
+        }
+        return true;
+    }
+
+    /**
+     * parks the updater thread until the next game tick or display frame is due, instead of spinning until then
+     */
+    void waitForNextDeadline() {
+        long deadline = !this.displayEnabled || this.nextTickTime - this.nextDisplayFrameTime < 0 ? this.nextTickTime : this.nextDisplayFrameTime;
+        long delay = deadline - System.nanoTime();
+        if (delay > 0) {
+            LockSupport.parkNanos(delay);
+        }
+    }
+
+    /**
+     * @return statistics on how late the game ticks ran compared to when they were due
+     */
+    public TickStatistics getTickStatistics() {
+        return this.tickStatistics;
+    }
+
     /**
      * restarts the game when the game is over
      */
@@ -128,14 +283,15 @@ public abstract class GameUpdater implements Runnable {
         ArrayList<Bullet> bullets = this.game.getBullets();
         if (ship.canFireWeapon() && !ship.isDestroyed()) {
             double direction = ship.getDirection();
-            bullets.add(
-                    new Bullet(
-                            ship.getLocation().getX(),
-                            ship.getLocation().getY(),
-                            ship.getVelocity().x + Math.sin(direction) * 15,
-                            ship.getVelocity().y - Math.cos (direction) * 15
-                    )
+            Bullet bullet = this.bulletPool.acquire();
+            bullet.reinitialize(
+                    ship.getLocation().getX(),
+                    ship.getLocation().getY(),
+                    ship.getVelocity().x + Math.sin(direction) * 15,
+                    ship.getVelocity().y - Math.cos (direction) * 15
             );
+            bullet.setShooter(ship.getIdColor().getRGB());
+            bullets.add(bullet);
             ship.setFired();
         }
     }
@@ -144,10 +300,11 @@ public abstract class GameUpdater implements Runnable {
      * Adds a random asteroid at least 50 pixels away from the any player's spaceship.
      */
     void addRandomAsteroid() {
-        ThreadLocalRandom rng = ThreadLocalRandom.current();
-        Point.Double newAsteroidLocation = findNewAsteroidLocation(rng);
+        Random rng = this.game.getRandom();
+        findNewAsteroidLocation(rng, this.newAsteroidLocation);
         double randomChance = rng.nextDouble();
-        Point.Double randomVelocity = new Point.Double(rng.nextDouble() * 6 - 3, rng.nextDouble() * 6 - 3);
+        double velocityX = rng.nextDouble() * 6 - 3;
+        double velocityY = rng.nextDouble() * 6 - 3;
         AsteroidSize randomSize;
         if (randomChance < 0.333) { // 33% chance of spawning a large asteroid.
             randomSize = AsteroidSize.LARGE;
@@ -156,7 +313,84 @@ public abstract class GameUpdater implements Runnable {
         } else { // And finally a 33% chance of spawning a small asteroid.
             randomSize = AsteroidSize.SMALL;
         }
-        this.game.getAsteroids().add(new Asteroid(newAsteroidLocation, randomVelocity, randomSize));
+        Asteroid asteroid = this.asteroidPool.acquire();
+        asteroid.reinitialize(this.newAsteroidLocation.x, this.newAsteroidLocation.y, velocityX, velocityY, randomSize);
+        this.game.getAsteroids().add(asteroid);
+    }
+
+    /**
+     * removes the destroyed objects from a list and returns them to their pool. unlike ArrayList.removeIf(), this does
+     * not allocate anything, and the remaining objects keep their order.
+     *
+     * @param objects list to remove the destroyed objects from
+     * @param pool pool to recycle the destroyed objects in
+     * @param <T> type of the objects
+     */
+    static <T extends GameObject> void recycleDestroyed(ArrayList<T> objects, ObjectPool<T> pool) {
+        int size = objects.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            T object = objects.get(i);
+            if (object.isDestroyed()) {
+                pool.release(object);
+            } else {
+                objects.set(kept++, object);
+            }
+        }
+        for (int i = size - 1; i >= kept; i--) {
+            objects.remove(i); // Removing from the end does not shift anything.
+        }
+    }
+
+    /**
+     * sorts the asteroids and bullets into their grids, for the collision checks of the current game tick
+     */
+    void buildCollisionGrids() {
+        this.asteroidGrid.build(this.game.getAsteroids(), this.game.getWorldWidth(), this.game.getWorldHeight());
+        this.bulletGrid.build(this.game.getBullets(), this.game.getWorldWidth(), this.game.getWorldHeight());
+    }
+
+    /**
+     * destroys every bullet and asteroid that collide with each other.
+     * only the asteroids near a bullet are checked, see buildCollisionGrids().
+     */
+    void checkBulletAsteroidCollisions() {
+        ArrayList<Bullet> bullets = this.game.getBullets();
+        ArrayList<Asteroid> asteroids = this.game.getAsteroids();
+        for (int i = 0; i < bullets.size(); i++) {
+            Bullet bullet = bullets.get(i);
+            int count = this.asteroidGrid.findCandidates(bullet);
+            int[] candidates = this.asteroidGrid.getCandidates();
+            for (int k = 0; k < count; k++) {
+                Asteroid asteroid = asteroids.get(candidates[k]);
+                if (asteroid.collides(bullet)) {
+                    asteroid.destroy();
+                    bullet.destroy();
+                }
+            }
+        }
+    }
+
+    /**
+     * destroys every pair of asteroids that collide with each other, used when KESSLER_SYNDROME is on.
+     * only the asteroids near each other are checked, see buildCollisionGrids().
+     */
+    void checkAsteroidAsteroidCollisions() {
+        ArrayList<Asteroid> asteroids = this.game.getAsteroids();
+        for (int i = 0; i < asteroids.size(); i++) {
+            Asteroid asteroid = asteroids.get(i);
+            int count = this.asteroidGrid.findCandidates(asteroid);
+            int[] candidates = this.asteroidGrid.getCandidates();
+            for (int k = 0; k < count; k++) {
+                int j = candidates[k];
+                if (j <= i) continue; // Every pair only once, and not the asteroid with itself.
+                Asteroid secondAsteroid = asteroids.get(j);
+                if (asteroid.collides(secondAsteroid)) {
+                    asteroid.destroy();
+                    secondAsteroid.destroy();
+                }
+            }
+        }
     }
 
     /**
@@ -176,10 +410,16 @@ public abstract class GameUpdater implements Runnable {
 
     /**
      * abstract method that finds an available location for asteroids
-     * @param rng ThreadLocalRandom to be used
-     * @return Location of a new asteroid
+     * @param rng random number generator of the game to be used
+     * @param location point that is set to the location of the new asteroid
+     */
+    abstract void findNewAsteroidLocation(Random rng, Point.Double location);
+
+    /**
+     * abstract method that takes a snapshot of the game after a game tick, to be drawn by the game panel
+     * @param snapshot snapshot to overwrite
      */
-    abstract Point.Double findNewAsteroidLocation(ThreadLocalRandom rng);
+    abstract void captureTick(WorldSnapshot snapshot);
 
     /**
      * abstract method that displays a its updated game model on screen
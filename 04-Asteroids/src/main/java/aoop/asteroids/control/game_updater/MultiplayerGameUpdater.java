@@ -1,13 +1,18 @@
 package aoop.asteroids.control.game_updater;
 
+import aoop.asteroids.model.entity.ClientConnection;
 import aoop.asteroids.model.entity.Server;
 import aoop.asteroids.model.game.MultiplayerGame;
 import aoop.asteroids.model.game_object.*;
+import aoop.asteroids.packet.WorldSnapshot;
 import aoop.asteroids.util.Network;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * MultiplayerGameUpdater updates its associated MultiplayerGame
@@ -15,9 +20,21 @@ import java.util.concurrent.ThreadLocalRandom;
  * The thread can only be started by Server when the server user clicks the "Start Game" button.
  */
 public class MultiplayerGameUpdater extends GameUpdater {
+    /**
+     * The number of game ticks between two game models sent to the clients. At 1, a game model is sent after every
+     * tick; at 2, after every other tick, and so on. Sending more often than the game ticks would only repeat the same
+     * game model. This is the default, see Server.setTicksPerSnapshot().
+     */
+    public static final int TICKS_PER_SNAPSHOT = 1;
+
     private MultiplayerGame game;
     private Server server;
 
+    /**
+     * The passes of the game loop, when it runs on a shared thread pool, see schedule().
+     */
+    private volatile ScheduledFuture<?> scheduledPasses;
+
     /**
      * creates a new MultiplayerGame : used to create server-side game
      *      (since all the updates are done by server, only server needs an updater)
@@ -28,6 +45,19 @@ public class MultiplayerGameUpdater extends GameUpdater {
         super(game);
         this.game = game;
         this.server = server;
+        this.displayEnabled = !server.isDedicated();
+    }
+
+    /**
+     * creates a new MultiplayerGameUpdater without a server, which only runs game ticks when updatePhysics() is
+     * called, such as to play a replay. the ships are steered by whoever sets their buttons. run() and schedule() need
+     * a server
+     * @param game The game that this updater will update.
+     */
+    public MultiplayerGameUpdater(MultiplayerGame game) {
+        super(game);
+        this.game = game;
+        this.server = null;
     }
 
     /**
@@ -37,26 +67,65 @@ public class MultiplayerGameUpdater extends GameUpdater {
      */
     @Override
     public void run() {
-        this.previousTime = System.currentTimeMillis();
-        this.timeSinceLastTick = 0L;
-        this.timeSinceLastDisplayFrame = 0L;
+        this.startClock();
         Network.sendGameModel(server);
         while (!game.isAborted() && game.isRunning()) {
             if (!game.isGameOver()) {
-                updateTimeData();
-                updatePhysicsData();
-                updateDisplayOnScreen();
+                runPass();
+                waitForNextDeadline();
             } else {
                 restartGame();
             }
         }
+        this.stopRecording();
         this.server.notifyServerClosed();
     }
 
+    /**
+     * Runs the game loop on a shared thread pool instead of in a thread of its own: one pass of the loop is scheduled
+     * every game tick, and a pass never waits. The ticks themselves still follow the updater's own clock, so a pass
+     * that runs late catches up like the main loop does. This runs until the quit() method is called on the game.
+     *
+     * @param executor thread pool that runs the passes
+     */
+    public void schedule(ScheduledExecutorService executor) {
+        this.startClock();
+        Network.sendGameModel(server);
+        this.scheduledPasses = executor.scheduleAtFixedRate(this::runScheduledPass, NANOSECONDS_PER_TICK, NANOSECONDS_PER_TICK, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * one scheduled pass of the game loop, see schedule()
+     */
+    private void runScheduledPass() {
+        if (game.isAborted() || !game.isRunning()) {
+            this.scheduledPasses.cancel(false);
+            this.stopRecording();
+            this.server.notifyServerClosed();
+        } else if (!game.isGameOver()) {
+            runPass();
+        } else {
+            restartGame();
+        }
+    }
+
+    /**
+     * one pass of the main loop : runs the game ticks that are due, and refreshes the display if there is one
+     */
+    private void runPass() {
+        updateTimeData();
+        updatePhysicsData();
+        if (displayEnabled) {
+            updateDisplayOnScreen();
+        }
+    }
+
     /**
      * Called every game tick, to update all of the game's model objects.
      *
-     * First, each object's movement is updated by calling nextStep() on it.
+     * First, the players' ships are steered by the newest input received from their clients, which is recorded if the
+     * game is recorded.
+     * Then, each object's movement is updated by calling nextStep() on it.
      * Then, if the player is pressing the key to fire the ship's weapon, a new bullet should spawn.
      * Then, once all objects' positions are updated, we check for any collisions between them.
      * And finally, any objects which are destroyed by collisions are removed from the game.
@@ -69,11 +138,21 @@ public class MultiplayerGameUpdater extends GameUpdater {
         ArrayList<Bullet> bullets = this.game.getBullets();
         ArrayList<Asteroid> asteroids = this.game.getAsteroids();
 
-        asteroids.forEach(GameObject::nextStep);
-        bullets.forEach(GameObject::nextStep);
-        ships.forEach(GameObject::nextStep);
+        if (this.server != null) {
+            for (ClientConnection client : this.server.getClients()) { // Goes through a copy if clients join or leave.
+                client.applyInput();
+            }
+        }
+        this.recordTick(ships);
+        int width = this.game.getWorldWidth();
+        int height = this.game.getWorldHeight();
+        asteroids.forEach(asteroid -> asteroid.nextStep(width, height));
+        bullets.forEach(bullet -> bullet.nextStep(width, height));
+        ships.forEach(ship -> ship.nextStep(width, height));
 
-        ships.forEach(this::updateBulletsFiredPerShip);
+        for (int i = 0; i < ships.size(); i++) {
+            this.updateBulletsFiredPerShip(ships.get(i));
+        }
         this.checkCollisions();
         this.removeDestroyedObjects();
 
@@ -85,87 +164,109 @@ public class MultiplayerGameUpdater extends GameUpdater {
     }
 
     /**
-     * If enough time has passed to refresh the display, not only for the server itself but for the connected clients.
-     * it notifies the game panel of the server
-     * and notifies the clients to update its display as well
+     * Sends the game model to the clients every so many game ticks, see Server.getTicksPerSnapshot(). This is driven by
+     * the game ticks rather than the display, since the game model only changes when the game ticks. Clients may be
+     * capped to a lower rate, see ClientConnection.
+     */
+    @Override
+    void onPhysicsUpdated() {
+        if (this.server != null && this.updateCounter % this.server.getTicksPerSnapshot() == 0) {
+            Network.sendGameModel(server);
+        }
+    }
+
+    /**
+     * If enough time has passed to refresh the display, it notifies the game panel of the server.
      */
     @Override
     void updateDisplayOnScreen() {
-        synchronized (this.game) {
-            if (timeSinceLastDisplayFrame >= millisecondsPerDisplayFrame) {
-                this.game.notifyListeners(timeSinceLastTick);
-                timeSinceLastDisplayFrame = 0L;
-                Network.sendGameModel(server);
-            }
+        if (isDisplayFrameDue()) {
+            this.game.notifyListeners(timeSinceLastTick);
         }
     }
 
+    /**
+     * takes a snapshot of every ship, asteroid and bullet for the game panel of the server
+     *
+     * @param snapshot snapshot to overwrite
+     */
+    @Override
+    void captureTick(WorldSnapshot snapshot) {
+        snapshot.capture(this.game, this.updateCounter);
+    }
+
     /**
      * Checks all objects for collisions and marks them as destroyed upon collision. All objects can collide with
      * objects of a different type, but not with objects of the same type. I.e. bullets cannot collide with bullets etc.
+     * Objects are only checked against the objects near them, found through the grids of the asteroids and bullets.
      */
     @Override
     public void checkCollisions() {
+        this.buildCollisionGrids();
+        ArrayList<Spaceship> ships = this.game.getShips();
+        ArrayList<Bullet> bullets = this.game.getBullets();
+        ArrayList<Asteroid> asteroids = this.game.getAsteroids();
+
         // First check collisions between bullets and other objects.
-        this.game.getBullets().forEach(bullet -> {
-            this.game.getAsteroids().forEach(asteroid -> { // Check collision with any of the asteroids.
-                if (asteroid.collides(bullet)) {
-                    asteroid.destroy();
-                    bullet.destroy();
-                }
-            });
-            this.game.getShips().forEach(ship -> { // Check collision with any of the spaceships.
-                if (ship.collides(bullet) && !ship.isDestroyed()) {
+        this.checkBulletAsteroidCollisions();
+        for (int i = 0; i < ships.size(); i++) {
+            Spaceship ship = ships.get(i);
+            if (ship.isDestroyed()) continue;
+            int count = this.bulletGrid.findCandidates(ship);
+            int[] candidates = this.bulletGrid.getCandidates();
+            for (int k = 0; k < count; k++) {
+                Bullet bullet = bullets.get(candidates[k]);
+                if (ship.collides(bullet)) {
                     bullet.destroy();
                     ship.destroy();
+                    break;
                 }
-            });
-        });
+            }
+        }
         // Next check for collisions between asteroids and spaceships.
-        this.game.getAsteroids().forEach(asteroid -> {
-            this.game.getShips().forEach(ship -> {
-                if(asteroid.collides(ship) && !ship.isDestroyed())  {
+        for (int i = 0; i < ships.size(); i++) {
+            Spaceship ship = ships.get(i);
+            if (ship.isDestroyed()) continue;
+            int count = this.asteroidGrid.findCandidates(ship);
+            int[] candidates = this.asteroidGrid.getCandidates();
+            for (int k = 0; k < count; k++) {
+                Asteroid asteroid = asteroids.get(candidates[k]);
+                if (asteroid.collides(ship)) {
                     asteroid.destroy();
                     ship.destroy();
+                    break;
                 }
-            });
-            if (KESSLER_SYNDROME) { // Only check for asteroid - asteroid collisions if we allow kessler syndrome.
-                this.game.getAsteroids().forEach(secondAsteroid -> {
-                    if (!asteroid.equals(secondAsteroid) && asteroid.collides(secondAsteroid)) {
-                        asteroid.destroy();
-                        secondAsteroid.destroy();
-                    }
-                });
             }
-        });
+        }
+        if (KESSLER_SYNDROME) { // Only check for asteroid - asteroid collisions if we allow kessler syndrome.
+            this.checkAsteroidAsteroidCollisions();
+        }
     }
 
     /**
      * finds an available location for a new asteroid
      *
-     * @param rng ThreadLocalRandom of its parent method (addRandomAsteroid)
-     * @return location of a new asteroid
+     * @param rng random number generator of its parent method (addRandomAsteroid)
+     * @param location point that is set to the location of the new asteroid
      */
-    Point.Double findNewAsteroidLocation(ThreadLocalRandom rng) {
+    void findNewAsteroidLocation(Random rng, Point.Double location) {
         ArrayList<Spaceship> ships = this.game.getShips();
-        Point.Double newAsteroidLocation;
         double distanceX, distanceY;
         boolean keepLook;
 
         do {
-            newAsteroidLocation = new Point.Double(rng.nextDouble(0.0, 800.0), rng.nextDouble(0.0, 800.0));
+            location.setLocation(rng.nextDouble() * this.game.getWorldWidth(), rng.nextDouble() * this.game.getWorldHeight());
             keepLook = false;
             for (Spaceship ship : ships) {
                 Point.Double shipLocation = ship.getLocation();
-                distanceX = newAsteroidLocation.x - shipLocation.x;
-                distanceY = newAsteroidLocation.y - shipLocation.y;
+                distanceX = location.x - shipLocation.x;
+                distanceY = location.y - shipLocation.y;
                 if (distanceX * distanceX + distanceY * distanceY < 50 * 50) {
                     keepLook = true;
                     break;
                 }
             }
         } while (keepLook);
-        return newAsteroidLocation;
     }
 
     /**
@@ -177,20 +278,21 @@ public class MultiplayerGameUpdater extends GameUpdater {
      * Instead, destroyed Spaceships are dealt when drawing on MultiplayerGamePanel. (the panel only draws when it's not destroyed)
      *
      * When an asteroid is destroyed, it may spawn some smaller successor asteroids, and these are added to the game's
-     * list of asteroids.
+     * list of asteroids. The successors are taken from, and the removed objects returned to, the pools of the updater.
      */
     @Override
     public void removeDestroyedObjects() {
-        ArrayList<Asteroid> newAsteroids = new ArrayList<>(this.game.getAsteroids().size() * 2); // Avoid reallocation and assume every asteroid spawns successors.
-        this.game.getAsteroids().forEach(asteroid -> {
+        ArrayList<Asteroid> asteroids = this.game.getAsteroids();
+        int count = asteroids.size(); // Only the asteroids that were there before the successors are added.
+        for (int i = 0; i < count; i++) {
+            Asteroid asteroid = asteroids.get(i);
             if (asteroid.isDestroyed()) {
-                newAsteroids.addAll(asteroid.getSuccessors());
+                asteroid.addSuccessors(asteroids, this.asteroidPool, this.game.getRandom());
             }
-        });
-        this.game.getAsteroids().addAll(newAsteroids);
+        }
         // Remove all asteroids that are destroyed.
-        this.game.getAsteroids().removeIf(GameObject::isDestroyed);
+        recycleDestroyed(asteroids, this.asteroidPool);
         // Remove any bullets that are destroyed.
-        this.game.getBullets().removeIf(GameObject::isDestroyed);
+        recycleDestroyed(this.game.getBullets(), this.bulletPool);
     }
 }
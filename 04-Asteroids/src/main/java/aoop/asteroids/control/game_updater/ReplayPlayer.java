@@ -0,0 +1,302 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game.SingleplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.GameObject;
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import static aoop.asteroids.control.game_updater.ReplayRecorder.*;
+
+/**
+ * ReplayPlayer plays a replay written by a ReplayRecorder. It runs the same game ticks as the game that was recorded,
+ * on a game of the same kind, steering the ships by the recorded buttons. It can play at the speed of the game, while
+ * a game panel draws its game, or headless, as fast as the ticks run, to profile the game ticks.
+ *
+ * The game is seeded like the recorded one, and every keyframe puts the game back in the recorded state, along with
+ * the state of its random number generator, so the replayed game plays out exactly like the recorded one. When the
+ * game had run up to the keyframe, the state it reached is compared to the recorded one first : a keyframe that does
+ * not match means the replayed game went another way than the recorded one. A replay whose end was cut off, because
+ * the game stopped while it was being recorded, plays up to its last complete record.
+ */
+public class ReplayPlayer {
+    private final DataInputStream in;
+    private final Game game;
+    private final GameUpdater updater;
+
+    /** ships of the last keyframe, which the INPUT records refer to by their index **/
+    private List<Spaceship> ships = Collections.emptyList();
+
+    private volatile boolean stopped = false;
+    private long nextTickTime;
+
+    /** number of keyframes, and of keyframes that the replayed game did not match **/
+    private int keyframeCount;
+    private int divergentKeyframeCount;
+
+    /** record that was read last **/
+    private byte recordType;
+    private int recordTick;
+    private byte[] recordKeyframe;
+    private int inputCount;
+    private int[] inputShips = new int[16];
+    private int[] inputButtons = new int[16];
+
+    /**
+     * opens a replay, and creates the game it is played on
+     *
+     * @param file replay file written by a ReplayRecorder
+     * @throws IOException when the file can not be read, or is not a replay
+     */
+    public ReplayPlayer(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (this.in.readInt() != MAGIC) throw new IOException(file + " is not a replay");
+            short version = this.in.readShort();
+            if (version != VERSION) throw new IOException("replay version " + version + " is not supported");
+            byte mode = this.in.readByte();
+            int worldWidth = this.in.readInt();
+            int worldHeight = this.in.readInt();
+            long seed = this.in.readLong();
+            if (mode == MULTIPLAYER) {
+                MultiplayerGame multiplayerGame = new MultiplayerGame();
+                this.game = multiplayerGame;
+                this.updater = new MultiplayerGameUpdater(multiplayerGame);
+            } else {
+                SingleplayerGame singleplayerGame = new SingleplayerGame(null);
+                this.game = singleplayerGame;
+                this.updater = new SingleplayerGameUpdater(singleplayerGame);
+            }
+            this.game.setWorldSize(worldWidth, worldHeight);
+            this.game.setSeed(seed);
+        } catch (IOException e) {
+            this.in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the game the replay is played on, which can be drawn by a game panel
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * plays the replay to its end, or until stop() is called. then the file is closed.
+     * at the speed of the game, the state after every tick is published for a game panel, see Game.getPublishedTicks()
+     *
+     * @param realTime true to play at the speed of the game, false to play as fast as the ticks run
+     * @throws IOException when the replay can not be read
+     */
+    public void play(boolean realTime) throws IOException {
+        this.nextTickTime = System.nanoTime();
+        try {
+            while (!this.stopped && readRecord()) {
+                if (this.keyframeCount > 0) {
+                    runTicksUntil(this.recordTick, realTime);
+                }
+                if (this.recordType == KEYFRAME) {
+                    restore();
+                } else if (this.recordType == INPUT) {
+                    applyInput();
+                }
+            }
+        } finally {
+            this.in.close();
+        }
+    }
+
+    /**
+     * stops playing, from any thread
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    /**
+     * @return how long the replayed game ticks took
+     */
+    public TickStatistics getTickStatistics() {
+        return this.updater.getTickStatistics();
+    }
+
+    /**
+     * @return number of keyframes played
+     */
+    public int getKeyframeCount() {
+        return this.keyframeCount;
+    }
+
+    /**
+     * @return number of keyframes that the replayed game had not reached in the same state as the recorded game
+     */
+    public int getDivergentKeyframeCount() {
+        return this.divergentKeyframeCount;
+    }
+
+    /**
+     * reads the next record
+     *
+     * @return false at the end of the file, or at a record that was cut off
+     */
+    private boolean readRecord() throws IOException {
+        try {
+            this.recordType = this.in.readByte();
+            this.recordTick = this.in.readInt();
+            switch (this.recordType) {
+                case KEYFRAME:
+                    this.recordKeyframe = new byte[this.in.readInt()];
+                    this.in.readFully(this.recordKeyframe);
+                    break;
+                case INPUT:
+                    this.inputCount = this.in.readUnsignedShort();
+                    if (this.inputShips.length < this.inputCount) {
+                        this.inputShips = new int[this.inputCount];
+                        this.inputButtons = new int[this.inputCount];
+                    }
+                    for (int i = 0; i < this.inputCount; i++) {
+                        this.inputShips[i] = this.in.readUnsignedShort();
+                        this.inputButtons[i] = this.in.readByte();
+                    }
+                    break;
+                case END:
+                    break;
+                default:
+                    throw new IOException("unknown record type " + this.recordType);
+            }
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * runs game ticks until the given tick is the one that runs next
+     */
+    private void runTicksUntil(int tick, boolean realTime) {
+        while (!this.stopped && this.updater.updateCounter < tick) {
+            long start = System.nanoTime();
+            this.updater.updatePhysics();
+            long duration = System.nanoTime() - start;
+            if (realTime) {
+                this.updater.tickStatistics.recordTick(Math.max(0, start - this.nextTickTime), duration);
+                this.updater.publishTick();
+                this.game.notifyListeners(0);
+                this.nextTickTime += GameUpdater.NANOSECONDS_PER_TICK;
+                long delay = this.nextTickTime - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                } else {
+                    this.nextTickTime = System.nanoTime(); // Fell behind, so go on from now rather than rush.
+                }
+            } else {
+                this.updater.tickStatistics.recordTick(0, duration);
+            }
+        }
+    }
+
+    /**
+     * steers the ships whose buttons changed
+     */
+    private void applyInput() {
+        for (int i = 0; i < this.inputCount; i++) {
+            if (this.inputShips[i] < this.ships.size()) {
+                InputPacket.apply(this.inputButtons[i], this.ships.get(this.inputShips[i]));
+            }
+        }
+    }
+
+    /**
+     * puts the game in the state of the keyframe, after comparing it to the state the game reached, if it ran up to it
+     */
+    @SuppressWarnings("unchecked")
+    private void restore() throws IOException {
+        int asteroidsLimit;
+        ArrayList<Asteroid> asteroids;
+        ArrayList<Bullet> bullets;
+        List<Spaceship> keyframeShips;
+        Random random;
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(this.recordKeyframe))) {
+            asteroidsLimit = objects.readInt();
+            asteroids = (ArrayList<Asteroid>) objects.readObject();
+            bullets = (ArrayList<Bullet>) objects.readObject();
+            keyframeShips = (List<Spaceship>) objects.readObject();
+            random = (Random) objects.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("invalid keyframe", e);
+        }
+
+        if (this.keyframeCount > 0 && this.updater.updateCounter == this.recordTick
+                && !(sameMotion(this.game.getAsteroids(), asteroids) && sameMotion(this.game.getBullets(), bullets)
+                && sameShips(this.ships, keyframeShips))) {
+            this.divergentKeyframeCount++;
+        }
+        this.keyframeCount++;
+
+        this.updater.updateCounter = this.recordTick;
+        this.updater.asteroidsLimit = asteroidsLimit;
+        this.game.getAsteroids().clear();
+        this.game.getAsteroids().addAll(asteroids);
+        this.game.getBullets().clear();
+        this.game.getBullets().addAll(bullets);
+        this.game.setRandom(random);
+        if (this.game instanceof MultiplayerGame) {
+            ArrayList<Spaceship> gameShips = new ArrayList<>(keyframeShips);
+            ((MultiplayerGame) this.game).setShips(gameShips);
+            this.ships = gameShips;
+        } else {
+            ((SingleplayerGame) this.game).setMyShip(keyframeShips.get(0));
+            this.ships = keyframeShips;
+        }
+    }
+
+    /**
+     * @return whether both lists hold objects at the same locations, with the same velocities, destroyed or not alike
+     */
+    private static boolean sameMotion(List<? extends GameObject> objects, List<? extends GameObject> recorded) {
+        if (objects.size() != recorded.size()) return false;
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject object = objects.get(i);
+            GameObject recordedObject = recorded.get(i);
+            if (!object.getLocation().equals(recordedObject.getLocation())
+                    || !object.getVelocity().equals(recordedObject.getVelocity())
+                    || object.isDestroyed() != recordedObject.isDestroyed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the ships that are in both lists move alike, ignoring the ships that joined or left in between
+     */
+    private static boolean sameShips(List<Spaceship> ships, List<Spaceship> recorded) {
+        for (Spaceship recordedShip : recorded) {
+            for (Spaceship ship : ships) {
+                if (ship.getId() == recordedShip.getId()) {
+                    if (!sameMotion(Collections.singletonList(ship), Collections.singletonList(recordedShip))) return false;
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+}
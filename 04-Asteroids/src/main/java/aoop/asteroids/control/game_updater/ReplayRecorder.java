@@ -0,0 +1,246 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReplayRecorder writes the game ticks of a game to a replay file, so that the game can be played again afterwards by
+ * a ReplayPlayer, for instance to profile a heavy match offline, or to check that a change leaves the game the same.
+ *
+ * Rather than the state of the game after every tick, it records what steers the game : the buttons each ship holds
+ * down during each tick. The state itself is written in full now and then, in a keyframe : when the recording starts,
+ * every keyframeInterval ticks, and whenever the game changed in a way the buttons do not explain, which is when ships
+ * joined or left and when the game restarted. The file is only ever appended to. Its layout is:
+ *
+ *   int MAGIC, short VERSION, byte mode (SINGLEPLAYER or MULTIPLAYER), int world width, int world height, long seed
+ *   then any number of records, each a byte type and the tick (the updater's updateCounter) it belongs to, followed by
+ *     KEYFRAME : int length and that many bytes : the asteroids limit, the lists of asteroids, bullets and ships,
+ *                like a GAME_MODEL packet, and the random number generator of the game, by an ObjectOutputStream
+ *     INPUT    : unsigned short count, then per ship whose buttons changed since the tick before : unsigned short
+ *                index of the ship in the keyframe, byte buttons (see InputPacket)
+ *     END      : nothing. the ticks before this one ran, and then the game restarted or the recording stopped
+ *
+ * A record holds the state or the buttons at the start of its tick, before the tick runs. The recorder runs on the
+ * updater thread and writes into a buffer, so a tick only waits for the disk when the buffer is full. When writing
+ * fails, the recording stops and the game goes on.
+ */
+public class ReplayRecorder {
+    /** first bytes of every replay file **/
+    static final int MAGIC = 0x41535452;
+    static final short VERSION = 2;
+
+    /** kinds of game **/
+    static final byte SINGLEPLAYER = 0;
+    static final byte MULTIPLAYER = 1;
+
+    /** types of records **/
+    static final byte KEYFRAME = 1;
+    static final byte INPUT = 2;
+    static final byte END = 3;
+
+    /** default number of ticks between two keyframes, ten seconds of game **/
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 300;
+
+    /**
+     * system property naming a directory : when it is set, every game that is started records itself into a new file
+     * there, see recordIfEnabled()
+     */
+    public static final String DIRECTORY_PROPERTY = "asteroids.replays";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** tells apart the files of games that start within the same millisecond, such as the rooms of a server **/
+    private static final AtomicInteger fileCounter = new AtomicInteger();
+
+    private final DataOutputStream out;
+    private final int keyframeInterval;
+    private boolean headerWritten = false;
+    private boolean closed = false;
+
+    /** tick that runs next if the game goes on as it did, -1 before the first tick **/
+    private int nextTick = -1;
+    private int lastKeyframeTick;
+
+    /** ships of the last keyframe, which the INPUT records refer to by their index **/
+    private List<Spaceship> keyframeShips;
+
+    /** buttons of those ships during the tick before, and the indices of the ships whose buttons changed since **/
+    private int[] buttons = new int[0];
+    private int[] changed = new int[0];
+
+    /** keyframe being written, reused for every keyframe **/
+    private final ByteArrayOutputStream keyframe = new ByteArrayOutputStream();
+
+    /**
+     * creates a new ReplayRecorder that writes a keyframe every DEFAULT_KEYFRAME_INTERVAL ticks
+     *
+     * @param file file to write the replay to, which is overwritten
+     * @throws IOException when the file can not be created
+     */
+    public ReplayRecorder(File file) throws IOException {
+        this(file, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * creates a new ReplayRecorder
+     *
+     * @param file file to write the replay to, which is overwritten
+     * @param keyframeInterval number of ticks between two keyframes
+     * @throws IOException when the file can not be created
+     */
+    public ReplayRecorder(File file, int keyframeInterval) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    /**
+     * makes the updater record its game into a new file in the directory named by the DIRECTORY_PROPERTY system
+     * property, if it is set. when the file can not be created, the game is not recorded
+     *
+     * @param updater updater of a game that is about to start
+     */
+    public static void recordIfEnabled(GameUpdater updater) {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null) return;
+        File file = new File(directory, "replay-" + System.currentTimeMillis() + "-" + fileCounter.incrementAndGet() + ".replay");
+        try {
+            if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+                throw new IOException("could not create " + file.getParentFile());
+            }
+            updater.setRecorder(new ReplayRecorder(file));
+            System.out.println("recording the game to " + file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * records the buttons of the ships for the tick that is about to run, or a keyframe when one is due
+     *
+     * @param updater updater that runs the tick
+     * @param ships ships of the game
+     */
+    synchronized void recordTick(GameUpdater updater, List<Spaceship> ships) {
+        if (this.closed) return;
+        try {
+            if (!this.headerWritten) {
+                writeHeader(updater);
+            }
+            int tick = updater.updateCounter;
+            if (tick != this.nextTick && this.nextTick != -1) {
+                writeRecord(END, this.nextTick); // The game restarted.
+            }
+            if (tick != this.nextTick || ships != this.keyframeShips || tick - this.lastKeyframeTick >= this.keyframeInterval) {
+                writeKeyframe(updater, ships, tick);
+            } else {
+                writeInput(ships, tick);
+            }
+            this.nextTick = tick + 1;
+        } catch (IOException e) {
+            e.printStackTrace();
+            this.closed = true;
+            try {
+                this.out.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * ends the recording, and closes the file
+     */
+    public synchronized void close() {
+        if (this.closed) return;
+        this.closed = true;
+        try {
+            if (this.nextTick != -1) {
+                writeRecord(END, this.nextTick);
+            }
+            this.out.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * writes what kind of game is recorded, the size of its world and its seed
+     */
+    private void writeHeader(GameUpdater updater) throws IOException {
+        Game game = updater.game;
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+        this.out.writeByte(updater instanceof MultiplayerGameUpdater ? MULTIPLAYER : SINGLEPLAYER);
+        this.out.writeInt(game.getWorldWidth());
+        this.out.writeInt(game.getWorldHeight());
+        this.out.writeLong(game.getSeed());
+        this.headerWritten = true;
+    }
+
+    /**
+     * writes the type and tick of a record
+     */
+    private void writeRecord(byte type, int tick) throws IOException {
+        this.out.writeByte(type);
+        this.out.writeInt(tick);
+    }
+
+    /**
+     * writes the whole state of the game, and remembers the ships and their buttons for the INPUT records that follow
+     */
+    private void writeKeyframe(GameUpdater updater, List<Spaceship> ships, int tick) throws IOException {
+        this.keyframe.reset();
+        ObjectOutputStream objects = new ObjectOutputStream(this.keyframe);
+        objects.writeInt(updater.asteroidsLimit);
+        objects.writeObject(updater.game.getAsteroids());
+        objects.writeObject(updater.game.getBullets());
+        objects.writeObject(ships);
+        objects.writeObject(updater.game.getRandom());
+        objects.flush();
+
+        writeRecord(KEYFRAME, tick);
+        this.out.writeInt(this.keyframe.size());
+        this.keyframe.writeTo(this.out);
+
+        this.keyframeShips = ships;
+        this.lastKeyframeTick = tick;
+        if (this.buttons.length < ships.size()) {
+            this.buttons = new int[ships.size()];
+            this.changed = new int[ships.size()];
+        }
+        for (int i = 0; i < ships.size(); i++) {
+            this.buttons[i] = InputPacket.getButtons(ships.get(i));
+        }
+    }
+
+    /**
+     * writes the buttons of the ships whose buttons changed since the tick before, if there are any
+     */
+    private void writeInput(List<Spaceship> ships, int tick) throws IOException {
+        int count = 0;
+        for (int i = 0; i < ships.size(); i++) {
+            int shipButtons = InputPacket.getButtons(ships.get(i));
+            if (shipButtons != this.buttons[i]) {
+                this.buttons[i] = shipButtons;
+                this.changed[count++] = i;
+            }
+        }
+        if (count == 0) return;
+        writeRecord(INPUT, tick);
+        this.out.writeShort(count);
+        for (int i = 0; i < count; i++) {
+            this.out.writeShort(this.changed[i]);
+            this.out.writeByte(this.buttons[this.changed[i]]);
+        }
+    }
+}
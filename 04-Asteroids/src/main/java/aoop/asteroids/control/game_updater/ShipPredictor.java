@@ -0,0 +1,87 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+
+/**
+ * ShipPredictor moves a joiner's own ship ahead of the server, so that the player sees the ship respond to the keys
+ * right away instead of a round trip later.
+ *
+ * Every tick of the joiner, the predictor numbers the input of that tick, and steers and moves the ship with it, the
+ * same way the server's game loop does. The inputs are kept in a ring buffer. A snapshot from the server tells which
+ * input the server applied last; the snapshot's ship is where the server had the ship at that point, so the predictor
+ * replays the inputs that came after it on top, which brings the ship back to the present. The server stays in charge:
+ * whatever it decided (a collision, a different position) replaces the prediction with every snapshot.
+ */
+public class ShipPredictor {
+    /** number of inputs remembered, about four seconds worth of ticks, which is more than any round trip **/
+    static final int CAPACITY = 128;
+
+    /** buttons of each input, see InputPacket, at its sequence number modulo CAPACITY **/
+    private final int[] buttons = new int[CAPACITY];
+
+    /** sequence number of the newest input, -1 before the first **/
+    private int sequence = -1;
+
+    /** size of the server's world, at whose edges the ship wraps around **/
+    private int worldWidth = Game.DEFAULT_WORLD_WIDTH;
+    private int worldHeight = Game.DEFAULT_WORLD_HEIGHT;
+
+    /**
+     * sets the size of the server's world, which the server tells a joiner when it accepts the connection
+     *
+     * @param worldWidth width of the world
+     * @param worldHeight height of the world
+     */
+    public void setWorldSize(int worldWidth, int worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * runs one tick of the ship with a new input
+     *
+     * @param ship ship to move
+     * @param buttons bits of the buttons held down during the tick
+     * @return sequence number of the input
+     */
+    public int nextTick(Spaceship ship, int buttons) {
+        this.sequence++;
+        this.buttons[this.sequence % CAPACITY] = buttons;
+        step(ship, buttons);
+        return this.sequence;
+    }
+
+    /**
+     * replays the inputs the server had not applied yet, on top of the ship the server sent
+     *
+     * @param ship ship as it was on the server after applying the given input
+     * @param appliedSequence sequence number of the last input the server applied, -1 if it has applied none
+     */
+    public void reconcile(Spaceship ship, int appliedSequence) {
+        int first = Math.max(appliedSequence + 1, this.sequence - CAPACITY + 1);
+        for (int i = Math.max(0, first); i <= this.sequence; i++) {
+            step(ship, this.buttons[i % CAPACITY]);
+        }
+    }
+
+    /**
+     * @return sequence number of the newest input, -1 before the first
+     */
+    public int getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * one tick of the ship as the server's game loop runs it : the input is applied, the ship moves, and fires if it
+     * can. the bullet itself is left to the server, the ship only pays for it.
+     */
+    private void step(Spaceship ship, int buttons) {
+        InputPacket.apply(buttons, ship);
+        ship.nextStep(this.worldWidth, this.worldHeight);
+        if (ship.canFireWeapon() && !ship.isDestroyed()) {
+            ship.setFired();
+        }
+    }
+}
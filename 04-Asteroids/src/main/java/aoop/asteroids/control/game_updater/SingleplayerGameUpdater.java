@@ -3,15 +3,22 @@ package aoop.asteroids.control.game_updater;
 import aoop.asteroids.database.Database;
 import aoop.asteroids.model.game.Game;
 import aoop.asteroids.model.game_object.*;
+import aoop.asteroids.packet.WorldSnapshot;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 /**
  * SingleplayerGameUpdater updates its associated SingleplayerGame
  */
 public class SingleplayerGameUpdater extends GameUpdater {
+    /**
+     * The player's ship, as the only ship of the snapshots taken for the game panel and of the replays.
+     */
+    private List<Spaceship> ships;
 
     /**
      * creates a new SingleplayerGameUpdater
@@ -19,6 +26,7 @@ public class SingleplayerGameUpdater extends GameUpdater {
      */
     public SingleplayerGameUpdater (Game game) {
         super(game);
+        this.ships = Collections.singletonList(game.getMyShip());
     }
 
     /**
@@ -28,26 +36,27 @@ public class SingleplayerGameUpdater extends GameUpdater {
      */
     @Override
     public void run() {
-        this.previousTime = System.currentTimeMillis();
-        this.timeSinceLastTick = 0L;
-        this.timeSinceLastDisplayFrame = 0L;
+        this.startClock();
 
         while (this.game.isRunning()) {
             if (!this.game.isGameOver()) {
                 updateTimeData();
                 updatePhysicsData();
                 updateDisplayOnScreen();
+                waitForNextDeadline();
             } else {
                 Database.insert(this.game.getMyShip().getNickname(), this.game.getMyShip().getScore());
                 restartGame();
             }
         }
+        this.stopRecording();
     }
 
     /**
      * Called every game tick, to update all of the game's model objects.
      *
-     * First, each object's movement is updated by calling nextStep() on it.
+     * First, the buttons the player holds down are recorded, if the game is recorded.
+     * Then, each object's movement is updated by calling nextStep() on it.
      * Then, if the player is pressing the key to fire the ship's weapon, a new bullet should spawn.
      * Then, once all objects' positions are updated, we check for any collisions between them.
      * And finally, any objects which are destroyed by collisions are removed from the game.
@@ -59,10 +68,16 @@ public class SingleplayerGameUpdater extends GameUpdater {
         Spaceship ship = this.game.getMyShip();
         ArrayList<Bullet> bullets = this.game.getBullets();
         ArrayList<Asteroid> asteroids = this.game.getAsteroids();
+        if (this.ships.get(0) != ship) { // The ship was replaced, by a replay.
+            this.ships = Collections.singletonList(ship);
+        }
+        this.recordTick(this.ships);
 
-        asteroids.forEach(GameObject::nextStep);
-        bullets.forEach(GameObject::nextStep);
-        ship.nextStep();
+        int width = this.game.getWorldWidth();
+        int height = this.game.getWorldHeight();
+        asteroids.forEach(asteroid -> asteroid.nextStep(width, height));
+        bullets.forEach(bullet -> bullet.nextStep(width, height));
+        ship.nextStep(width, height);
 
         this.updateBulletsFiredPerShip(ship);
         this.checkCollisions();
@@ -77,64 +92,73 @@ public class SingleplayerGameUpdater extends GameUpdater {
 
     @Override
     void updateDisplayOnScreen() {
-        if (timeSinceLastDisplayFrame >= millisecondsPerDisplayFrame) { // Check if enough time has passed to refresh the display.
+        if (isDisplayFrameDue()) { // Check if enough time has passed to refresh the display.
             this.game.notifyListeners(timeSinceLastTick); // Tell the asteroids panel that it should refresh.
-            timeSinceLastDisplayFrame = 0L;
         }
     }
 
+    /**
+     * takes a snapshot of the player's ship, the asteroids and the bullets for the game panel
+     *
+     * @param snapshot snapshot to overwrite
+     */
+    @Override
+    void captureTick(WorldSnapshot snapshot) {
+        snapshot.capture(this.game, this.ships, this.updateCounter);
+    }
+
     /**
      * finds an available location for a new asteroid
      *
-     * @param rng ThreadLocalRandom of its parent method (addRandomAsteroid)
-     * @return location of a new asteroid
+     * @param rng random number generator of its parent method (addRandomAsteroid)
+     * @param location point that is set to the location of the new asteroid
      */
-    Point.Double findNewAsteroidLocation(ThreadLocalRandom rng) {
-        Point.Double newAsteroidLocation;
+    void findNewAsteroidLocation(Random rng, Point.Double location) {
         Point.Double shipLocation = this.game.getMyShip().getLocation();
         double distanceX, distanceY;
         do {
-            newAsteroidLocation = new Point.Double(rng.nextDouble(0.0, 800.0), rng.nextDouble(0.0, 800.0));
-            distanceX = newAsteroidLocation.x - shipLocation.x;
-            distanceY = newAsteroidLocation.y - shipLocation.y;
+            location.setLocation(rng.nextDouble() * this.game.getWorldWidth(), rng.nextDouble() * this.game.getWorldHeight());
+            distanceX = location.x - shipLocation.x;
+            distanceY = location.y - shipLocation.y;
         } while (distanceX * distanceX + distanceY * distanceY < 50 * 50);
-        return newAsteroidLocation;
     }
 
     /**
      * Checks all objects for collisions and marks them as destroyed upon collision. All objects can collide with
      * objects of a different type, but not with objects of the same type. I.e. bullets cannot collide with bullets etc.
+     * Objects are only checked against the objects near them, found through the grids of the asteroids and bullets.
      */
     @Override
     void checkCollisions() {
+        this.buildCollisionGrids();
+        Spaceship ship = this.game.getMyShip();
+
         // First check collisions between bullets and other objects.
-        this.game.getBullets().forEach(bullet -> {
-            this.game.getAsteroids().forEach(asteroid -> { // Check collision with any of the asteroids.
-                if (asteroid.collides(bullet)) {
-                    asteroid.destroy();
-                    bullet.destroy();
-                }
-            });
-            if (this.game.getMyShip().collides(bullet)) { // Check collision with ship.
+        this.checkBulletAsteroidCollisions();
+        ArrayList<Bullet> bullets = this.game.getBullets();
+        int count = this.bulletGrid.findCandidates(ship);
+        int[] candidates = this.bulletGrid.getCandidates();
+        for (int k = 0; k < count; k++) {
+            Bullet bullet = bullets.get(candidates[k]);
+            if (ship.collides(bullet)) { // Check collision with ship.
                 bullet.destroy();
-                this.game.getMyShip().destroy();
+                ship.destroy();
             }
-        });
+        }
         // Next check for collisions between asteroids and the spaceship.
-        this.game.getAsteroids().forEach(asteroid -> {
-            if (asteroid.collides(this.game.getMyShip())) {
+        ArrayList<Asteroid> asteroids = this.game.getAsteroids();
+        count = this.asteroidGrid.findCandidates(ship);
+        candidates = this.asteroidGrid.getCandidates();
+        for (int k = 0; k < count; k++) {
+            Asteroid asteroid = asteroids.get(candidates[k]);
+            if (asteroid.collides(ship)) {
                 asteroid.destroy();
-                this.game.getMyShip().destroy();
-            }
-            if (KESSLER_SYNDROME) { // Only check for asteroid - asteroid collisions if we allow kessler syndrome.
-                this.game.getAsteroids().forEach(secondAsteroid -> {
-                    if (!asteroid.equals(secondAsteroid) && asteroid.collides(secondAsteroid)) {
-                        asteroid.destroy();
-                        secondAsteroid.destroy();
-                    }
-                });
+                ship.destroy();
             }
-        });
+        }
+        if (KESSLER_SYNDROME) { // Only check for asteroid - asteroid collisions if we allow kessler syndrome.
+            this.checkAsteroidAsteroidCollisions();
+        }
     }
 
     /**
@@ -151,22 +175,23 @@ public class SingleplayerGameUpdater extends GameUpdater {
      * Removes all destroyed objects (those which have collided with another object).
      *
      * When an asteroid is destroyed, it may spawn some smaller successor asteroids, and these are added to the game's
-     * list of asteroids.
+     * list of asteroids. The successors are taken from, and the removed objects returned to, the pools of the updater.
      */
     @Override
     void removeDestroyedObjects ()
     {
-        ArrayList<Asteroid> newAsteroids = new ArrayList<>(this.game.getAsteroids().size() * 2); // Avoid reallocation and assume every asteroid spawns successors.
-        this.game.getAsteroids().forEach(asteroid -> {
+        ArrayList<Asteroid> asteroids = this.game.getAsteroids();
+        int count = asteroids.size(); // Only the asteroids that were there before the successors are added.
+        for (int i = 0; i < count; i++) {
+            Asteroid asteroid = asteroids.get(i);
             if (asteroid.isDestroyed()) {
                 this.increaseScore();
-                newAsteroids.addAll(asteroid.getSuccessors());
+                asteroid.addSuccessors(asteroids, this.asteroidPool, this.game.getRandom());
             }
-        });
-        this.game.getAsteroids().addAll(newAsteroids);
+        }
         // Remove all asteroids that are destroyed.
-        this.game.getAsteroids().removeIf(GameObject::isDestroyed);
+        recycleDestroyed(asteroids, this.asteroidPool);
         // Remove any bullets that are destroyed.
-        this.game.getBullets().removeIf(GameObject::isDestroyed);
+        recycleDestroyed(this.game.getBullets(), this.bulletPool);
     }
 }
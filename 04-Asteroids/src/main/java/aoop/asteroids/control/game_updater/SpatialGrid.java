@@ -0,0 +1,197 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game_object.GameObject;
+import aoop.asteroids.model.store.EntityStore;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SpatialGrid is the broadphase of collision detection: it sorts a list of game objects into square cells covering the
+ * world, so that the objects that may touch a given circle can be found by only looking at the cells around it, instead
+ * of at every object.
+ *
+ * The grid only stores indices into the list it was built from, in flat int arrays that are reused from one build to
+ * the next, so rebuilding it every game tick does not create any garbage once it has grown to the number of objects.
+ * The world wraps around at its edges (see GameObject.nextStep()), so every location inside it falls in a cell. Objects
+ * that are (briefly) outside the world are put in the nearest cell on the edge. Collisions are measured in a straight
+ * line, not around the wrap, so a search never needs to continue on the opposite edge of the world.
+ */
+class SpatialGrid {
+    /**
+     * The default width and height of a cell, in pixels. This is about the diameter of the largest asteroid, so that a
+     * search for anything touching an object rarely has to look beyond the cells right next to it.
+     */
+    static final double CELL_SIZE = 80.0;
+
+    private final double cellSize;
+    private int columns;
+    private int rows;
+
+    /** the largest radius among the objects of the last build **/
+    private double maxRadius;
+
+    /** objects of cell c are at sortedObjects[cellStart[c]] up to (not including) sortedObjects[cellStart[c + 1]] **/
+    private int[] cellStart = new int[1];
+    private int[] cellFill = new int[1];
+    private int[] sortedObjects = new int[16];
+    private int[] cellOfObject = new int[16];
+
+    /** result of the last search **/
+    private int[] candidates = new int[16];
+
+    /**
+     * creates a new SpatialGrid with cells of the default size
+     */
+    SpatialGrid() {
+        this(CELL_SIZE);
+    }
+
+    /**
+     * creates a new SpatialGrid
+     * @param cellSize width and height of a cell, in pixels
+     */
+    SpatialGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * sorts the objects into cells, replacing whatever the grid held before
+     *
+     * @param objects objects to sort, which must not change until the grid is built again
+     * @param width width of the world
+     * @param height height of the world
+     */
+    void build(List<? extends GameObject> objects, double width, double height) {
+        int size = objects.size();
+        prepare(size, width, height);
+        for (int i = 0; i < size; i++) {
+            GameObject object = objects.get(i);
+            place(i, object.getLocation().x, object.getLocation().y, object.getRadius());
+        }
+        sort(size);
+    }
+
+    /**
+     * sorts the objects of a store into cells, replacing whatever the grid held before
+     *
+     * @param store objects to sort, which must not change until the grid is built again
+     * @param width width of the world
+     * @param height height of the world
+     */
+    void build(EntityStore store, double width, double height) {
+        int size = store.getCount();
+        prepare(size, width, height);
+        for (int i = 0; i < size; i++) {
+            place(i, store.getX(i), store.getY(i), store.getRadius(i));
+        }
+        sort(size);
+    }
+
+    /**
+     * resizes the grid for the world and the number of objects, and empties all cells
+     */
+    private void prepare(int size, double width, double height) {
+        int newColumns = Math.max(1, (int) Math.ceil(width / cellSize));
+        int newRows = Math.max(1, (int) Math.ceil(height / cellSize));
+        if (newColumns != columns || newRows != rows) {
+            columns = newColumns;
+            rows = newRows;
+            cellStart = new int[columns * rows + 1];
+            cellFill = new int[columns * rows];
+        }
+        if (sortedObjects.length < size) {
+            int capacity = Math.max(size, 2 * sortedObjects.length);
+            sortedObjects = new int[capacity];
+            cellOfObject = new int[capacity];
+        }
+        Arrays.fill(cellStart, 0);
+        maxRadius = 0;
+    }
+
+    /**
+     * counts an object in the cell holding its location
+     */
+    private void place(int index, double x, double y, double radius) {
+        int cell = row(y) * columns + column(x);
+        cellOfObject[index] = cell;
+        cellStart[cell + 1]++;
+        if (radius > maxRadius) maxRadius = radius;
+    }
+
+    /**
+     * counting sort on the cell index: with the objects counted per cell, hand out their positions
+     */
+    private void sort(int size) {
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        System.arraycopy(cellStart, 0, cellFill, 0, columns * rows);
+        for (int i = 0; i < size; i++) {
+            sortedObjects[cellFill[cellOfObject[i]]++] = i;
+        }
+    }
+
+    /**
+     * finds the objects that may collide with the given one: every object of the last build whose cell lies within the
+     * reach of both radii. the object itself is included if it was part of the build.
+     *
+     * @param object object to find neighbours of
+     * @return number of candidates, whose indices are at the start of getCandidates()
+     */
+    int findCandidates(GameObject object) {
+        return findCandidates(object.getLocation().x, object.getLocation().y, object.getRadius());
+    }
+
+    /**
+     * finds the objects that may collide with a circle, like findCandidates(GameObject)
+     *
+     * @param x x coordinate of the center of the circle
+     * @param y y coordinate of the center of the circle
+     * @param radius radius of the circle
+     * @return number of candidates, whose indices are at the start of getCandidates()
+     */
+    int findCandidates(double x, double y, double radius) {
+        double reach = radius + maxRadius;
+        int firstColumn = column(x - reach);
+        int lastColumn = column(x + reach);
+        int firstRow = row(y - reach);
+        int lastRow = row(y + reach);
+
+        int count = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                int end = cellStart[cell + 1];
+                for (int i = cellStart[cell]; i < end; i++) {
+                    if (count == candidates.length) candidates = Arrays.copyOf(candidates, 2 * count);
+                    candidates[count++] = sortedObjects[i];
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return indices, in the list (or columns) of the last build, of the objects found by the last search
+     */
+    int[] getCandidates() {
+        return this.candidates;
+    }
+
+    /**
+     * @return column of the cell holding the x coordinate, clamped to the grid
+     */
+    private int column(double x) {
+        int column = (int) Math.floor(x / cellSize);
+        return column < 0 ? 0 : (column >= columns ? columns - 1 : column);
+    }
+
+    /**
+     * @return row of the cell holding the y coordinate, clamped to the grid
+     */
+    private int row(double y) {
+        int row = (int) Math.floor(y / cellSize);
+        return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+    }
+}
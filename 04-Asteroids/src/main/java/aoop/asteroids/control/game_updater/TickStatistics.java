@@ -0,0 +1,119 @@
+package aoop.asteroids.control.game_updater;
+
+/**
+ * TickStatistics keeps track of how late a game updater ran its game ticks, compared to the moment each tick was due.
+ * It is written by the updater thread and may be read from any other thread.
+ */
+public class TickStatistics {
+    /** number of ticks that ran **/
+    private long tickCount;
+
+    /** number of ticks that were dropped, because the updater fell too far behind to catch up **/
+    private long skippedTicks;
+
+    /** sum and maximum of the lateness of every tick that ran, in nanoseconds **/
+    private long totalLateness;
+    private long maxLateness;
+
+    /** time spent inside the game ticks themselves, in nanoseconds **/
+    private long totalTickDuration;
+
+    /** time spent after the game ticks sending the game model to the clients, in nanoseconds, see onPhysicsUpdated() **/
+    private long totalBroadcastDuration;
+
+    /**
+     * records a tick that ran
+     *
+     * @param lateness nanoseconds between the moment the tick was due and the moment it started
+     * @param duration nanoseconds the tick took
+     */
+    synchronized void recordTick(long lateness, long duration) {
+        this.tickCount++;
+        this.totalLateness += lateness;
+        this.maxLateness = Math.max(this.maxLateness, lateness);
+        this.totalTickDuration += duration;
+    }
+
+    /**
+     * records the time spent after a tick on sending the game model to the clients
+     *
+     * @param duration nanoseconds it took
+     */
+    synchronized void recordBroadcast(long duration) {
+        this.totalBroadcastDuration += duration;
+    }
+
+    /**
+     * records ticks that were dropped
+     *
+     * @param count number of dropped ticks
+     */
+    synchronized void recordSkippedTicks(long count) {
+        this.skippedTicks += count;
+    }
+
+    /**
+     * @return number of ticks that ran
+     */
+    public synchronized long getTickCount() {
+        return this.tickCount;
+    }
+
+    /**
+     * @return number of ticks that were dropped after a stall
+     */
+    public synchronized long getSkippedTicks() {
+        return this.skippedTicks;
+    }
+
+    /**
+     * @return average time between the moment a tick was due and the moment it started, in milliseconds
+     */
+    public synchronized double getAverageLatenessMillis() {
+        return this.tickCount == 0 ? 0 : this.totalLateness / 1e6 / this.tickCount;
+    }
+
+    /**
+     * @return longest time between the moment a tick was due and the moment it started, in milliseconds
+     */
+    public synchronized double getMaxLatenessMillis() {
+        return this.maxLateness / 1e6;
+    }
+
+    /**
+     * @return average time a tick took to run, in milliseconds
+     */
+    public synchronized double getAverageTickDurationMillis() {
+        return this.tickCount == 0 ? 0 : this.totalTickDuration / 1e6 / this.tickCount;
+    }
+
+    /**
+     * @return average time spent after a tick on sending the game model to the clients, in milliseconds
+     */
+    public synchronized double getAverageBroadcastDurationMillis() {
+        return this.tickCount == 0 ? 0 : this.totalBroadcastDuration / 1e6 / this.tickCount;
+    }
+
+    /**
+     * forgets everything recorded so far
+     */
+    public synchronized void reset() {
+        this.tickCount = 0;
+        this.skippedTicks = 0;
+        this.totalLateness = 0;
+        this.maxLateness = 0;
+        this.totalTickDuration = 0;
+        this.totalBroadcastDuration = 0;
+    }
+
+    /**
+     * @return the statistics in a single line, for logging
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("ticks: %d, skipped: %d, lateness avg %.2f ms max %.2f ms, tick duration avg %.3f ms, "
+                        + "broadcast avg %.3f ms",
+                this.tickCount, this.skippedTicks, getAverageLatenessMillis(), getMaxLatenessMillis(),
+                getAverageTickDurationMillis(), getAverageBroadcastDurationMillis());
+    }
+}
@@ -0,0 +1,160 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.model.store.AsteroidStore;
+import aoop.asteroids.model.store.BulletStore;
+import aoop.asteroids.model.store.WorldStore;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * WorldStoreStepper runs game ticks on a WorldStore, by the same rules MultiplayerGameUpdater applies to the lists of a
+ * MultiplayerGame: everything moves, ships fire, bullets and asteroids destroy what they hit, and destroyed asteroids
+ * break up into their successors. Spawning new asteroids is left to the updater, as it is not part of a tick itself.
+ *
+ * Every step is a loop over the indices of the stores, so a tick does not touch a single asteroid or bullet
+ * object, and creates no garbage once the stores and the grids have grown to the size of the world.
+ */
+public class WorldStoreStepper {
+    /** speed of a fired bullet relative to the ship, as in GameUpdater.updateBulletsFiredPerShip() **/
+    private static final double BULLET_SPEED = 15;
+
+    private final SpatialGrid asteroidGrid = new SpatialGrid();
+    private final SpatialGrid bulletGrid = new SpatialGrid();
+
+    /** whether asteroids collide with each other, see GameUpdater.KESSLER_SYNDROME **/
+    private final boolean kesslerSyndrome;
+
+    /**
+     * creates a new WorldStoreStepper, following GameUpdater.KESSLER_SYNDROME
+     */
+    public WorldStoreStepper() {
+        this(GameUpdater.KESSLER_SYNDROME);
+    }
+
+    /**
+     * creates a new WorldStoreStepper
+     * @param kesslerSyndrome true to let asteroids collide with each other
+     */
+    public WorldStoreStepper(boolean kesslerSyndrome) {
+        this.kesslerSyndrome = kesslerSyndrome;
+    }
+
+    /**
+     * runs one game tick on the world
+     *
+     * @param world world to update
+     */
+    public void step(WorldStore world) {
+        AsteroidStore asteroids = world.getAsteroids();
+        BulletStore bullets = world.getBullets();
+        ArrayList<Spaceship> ships = world.getShips();
+
+        asteroids.move(world.getWidth(), world.getHeight());
+        bullets.move(world.getWidth(), world.getHeight());
+        ships.forEach(ship -> ship.nextStep(world.getWidth(), world.getHeight()));
+
+        for (int i = 0; i < ships.size(); i++) {
+            fireBullet(ships.get(i), bullets);
+        }
+        checkCollisions(world);
+        removeDestroyedObjects(asteroids, bullets, world.getRandom());
+    }
+
+    /**
+     * spawns a bullet if the ship is firing its weapon, see GameUpdater.updateBulletsFiredPerShip()
+     */
+    private void fireBullet(Spaceship ship, BulletStore bullets) {
+        if (ship.canFireWeapon() && !ship.isDestroyed()) {
+            double direction = ship.getDirection();
+            bullets.add(
+                    ship.getLocation().getX(),
+                    ship.getLocation().getY(),
+                    ship.getVelocity().x + Math.sin(direction) * BULLET_SPEED,
+                    ship.getVelocity().y - Math.cos(direction) * BULLET_SPEED
+            );
+            ship.setFired();
+        }
+    }
+
+    /**
+     * marks everything that collides as destroyed, see MultiplayerGameUpdater.checkCollisions()
+     */
+    private void checkCollisions(WorldStore world) {
+        AsteroidStore asteroids = world.getAsteroids();
+        BulletStore bullets = world.getBullets();
+        ArrayList<Spaceship> ships = world.getShips();
+        asteroidGrid.build(asteroids, world.getWidth(), world.getHeight());
+        bulletGrid.build(bullets, world.getWidth(), world.getHeight());
+
+        // First check collisions between bullets and other objects.
+        for (int i = 0; i < bullets.getCount(); i++) {
+            int count = asteroidGrid.findCandidates(bullets.getX(i), bullets.getY(i), bullets.getRadius(i));
+            int[] candidates = asteroidGrid.getCandidates();
+            for (int k = 0; k < count; k++) {
+                int j = candidates[k];
+                if (asteroids.collides(j, bullets, i)) {
+                    asteroids.setDestroyed(j, true);
+                    bullets.setDestroyed(i, true);
+                }
+            }
+        }
+        for (int s = 0; s < ships.size(); s++) {
+            Spaceship ship = ships.get(s);
+            if (ship.isDestroyed()) continue;
+            int count = bulletGrid.findCandidates(ship);
+            int[] candidates = bulletGrid.getCandidates();
+            for (int k = 0; k < count; k++) {
+                int j = candidates[k];
+                if (bullets.collides(j, ship)) {
+                    bullets.setDestroyed(j, true);
+                    ship.destroy();
+                    break;
+                }
+            }
+        }
+        // Next check for collisions between asteroids and spaceships.
+        for (int s = 0; s < ships.size(); s++) {
+            Spaceship ship = ships.get(s);
+            if (ship.isDestroyed()) continue;
+            int count = asteroidGrid.findCandidates(ship);
+            int[] candidates = asteroidGrid.getCandidates();
+            for (int k = 0; k < count; k++) {
+                int j = candidates[k];
+                if (asteroids.collides(j, ship)) {
+                    asteroids.setDestroyed(j, true);
+                    ship.destroy();
+                    break;
+                }
+            }
+        }
+        if (kesslerSyndrome) {
+            for (int i = 0; i < asteroids.getCount(); i++) {
+                int count = asteroidGrid.findCandidates(asteroids.getX(i), asteroids.getY(i), asteroids.getRadius(i));
+                int[] candidates = asteroidGrid.getCandidates();
+                for (int k = 0; k < count; k++) {
+                    int j = candidates[k];
+                    if (j <= i) continue; // Every pair only once, and not the asteroid with itself.
+                    if (asteroids.collides(i, asteroids, j)) {
+                        asteroids.setDestroyed(i, true);
+                        asteroids.setDestroyed(j, true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * adds the successors of the destroyed asteroids after the others, then removes everything that is destroyed,
+     * see MultiplayerGameUpdater.removeDestroyedObjects()
+     */
+    private void removeDestroyedObjects(AsteroidStore asteroids, BulletStore bullets, Random rng) {
+        int count = asteroids.getCount();
+        for (int i = 0; i < count; i++) {
+            if (asteroids.isDestroyed(i)) asteroids.addSuccessors(i, rng);
+        }
+        asteroids.removeDestroyed();
+        bullets.removeDestroyed();
+    }
+}
@@ -0,0 +1,106 @@
+package aoop.asteroids.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConnectionPool keeps at most a fixed number of connections to the database open and lends them out, so that the
+ * number of connections stays the same however many scores are written or read. A connection is only opened when it is
+ * needed, and opened again when it turned out to be broken, for instance after the database restarted.
+ */
+class ConnectionPool {
+    /**
+     * opens a new connection to the database
+     */
+    interface ConnectionFactory {
+        /**
+         * @return a new connection
+         * @throws SQLException when the database can not be reached
+         */
+        Connection open() throws SQLException;
+    }
+
+    /** seconds within which a connection has to answer to be reused **/
+    private static final int VALIDATION_TIMEOUT = 2;
+
+    private final ConnectionFactory factory;
+
+    /** one permit for every connection that may be lent out **/
+    private final Semaphore permits;
+
+    /** opened connections that are not lent out **/
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+
+    /**
+     * creates a new ConnectionPool
+     *
+     * @param factory opens the connections
+     * @param size largest number of connections
+     */
+    ConnectionPool(ConnectionFactory factory, int size) {
+        this.factory = factory;
+        this.permits = new Semaphore(size);
+    }
+
+    /**
+     * borrows a connection, waiting for one to be handed back if all of them are lent out. the connection has to be
+     * handed back with release(), also when using it failed
+     *
+     * @param timeout milliseconds to wait at most
+     * @return an open connection
+     * @throws SQLException when no connection could be had in time, or the database can not be reached
+     */
+    Connection acquire(long timeout) throws SQLException {
+        try {
+            if (!this.permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("no connection available within " + timeout + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted while waiting for a connection");
+        }
+        try {
+            Connection connection = this.idle.poll();
+            if (connection != null && connection.isValid(VALIDATION_TIMEOUT)) return connection;
+            closeQuietly(connection);
+            return this.factory.open();
+        } catch (SQLException | RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * hands a borrowed connection back to the pool
+     *
+     * @param connection connection returned by acquire()
+     */
+    void release(Connection connection) {
+        this.idle.add(connection);
+        this.permits.release();
+    }
+
+    /**
+     * closes the connections that are not lent out
+     */
+    void close() {
+        Connection connection;
+        while ((connection = this.idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * closes a connection, ignoring whatever goes wrong
+     */
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -1,70 +1,107 @@
 package aoop.asteroids.database;
 
-import java.sql.*;
+import java.io.File;
+import java.sql.DriverManager;
 
 /**
  * Database has multiple static methods that allows the program
- * to create, insert, and read from the database (namely all_scores)
+ * to create, insert, and read from the database (namely all_scores).
+ * scores are inserted by a ScoreWriter in the background, and the top ten is served from a Leaderboard in memory,
+ * which the score writer keeps up to date.
+ *
+ * the scores are kept in a file in the home directory of the user by default (see FileScoreRepository), so that the
+ * game runs without a database server. starting the game with -Dasteroids.scores=mysql keeps them in the MySQL
+ * database instead, and -Dasteroids.scores=some/file keeps them in another file
  */
 public class Database {
-    /** url to the database (it creates a new data when one doesn't exist) **/
-    private final static String URL = "jdbc:mysql://localhost:3306/scores?createDatabaseIfNotExist=true";
+    /**
+     * url to the database (it creates a new data when one doesn't exist). the score writer inserts scores in batches,
+     * which the driver sends as a single statement when it rewrites them
+     */
+    private final static String URL = "jdbc:mysql://localhost:3306/scores?createDatabaseIfNotExist=true&rewriteBatchedStatements=true";
     /** username **/
     private final static String USERNMAE = "java";
     /** password **/
     private final static String PASSWORD = "Java1234";
-    /** SQL query that selects top ten scores from the table **/
-    private final static String TOP_TEN_QUERY = "SELECT * FROM scores.all_scores ORDER BY score DESC LIMIT 10;";
+    /** system property that selects where the scores are kept **/
+    private final static String STORE_PROPERTY = "asteroids.scores";
+    /** value of the property that selects the MySQL database **/
+    private final static String MYSQL_STORE = "mysql";
+    /** file the scores are kept in by default **/
+    private final static String DEFAULT_FILE =
+            System.getProperty("user.home") + File.separator + ".asteroids" + File.separator + "scores.log";
+    /** number of connections kept open to the MySQL database **/
+    private final static int POOL_SIZE = 2;
+    /** milliseconds the ranking waits at most for the leaderboard to be loaded the first time **/
+    private final static long LOAD_TIMEOUT = 5000;
+    /** milliseconds the scores that are still queued get to be written when the program exits **/
+    private final static long SHUTDOWN_TIMEOUT = 3000;
 
     /**
-     * connect to the database
-     * @return connection
+     * holds the score writer and its leaderboard, so that its thread is only started once they are first used
      */
-    private static Connection connect() {
-        Connection conn = null;
-        try {
-            conn = DriverManager.getConnection(URL, USERNMAE, PASSWORD);
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private static class Writer {
+        private final static ScoreRepository REPOSITORY = openRepository();
+        private final static Leaderboard LEADERBOARD = new Leaderboard(Leaderboard.DEFAULT_SIZE);
+        private final static ScoreWriter INSTANCE =
+                new ScoreWriter(REPOSITORY, ScoreWriter.DEFAULT_QUEUE_CAPACITY, LEADERBOARD);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                INSTANCE.close(SHUTDOWN_TIMEOUT);
+                REPOSITORY.close();
+            }));
+        }
+
+        /**
+         * does nothing but make sure the writer is started : the first thing it does is load the leaderboard
+         */
+        static void start() {
         }
-        return conn;
     }
 
     /**
-     * inserts a new row to the database
+     * creates the repository selected by the asteroids.scores system property
+     * @return the repository
+     */
+    private static ScoreRepository openRepository() {
+        String store = System.getProperty(STORE_PROPERTY, DEFAULT_FILE);
+        if (store.equals(MYSQL_STORE)) {
+            return new JdbcScoreRepository(
+                    new ConnectionPool(() -> DriverManager.getConnection(URL, USERNMAE, PASSWORD), POOL_SIZE));
+        }
+        return new FileScoreRepository(new File(store));
+    }
+
+    /**
+     * queues a new row to be inserted into the database by the score writer, see ScoreWriter. this returns right away,
+     * so it can be called from the game loop
      *
      * @param nickname the nickname of the player
      * @param score the score of the player
      */
     public static void insert(String nickname, int score) {
-        String sql = "INSERT INTO all_scores(user_id, score) VALUES(?,?)";
-        try {
-            Connection conn = connect();
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, nickname);
-            pstmt.setInt(2, score);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        Writer.INSTANCE.submit(new Score(nickname, score));
+    }
+
+    /**
+     * starts loading the leaderboard in the background, so that it is ready by the time the ranking is opened
+     */
+    public static void loadLeaderboard() {
+        Writer.start();
     }
 
     /**
-     * retrieves top ten scores from the table and returns in form of String
+     * returns the top ten scores from the leaderboard in form of String. only the first call may wait for the
+     * leaderboard to be loaded, every other call is answered from memory
      * @return top ten scoring players and scores in String format
      */
     public static String getTopTenScorers() {
         StringBuilder sb = new StringBuilder();
-        try {
-            Connection conn = connect();
-            Statement stmt = conn.createStatement();
-            ResultSet rset = stmt.executeQuery(TOP_TEN_QUERY);
-            while(rset.next()) {
-                String str = String.format(" %1$-10s : %2$-5d\n", rset.getString("user_id"), rset.getInt("score"));
-                sb.append(str);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        Writer.LEADERBOARD.awaitFirstLoad(LOAD_TIMEOUT);
+        for (Score score : Writer.LEADERBOARD.getTop()) {
+            String str = String.format(" %1$-10s : %2$-5d\n", score.getNickname(), score.getScore());
+            sb.append(str);
         }
         return sb.toString();
     }
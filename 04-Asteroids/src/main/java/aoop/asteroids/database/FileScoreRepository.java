@@ -0,0 +1,160 @@
+package aoop.asteroids.database;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * FileScoreRepository keeps the scores in a file on the local disk, so that no database server is needed. The file is
+ * a log that scores are only ever appended to, one record after another : the score as an int, followed by the length
+ * of the nickname as an unsigned short and the nickname in UTF-8.
+ *
+ * When the file is opened, the log is read once to build an index in memory, from every score to where its records
+ * are in the file. The best scores are then found by walking the index and reading just those records. A record that
+ * was only partly written, because the program stopped while writing it, is cut off the end of the log.
+ *
+ * The file is only opened when it is first needed, and again after it failed to be opened.
+ */
+class FileScoreRepository implements ScoreRepository {
+    /** bytes in a record before the nickname **/
+    private static final int HEADER_SIZE = 6;
+    private static final int MAX_NICKNAME_LENGTH = 0xFFFF;
+
+    private final File path;
+    private RandomAccessFile file;
+
+    /** positions of the records in the file, by score, best score first **/
+    private final TreeMap<Integer, List<Long>> index = new TreeMap<>(Collections.reverseOrder());
+
+    /** position where the next record is appended **/
+    private long end;
+
+    /**
+     * creates a new FileScoreRepository. the file, and the directory it is in, are created when they don't exist
+     *
+     * @param path the file
+     */
+    FileScoreRepository(File path) {
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void insert(List<Score> scores) throws IOException {
+        RandomAccessFile file = open();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        long[] positions = new long[scores.size()];
+        for (int i = 0; i < scores.size(); i++) {
+            byte[] nickname = String.valueOf(scores.get(i).getNickname()).getBytes(StandardCharsets.UTF_8);
+            if (nickname.length > MAX_NICKNAME_LENGTH) throw new IOException("nickname too long to be stored");
+            positions[i] = this.end + out.size();
+            out.writeInt(scores.get(i).getScore());
+            out.writeShort(nickname.length);
+            out.write(nickname);
+        }
+        // one write for the whole batch. when it fails halfway, whatever was written of it is cut off again
+        try {
+            file.seek(this.end);
+            file.write(bytes.toByteArray());
+            file.getChannel().force(false);
+        } catch (IOException e) {
+            file.setLength(this.end);
+            throw e;
+        }
+        this.end += out.size();
+        for (int i = 0; i < scores.size(); i++) {
+            addToIndex(scores.get(i).getScore(), positions[i]);
+        }
+    }
+
+    @Override
+    public synchronized List<Score> findTop(int count) throws IOException {
+        RandomAccessFile file = open();
+        List<Score> scores = new ArrayList<>(count);
+        for (Map.Entry<Integer, List<Long>> entry : this.index.entrySet()) {
+            for (long position : entry.getValue()) {
+                if (scores.size() == count) return scores;
+                file.seek(position + Integer.BYTES);
+                byte[] nickname = new byte[file.readUnsignedShort()];
+                file.readFully(nickname);
+                scores.add(new Score(new String(nickname, StandardCharsets.UTF_8), entry.getKey()));
+            }
+        }
+        return scores;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.file == null) return;
+        try {
+            this.file.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.file = null;
+    }
+
+    /**
+     * opens the file and builds the index, unless that was done already
+     *
+     * @return the opened file
+     */
+    private RandomAccessFile open() throws IOException {
+        if (this.file != null) return this.file;
+        File directory = this.path.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("could not create " + directory);
+        }
+        RandomAccessFile file = new RandomAccessFile(this.path, "rw");
+        try {
+            readIndex(file);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        this.file = file;
+        return file;
+    }
+
+    /**
+     * reads every record of the log into the index, and cuts off a record at the end that is not complete
+     */
+    private void readIndex(RandomAccessFile file) throws IOException {
+        this.index.clear();
+        file.seek(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(file.getChannel())));
+        long position = 0;
+        try {
+            while (true) {
+                int score = in.readInt();
+                int length = in.readUnsignedShort();
+                in.skipBytes(length);
+                if (position + HEADER_SIZE + length > file.length()) break;
+                addToIndex(score, position);
+                position += HEADER_SIZE + length;
+            }
+        } catch (EOFException ignored) {
+        }
+        if (position < file.length()) file.setLength(position);
+        this.end = position;
+    }
+
+    /**
+     * adds the position of a record to the index
+     */
+    private void addToIndex(int score, long position) {
+        this.index.computeIfAbsent(score, key -> new ArrayList<>()).add(position);
+    }
+}
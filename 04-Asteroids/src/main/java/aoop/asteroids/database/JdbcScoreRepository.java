@@ -0,0 +1,93 @@
+package aoop.asteroids.database;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JdbcScoreRepository keeps the scores in the all_scores table of a database server, over connections borrowed from a
+ * ConnectionPool. Scores are inserted in a single batch and transaction.
+ */
+class JdbcScoreRepository implements ScoreRepository {
+    /** milliseconds to wait at most for a connection **/
+    private static final long CONNECTION_TIMEOUT = 5000;
+
+    private static final String INSERT = "INSERT INTO all_scores(user_id, score) VALUES(?,?)";
+    private static final String TOP_QUERY = "SELECT user_id, score FROM all_scores ORDER BY score DESC LIMIT ?";
+
+    private final ConnectionPool pool;
+
+    /**
+     * creates a new JdbcScoreRepository
+     *
+     * @param pool pool from which the connections are borrowed
+     */
+    JdbcScoreRepository(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void insert(List<Score> scores) throws IOException {
+        Connection connection = acquire();
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                for (Score score : scores) {
+                    statement.setString(1, score.getNickname());
+                    statement.setInt(2, score.getScore());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("could not insert " + scores.size() + " scores", e);
+        } finally {
+            this.pool.release(connection);
+        }
+    }
+
+    @Override
+    public List<Score> findTop(int count) throws IOException {
+        Connection connection = acquire();
+        try (PreparedStatement statement = connection.prepareStatement(TOP_QUERY)) {
+            statement.setInt(1, count);
+            List<Score> scores = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    scores.add(new Score(rows.getString("user_id"), rows.getInt("score")));
+                }
+            }
+            return scores;
+        } catch (SQLException e) {
+            throw new IOException("could not read the top scores", e);
+        } finally {
+            this.pool.release(connection);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.pool.close();
+    }
+
+    /**
+     * @return a connection borrowed from the pool
+     */
+    private Connection acquire() throws IOException {
+        try {
+            return this.pool.acquire(CONNECTION_TIMEOUT);
+        } catch (SQLException e) {
+            throw new IOException("could not connect to the database", e);
+        }
+    }
+}
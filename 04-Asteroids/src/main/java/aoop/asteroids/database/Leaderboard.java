@@ -0,0 +1,150 @@
+package aoop.asteroids.database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard keeps the best scores in memory, so that the ranking can be shown without asking the database. It is
+ * loaded from the database once, and then kept up to date as scores are inserted : a new score only has to be put in
+ * its place among the few best ones. Every now and then the ScoreWriter loads it again, to pick up scores that were
+ * inserted by other programs.
+ *
+ * Scores that were inserted but are not written yet are remembered as pending, so that loading the leaderboard from
+ * the database, which does not have them yet, does not make them disappear.
+ */
+class Leaderboard {
+    /** number of scores in the ranking **/
+    static final int DEFAULT_SIZE = 10;
+
+    private final int size;
+
+    /** best scores, best first. replaced as a whole, never changed, so it can be read without locking **/
+    private volatile List<Score> top = Collections.emptyList();
+
+    /** scores that were inserted and are not written to the database yet, guarded by this **/
+    private final Set<Score> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** counted down once the first load from the database is over, whether it succeeded or not **/
+    private final CountDownLatch firstLoad = new CountDownLatch(1);
+
+    /**
+     * creates a new, empty Leaderboard
+     *
+     * @param size number of scores in the ranking
+     */
+    Leaderboard(int size) {
+        this.size = size;
+    }
+
+    /**
+     * puts a score that is about to be written in its place, if it is among the best ones
+     *
+     * @param score the score
+     */
+    synchronized void add(Score score) {
+        this.pending.add(score);
+        List<Score> top = this.top;
+        int index = indexOf(top, score.getScore());
+        if (index >= this.size) return;
+        ArrayList<Score> updated = new ArrayList<>(top);
+        updated.add(index, score);
+        if (updated.size() > this.size) updated.remove(this.size);
+        this.top = Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * takes back a score that was added but will never be written, for instance because the writer dropped it
+     *
+     * @param score the score, as it was added
+     */
+    synchronized void discard(Score score) {
+        this.pending.remove(score);
+        if (!this.top.contains(score)) return;
+        ArrayList<Score> updated = new ArrayList<>(this.top);
+        updated.remove(score);
+        this.top = Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * marks scores as no longer pending, once they were written to the database or failed to be
+     *
+     * @param scores the scores, as they were added
+     */
+    synchronized void settle(Collection<Score> scores) {
+        for (Score score : scores) {
+            this.pending.remove(score);
+        }
+    }
+
+    /**
+     * replaces the leaderboard by the best scores of the database, together with the scores that are still pending.
+     * this has to be called by whoever writes the scores, between writes, so that every score is either in the
+     * database or pending
+     *
+     * @param stored best scores read from the database
+     */
+    synchronized void load(List<Score> stored) {
+        ArrayList<Score> scores = new ArrayList<>(stored);
+        scores.addAll(this.pending);
+        scores.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
+        if (scores.size() > this.size) scores.subList(this.size, scores.size()).clear();
+        this.top = Collections.unmodifiableList(scores);
+        this.firstLoad.countDown();
+    }
+
+    /**
+     * notes that loading from the database failed, so that nobody keeps waiting for the first load
+     */
+    void loadFailed() {
+        this.firstLoad.countDown();
+    }
+
+    /**
+     * waits until the leaderboard was loaded from the database for the first time
+     *
+     * @param timeout milliseconds to wait at most
+     * @return false if it was not loaded in time
+     */
+    boolean awaitFirstLoad(long timeout) {
+        try {
+            return this.firstLoad.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return number of scores in the ranking
+     */
+    int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the best scores, best first, without waiting for anything
+     */
+    List<Score> getTop() {
+        return this.top;
+    }
+
+    /**
+     * @return index where a new score goes among the given best scores : after the ones that are at least as good
+     */
+    private static int indexOf(List<Score> top, int score) {
+        int low = 0;
+        int high = top.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (top.get(middle).getScore() >= score) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,34 @@
+package aoop.asteroids.database;
+
+/**
+ * Score is one row of the scores table : the nickname of a player and a score the player reached in a game
+ */
+public class Score {
+    private final String nickname;
+    private final int score;
+
+    /**
+     * creates a new Score
+     *
+     * @param nickname the nickname of the player
+     * @param score the score of the player
+     */
+    public Score(String nickname, int score) {
+        this.nickname = nickname;
+        this.score = score;
+    }
+
+    /**
+     * @return the nickname of the player
+     */
+    public String getNickname() {
+        return this.nickname;
+    }
+
+    /**
+     * @return the score of the player
+     */
+    public int getScore() {
+        return this.score;
+    }
+}
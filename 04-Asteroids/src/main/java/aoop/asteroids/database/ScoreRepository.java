@@ -0,0 +1,30 @@
+package aoop.asteroids.database;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * ScoreRepository is where the scores are kept. The ScoreWriter is the only one that uses it, from its own thread, so
+ * a repository may take its time.
+ */
+interface ScoreRepository {
+    /**
+     * stores scores, all of them or none
+     *
+     * @param scores the scores
+     * @throws IOException when the scores could not be stored
+     */
+    void insert(List<Score> scores) throws IOException;
+
+    /**
+     * @param count largest number of scores to return
+     * @return the best scores, best first
+     * @throws IOException when the scores could not be read
+     */
+    List<Score> findTop(int count) throws IOException;
+
+    /**
+     * releases whatever the repository holds on to, such as connections or files
+     */
+    void close();
+}
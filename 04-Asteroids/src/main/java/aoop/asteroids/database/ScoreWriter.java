@@ -0,0 +1,193 @@
+package aoop.asteroids.database;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ScoreWriter inserts scores into a ScoreRepository on a thread of its own, so that whoever finishes a game (the game
+ * loop) never waits for the database. Scores are queued, and the writer inserts all the scores that are waiting at
+ * once, in a single batch.
+ *
+ * The queue is bounded : when the database falls so far behind that the queue is full, new scores are dropped (and
+ * counted) rather than holding up the game or filling up the memory.
+ *
+ * When the writer is given a Leaderboard, it adds every score it takes to it, and loads the leaderboard from the
+ * repository when it starts and every REFRESH_INTERVAL after that. It loads it between two batches, so that no score is
+ * being written at that moment.
+ */
+class ScoreWriter {
+    /** default number of scores that can wait to be written **/
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /** largest number of scores inserted in one batch **/
+    static final int MAX_BATCH_SIZE = 64;
+
+    /** milliseconds the writer waits for new scores before it checks whether it is closed **/
+    private static final long POLL_TIMEOUT = 100;
+
+    /** milliseconds between two loads of the leaderboard **/
+    static final long REFRESH_INTERVAL = 60000;
+
+    private final ScoreRepository repository;
+    private final Leaderboard leaderboard;
+    private final ArrayBlockingQueue<Score> queue;
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    /** scores that were written, that were dropped because the queue was full, and that failed to be written **/
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    /** scores of the batch being written, only used by the writer thread **/
+    private final ArrayList<Score> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+    /** System.nanoTime() at which the leaderboard is loaded next, only used by the writer thread **/
+    private long nextRefresh = System.nanoTime();
+
+    /**
+     * creates a new ScoreWriter without a leaderboard and starts its thread
+     *
+     * @param repository where the scores are written
+     * @param queueCapacity number of scores that can wait to be written
+     */
+    ScoreWriter(ScoreRepository repository, int queueCapacity) {
+        this(repository, queueCapacity, null);
+    }
+
+    /**
+     * creates a new ScoreWriter and starts its thread
+     *
+     * @param repository where the scores are written
+     * @param queueCapacity number of scores that can wait to be written
+     * @param leaderboard leaderboard kept up to date by the writer, or null
+     */
+    ScoreWriter(ScoreRepository repository, int queueCapacity, Leaderboard leaderboard) {
+        this.repository = repository;
+        this.leaderboard = leaderboard;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.thread = new Thread(this::run, "score writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * queues a score to be written, without waiting
+     *
+     * @param score the score
+     * @return false if the score was dropped, because the queue is full or the writer is closed
+     */
+    boolean submit(Score score) {
+        if (this.closed) {
+            this.droppedCount.incrementAndGet();
+            return false;
+        }
+        // added before it is queued, so that it is pending before the writer can write it
+        if (this.leaderboard != null) this.leaderboard.add(score);
+        if (!this.queue.offer(score)) {
+            if (this.leaderboard != null) this.leaderboard.discard(score);
+            this.droppedCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * stops taking new scores, and waits for the writer to write the scores that are still queued
+     *
+     * @param timeout milliseconds to wait at most
+     */
+    void close(long timeout) {
+        this.closed = true;
+        try {
+            this.thread.join(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * main loop of the writer thread : writes the queued scores in batches, until it is closed and the queue is empty,
+     * and loads the leaderboard when it is due
+     */
+    private void run() {
+        while (!this.closed || !this.queue.isEmpty()) {
+            if (this.leaderboard != null && System.nanoTime() - this.nextRefresh >= 0) {
+                refresh();
+                this.nextRefresh = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REFRESH_INTERVAL);
+            }
+            Score first;
+            try {
+                first = this.queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) continue;
+            this.batch.add(first);
+            this.queue.drainTo(this.batch, MAX_BATCH_SIZE - 1);
+            boolean written = write();
+            if (this.leaderboard != null) {
+                if (written) {
+                    this.leaderboard.settle(this.batch);
+                } else {
+                    // nothing was stored, so the scores have to leave the ranking as well
+                    for (Score score : this.batch) this.leaderboard.discard(score);
+                }
+            }
+            this.batch.clear();
+        }
+    }
+
+    /**
+     * inserts the scores of the batch. when that fails, the scores are counted as failed and dropped
+     *
+     * @return whether the scores were written
+     */
+    private boolean write() {
+        try {
+            this.repository.insert(this.batch);
+            this.writtenCount.addAndGet(this.batch.size());
+            return true;
+        } catch (IOException e) {
+            this.failedCount.addAndGet(this.batch.size());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * loads the best scores from the repository into the leaderboard
+     */
+    private void refresh() {
+        try {
+            this.leaderboard.load(this.repository.findTop(this.leaderboard.getSize()));
+        } catch (IOException e) {
+            this.leaderboard.loadFailed();
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return number of scores that were written
+     */
+    long getWrittenCount() {
+        return this.writtenCount.get();
+    }
+
+    /**
+     * @return number of scores that were dropped because the queue was full or the writer was closed
+     */
+    long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    /**
+     * @return number of scores that failed to be written
+     */
+    long getFailedCount() {
+        return this.failedCount.get();
+    }
+}
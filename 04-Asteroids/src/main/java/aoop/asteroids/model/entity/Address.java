@@ -11,6 +11,9 @@ public class Address {
     private int port;
     private String hostName;
 
+    /** the same address as an InetSocketAddress, made once since packets are sent to it over and over **/
+    private InetSocketAddress socketAddress;
+
     /**
      * creates a new Address object
      * @param ipAddress ip address
@@ -20,6 +23,7 @@ public class Address {
         this.ipAddress = ipAddress;
         this.port = port;
         this.hostName = ipAddress.getHostName();
+        this.socketAddress = new InetSocketAddress(ipAddress, port);
     }
 
     /**
@@ -40,9 +44,33 @@ public class Address {
         return this.port;
     }
 
-
+    /**
+     * @return the address as an InetSocketAddress
+     */
     public InetSocketAddress toSocketAddress() {
-        return new InetSocketAddress(this.ipAddress, this.port);
+        return this.socketAddress;
+    }
+
+    /**
+     * two addresses are equal when both their ip address and port are
+     *
+     * @param o object to compare with
+     * @return true if o is an Address with the same ip address and port
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Address)) return false;
+        Address other = (Address) o;
+        return this.port == other.port && this.ipAddress.equals(other.ipAddress);
+    }
+
+    /**
+     * @return hash code based on the ip address and port
+     */
+    @Override
+    public int hashCode() {
+        return 31 * this.ipAddress.hashCode() + this.port;
     }
 
     /**
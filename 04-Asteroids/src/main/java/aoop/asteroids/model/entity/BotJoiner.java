@@ -0,0 +1,131 @@
+package aoop.asteroids.model.entity;
+
+import aoop.asteroids.packet.InputPacket;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * BotJoiner is a Joiner steered by a script instead of a player's keys, so that many of them can play against a
+ * server without Swing, such as those of a LoadGenerator. Every so often it picks new buttons to hold down, drawn from
+ * a generator seeded by its number, so that the same bots play alike on every run.
+ *
+ * It keeps track of the snapshots it receives, and of the end-to-end latency of its input : the time from sending an
+ * input to receiving the first snapshot the server took after applying it.
+ */
+public class BotJoiner extends Joiner {
+    /** number of game ticks for which the bot holds down the same buttons **/
+    private static final int TICKS_PER_DECISION = 15;
+
+    /** number of inputs whose sending time is kept, which is more than are in flight at any time **/
+    private static final int SEND_TIMES = 256;
+
+    private final Random random;
+    private int buttons;
+    private int ticksUntilDecision = 0;
+
+    /** sending time of every input, in System.nanoTime(), at its sequence number modulo SEND_TIMES **/
+    private final AtomicLongArray sendTimes = new AtomicLongArray(SEND_TIMES);
+
+    /** newest input whose latency was measured **/
+    private int measuredSequence = -1;
+
+    /** statistics since they were last reset, guarded by this **/
+    private long snapshotCount;
+    private long latencyCount;
+    private long totalLatency;
+    private long maxLatency;
+
+    /**
+     * creates a new BotJoiner
+     *
+     * @param number number of the bot, which seeds its script and names it
+     * @param serverAddress Address of the server to join
+     */
+    public BotJoiner(int number, Address serverAddress) {
+        super("bot" + number, serverAddress);
+        this.random = new Random(number);
+    }
+
+    /**
+     * accelerates now and then, turns either way or not at all, and fires most of the time
+     *
+     * @return bits of the buttons the bot holds down, see InputPacket
+     */
+    @Override
+    public int getButtons() {
+        if (--this.ticksUntilDecision <= 0) {
+            int turn = this.random.nextInt(3);
+            this.buttons = InputPacket.toButtons(
+                    this.random.nextInt(3) == 0,
+                    turn == 1,
+                    turn == 2,
+                    this.random.nextInt(4) != 0
+            );
+            this.ticksUntilDecision = TICKS_PER_DECISION;
+        }
+        return this.buttons;
+    }
+
+    /**
+     * remembers when the input of the tick is sent
+     */
+    @Override
+    public int predictTick(int buttons) {
+        int sequence = super.predictTick(buttons);
+        this.sendTimes.set(sequence % SEND_TIMES, System.nanoTime());
+        return sequence;
+    }
+
+    /**
+     * counts the snapshot, and measures the latency of the newest input the server applied before taking it
+     */
+    @Override
+    void onSnapshotApplied(int inputSequence) {
+        super.onSnapshotApplied(inputSequence);
+        long latency = -1;
+        if (inputSequence > this.measuredSequence) {
+            this.measuredSequence = inputSequence;
+            latency = System.nanoTime() - this.sendTimes.get(inputSequence % SEND_TIMES);
+        }
+        synchronized (this) {
+            this.snapshotCount++;
+            if (latency >= 0) {
+                this.latencyCount++;
+                this.totalLatency += latency;
+                this.maxLatency = Math.max(this.maxLatency, latency);
+            }
+        }
+    }
+
+    /**
+     * @return number of snapshots applied since the statistics were reset
+     */
+    public synchronized long getSnapshotCount() {
+        return this.snapshotCount;
+    }
+
+    /**
+     * @return average end-to-end latency of the inputs, in milliseconds
+     */
+    public synchronized double getAverageLatencyMillis() {
+        return this.latencyCount == 0 ? 0 : this.totalLatency / 1e6 / this.latencyCount;
+    }
+
+    /**
+     * @return longest end-to-end latency of an input, in milliseconds
+     */
+    public synchronized double getMaxLatencyMillis() {
+        return this.maxLatency / 1e6;
+    }
+
+    /**
+     * forgets the statistics recorded so far
+     */
+    public synchronized void resetStatistics() {
+        this.snapshotCount = 0;
+        this.latencyCount = 0;
+        this.totalLatency = 0;
+        this.maxLatency = 0;
+    }
+}
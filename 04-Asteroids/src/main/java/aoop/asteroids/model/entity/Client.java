@@ -1,19 +1,26 @@
 package aoop.asteroids.model.entity;
 
+import aoop.asteroids.control.game_updater.GameUpdater;
 import aoop.asteroids.model.game.MultiplayerGame;
 import aoop.asteroids.model.game_object.Asteroid;
 import aoop.asteroids.model.game_object.Bullet;
 import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.AcknowledgementPacket;
+import aoop.asteroids.packet.FragmentAssembler;
 import aoop.asteroids.packet.PacketType;
+import aoop.asteroids.packet.SnapshotCodec;
+import aoop.asteroids.packet.SnapshotHistory;
+import aoop.asteroids.packet.SnapshotInterpolator;
+import aoop.asteroids.packet.WorldSnapshot;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Random;
+
+import static aoop.asteroids.packet.PacketType.ACCEPT_CONNECTION;
 
 /**
  * Client class is an abstract Runnable class whose subclasses are Joiner and Spectator.
@@ -21,14 +28,36 @@ import java.util.Random;
  */
 public abstract class Client extends UDPEntity implements Runnable {
     private Address serverAddress;
+
+    /** id of the room to join on a server that hosts many games, see RoomManager. a hosted game ignores it **/
+    private int roomId = RoomManager.DEFAULT_ROOM;
+
     private boolean connected = false;
-    DatagramSocket socket;
+
     /**  thread that handles all inputs to the client side (eg. regarding connection) **/
     Thread inputThread;
 
     /**  thread that handles all output to the server side (eg. regarding connection, receiving game model) **/
     Thread outputThread;
 
+    /** decoder for game models sent in the SNAPSHOT format **/
+    private SnapshotCodec snapshotCodec = new SnapshotCodec();
+
+    /** received snapshots, from which the server's next snapshots are rebuilt **/
+    private SnapshotHistory snapshotHistory = new SnapshotHistory();
+
+    /** puts game models that were sent in pieces back together **/
+    private FragmentAssembler fragmentAssembler = new FragmentAssembler();
+
+    /** number of snapshots that could not be used : invalid, late, or sent against an unknown baseline **/
+    private volatile long droppedSnapshots = 0;
+
+    /** tick of the newest snapshot received **/
+    private volatile int receivedTick = WorldSnapshot.NO_TICK;
+
+    /** reusable packet that acknowledges received snapshots **/
+    private AcknowledgementPacket acknowledgementPacket;
+
     /**
      * Client object constructor
      *
@@ -36,44 +65,43 @@ public abstract class Client extends UDPEntity implements Runnable {
      */
     public Client(Address serverAddress) {
         this.serverAddress = serverAddress;
-        openDatagramSocket();
+        openTransport();
     }
 
     /**
-     * opens a DatagramSocket for the client with random port number between 8000 and 9000
+     * opens a DatagramTransport for the client, on a free port picked by the system
      */
     @Override
-    void openDatagramSocket() {
-        Random rand = new Random();
+    void openTransport() {
         try {
-            int randomPort = rand.nextInt(10000) + 8000;
-            this.socket = new DatagramSocket(randomPort, serverAddress.getIpAddress());
-        } catch (SocketException e) {
+            this.transport = DatagramTransport.open(new InetSocketAddress(serverAddress.getIpAddress(), 0));
+        } catch (IOException e) {
             System.out.println("Can't open a client socket");
         }
     }
 
     public void safeRun() {
-        if (this.socket != null) new Thread(this).start();
+        if (this.transport != null) new Thread(this).start();
         else this.game.abort();
     }
 
     /**
-     * getter for the Client's game
+     * sets the client's game, which draws the snapshots it receives through a SnapshotInterpolator
      *
-     * @return client's MultiplayerGame
+     * @param game the game
      */
-    public MultiplayerGame getGame() {
-        return this.game;
+    void setGame(MultiplayerGame game) {
+        this.game = game;
+        this.game.setInterpolator(new SnapshotInterpolator(this.snapshotHistory, GameUpdater.NANOSECONDS_PER_TICK));
     }
 
     /**
-     * getter for the socket
+     * getter for the Client's game
      *
-     * @return DatagramSocket of the client
+     * @return client's MultiplayerGame
      */
-    public DatagramSocket getSocket() {
-        return this.socket;
+    public MultiplayerGame getGame() {
+        return this.game;
     }
 
     /**
@@ -85,6 +113,42 @@ public abstract class Client extends UDPEntity implements Runnable {
         return this.serverAddress;
     }
 
+    /**
+     * @return id of the room to join
+     */
+    public int getRoomId() {
+        return this.roomId;
+    }
+
+    /**
+     * selects the room to join, before the client is run
+     * @param roomId id of the room
+     */
+    public void setRoomId(int roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * @return tick of the newest snapshot received, or WorldSnapshot.NO_TICK before the first one
+     */
+    public int getReceivedTick() {
+        return this.receivedTick;
+    }
+
+    /**
+     * @return the assembler of the game models sent in pieces, which counts the ones that did not arrive whole
+     */
+    public FragmentAssembler getFragmentAssembler() {
+        return this.fragmentAssembler;
+    }
+
+    /**
+     * @return number of snapshots that arrived, but could not be used
+     */
+    public long getDroppedSnapshotCount() {
+        return this.droppedSnapshots;
+    }
+
     /**
      * @return connected
      */
@@ -100,31 +164,94 @@ public abstract class Client extends UDPEntity implements Runnable {
     }
 
     /**
-     * processes received game models sent from the server
-     * @param packet DatagramPacket of game model server sent
+     * processes a packet received from the server : the answer to the connection request first, game models after
+     *
+     * @param data packet data
+     * @param sender address the packet came from
+     */
+    void handlePacket(ByteBuffer data, InetSocketAddress sender) {
+        try {
+            if (isConnected()) {
+                processGameData(data);
+            } else {
+                processConnection(data);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * processes the server's answer to the connection request. the client is connected when the server accepted it,
+     * and gives up otherwise
+     *
+     * @param data packet data
+     * @throws IOException
+     */
+    private void processConnection(ByteBuffer data) throws IOException {
+        if (!isSerialized(data)) return;
+        prepareInputStream(data);
+        PacketType type = PacketType.getType(in.readInt());
+        System.out.println(type);
+        if (type == ACCEPT_CONNECTION) {
+            int idColor = in.readInt();
+            this.game.setWorldSize(in.readInt(), in.readInt());
+            onConnectionAccepted(idColor);
+            connect();
+        } else {
+            this.game.abort();
+        }
+    }
+
+    /**
+     * processes received game models sent from the server, which are either serialized or binary (SNAPSHOT), and may
+     * have been sent in pieces (FRAGMENT)
+     *
+     * @param data packet data of game model server sent
      * @throws IOException
      * @throws ClassNotFoundException
      */
-    void processGameData(DatagramPacket packet) throws IOException, ClassNotFoundException {
-        byteIn = new ByteArrayInputStream(packet.getData());
-        in = new ObjectInputStream(byteIn);
+    void processGameData(ByteBuffer data) throws IOException, ClassNotFoundException {
+        if (isSerialized(data)) {
+            prepareInputStream(data);
+            processGameData(PacketType.getType(in.readInt()), data);
+        } else if (data.remaining() >= 4) {
+            processGameData(PacketType.getType(data.getInt()), data);
+        }
+    }
 
-        PacketType type = PacketType.getType(in.readInt());
+    /**
+     * processes the content of a received packet whose type has been read
+     * @param type type of the packet
+     * @param data packet data, positioned after the type id of a binary packet
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    private void processGameData(PacketType type, ByteBuffer data) throws IOException, ClassNotFoundException {
         if (type == null) return;
         switch (type) {
             case GAME_MODEL:
                 setGameModel(in);
                 break;
+            case SNAPSHOT:
+                setGameModel(data);
+                break;
+            case FRAGMENT:
+                ByteBuffer message = this.fragmentAssembler.add(data, System.nanoTime());
+                if (message != null) processGameData(message);
+                break;
             case DISCONNECT:
-                synchronized (this.socket) {
-                    this.socket.close();
-                    this.game.abort();
-                }
+                this.transport.close();
+                this.game.abort();
         }
     }
 
     /**
-     * sets client's game model according to the received game models from the server
+     * sets client's game model according to the received game models from the server.
+     * the three lists are swapped in together under the game's lock, like a binary snapshot is applied, so that the game
+     * panel never draws the asteroids of one game model with the ships of another
      * @param in ObjectInputStream that reads the packet
      * @throws IOException
      * @throws ClassNotFoundException
@@ -134,10 +261,79 @@ public abstract class Client extends UDPEntity implements Runnable {
         ArrayList<Bullet> bullets = (ArrayList<Bullet>) in.readObject();
         ArrayList<Spaceship> ships = (ArrayList<Spaceship>) in.readObject();
 
-        this.game.setAsteroids(asteroids);
-        this.game.setBullets(bullets);
-        this.game.setShips(ships);
+        synchronized (this.game) {
+            this.game.setAsteroids(asteroids);
+            this.game.setBullets(bullets);
+            this.game.setShips(ships);
+        }
+        onGameModelUpdated();
+    }
+
+    /**
+     * sets client's game model according to a received binary snapshot, and acknowledges it to the server.
+     * snapshots that arrive late, or whose baseline is no longer known, are dropped; the server keeps sending
+     * against the last acknowledged snapshot (or in full) until a newer one arrives.
+     * the snapshot is written into the objects the game already has, so the game panel's lock is held meanwhile.
+     * its arrival is recorded by the game's interpolator, which measures the jitter of the snapshots.
+     *
+     * @param data buffer positioned right after the packet type id
+     */
+    void setGameModel(ByteBuffer data) {
+        long arrival = System.nanoTime();
+        WorldSnapshot snapshot;
+        int inputSequence;
+        try {
+            inputSequence = data.getInt();
+            snapshot = snapshotCodec.decode(data, snapshotHistory);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            System.out.println("invalid snapshot received");
+            this.droppedSnapshots++;
+            return;
+        }
+        if (snapshot == null) {
+            this.droppedSnapshots++;
+            return;
+        }
+        synchronized (this.game) {
+            snapshot.apply(this.game);
+            SnapshotInterpolator interpolator = this.game.getInterpolator();
+            if (interpolator != null) interpolator.add(snapshot.getTick(), arrival);
+            onSnapshotApplied(inputSequence);
+        }
+        this.receivedTick = snapshot.getTick();
+        acknowledge(snapshot.getTick());
+        onGameModelUpdated();
+    }
+
+    /**
+     * tells the server that the snapshot with the given tick has been received
+     *
+     * @param tick tick of the snapshot
+     */
+    private void acknowledge(int tick) {
+        if (acknowledgementPacket == null) acknowledgementPacket = new AcknowledgementPacket(this.transport);
+        acknowledgementPacket.setTick(tick);
+        acknowledgementPacket.sendPacket(this.serverAddress);
     }
 
+    /**
+     * called when the server accepted the connection request, and the game has taken the size of the server's world,
+     * before the client counts as connected
+     *
+     * @param idColor color the server assigned to the joiner's ship, -1 for a spectator
+     */
+    abstract void onConnectionAccepted(int idColor);
 
+    /**
+     * called after a snapshot has been written into the game, while the game's lock is held
+     *
+     * @param inputSequence sequence number of the last input of this client the server applied, -1 if none
+     */
+    void onSnapshotApplied(int inputSequence) {
+    }
+
+    /**
+     * called after the game model has been replaced by a newer one received from the server
+     */
+    abstract void onGameModelUpdated();
 }
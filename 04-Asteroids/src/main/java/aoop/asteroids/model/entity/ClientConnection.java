@@ -0,0 +1,199 @@
+package aoop.asteroids.model.entity;
+
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+import aoop.asteroids.packet.InterestArea;
+
+import java.net.InetAddress;
+
+/**
+ * ClientConnection is the server's record of a connected client: where to send to, what the client has received, and
+ * for a player, its ship and the buttons it holds down.
+ */
+public class ClientConnection {
+    /** default limit on the number of game models sent to a client per second **/
+    public static final int MAX_SNAPSHOTS_PER_SECOND = 30;
+
+    /** input of a client that has not sent any : sequence number -1, no buttons **/
+    private static final long NO_INPUT = -1L << 32;
+
+    private Address address;
+
+    /** tick of the newest snapshot the client acknowledged, updated by the server's receiving thread **/
+    private volatile int acknowledgedTick = -1;
+
+    /** least time between two game models sent to the client, in nanoseconds (0 for no limit) **/
+    private volatile long nanosPerSnapshot;
+
+    /** time at which the next game model may be sent to the client, in System.nanoTime() **/
+    private long nextSnapshotTime;
+
+    /** number of game models sent to the client, written by the game loop only **/
+    private volatile long sentSnapshots = 0;
+
+    /** ship of the player, or null for a spectator **/
+    private Spaceship ship;
+
+    /** part of the game the client is sent, or null for all of it **/
+    private volatile InterestArea interestArea;
+
+    /**
+     * the newest input, updated by the server's receiving thread : its sequence number in the high 32 bits, and the
+     * bits of the buttons held down (see InputPacket) in the low ones, so that the game loop reads both at once
+     */
+    private volatile long input = NO_INPUT;
+
+    /** sequence number of the input applied in the last game tick, sent back to the client with every snapshot **/
+    private volatile int appliedSequence = -1;
+
+    /** tick of the last snapshot the client had received when it sent its newest input **/
+    private volatile int inputTick = -1;
+
+    /**
+     * creates a new ClientConnection object
+     * @param address address of the client
+     */
+    public ClientConnection(Address address) {
+        this.address = address;
+        this.nextSnapshotTime = System.nanoTime();
+        setMaxSnapshotRate(MAX_SNAPSHOTS_PER_SECOND);
+    }
+
+    /**
+     * @return address of the client
+     */
+    public Address getAddress() {
+        return this.address;
+    }
+
+    /**
+     * @return ship of the player, or null for a spectator
+     */
+    public Spaceship getShip() {
+        return this.ship;
+    }
+
+    /**
+     * @param ship ship of the player
+     */
+    public void setShip(Spaceship ship) {
+        this.ship = ship;
+    }
+
+    /**
+     * @return part of the game the client is sent, or null for all of it
+     */
+    public InterestArea getInterestArea() {
+        return this.interestArea;
+    }
+
+    /**
+     * @param interestArea part of the game the client is sent, or null for all of it
+     */
+    public void setInterestArea(InterestArea interestArea) {
+        this.interestArea = interestArea;
+    }
+
+    /**
+     * records an input of the player. inputs that arrive after a newer one are ignored
+     *
+     * @param sequence sequence number of the input
+     * @param tick tick of the last snapshot the client had received
+     * @param buttons bits of the buttons held down
+     */
+    public void receiveInput(int sequence, int tick, int buttons) {
+        if (sequence < (int) (this.input >> 32)) return;
+        this.inputTick = tick;
+        this.input = ((long) sequence << 32) | (buttons & 0xFFFFFFFFL);
+    }
+
+    /**
+     * steers the player's ship with the buttons of its newest input. called by the game loop before every tick
+     */
+    public void applyInput() {
+        long input = this.input;
+        this.appliedSequence = (int) (input >> 32);
+        if (this.ship != null) InputPacket.apply((int) input, this.ship);
+    }
+
+    /**
+     * @return bits of the buttons the player holds down
+     */
+    public int getButtons() {
+        return (int) this.input;
+    }
+
+    /**
+     * @return sequence number of the input applied in the last game tick, -1 if none has been
+     */
+    public int getAppliedSequence() {
+        return this.appliedSequence;
+    }
+
+    /**
+     * @return tick of the last snapshot the client had received when it sent its newest input, or -1 without input
+     */
+    public int getInputTick() {
+        return this.inputTick;
+    }
+
+    /**
+     * @return tick of the newest snapshot the client acknowledged, or -1 if it has not acknowledged any
+     */
+    public int getAcknowledgedTick() {
+        return this.acknowledgedTick;
+    }
+
+    /**
+     * records that the client received a snapshot. acknowledgements that arrive out of order are ignored
+     *
+     * @param tick tick of the received snapshot
+     */
+    public void acknowledge(int tick) {
+        if (tick > this.acknowledgedTick) this.acknowledgedTick = tick;
+    }
+
+    /**
+     * limits the number of game models sent to the client
+     *
+     * @param snapshotsPerSecond most game models sent per second, or 0 for no limit
+     */
+    public void setMaxSnapshotRate(int snapshotsPerSecond) {
+        this.nanosPerSnapshot = snapshotsPerSecond <= 0 ? 0 : 1_000_000_000L / snapshotsPerSecond;
+    }
+
+    /**
+     * game models are sent along with the game ticks, which never come exactly on time, so a game model that is due a
+     * quarter of the interval from now is sent already. the next one is then due a full interval after this one was
+     * due, so that the average rate stays at the limit. without a limit, every game model is sent, also right after
+     * the limit was lifted.
+     *
+     * @param now current System.nanoTime()
+     * @return true if a game model may be sent to the client, in which case the next one is scheduled
+     */
+    public boolean takeSnapshotSlot(long now) {
+        long interval = this.nanosPerSnapshot;
+        long slack = interval / 4;
+        if (interval != 0 && now - this.nextSnapshotTime < -slack) return false;
+        if (now - slack - this.nextSnapshotTime > 0) this.nextSnapshotTime = now - slack; // Don't catch up after a stall.
+        this.nextSnapshotTime += interval;
+        this.sentSnapshots++;
+        return true;
+    }
+
+    /**
+     * @return number of game models sent to the client so far, see takeSnapshotSlot()
+     */
+    public long getSentSnapshotCount() {
+        return this.sentSnapshots;
+    }
+
+    /**
+     * @param ipAddress ip address a packet came from
+     * @param port port a packet came from
+     * @return true if the packet came from this client
+     */
+    public boolean isAt(InetAddress ipAddress, int port) {
+        return this.address.getPort() == port && this.address.getIpAddress().equals(ipAddress);
+    }
+}
@@ -1,15 +1,15 @@
 package aoop.asteroids.model.entity;
 
-import java.io.*;
-import java.net.DatagramPacket;
+import java.io.IOException;
 
 /**
- * ClientInputHandler is an abstract class whose subclasses JoinerInputHandler and SpectatorInputHandler
- * it contains the share features and functionalities among the two classes.
+ * ClientInputHandler is the thread that handles the input of a Joiner or a Spectator.
+ * it polls the client's DatagramTransport, which receives the server's answer to the connection request and the game
+ * models after it, and also sends the packets the client's output handler queued.
  */
 public class ClientInputHandler extends Thread {
-    ByteArrayInputStream byteIn = null;
-    ObjectInputStream in = null;
+    /** milliseconds to wait for packets before checking whether the game has been aborted **/
+    private static final long POLL_TIMEOUT = 100;
 
     private Client client;
 
@@ -22,33 +22,20 @@ public class ClientInputHandler extends Thread {
     }
 
     /**
-     * loop that receives game model sent from the server and call to process the model
+     * main loop
+     *
+     * receives the packets from the server and hands them to the client, until the game is aborted or the client's
+     * transport is closed
      */
-    void receiveGameModel() {
-        while (!this.isInterrupted() && client.isConnected() && !client.getGame().isAborted()) {
+    @Override
+    public void run() {
+        DatagramTransport transport = client.getTransport();
+        while (!this.isInterrupted() && transport.isOpen() && !client.getGame().isAborted()) {
             try {
-                DatagramPacket packet = new DatagramPacket(new byte[4000], 4000);
-                client.getSocket().receive(packet);
-                client.processGameData(packet);
+                transport.poll(client::handlePacket, POLL_TIMEOUT);
             } catch (IOException e) {
                 e.printStackTrace();
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
             }
         }
     }
-
-    /**
-     * prepare input streams
-     * @param packet DatagramPacket which will be read
-     */
-    void prepInputStream(DatagramPacket packet) {
-        try {
-            byteIn = new ByteArrayInputStream(packet.getData());
-            in = new ObjectInputStream(byteIn);
-            System.out.println("prepInputStream - in : " + in);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
 }
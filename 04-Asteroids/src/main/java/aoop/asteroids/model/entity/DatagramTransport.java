@@ -0,0 +1,266 @@
+package aoop.asteroids.model.entity;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DatagramTransport sends and receives the UDP packets of a Server, a Client or a RoomManager, over a non-blocking
+ * DatagramChannel.
+ *
+ * A single thread owns the transport and calls poll() in a loop : it waits on a Selector until packets arrive or are
+ * queued for sending, hands every received packet to a PacketHandler, and then sends everything that is queued.
+ * Packets are received into one direct buffer that is reused for every packet, so a handler has to be done with the
+ * data when it returns.
+ * Any thread may call send(), which copies the packet into a pooled direct buffer and queues it. The selector is only
+ * woken up when no wake up is pending yet, so all packets queued in the meantime (for instance a snapshot for every
+ * client) go out together in one batch. Once the pool has grown to the traffic, neither sending nor receiving a packet
+ * allocates any memory.
+ */
+public class DatagramTransport {
+    /** largest payload that fits in a single UDP datagram **/
+    public static final int MAX_PACKET_SIZE = 65507;
+
+    /**
+     * number of packets that may wait to be sent, beyond which packets are dropped, as a full network would. large
+     * snapshots are sent in pieces, so a single game model may take dozens of packets for every client
+     */
+    private static final int MAX_QUEUED_PACKETS = 4096;
+
+    /** number of packets received in a row before the queued packets get their turn **/
+    private static final int MAX_RECEIVES_PER_POLL = 256;
+
+    /** size of the socket's own send and receive buffers, so that a burst of snapshots does not overflow them **/
+    private static final int SOCKET_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * receives the packets of a transport
+     */
+    public interface PacketHandler {
+        /**
+         * processes a received packet
+         *
+         * @param data the packet's data, from its position up to its limit; only valid until the method returns
+         * @param sender address the packet came from
+         */
+        void handlePacket(ByteBuffer data, InetSocketAddress sender);
+    }
+
+    /**
+     * a packet waiting to be sent, in a buffer that is reused once it has been
+     */
+    private static class OutgoingPacket {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        SocketAddress target;
+
+        /**
+         * copies the data to send, growing the buffer if it is too small
+         */
+        void fill(ByteBuffer data, SocketAddress target) {
+            int length = data.remaining();
+            if (buffer.capacity() < length) {
+                buffer = ByteBuffer.allocateDirect(Math.min(MAX_PACKET_SIZE, Integer.highestOneBit(length - 1) << 1));
+            }
+            int start = data.position();
+            buffer.clear();
+            buffer.put(data);
+            buffer.flip();
+            data.position(start);
+            this.target = target;
+        }
+    }
+
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+
+    /** packets waiting to be sent, in order **/
+    private final ConcurrentLinkedQueue<OutgoingPacket> queue = new ConcurrentLinkedQueue<>();
+
+    /** packets that have been sent, ready to be reused **/
+    private final ConcurrentLinkedQueue<OutgoingPacket> pool = new ConcurrentLinkedQueue<>();
+
+    /** number of packets in the queue **/
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /** whether the selector has been woken up, and has not yet started sending the queue **/
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    /** packet that did not fit in the socket's send buffer, which is sent first once there is room again **/
+    private OutgoingPacket blocked;
+
+    private volatile boolean closed;
+
+    /**
+     * creates a new DatagramTransport on an open channel
+     */
+    private DatagramTransport(DatagramChannel channel) throws IOException {
+        this.channel = channel;
+        this.selector = Selector.open();
+        this.channel.configureBlocking(false);
+        this.key = this.channel.register(this.selector, SelectionKey.OP_READ);
+    }
+
+    /**
+     * opens a transport on a new channel
+     *
+     * @param address local address to bind to, port 0 picks any free port
+     * @return the transport
+     * @throws IOException when the address can not be bound
+     */
+    public static DatagramTransport open(InetSocketAddress address) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, SOCKET_BUFFER_SIZE);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SOCKET_BUFFER_SIZE);
+            channel.bind(address);
+            return new DatagramTransport(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * waits until packets arrive, packets are queued, or the timeout passes. then hands the received packets to the
+     * handler, and sends the queued packets. only one thread may poll a transport.
+     *
+     * @param handler handler of the received packets
+     * @param timeout longest time to wait, in milliseconds, 0 to not wait at all
+     * @throws IOException when receiving fails
+     */
+    public void poll(PacketHandler handler, long timeout) throws IOException {
+        if (closed) return;
+        try {
+            if (timeout > 0) {
+                selector.select(timeout);
+            } else {
+                selector.selectNow();
+            }
+            selector.selectedKeys().clear();
+            wakeupPending.set(false);
+            receive(handler);
+            flush();
+        } catch (ClosedSelectorException | ClosedChannelException | CancelledKeyException e) {
+            if (!closed) throw new IOException(e);
+        }
+    }
+
+    /**
+     * hands every packet that has arrived to the handler, up to MAX_RECEIVES_PER_POLL of them
+     */
+    private void receive(PacketHandler handler) throws IOException {
+        for (int i = 0; i < MAX_RECEIVES_PER_POLL; i++) {
+            receiveBuffer.clear();
+            SocketAddress sender = channel.receive(receiveBuffer);
+            if (sender == null) return;
+            receiveBuffer.flip();
+            handler.handlePacket(receiveBuffer, (InetSocketAddress) sender);
+        }
+    }
+
+    /**
+     * queues a packet to be sent by the thread that polls the transport. the data is copied, so the caller may reuse
+     * its buffer right away. packets sent after the transport has closed, or while the queue is full, are dropped.
+     *
+     * @param data data to send, from its position up to its limit, which are left as they are
+     * @param target destination address
+     */
+    public void send(ByteBuffer data, SocketAddress target) {
+        if (closed) return;
+        if (data.remaining() > MAX_PACKET_SIZE) {
+            System.out.println("packet too large to send : " + data.remaining() + " bytes");
+            return;
+        }
+        if (queued.incrementAndGet() > MAX_QUEUED_PACKETS) {
+            queued.decrementAndGet();
+            return;
+        }
+        OutgoingPacket packet = pool.poll();
+        if (packet == null) packet = new OutgoingPacket();
+        packet.fill(data, target);
+        queue.add(packet);
+        if (wakeupPending.compareAndSet(false, true)) selector.wakeup();
+    }
+
+    /**
+     * sends the queued packets, until the socket's send buffer is full. in that case the transport waits for the
+     * socket to become writable before it sends the rest.
+     */
+    private synchronized void flush() throws IOException {
+        OutgoingPacket packet = blocked != null ? blocked : queue.poll();
+        while (packet != null) {
+            try {
+                if (channel.send(packet.buffer, packet.target) == 0) {
+                    blocked = packet;
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            } catch (ClosedChannelException e) {
+                throw e;
+            } catch (IOException e) {
+                System.out.println("could not send packet to " + packet.target + " : " + e.getMessage());
+            }
+            queued.decrementAndGet();
+            pool.add(packet);
+            packet = queue.poll();
+        }
+        if (blocked != null) {
+            blocked = null;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * @return the local address the transport is bound to
+     */
+    public InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) channel.socket().getLocalSocketAddress();
+    }
+
+    /**
+     * @return the local port the transport is bound to
+     */
+    public int getLocalPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * @return whether the transport has not been closed
+     */
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * sends what is still queued, as far as the socket takes it, and closes the transport. a thread waiting in poll()
+     * returns right away.
+     */
+    public void close() {
+        if (closed) return;
+        try {
+            flush();
+        } catch (IOException e) {
+            // Closing anyway.
+        }
+        closed = true;
+        try {
+            selector.close();
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,26 +1,31 @@
 package aoop.asteroids.model.entity;
 
 import aoop.asteroids.control.PlayerKeyListener;
+import aoop.asteroids.control.game_updater.ShipPredictor;
 import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.util.Observable;
-import java.util.Observer;
+import java.awt.*;
 
 /**
  * Joiner is a Runnable class that represent a player in MultiplayerGame
  * it contains information about the player.
+ * the player's own ship is moved ahead of the server by a ShipPredictor, one tick at a time by the output thread,
+ * which sends the input of every tick to the server.
  */
-public class Joiner extends Client implements Observer {
-    /** PlayerKeyListener that joiner observes **/
+public class Joiner extends Client {
+    /** PlayerKeyListener that reads the player's keys **/
     private PlayerKeyListener playerKeyListener;
 
     /** nickname of the joiner **/
     private String nickname;
 
-    /** boolean that indicates whether joiner moved its ship **/
-    private boolean shipMoved = false;
+    /** moves the player's own ship ahead of the server **/
+    private ShipPredictor predictor = new ShipPredictor();
+
+    /** reusable packet that sends the player's input **/
+    private InputPacket inputPacket;
 
 
     /**
@@ -31,11 +36,10 @@ public class Joiner extends Client implements Observer {
     public Joiner(String nickname, Address serverAddress) {
         super(serverAddress);
         this.nickname = nickname;
-        this.game = new MultiplayerGame(nickname);
+        setGame(new MultiplayerGame(nickname));
         this.playerKeyListener = new PlayerKeyListener(game.getMyShip());
-        this.playerKeyListener.addObserver(this);
         this.outputThread = new JoinerOutputHandler(this);
-        this.inputThread = new JoinerInputHandler(this);
+        this.inputThread = new ClientInputHandler(this);
     }
 
     /**
@@ -63,41 +67,65 @@ public class Joiner extends Client implements Observer {
     }
 
     /**
-     * getter for shipMoved
+     * runs one tick of the player's own ship, ahead of the server
      *
-     * @return whether joiner has moved the ship
+     * @param buttons bits of the buttons held down, see getButtons()
+     * @return sequence number of the tick's input, by which the server tells which inputs it has applied
      */
-    public boolean shipMoved() {
-        return this.shipMoved;
+    public int predictTick(int buttons) {
+        synchronized (this.game) {
+            Spaceship ship = this.game.getMyShip();
+            if (ship == null) return this.predictor.getSequence();
+            return this.predictor.nextTick(ship, buttons);
+        }
     }
 
     /**
-     * sets shipMoved to false
+     * @return bits of the buttons the player holds down, see InputPacket
      */
-    public void shipStop() {
-        this.shipMoved = false;
+    public int getButtons() {
+        return InputPacket.toButtons(
+                this.playerKeyListener.isAccelerating(),
+                this.playerKeyListener.isTurningLeft(),
+                this.playerKeyListener.isTurningRight(),
+                this.playerKeyListener.isFiring()
+        );
     }
 
     /**
-     * sets joiner's game model according to the received game models from the server and notifies its game panel
-     * the Spaceship playerKeyListener is connected to is updated as well
-     *
-     * @param in ObjectInputStream that reads the packet
-     * @throws IOException
-     * @throws ClassNotFoundException
+     * @return reusable packet that sends the player's input
      */
-    void setGameModel(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        super.setGameModel(in);
-        this.playerKeyListener.setLinkedShip(this.game.getMyShip());
-        game.notifyListeners();
+    public synchronized InputPacket getInputPacket() {
+        if (this.inputPacket == null) this.inputPacket = new InputPacket(this.transport);
+        return this.inputPacket;
+    }
+
+    /**
+     * takes the color the server assigned to the joiner's ship, by which the ship is told apart from the others, and
+     * predicts the ship in a world of the server's size
+     */
+    @Override
+    void onConnectionAccepted(int idColor) {
+        this.game.getMyShip().setIdColor(new Color(idColor));
+        this.predictor.setWorldSize(this.game.getWorldWidth(), this.game.getWorldHeight());
     }
 
     /**
-     * the method is called by playerKeyListener when one of the game keys are pressed or released
+     * puts the player's own ship back ahead of the server, by replaying the inputs the snapshot does not include yet
      */
     @Override
-    public void update(Observable o, Object arg) {
-        if (!this.getGame().getMyShip().isDestroyed())
-            shipMoved = true;
+    void onSnapshotApplied(int inputSequence) {
+        Spaceship ship = this.game.getMyShip();
+        if (ship != null) this.predictor.reconcile(ship, inputSequence);
+    }
+
+    /**
+     * notifies its game panel after the game model has been updated by the server,
+     * the Spaceship playerKeyListener is connected to is updated as well
+     */
+    @Override
+    void onGameModelUpdated() {
+        this.playerKeyListener.setLinkedShip(this.game.getMyShip());
+        game.notifyListeners();
     }
 }
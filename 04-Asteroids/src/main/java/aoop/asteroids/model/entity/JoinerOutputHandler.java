@@ -1,7 +1,10 @@
 package aoop.asteroids.model.entity;
 
+import aoop.asteroids.control.game_updater.GameUpdater;
 import aoop.asteroids.util.Network;
 
+import java.util.concurrent.locks.LockSupport;
+
 import static aoop.asteroids.packet.PacketType.DISCONNECT;
 import static aoop.asteroids.packet.PacketType.REQUEST_CONNECTION_JOINER;
 
@@ -24,22 +27,34 @@ public class JoinerOutputHandler extends Thread {
      * main loop
      *
      * when joiner is not connected, it attempts connection with the server by sending a REQUEST_CONNECTION_JOINER message
-     * when connection is established, it sends its ship model every time the ship is moved
-     * when the game is aborted or thread is interrupted, it sends DISCONNECT message to the server
+     * when connection is established, it runs a tick of the player's own ship at the game's tick rate, and sends the
+     * input of every tick to the server
+     * when the game is aborted or thread is interrupted, it sends DISCONNECT message to the server and closes the
+     * transport
      */
     @Override
     public void run() {
         if (!joiner.isConnected()) {
-            Network.sendConnectionMessage(joiner.getSocket(), REQUEST_CONNECTION_JOINER, joiner.getNickname(), joiner.getServerAddress());
+            Network.sendConnectionMessage(joiner.getTransport(), REQUEST_CONNECTION_JOINER, joiner.getNickname(), joiner.getRoomId(), joiner.getServerAddress());
         }
+        long nextTickTime = System.nanoTime();
         while (!this.isInterrupted() && !joiner.getGame().isAborted()) {
-            if (joiner.isConnected() && joiner.shipMoved()) {
-                Network.sendShipModel(joiner);
-                joiner.shipStop();
+            if (joiner.isConnected()) {
+                int buttons = joiner.getButtons();
+                Network.sendInput(joiner, joiner.predictTick(buttons), buttons);
+            }
+            nextTickTime += GameUpdater.NANOSECONDS_PER_TICK;
+            long wait = nextTickTime - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (wait < -GameUpdater.NANOSECONDS_PER_TICK) {
+                nextTickTime = System.nanoTime(); // Don't catch up after a stall, the server won't either.
             }
         }
-        if (!joiner.getSocket().isClosed())
-            Network.sendMessage(joiner.getSocket(), DISCONNECT, joiner.getServerAddress());
+        if (joiner.getTransport().isOpen()) {
+            Network.sendMessage(joiner.getTransport(), DISCONNECT, joiner.getServerAddress());
+            joiner.getTransport().close();
+        }
     }
 
 }
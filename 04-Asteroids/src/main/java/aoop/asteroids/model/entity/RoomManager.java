@@ -0,0 +1,284 @@
+package aoop.asteroids.model.entity;
+
+import aoop.asteroids.control.game_updater.MultiplayerGameUpdater;
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.packet.PacketType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static aoop.asteroids.packet.PacketType.REQUEST_CONNECTION_JOINER;
+import static aoop.asteroids.packet.PacketType.REQUEST_CONNECTION_SPECTATOR;
+
+/**
+ * RoomManager is a Runnable class that hosts many independent multiplayer games, or rooms, on a single socket.
+ * Every room is a Server that shares the room manager's DatagramTransport instead of opening its own, so one I/O thread
+ * receives the packets of all rooms, and sends the game models that their game loops queue.
+ *
+ * A client picks its room in its connection request, which carries the room id right after the packet type id (see
+ * MessagePacket). A room is opened by the first request for its id. From then on, the room manager knows the client by
+ * its address, and hands every packet from that address to its room; INPUTs, DISCONNECT messages and
+ * acknowledgements need no room id of their own. The game loops of all rooms run on one shared, bounded thread pool,
+ * which also starts the rooms once enough players joined, and closes the rooms that have ended.
+ */
+public class RoomManager implements Runnable {
+    /** room joined by clients that do not pick one **/
+    public static final int DEFAULT_ROOM = 0;
+
+    /** largest number of rooms open at the same time **/
+    public static final int DEFAULT_MAX_ROOMS = 256;
+
+    /** milliseconds between two checks of the players in every room **/
+    private static final long MANAGE_INTERVAL = 100;
+
+    /** largest connection request, which is copied to read the room id it asks for **/
+    private static final int MAX_REQUEST_SIZE = 1400;
+
+    private final DatagramTransport transport;
+    private final ScheduledExecutorService executor;
+    private final int maxRooms;
+    private final int minPlayers;
+    private final long startTimeout;
+
+    /** radius around a player's ship within which objects are sent to the player, 0 to send the whole game **/
+    private volatile double interestRadius = 0;
+
+    /** size of the world of the rooms that open **/
+    private volatile int worldWidth = Game.DEFAULT_WORLD_WIDTH;
+    private volatile int worldHeight = Game.DEFAULT_WORLD_HEIGHT;
+
+    /** how often the rooms that open send the game model, see Server.setTicksPerSnapshot() and setMaxSnapshotRate() **/
+    private volatile int ticksPerSnapshot = MultiplayerGameUpdater.TICKS_PER_SNAPSHOT;
+    private volatile int maxSnapshotRate = ClientConnection.MAX_SNAPSHOTS_PER_SECOND;
+
+    /** open rooms by their id **/
+    private final ConcurrentHashMap<Integer, Room> rooms = new ConcurrentHashMap<>();
+
+    /** room of every connected client, only used by the receiving thread **/
+    private final HashMap<Address, Room> roomOfClient = new HashMap<>();
+
+    /** copy of the last connection request, which an ObjectInputStream can read **/
+    private final byte[] request = new byte[MAX_REQUEST_SIZE];
+
+    /**
+     * A room : a server, and since when it has (or has not) had players, for the rules that start and close it.
+     */
+    private static class Room {
+        final int id;
+        final Server server;
+        boolean waiting;
+        long since = System.nanoTime();
+
+        Room(int id, Server server) {
+            this.id = id;
+            this.server = server;
+        }
+    }
+
+    /**
+     * creates a new RoomManager
+     *
+     * @param transport transport over which all rooms receive and send
+     * @param threads number of threads that run the game loops of all rooms
+     * @param maxRooms largest number of rooms open at the same time
+     * @param minPlayers number of players at which a room starts its game right away
+     * @param startTimeoutSeconds seconds after the first player joined a room at which it starts its game with fewer
+     *                            players, as long as there are two
+     */
+    public RoomManager(DatagramTransport transport, int threads, int maxRooms, int minPlayers, int startTimeoutSeconds) {
+        this.transport = transport;
+        this.executor = Executors.newScheduledThreadPool(Math.max(1, threads));
+        this.maxRooms = maxRooms;
+        this.minPlayers = Math.max(2, minPlayers);
+        this.startTimeout = TimeUnit.SECONDS.toNanos(startTimeoutSeconds);
+    }
+
+    /**
+     * main loop that polls the transport, which receives the packets of all rooms and sends what they queued, until
+     * the transport is closed
+     */
+    @Override
+    public void run() {
+        executor.scheduleWithFixedDelay(this::manageRooms, MANAGE_INTERVAL, MANAGE_INTERVAL, TimeUnit.MILLISECONDS);
+        while (transport.isOpen()) {
+            try {
+                transport.poll(this::receivePacket, MANAGE_INTERVAL);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * routes a received packet, reporting packets that can not be read
+     */
+    private void receivePacket(ByteBuffer data, InetSocketAddress sender) {
+        try {
+            route(data, sender);
+        } catch (IOException e) {
+            System.out.println("invalid packet received from " + sender);
+        } catch (ClassNotFoundException e) {
+            System.out.println("invalid type cast : room packet");
+        }
+    }
+
+    /**
+     * hands a packet to the room of the client that sent it, or for a connection request, to the room it asks for
+     */
+    private void route(ByteBuffer data, InetSocketAddress sender) throws IOException, ClassNotFoundException {
+        Address address = new Address(sender.getAddress(), sender.getPort());
+        Room room = roomOfClient.get(address);
+        if (room != null && room.server.getGame().isAborted()) {
+            roomOfClient.remove(address); // The room has closed, the client may be looking for a new one.
+            room = null;
+        }
+        if (room == null) {
+            room = findRequestedRoom(data);
+            if (room == null) return;
+        }
+        room.server.handlePacket(data, sender);
+        if (room.server.hasClient(address)) {
+            roomOfClient.put(address, room);
+        } else {
+            roomOfClient.remove(address);
+        }
+    }
+
+    /**
+     * reads the room id of a connection request, and opens the room if it is not open yet
+     *
+     * @return the requested room, or null if the packet is no connection request or no more rooms can be opened
+     */
+    private Room findRequestedRoom(ByteBuffer data) throws IOException {
+        if (!UDPEntity.isSerialized(data) || data.remaining() > MAX_REQUEST_SIZE) return null;
+        int length = data.remaining();
+        data.get(request, 0, length);
+        data.position(data.position() - length);
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(request, 0, length));
+        PacketType type = PacketType.getType(in.readInt());
+        if (type != REQUEST_CONNECTION_JOINER && type != REQUEST_CONNECTION_SPECTATOR) return null;
+        int id = in.readInt();
+
+        Room room = rooms.get(id);
+        if (room != null && room.server.getGame().isAborted()) {
+            rooms.remove(id, room); // Closed, but not yet cleaned up : the id is free again.
+            room = null;
+        }
+        if (room != null && room.server.getGame().isRunning()) return null; // Games in progress take no more players.
+        if (room == null) {
+            if (rooms.size() >= maxRooms) return null;
+            room = new Room(id, new Server("room " + id, transport));
+            room.server.setInterestRadius(interestRadius);
+            room.server.getGame().setWorldSize(worldWidth, worldHeight);
+            room.server.setTicksPerSnapshot(ticksPerSnapshot);
+            room.server.setMaxSnapshotRate(maxSnapshotRate);
+            rooms.put(id, room);
+            System.out.println("opened room " + id);
+        }
+        return room;
+    }
+
+    /**
+     * starts the game of every room whose players are ready, and closes the rooms whose game can no longer go on : a
+     * room waits until minPlayers players joined, or until startTimeout passed since its first player joined while at
+     * least two players are there. a started room closes when fewer than two players are left, a room that is still
+     * waiting when it has been empty for startTimeout.
+     */
+    private void manageRooms() {
+        long now = System.nanoTime();
+        for (Room room : rooms.values()) {
+            int players = room.server.getGame().getShips().size();
+            if (room.server.getGame().isAborted()) {
+                rooms.remove(room.id, room);
+                System.out.println("closed room " + room.id);
+            } else if (room.server.getGame().isRunning()) {
+                if (players < 2) room.server.close();
+            } else {
+                if ((players > 0) != room.waiting) {
+                    room.waiting = players > 0;
+                    room.since = now;
+                }
+                if (players >= minPlayers || (players >= 2 && now - room.since >= startTimeout)) {
+                    System.out.println("starting room " + room.id + " with " + players + " players");
+                    room.server.getGame().start(executor);
+                } else if (players == 0 && now - room.since >= startTimeout) {
+                    room.server.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * limits the snapshots of the players in rooms that open from now on to the objects around their own ship, see
+     * Server.setInterestRadius()
+     *
+     * @param interestRadius radius of the area, in pixels, 0 to send the whole game
+     */
+    public void setInterestRadius(double interestRadius) {
+        this.interestRadius = interestRadius;
+    }
+
+    /**
+     * sets the size of the world of the rooms that open from now on, see Game.setWorldSize()
+     *
+     * @param worldWidth width of the world, in pixels
+     * @param worldHeight height of the world, in pixels
+     */
+    public void setWorldSize(int worldWidth, int worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * sends the game model of the rooms that open from now on after every so many game ticks, see
+     * Server.setTicksPerSnapshot()
+     *
+     * @param ticksPerSnapshot number of game ticks between two game models, at least 1
+     */
+    public void setTicksPerSnapshot(int ticksPerSnapshot) {
+        this.ticksPerSnapshot = ticksPerSnapshot;
+    }
+
+    /**
+     * limits the number of game models sent to every player of the rooms that open from now on, see
+     * Server.setMaxSnapshotRate()
+     *
+     * @param maxSnapshotRate most game models sent per second, 0 for no limit
+     */
+    public void setMaxSnapshotRate(int maxSnapshotRate) {
+        this.maxSnapshotRate = maxSnapshotRate;
+    }
+
+    /**
+     * @return number of open rooms
+     */
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    /**
+     * @param id id of a room
+     * @return the server of the room, or null if the room is not open
+     */
+    public Server getRoom(int id) {
+        Room room = rooms.get(id);
+        return room == null ? null : room.server;
+    }
+
+    /**
+     * shuts every room down, stops the thread pool and closes the transport
+     */
+    public void close() {
+        rooms.values().forEach(room -> room.server.close());
+        executor.shutdown();
+        transport.close();
+    }
+}
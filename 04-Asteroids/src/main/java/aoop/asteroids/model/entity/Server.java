@@ -1,54 +1,119 @@
 package aoop.asteroids.model.entity;
 
+import aoop.asteroids.control.game_updater.MultiplayerGameUpdater;
 import aoop.asteroids.model.game.MultiplayerGame;
 import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+import aoop.asteroids.packet.InterestArea;
 import aoop.asteroids.packet.PacketType;
+import aoop.asteroids.packet.SnapshotPacket;
 import aoop.asteroids.util.Network;
 
 import java.awt.*;
 import java.io.*;
-import java.net.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static aoop.asteroids.packet.PacketType.ACCEPT_CONNECTION;
 import static aoop.asteroids.packet.PacketType.DISCONNECT;
+import static aoop.asteroids.packet.PacketType.REQUEST_CONNECTION_JOINER;
+import static aoop.asteroids.packet.PacketType.REQUEST_CONNECTION_SPECTATOR;
 
 /**
  * Server is a Runnable class that hosts a multiplayer game.
- * in its main loop, it receives data from the clients and process it.
- * note that sending the game model is done by game updater thread in server's game
+ * in its main loop, it polls its DatagramTransport, which receives data from the clients to be processed, and sends
+ * what has been queued. note that the game model is queued by game updater thread in server's game
  */
 public class Server extends UDPEntity implements Runnable {
-    private ArrayList<Address> clientAddresses;
+    /**
+     * connected clients. clients join and leave on the thread that receives packets, while the game updater goes
+     * through the list every tick, so every change copies the list and the updater goes through a consistent one
+     */
+    private CopyOnWriteArrayList<ClientConnection> clients;
     private String nickname;
     private ArrayList<ServerListener> listeners;
 
+    /** milliseconds the main loop waits for packets before it checks whether the game has been aborted **/
+    private static final long POLL_TIMEOUT = 100;
+
     /**
-     * creates a new Server object
+     * whether the server is one of the rooms of a RoomManager : it runs without a display and without a player of its
+     * own, and shares the transport of the room manager, which receives the packets for it
+     */
+    private final boolean dedicated;
+
+    /** format in which the game model is sent to the clients : GAME_MODEL (serialized) or SNAPSHOT (binary) **/
+    private PacketType gameModelType = PacketType.SNAPSHOT;
+
+    /** radius around a player's ship within which the objects are sent to the player, 0 to send the whole game **/
+    private double interestRadius = 0;
+
+    /** part of the game sent to spectators, null for all of it **/
+    private InterestArea spectatorArea;
+
+    /** number of game ticks between two game models sent to the clients **/
+    private volatile int ticksPerSnapshot = MultiplayerGameUpdater.TICKS_PER_SNAPSHOT;
+
+    /** most game models sent to a client per second, 0 for no limit **/
+    private volatile int maxSnapshotRate = ClientConnection.MAX_SNAPSHOTS_PER_SECOND;
+
+    /** reusable packet used to send the game model in the SNAPSHOT format **/
+    private SnapshotPacket snapshotPacket;
+
+    /** whether the clients were told that the server closed, guarded by this **/
+    private boolean closedNotified = false;
+
+    /**
+     * creates a new Server object, with a ship for the server user
      * @param nickname nickname of the server user
      */
     public Server(String nickname) {
         this.nickname = nickname;
+        this.dedicated = false;
+        this.game = new MultiplayerGame(this);
+        this.clients = new CopyOnWriteArrayList<>();
+        this.listeners = new ArrayList<>();
+        openTransport();
+    }
+
+    /**
+     * creates a new Server object for a room of a RoomManager, which has no ship of its own and never draws the game.
+     * it is not run : the room manager passes it the packets of its clients, see handlePacket()
+     *
+     * @param name name of the room
+     * @param transport transport of the room manager
+     */
+    Server(String name, DatagramTransport transport) {
+        this.nickname = name;
+        this.dedicated = true;
+        this.transport = transport;
         this.game = new MultiplayerGame(this);
-        this.clientAddresses = new ArrayList<>();
+        this.clients = new CopyOnWriteArrayList<>();
         this.listeners = new ArrayList<>();
-        openDatagramSocket();
     }
 
     /**
-     * main loop that receives connection requests and game data from clients
+     * main loop that receives connection requests and game data from clients, until the game is aborted
      */
     @Override
     public void run() {
-        receiveConnectionRequest();
-        receiveDataFromClients();
+        while (!this.game.isAborted() && this.transport.isOpen()) {
+            try {
+                this.transport.poll(this::receivePacket, POLL_TIMEOUT);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     /**
-     * @return client addresses list
+     * @return connected clients list
      */
-    public ArrayList<Address> getClientAddresses() {
-        return this.clientAddresses;
+    public List<ClientConnection> getClients() {
+        return this.clients;
     }
 
     /**
@@ -58,6 +123,13 @@ public class Server extends UDPEntity implements Runnable {
         return this.nickname;
     }
 
+    /**
+     * @return whether this is a room of a RoomManager, without a ship of its own and without a display
+     */
+    public boolean isDedicated() {
+        return this.dedicated;
+    }
+
     /**
      * @return the game of the server
      */
@@ -66,88 +138,205 @@ public class Server extends UDPEntity implements Runnable {
     }
 
     /**
-     * @return DatagramSocket of the server
+     * @return format in which the game model is sent to the clients
+     */
+    public PacketType getGameModelType() {
+        return this.gameModelType;
+    }
+
+    /**
+     * selects the format in which the game model is sent to the clients
+     *
+     * @param gameModelType either GAME_MODEL or SNAPSHOT
+     */
+    public void setGameModelType(PacketType gameModelType) {
+        this.gameModelType = gameModelType;
+    }
+
+    /**
+     * @return radius around a player's ship within which the objects are sent to the player, 0 for the whole game
+     */
+    public double getInterestRadius() {
+        return this.interestRadius;
+    }
+
+    /**
+     * limits the snapshots sent to players that join from now on to the objects around their own ship, see
+     * InterestArea. only applies to the SNAPSHOT format
+     *
+     * @param interestRadius radius of the area, in pixels, 0 to send the whole game
+     */
+    public void setInterestRadius(double interestRadius) {
+        this.interestRadius = interestRadius;
+    }
+
+    /**
+     * @return number of game ticks between two game models sent to the clients
+     */
+    public int getTicksPerSnapshot() {
+        return this.ticksPerSnapshot;
+    }
+
+    /**
+     * sends the game model to the clients after every so many game ticks, rather than after every tick
+     *
+     * @param ticksPerSnapshot number of game ticks between two game models, at least 1
+     */
+    public void setTicksPerSnapshot(int ticksPerSnapshot) {
+        this.ticksPerSnapshot = Math.max(1, ticksPerSnapshot);
+    }
+
+    /**
+     * @return most game models sent to a client per second, 0 for no limit
+     */
+    public int getMaxSnapshotRate() {
+        return this.maxSnapshotRate;
+    }
+
+    /**
+     * limits the number of game models sent to every client, those connected already and those that connect from now
+     * on, see ClientConnection.setMaxSnapshotRate()
+     *
+     * @param maxSnapshotRate most game models sent per second, 0 for no limit
+     */
+    public void setMaxSnapshotRate(int maxSnapshotRate) {
+        this.maxSnapshotRate = maxSnapshotRate;
+        this.clients.forEach(client -> client.setMaxSnapshotRate(maxSnapshotRate));
+    }
+
+    /**
+     * limits the snapshots sent to spectators that join from now on to a region of the game. only applies to the
+     * SNAPSHOT format
+     *
+     * @param spectatorArea region sent to spectators, null to send the whole game
      */
-    public DatagramSocket getSocket() {
-        return this.socket;
+    public void setSpectatorArea(InterestArea spectatorArea) {
+        this.spectatorArea = spectatorArea;
     }
 
     /**
-     * opens the server's DatagramSocket. the port is set to its default 55555
+     * @return reusable packet that sends the game model in the SNAPSHOT format
+     */
+    public synchronized SnapshotPacket getSnapshotPacket() {
+        if (this.snapshotPacket == null) {
+            this.snapshotPacket = new SnapshotPacket(this.transport, this.game);
+        }
+        return this.snapshotPacket;
+    }
+
+    /**
+     * opens the server's DatagramTransport. the port is set to its default 55555
      */
     @Override
-    void openDatagramSocket() {
+    void openTransport() {
         try {
-            this.socket = new DatagramSocket(55555, Address.getValidIP());
+            this.transport = DatagramTransport.open(new InetSocketAddress(Address.getValidIP(), 55555));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * receives connection requests from clients
-     * when game has aborted or already started running, server does not receive any more requests
+     * processes a packet received by the server's own transport
+     *
+     * @param data packet data
+     * @param sender address of the client that sent it
      */
-    private void receiveConnectionRequest() {
-        while (!this.game.isAborted() && !this.game.isRunning()) {
-            try {
-                DatagramPacket packet = new DatagramPacket(new byte[200], 200);
-                socket.receive(packet);
-                prepareInputStream(packet);
-                processConnection(packet);
-            } catch (IOException | ClassNotFoundException e) {
-                this.game.abort();
-            }
+    private void receivePacket(ByteBuffer data, InetSocketAddress sender) {
+        try {
+            handlePacket(data, sender);
+        } catch (IOException e) {
+            System.out.println("invalid packet received from " + sender);
+        } catch (ClassNotFoundException e) {
+            System.out.println("invalid type cast : game data process");
         }
     }
 
     /**
-     * receives data from clients
-     *  1. Spaceship model from players
-     *  2. disconnection notice from clients
-     *  server only receives these data when the game is not aborted and game is running
+     * processes a packet received from a client, whether the game is waiting for players or running
+     *
+     * @param data packet data sent from client
+     * @param sender address of the client
+     * @throws IOException
+     * @throws ClassNotFoundException
      */
-    private void receiveDataFromClients() {
-        while (!this.game.isAborted() && this.game.isRunning()) {
-            try {
-                DatagramPacket packet = new DatagramPacket(new byte[1400], 1400);
-                socket.receive(packet);
-                prepareInputStream(packet);
-                processGameData(packet);
-            } catch (IOException e) {
-                e.printStackTrace();
-            } catch (ClassNotFoundException e) {
-                System.out.println("invalid type cast : game data process");
+    void handlePacket(ByteBuffer data, InetSocketAddress sender) throws IOException, ClassNotFoundException {
+        if (this.game.isRunning()) {
+            handleGamePacket(data, sender);
+        } else {
+            handleConnectionPacket(data, sender);
+        }
+    }
+
+    /**
+     * processes a packet received before the game started : connection requests and DISCONNECT messages
+     */
+    private void handleConnectionPacket(ByteBuffer data, InetSocketAddress sender) throws IOException, ClassNotFoundException {
+        prepareInputStream(data);
+        processConnection(sender);
+    }
+
+    /**
+     * processes a packet received while the game runs : DISCONNECT messages, SNAPSHOT_ACKs and INPUTs
+     */
+    private void handleGamePacket(ByteBuffer data, InetSocketAddress sender) throws IOException, ClassNotFoundException {
+        if (isSerialized(data)) {
+            prepareInputStream(data);
+            processGameData(sender);
+        } else if (data.remaining() >= 4) {
+            PacketType type = PacketType.getType(data.getInt());
+            if (type == PacketType.SNAPSHOT_ACK && data.remaining() >= 4) {
+                processAcknowledgement(sender, data.getInt());
+            } else if (type == PacketType.INPUT && data.remaining() >= InputPacket.SIZE - 4) {
+                processInput(sender, data.getInt(), data.getInt(), data.get());
             }
         }
     }
 
     /**
-     * notifies the clients that server has closed
+     * @param address address of a client
+     * @return whether the client at the address is connected to this server
+     */
+    boolean hasClient(Address address) {
+        for (ClientConnection client : this.clients) {
+            if (client.getAddress().equals(address)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * notifies the clients that server has closed. this is called both when the server is closed and when its game
+     * loop stops, whichever comes first, but the clients are only notified once
      */
     public synchronized void notifyServerClosed() {
-        this.clientAddresses.forEach(address -> Network.sendMessage(this.socket, DISCONNECT, address));
+        if (this.closedNotified) return;
+        this.closedNotified = true;
+        this.clients.forEach(client -> Network.sendMessage(this.transport, DISCONNECT, client.getAddress()));
     }
 
     /**
-     * processes game data sent from clients. it processes :
-     *  1. SHIP model
-     *  2. DISCONNECT message
+     * shuts the server down : notifies the clients, aborts the game and closes the transport, unless it is shared
+     * with the other rooms of a RoomManager
+     */
+    public void close() {
+        notifyServerClosed();
+        this.game.abort();
+        if (!this.dedicated) this.transport.close();
+    }
+
+    /**
+     * processes serialized game data sent from clients, which is the DISCONNECT message
      *
-     * @param packet DatagramPacket sent from client
+     * @param sender address of the client
      * @throws IOException
      * @throws ClassNotFoundException
      */
-    private void processGameData(DatagramPacket packet) throws IOException, ClassNotFoundException {
+    private void processGameData(InetSocketAddress sender) throws IOException, ClassNotFoundException {
         PacketType type = PacketType.getType(in.readInt());
         if (type == null) return;
         switch(type) {
-            case SHIP:
-                Spaceship newShip = (Spaceship) in.readObject();
-                this.overWriteShip(newShip);
-                break;
             case DISCONNECT:
-                processDisconnectionNotice(packet);
+                processDisconnectionNotice(sender);
                 break;
         }
     }
@@ -155,29 +344,41 @@ public class Server extends UDPEntity implements Runnable {
     /**
      * processes initial connection request
      *
-     * @param packet DatagramPacket sent from client
+     * @param sender address of the client
      * @throws IOException
      * @throws ClassNotFoundException
      */
-    private void processConnection(DatagramPacket packet) throws IOException, ClassNotFoundException {
+    private void processConnection(InetSocketAddress sender) throws IOException, ClassNotFoundException {
         PacketType type = PacketType.getType(in.readInt());
         if (type == null) return;
+        if (type == REQUEST_CONNECTION_JOINER || type == REQUEST_CONNECTION_SPECTATOR) {
+            in.readInt(); // The room id, by which the room manager (if any) has already picked this server.
+        }
         switch(type) {
             case REQUEST_CONNECTION_JOINER:
                 String joinerName = (String) in.readObject();
-                this.createNewJoinerShip(joinerName, packet.getPort());
-                Address joinerAddress = new Address(packet.getAddress(), packet.getPort());
-                this.clientAddresses.add(joinerAddress);
-                Network.sendAcceptanceMessage(this.socket, ACCEPT_CONNECTION, packet.getPort(), joinerAddress);
+                Address joinerAddress = new Address(sender.getAddress(), sender.getPort());
+                ClientConnection joiner = new ClientConnection(joinerAddress);
+                joiner.setMaxSnapshotRate(this.maxSnapshotRate);
+                joiner.setShip(this.createNewJoinerShip(joinerName, sender.getPort()));
+                if (this.interestRadius > 0) {
+                    joiner.setInterestArea(InterestArea.aroundShip(joiner.getShip().getIdColor().getRGB(),
+                            this.interestRadius, this.game.getWorldWidth(), this.game.getWorldHeight()));
+                }
+                this.clients.add(joiner);
+                Network.sendAcceptanceMessage(this.transport, ACCEPT_CONNECTION, sender.getPort(), this.game, joinerAddress);
                 notifyObservers();
                 break;
             case REQUEST_CONNECTION_SPECTATOR:
-                Address specAddress = new Address(packet.getAddress(), packet.getPort());
-                this.clientAddresses.add(specAddress);
-                Network.sendAcceptanceMessage(this.socket, ACCEPT_CONNECTION, -1, specAddress);
+                Address specAddress = new Address(sender.getAddress(), sender.getPort());
+                ClientConnection spectator = new ClientConnection(specAddress);
+                spectator.setMaxSnapshotRate(this.maxSnapshotRate);
+                spectator.setInterestArea(this.spectatorArea);
+                this.clients.add(spectator);
+                Network.sendAcceptanceMessage(this.transport, ACCEPT_CONNECTION, -1, this.game, specAddress);
                 break;
             case DISCONNECT:
-                processDisconnectionNotice(packet);
+                processDisconnectionNotice(sender);
                 notifyObservers();
                 break;
         }
@@ -186,28 +387,45 @@ public class Server extends UDPEntity implements Runnable {
     /**
      * processes DISCONNECT messages from clients
      *
-     * @param packet DatagramPacket sent from client
+     * @param sender address of the client
      */
-    private void processDisconnectionNotice(DatagramPacket packet) {
-        Address disconnAddress = new Address(packet.getAddress(), packet.getPort());
-        Spaceship ship = this.game.getShipByIdColor(new Color(packet.getPort()));
-        if (ship != null) this.game.getShips().remove(ship);
-        this.clientAddresses.remove(disconnAddress);
+    private void processDisconnectionNotice(InetSocketAddress sender) {
+        Spaceship ship = this.game.getShipByIdColor(new Color(sender.getPort()));
+        if (ship != null) this.game.removeShip(ship);
+        this.clients.removeIf(client -> client.isAt(sender.getAddress(), sender.getPort()));
     }
 
     /**
-     * overwrites a Spaceship with its newer model sent from the client
-     * @param newShip new Spaceship model
+     * processes SNAPSHOT_ACK messages from clients, so that the next snapshots sent to the client only hold what
+     * changed since the acknowledged one
+     *
+     * @param sender address of the client
+     * @param tick tick of the acknowledged snapshot
      */
-    public void overWriteShip(Spaceship newShip) {
-        int idx = 0;
-        for (Spaceship ship : this.game.getShips()) {
-            if (ship.equals(newShip)) {
-                break;
+    private void processAcknowledgement(InetSocketAddress sender, int tick) {
+        for (ClientConnection client : this.clients) {
+            if (client.isAt(sender.getAddress(), sender.getPort())) {
+                client.acknowledge(tick);
+                return;
+            }
+        }
+    }
+
+    /**
+     * processes INPUT messages from players, which the game loop applies to their ships before the next tick
+     *
+     * @param sender address of the client
+     * @param sequence sequence number of the input
+     * @param tick tick of the last snapshot the client had received
+     * @param buttons bits of the buttons held down
+     */
+    private void processInput(InetSocketAddress sender, int sequence, int tick, int buttons) {
+        for (ClientConnection client : this.clients) {
+            if (client.isAt(sender.getAddress(), sender.getPort())) {
+                client.receiveInput(sequence, tick, buttons);
+                return;
             }
-            idx++;
         }
-        this.game.getShips().set(idx, newShip);
     }
 
     /**
@@ -216,23 +434,13 @@ public class Server extends UDPEntity implements Runnable {
      *
      * @param joinerName nickname of joiner
      * @param id port number of joiner
+     * @return the new ship
      */
-    private void createNewJoinerShip(String joinerName, int id) {
+    private Spaceship createNewJoinerShip(String joinerName, int id) {
         Spaceship ship = new Spaceship(joinerName, new Color(id));
-        this.game.getShips().add(ship);
-    }
-
-    /**
-     * prepares input streams
-     * @param packet DatagramPacket to be read
-     */
-    protected void prepareInputStream(DatagramPacket packet) {
-        try {
-            byteIn = new ByteArrayInputStream(packet.getData());
-            in = new ObjectInputStream(byteIn);
-        } catch (IOException e) {
-            System.out.println("exception when prepare input stream");
-        }
+        ship.resetAtRandomLocation(this.game.getWorldWidth(), this.game.getWorldHeight(), this.game.getRandom());
+        this.game.addShip(ship);
+        return ship;
     }
 
     /**
@@ -2,9 +2,6 @@ package aoop.asteroids.model.entity;
 
 import aoop.asteroids.model.game.MultiplayerGame;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
-
 /**
  * Joiner is a Runnable class that represent a spectator in MultiplayerGame
  * it contains information about the spectator.
@@ -12,8 +9,8 @@ import java.io.ObjectInputStream;
 public class Spectator extends Client {
     public Spectator(Address serverAddress) {
         super(serverAddress);
-        this.game = new MultiplayerGame();
-        this.inputThread = new SpectatorInputHandler(this);
+        setGame(new MultiplayerGame());
+        this.inputThread = new ClientInputHandler(this);
         this.outputThread = new SpectatorOutputHandler(this);
     }
 
@@ -27,14 +24,17 @@ public class Spectator extends Client {
     }
 
     /**
-     * sets spectator's game model according to the received game models from the server and notifies its game panel
-     *
-     * @param in ObjectInputStream that reads the packet
-     * @throws IOException
-     * @throws ClassNotFoundException
+     * a spectator has no ship, so there is nothing more to read
      */
-    void setGameModel(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        super.setGameModel(in);
+    @Override
+    void onConnectionAccepted(int idColor) {
+    }
+
+    /**
+     * notifies its game panel after the game model has been updated by the server
+     */
+    @Override
+    void onGameModelUpdated() {
         game.notifyListeners();
         try { Thread.sleep(0); } catch (InterruptedException e) {}
     }
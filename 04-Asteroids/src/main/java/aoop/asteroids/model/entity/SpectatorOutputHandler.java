@@ -1,8 +1,9 @@
 package aoop.asteroids.model.entity;
 
+import aoop.asteroids.control.game_updater.GameUpdater;
 import aoop.asteroids.util.Network;
 
-import java.net.DatagramSocket;
+import java.util.concurrent.locks.LockSupport;
 
 import static aoop.asteroids.packet.PacketType.*;
 
@@ -11,7 +12,6 @@ import static aoop.asteroids.packet.PacketType.*;
  */
 public class SpectatorOutputHandler extends Thread {
     private Spectator spectator;
-    private DatagramSocket socket;
 
     /**
      * creates a new SpectatorOutputHandler
@@ -19,24 +19,29 @@ public class SpectatorOutputHandler extends Thread {
      */
     public SpectatorOutputHandler(Spectator spectator) {
         this.spectator = spectator;
-        this.socket = spectator.getSocket();
     }
 
     /**
      * main loop
      *
      * when joiner is not connected, it attempts connection with the server by sending a REQUEST_CONNECTION_SPECTATOR message
-     * when connection is established, it sends its ship model every time the ship is moved
-     * when the game is aborted or thread is interrupted, it sends DISCONNECT message to the server
+     * a spectator has no input to send, so after that it only checks once every game tick whether it has to stop
+     * when the game is aborted or thread is interrupted, it sends DISCONNECT message to the server and closes the
+     * transport
      */
     @Override
     public void run() {
         if (!spectator.isConnected()) {
             System.out.println("try");
-            Network.sendConnectionMessage(spectator.getSocket(), REQUEST_CONNECTION_SPECTATOR, null, spectator.getServerAddress());
+            Network.sendConnectionMessage(spectator.getTransport(), REQUEST_CONNECTION_SPECTATOR, null, spectator.getRoomId(), spectator.getServerAddress());
+        }
+        while (!this.isInterrupted() && !spectator.getGame().isAborted()) {
+            LockSupport.parkNanos(GameUpdater.NANOSECONDS_PER_TICK);
         }
-        while (!this.isInterrupted() && !spectator.getGame().isAborted());
 
-        Network.sendMessage(spectator.getSocket(), DISCONNECT, spectator.getServerAddress());
+        if (spectator.getTransport().isOpen()) {
+            Network.sendMessage(spectator.getTransport(), DISCONNECT, spectator.getServerAddress());
+            spectator.getTransport().close();
+        }
     }
 }
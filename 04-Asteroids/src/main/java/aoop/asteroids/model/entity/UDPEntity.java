@@ -3,16 +3,18 @@ package aoop.asteroids.model.entity;
 import aoop.asteroids.model.game.MultiplayerGame;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.net.DatagramSocket;
+import java.io.ObjectStreamConstants;
+import java.nio.ByteBuffer;
 
 /**
  * UDPEntity is an abstract parent class for all entities that uses UDP
  * This includes Joiner, Spectator, and Server
  */
 public abstract class UDPEntity {
-    /** DatagramSocket of entity **/
-    DatagramSocket socket;
+    /** transport over which the entity sends and receives its packets **/
+    DatagramTransport transport;
 
     /** Multiplayer game model **/
     MultiplayerGame game;
@@ -21,9 +23,47 @@ public abstract class UDPEntity {
     ByteArrayInputStream byteIn;
     ObjectInputStream in;
 
+    /** copy of the last received serialized packet, which an ObjectInputStream can read **/
+    private byte[] receivedBytes = new byte[0];
+
+    /**
+     * abstract method that opens the DatagramTransport of the UDPEntity
+     */
+    abstract void openTransport();
+
+    /**
+     * @return DatagramTransport of the entity
+     */
+    public DatagramTransport getTransport() {
+        return this.transport;
+    }
+
+    /**
+     * prepares the input streams to read a received serialized packet. the data is copied into an array that is kept
+     * for the next packets, since the transport reuses its buffer, and is left at its position.
+     *
+     * @param data received packet data
+     * @throws IOException when the packet does not start with a stream header
+     */
+    void prepareInputStream(ByteBuffer data) throws IOException {
+        int length = data.remaining();
+        if (receivedBytes.length < length) receivedBytes = new byte[Math.max(length, 2 * receivedBytes.length)];
+        int start = data.position();
+        data.get(receivedBytes, 0, length);
+        data.position(start);
+        byteIn = new ByteArrayInputStream(receivedBytes, 0, length);
+        in = new ObjectInputStream(byteIn);
+    }
+
     /**
-     * abstract method that opens a DatagramSocket for the UDPEntity
+     * packets written by an ObjectOutputStream start with its stream header, binary packets (SNAPSHOT, SNAPSHOT_ACK)
+     * start with their type id right away, so the first two bytes tell the formats apart.
+     *
+     * @param data wrapped packet data
+     * @return true if the packet was written by an ObjectOutputStream
      */
-    abstract void openDatagramSocket();
+    static boolean isSerialized(ByteBuffer data) {
+        return data.remaining() >= 2 && data.getShort(data.position()) == ObjectStreamConstants.STREAM_MAGIC;
+    }
 
 }
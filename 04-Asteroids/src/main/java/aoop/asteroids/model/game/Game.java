@@ -2,8 +2,11 @@ package aoop.asteroids.model.game;
 
 import aoop.asteroids.game_observer.ObservableGame;
 import aoop.asteroids.model.game_object.*;
+import aoop.asteroids.packet.WorldSnapshot;
+import aoop.asteroids.util.TripleBuffer;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 /**
  * Game is an abstract class whose subclasses are MultiplayerGame SingleplayerGame
@@ -13,6 +16,32 @@ import java.util.ArrayList;
  * GameUpdater class, which runs in its own thread, and manages the main game loop and physics updates.
  */
 public abstract class Game extends ObservableGame {
+    /**
+     * The width and height of the world when none is set, which is the size of the game's window.
+     */
+    public static final int DEFAULT_WORLD_WIDTH = 800;
+    public static final int DEFAULT_WORLD_HEIGHT = 800;
+
+    /**
+     * System property holding the seed of the games that are created, so that a simulation can be run again exactly,
+     * given the same input. When it is not set, every game gets a seed of its own.
+     */
+    public static final String SEED_PROPERTY = "asteroids.seed";
+
+    /**
+     * The size of the world, in pixels. Objects that move off one edge come back in at the opposite one. When the world
+     * is larger than the window, the game panel follows the player's ship.
+     */
+    private volatile int worldWidth = DEFAULT_WORLD_WIDTH;
+    private volatile int worldHeight = DEFAULT_WORLD_HEIGHT;
+
+    /**
+     * The seed of the game, and the random number generator it seeds. Every random choice of the simulation, such as
+     * where asteroids spawn, how they break up and where ships respawn, is drawn from it, so that two games with the
+     * same seed and the same input play out exactly alike.
+     */
+    private long seed = Long.getLong(SEED_PROPERTY, new Random().nextLong());
+    private Random random = new Random(this.seed);
     /**
      * The spaceship object that the player is in control of.
      */
@@ -33,6 +62,12 @@ public abstract class Game extends ObservableGame {
      */
     volatile boolean running = false;
 
+    /**
+     * The state of the game after each game tick, published by the game updater for the game panel, which draws it
+     * instead of the game itself. The panel never has to lock the game, so a slow repaint can not delay a game tick.
+     */
+    private final TripleBuffer<WorldSnapshot> publishedTicks = new TripleBuffer<>(WorldSnapshot::new);
+
     /**
      * The game updater thread, which is responsible for updating the game's state as time goes on.
      */
@@ -47,6 +82,74 @@ public abstract class Game extends ObservableGame {
         this.asteroids = new ArrayList<>();
     }
 
+    /**
+     * @return The state of the game after each game tick, filled in by the game updater of a game that runs here.
+     */
+    public TripleBuffer<WorldSnapshot> getPublishedTicks() {
+        return this.publishedTicks;
+    }
+
+    /**
+     * @return The width of the world, in pixels.
+     */
+    public int getWorldWidth() {
+        return this.worldWidth;
+    }
+
+    /**
+     * @return The height of the world, in pixels.
+     */
+    public int getWorldHeight() {
+        return this.worldHeight;
+    }
+
+    /**
+     * Sets the size of the world. A server sets it before its game starts, and passes it on to its clients when they
+     * connect.
+     *
+     * @param worldWidth The width of the world, in pixels.
+     * @param worldHeight The height of the world, in pixels.
+     */
+    public void setWorldSize(int worldWidth, int worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * @return The seed the game's random number generator started from.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Seeds the game's random number generator again. Set it before the game starts to play it out like another game
+     * with the same seed.
+     *
+     * @param seed The new seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return The random number generator of the game, which is only to be used by the simulation of the game.
+     */
+    public Random getRandom() {
+        return this.random;
+    }
+
+    /**
+     * Replaces the random number generator of the game, such as by the one restored from a replay, so that it goes on
+     * from the state it was saved in.
+     *
+     * @param random The new random number generator.
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
     /**
      * @return The game's spaceship.
      */
@@ -1,29 +1,52 @@
 package aoop.asteroids.model.game;
 
 import aoop.asteroids.control.game_updater.MultiplayerGameUpdater;
+import aoop.asteroids.control.game_updater.ReplayRecorder;
+import aoop.asteroids.control.game_updater.TickStatistics;
 import aoop.asteroids.model.entity.Server;
 import aoop.asteroids.model.game_object.Asteroid;
 import aoop.asteroids.model.game_object.Bullet;
 import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.SnapshotInterpolator;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * MultiplayerGame model contains all game objects of the game
  */
 public class MultiplayerGame extends Game {
     private Server server;
-    private ArrayList<Spaceship> ships = new ArrayList<>();
-    private boolean aborted = false;
 
     /**
-     * creates a new server-side MultiplayerGame object
+     * the ships of the game. on the server, ships join and leave on the thread that receives packets while the game
+     * updater goes through the list, so the list is never changed once it is published : addShip() and removeShip()
+     * publish a changed copy instead. whoever got the list keeps a consistent one, for as long as it needs it.
+     */
+    private volatile ArrayList<Spaceship> ships = new ArrayList<>();
+
+    /** serializes the changes to the list of ships **/
+    private final Object shipsLock = new Object();
+
+    /** set by the thread that receives the packets, read by the game loop, the room manager and the game panel **/
+    private volatile boolean aborted = false;
+
+    /** on a client, the interpolator by which the game panel draws the other objects a little behind the server **/
+    private SnapshotInterpolator interpolator;
+
+    /** on a server, the updater that runs the game once it started **/
+    private volatile MultiplayerGameUpdater updater;
+
+    /**
+     * creates a new server-side MultiplayerGame object. the server user gets a ship, unless the server is dedicated
      * @param server server who has the game
      */
     public MultiplayerGame(Server server) {
-        this.myShip = new Spaceship(server.getNickname(), Color.WHITE);
-        this.ships.add(myShip);
+        if (!server.isDedicated()) {
+            this.myShip = new Spaceship(server.getNickname(), Color.WHITE);
+            this.ships.add(myShip);
+        }
         this.server = server;
         initializeGameData();
     }
@@ -53,16 +76,41 @@ public class MultiplayerGame extends Game {
     @Override
     public void initializeGameData() {
         super.initializeGameData();
-        this.ships.forEach(Spaceship::resetAtRandomLocation);
+        this.ships.forEach(ship -> ship.resetAtRandomLocation(getWorldWidth(), getWorldHeight(), getRandom()));
     }
 
     /**
-     * @return spaceships list of the game
+     * @return spaceships list of the game. on the server it must not be changed, see addShip() and removeShip()
      */
     public ArrayList<Spaceship> getShips() {
         return this.ships;
     }
 
+    /**
+     * adds a ship to the game, by publishing a copy of the list of ships that includes it
+     *
+     * @param ship ship to add
+     */
+    public void addShip(Spaceship ship) {
+        synchronized (this.shipsLock) {
+            ArrayList<Spaceship> newShips = new ArrayList<>(this.ships);
+            newShips.add(ship);
+            this.ships = newShips;
+        }
+    }
+
+    /**
+     * removes a ship from the game, by publishing a copy of the list of ships without it
+     *
+     * @param ship ship to remove
+     */
+    public void removeShip(Spaceship ship) {
+        synchronized (this.shipsLock) {
+            ArrayList<Spaceship> newShips = new ArrayList<>(this.ships);
+            if (newShips.remove(ship)) this.ships = newShips;
+        }
+    }
+
     /**
      * sets the game's asteroids list to a newer one
      *
@@ -95,6 +143,22 @@ public class MultiplayerGame extends Game {
         }
     }
 
+    /**
+     * @return interpolator of the snapshots received by a client, or null for the server's game
+     */
+    public SnapshotInterpolator getInterpolator() {
+        return this.interpolator;
+    }
+
+    /**
+     * sets the interpolator of the snapshots received by a client
+     *
+     * @param interpolator the interpolator
+     */
+    public void setInterpolator(SnapshotInterpolator interpolator) {
+        this.interpolator = interpolator;
+    }
+
     /**
      * returns a spaceship with the given idColor
      * @param idColor color id to be looked up
@@ -160,17 +224,45 @@ public class MultiplayerGame extends Game {
         initializeGameData();
     }
 
+    /**
+     * @return how late the game ticks of a server's game ran and how long they took, or null before the game started
+     */
+    public TickStatistics getTickStatistics() {
+        MultiplayerGameUpdater updater = this.updater;
+        return updater == null ? null : updater.getTickStatistics();
+    }
+
     /**
      * Using this game's current model, spools up a new MultiplayerGameUpdater thread to begin a game loop and start processing
      * user input and physics updates. Only if the game isn't currently running, that is.
      * (note that this is only called by server)
+     * The game is recorded if replays are enabled, see ReplayRecorder.recordIfEnabled().
      */
     @Override
     public void start() {
         if (!running) {
             running = true;
-            gameUpdaterThread = new Thread(new MultiplayerGameUpdater(this, server));
+            MultiplayerGameUpdater updater = new MultiplayerGameUpdater(this, server);
+            ReplayRecorder.recordIfEnabled(updater);
+            this.updater = updater;
+            gameUpdaterThread = new Thread(updater);
             this.gameUpdaterThread.start();
         }
     }
+
+    /**
+     * Like start(), but instead of running the game loop in a thread of its own, its passes are scheduled on a thread
+     * pool shared with other games, such as the rooms of a RoomManager.
+     *
+     * @param executor thread pool that runs the game loop
+     */
+    public void start(ScheduledExecutorService executor) {
+        if (!running) {
+            running = true;
+            MultiplayerGameUpdater updater = new MultiplayerGameUpdater(this, server);
+            ReplayRecorder.recordIfEnabled(updater);
+            this.updater = updater;
+            updater.schedule(executor);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package aoop.asteroids.model.game;
 
+import aoop.asteroids.control.game_updater.ReplayRecorder;
 import aoop.asteroids.control.game_updater.SingleplayerGameUpdater;
 import aoop.asteroids.model.game_object.Spaceship;
 
@@ -32,6 +33,15 @@ public class SingleplayerGame extends Game {
         this.myShip.reset();
     }
 
+    /**
+     * replaces the player's ship, such as by a ship restored from a replay
+     *
+     * @param ship the new ship
+     */
+    public void setMyShip(Spaceship ship) {
+        this.myShip = ship;
+    }
+
     /**
      * @return True if the player's ship has been destroyed, or false otherwise.
      */
@@ -51,12 +61,15 @@ public class SingleplayerGame extends Game {
     /**
      * Using this game's current model, spools up a new SingleplayerGameUpdater thread to begin a game loop and start processing
      * user input and physics updates. Only if the game isn't currently running, that is.
+     * The game is recorded if replays are enabled, see ReplayRecorder.recordIfEnabled().
      */
     @Override
     public void start() {
         if (!running) {
             this.running = true;
-            this.gameUpdaterThread = new Thread(new SingleplayerGameUpdater(this));
+            SingleplayerGameUpdater updater = new SingleplayerGameUpdater(this);
+            ReplayRecorder.recordIfEnabled(updater);
+            this.gameUpdaterThread = new Thread(updater);
             this.gameUpdaterThread.start();
         }
     }
@@ -1,8 +1,12 @@
 package aoop.asteroids.model.game_object;
 
+import aoop.asteroids.util.ObjectPool;
+
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -35,6 +39,37 @@ public class Asteroid extends GameObject {
 		this.size = size;
 	}
 
+	/**
+	 * @return The size of this asteroid.
+	 */
+	public AsteroidSize getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Changes the size of this asteroid, and with it, its radius.
+	 *
+	 * @param size The new size of the asteroid.
+	 */
+	public void setSize(AsteroidSize size) {
+		this.size = size;
+		this.setRadius(size.getRadius());
+	}
+
+	/**
+	 * Puts a recycled asteroid back in the state of a newly constructed one, see GameObject.reinitialize().
+	 *
+	 * @param locationX The location of the asteroid on the x-axis.
+	 * @param locationY The location of the asteroid on the y-axis.
+	 * @param velocityX The velocity of the asteroid on the x-axis.
+	 * @param velocityY The velocity of the asteroid on the y-axis.
+	 * @param size The size of the asteroid.
+	 */
+	public void reinitialize(double locationX, double locationY, double velocityX, double velocityY, AsteroidSize size) {
+		super.reinitialize(locationX, locationY, velocityX, velocityY, (int) size.getRadius());
+		this.size = size;
+	}
+
 	/**
 	 * Generates some asteroids that spawn as a result of the destruction of this asteroid. Some sizes of asteroids may
 	 * not produce any successors because they're too small.
@@ -42,34 +77,70 @@ public class Asteroid extends GameObject {
 	 * @return A collection of the successors.
 	 */
 	public Collection<Asteroid> getSuccessors() {
+		return getSuccessors(ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Like getSuccessors(), but draws the random speed adjustments from the given random number generator.
+	 *
+	 * @param rng The random number generator of the game, see Game.getRandom().
+	 * @return A collection of the successors.
+	 */
+	public Collection<Asteroid> getSuccessors(Random rng) {
 		Collection<Asteroid> successors = new ArrayList<>(2); // Initialize the array to a fixed capacity to improve performance.
 		AsteroidSize successorSize = this.size.getSuccessorSize();
 		if (successorSize != null) {
-			successors.add(this.generateSuccessor());
-			successors.add(this.generateSuccessor());
+			successors.add(this.generateSuccessor(rng));
+			successors.add(this.generateSuccessor(rng));
 		}
 
 		return successors;
 	}
 
+	/**
+	 * Like getSuccessors(), but takes the successors from a pool of recycled asteroids, and adds them to the given list
+	 * instead of a new collection, so that no objects are created once the pool is filled.
+	 *
+	 * @param successors The list to add the successors to.
+	 * @param pool The pool to take the successors from.
+	 * @param rng The random number generator of the game, see Game.getRandom().
+	 */
+	public void addSuccessors(List<Asteroid> successors, ObjectPool<Asteroid> pool, Random rng) {
+		AsteroidSize successorSize = this.size.getSuccessorSize();
+		if (successorSize == null) {
+			return;
+		}
+		for (int i = 0; i < 2; i++) {
+			Asteroid successor = pool.acquire();
+			successor.reinitialize(
+					this.getLocation().getX(),
+					this.getLocation().getY(),
+					this.getVelocity().getX() + (rng.nextDouble() * 2 - 1) * SUCCESSOR_VELOCITY_DIFFERENCE,
+					this.getVelocity().getY() + (rng.nextDouble() * 2 - 1) * SUCCESSOR_VELOCITY_DIFFERENCE,
+					successorSize
+			);
+			successors.add(successor);
+		}
+	}
+
 	/**
 	 * Generates a new asteroid that should be spawned when this one is destroyed.
 	 *
 	 * The asteroid is created at the same location as the current one, and is one size smaller. The new asteroid's
 	 * velocity is set to the current asteroid's velocity, with some random speed adjustments.
 	 *
+	 * @param rng The random number generator to draw the speed adjustments from.
 	 * @return A newly created asteroid, if the size of this asteroid allows for successors. Otherwise null.
 	 */
-	private Asteroid generateSuccessor() {
+	private Asteroid generateSuccessor(Random rng) {
 		if (this.size.getSuccessorSize() == null) {
 			return null;
 		}
-		ThreadLocalRandom rng = ThreadLocalRandom.current();
 		return new Asteroid(
 				this.getLocation(),
 				new Point.Double(
-						this.getVelocity().getX() + rng.nextDouble(-SUCCESSOR_VELOCITY_DIFFERENCE, SUCCESSOR_VELOCITY_DIFFERENCE),
-						this.getVelocity().getY() + rng.nextDouble(-SUCCESSOR_VELOCITY_DIFFERENCE, SUCCESSOR_VELOCITY_DIFFERENCE)
+						this.getVelocity().getX() + (rng.nextDouble() * 2 - 1) * SUCCESSOR_VELOCITY_DIFFERENCE,
+						this.getVelocity().getY() + (rng.nextDouble() * 2 - 1) * SUCCESSOR_VELOCITY_DIFFERENCE
 				),
 				this.size.getSuccessorSize()
 		);
@@ -17,6 +17,12 @@ public class Bullet extends GameObject {
 	 * from the game model.
 	 */
 	private int stepsLeft;
+
+	/**
+	 * The idColor (as an RGB value) of the ship that fired this bullet, or 0 when it is not known. The server uses it to
+	 * send every player its own bullets, wherever they are.
+	 */
+	private int shooter;
 	
 	/**
 	 * Constructs a new bullet using the given location and velocity parameters, and a default number of steps until the
@@ -46,13 +52,27 @@ public class Bullet extends GameObject {
 	}
 
 	/**
-	 * Updates the bullet. First calls the parent's nextStep() method to update the object's location, and specifically
+	 * Puts a recycled bullet back in the state of a newly constructed one, see GameObject.reinitialize().
+	 *
+	 * @param locationX The location of this bullet on the x-axis.
+	 * @param locationY The location of this bullet on the y-axis.
+	 * @param velocityX Velocity of the bullet as projected on the X-axis.
+	 * @param velocityY Velocity of the bullet as projected on the Y-axis.
+	 */
+	public void reinitialize(double locationX, double locationY, double velocityX, double velocityY) {
+		super.reinitialize(locationX, locationY, velocityX, velocityY, 0);
+		this.stepsLeft = DEFAULT_BULLET_STEP_LIFETIME;
+		this.shooter = 0;
+	}
+
+	/**
+	 * Updates the bullet. First calls the parent's nextStep(double, double) method to update the object's location, and specifically
 	 * for the bullet class, there is a lifetime to the bullet, indicated by the number of steps left until it should be
 	 * destroyed. At each step, this value is decremented, and once it reaches zero, the bullet is destroyed.
 	 */
 	@Override
-	public void nextStep () {
-		super.nextStep();
+	public void nextStep(double worldWidth, double worldHeight) {
+		super.nextStep(worldWidth, worldHeight);
 
 		this.stepsLeft--;
 		if (this.stepsLeft <= 0) {
@@ -60,6 +80,34 @@ public class Bullet extends GameObject {
 		}
 	}
 
+	/**
+	 * @return The number of steps this bullet still is allowed to live.
+	 */
+	public int getStepsLeft() {
+		return this.stepsLeft;
+	}
+
+	/**
+	 * @param stepsLeft The number of steps this bullet should still be allowed to live.
+	 */
+	public void setStepsLeft(int stepsLeft) {
+		this.stepsLeft = stepsLeft;
+	}
+
+	/**
+	 * @return The idColor (as an RGB value) of the ship that fired this bullet, or 0 when it is not known.
+	 */
+	public int getShooter() {
+		return this.shooter;
+	}
+
+	/**
+	 * @param shooter The idColor (as an RGB value) of the ship that fired this bullet.
+	 */
+	public void setShooter(int shooter) {
+		this.shooter = shooter;
+	}
+
 	/**
 	 * @return The number of steps, or game ticks, for which this object is immune from collisions.
 	 */
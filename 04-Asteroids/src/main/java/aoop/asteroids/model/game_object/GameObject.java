@@ -1,14 +1,26 @@
 package aoop.asteroids.model.game_object;
 
-import aoop.asteroids.view.GameFrame;
+import aoop.asteroids.model.game.Game;
 
 import java.awt.*;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class GameObject implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Source of the ids handed out to new game objects.
+     */
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Number that tells this object apart from every other one, so that the same object can be found back in two
+     * snapshots of the game taken at different times.
+     */
+    private int id;
+
     /**
      * An x and y value pair indicating the object's current location.
      */
@@ -48,6 +60,7 @@ public abstract class GameObject implements Serializable {
         this.velocity = new Point.Double(velocityX, velocityY);
         this.radius = radius;
         this.stepsUntilCollisionPossible = this.getDefaultStepsUntilCollisionPossible();
+        this.id = generateId();
     }
 
     /**
@@ -61,14 +74,43 @@ public abstract class GameObject implements Serializable {
         this(location.getX(), location.getY(), velocity.getX(), velocity.getY(), radius);
     }
 
+    /**
+     * Puts a recycled object back in the state of a newly constructed one, with the given location, velocity and
+     * radius, and a new id so that it is not mistaken for the object it was before.
+     *
+     * @param locationX The object's location on the x-axis.
+     * @param locationY The object's location on the y-axis.
+     * @param velocityX Velocity in X direction.
+     * @param velocityY Velocity in Y direction.
+     * @param radius Radius of the object.
+     */
+    protected void reinitialize(double locationX, double locationY, double velocityX, double velocityY, double radius) {
+        this.location.setLocation(locationX, locationY);
+        this.velocity.setLocation(velocityX, velocityY);
+        this.radius = radius;
+        this.stepsUntilCollisionPossible = this.getDefaultStepsUntilCollisionPossible();
+        this.destroyed = false;
+        this.id = generateId();
+    }
+
+    /**
+     * Advances the object by one game tick in a world of the default size, see nextStep(double, double).
+     */
+    public void nextStep() {
+        nextStep(Game.DEFAULT_WORLD_WIDTH, Game.DEFAULT_WORLD_HEIGHT);
+    }
+
     /**
      * Child classes should implement this method to define what happens to an object when the game advances by one game
      * tick in the main loop. The amount of time that passes with each step should be the same, so that movement is
      * uniform even when performance may suffer.
+     *
+     * @param worldWidth The width of the world, at whose edges the object wraps around.
+     * @param worldHeight The height of the world, at whose edges the object wraps around.
      */
-    public void nextStep() {
-        this.location.x = (GameFrame.WINDOW_SIZE.width + this.location.x + this.velocity.x) % GameFrame.WINDOW_SIZE.width;
-        this.location.y = (GameFrame.WINDOW_SIZE.height + this.location.y + this.velocity.y) % GameFrame.WINDOW_SIZE.height;
+    public void nextStep(double worldWidth, double worldHeight) {
+        this.location.x = (worldWidth + this.location.x + this.velocity.x) % worldWidth;
+        this.location.y = (worldHeight + this.location.y + this.velocity.y) % worldHeight;
         if (this.stepsUntilCollisionPossible > 0) {
             this.stepsUntilCollisionPossible--;
         }
@@ -81,6 +123,47 @@ public abstract class GameObject implements Serializable {
         this.destroyed = true;
     }
 
+    /**
+     * Sets the destroyed flag of this object. Unlike destroy(), this can also clear the flag, which is needed when an
+     * existing object is reused to hold a newer state of the same object, as clients do with received game models.
+     *
+     * @param destroyed Whether the object should be flagged as destroyed.
+     */
+    public void setDestroyed(boolean destroyed) {
+        this.destroyed = destroyed;
+    }
+
+    /**
+     * @param radius The new radius of the object, in amount of pixels.
+     */
+    protected void setRadius(double radius) {
+        this.radius = radius;
+    }
+
+    /**
+     * @return The id of this object, which is unique among all objects created by this program.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Gives this object the id of another one, which is needed when an existing object is reused to hold the state of
+     * an object that is stored elsewhere, such as in an EntityStore.
+     *
+     * @param id The new id of the object.
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return A new id, that has not been handed out to any object before.
+     */
+    public static int generateId() {
+        return nextId.getAndIncrement();
+    }
+
     /**
      * @return radius of the object in amount of pixels.
      */
@@ -122,13 +205,33 @@ public abstract class GameObject implements Serializable {
      * Given some other game object, this method checks whether the current object and the given object collide with
      * each other. It does this by measuring the distance between the objects and checking whether it is larger than the
      * sum of the radii. Furthermore both objects should be allowed to collide.
+     * The squared distance is compared with the squared sum of the radii, which avoids taking a square root.
      *
      * @param other The other object that it may collide with.
      * @return True if object collides with given object, false otherwise.
      */
     public boolean collides(GameObject other) {
-        return this.getLocation().distance(other.getLocation()) < this.getRadius() + other.getRadius()
-                && this.canCollide() && other.canCollide();
+        if (!this.canCollide() || !other.canCollide()) {
+            return false;
+        }
+        double distanceX = this.location.x - other.location.x;
+        double distanceY = this.location.y - other.location.y;
+        double radii = this.radius + other.radius;
+        return distanceX * distanceX + distanceY * distanceY < radii * radii;
+    }
+
+    /**
+     * @return The number of steps, or game ticks, that this object remains immune from collisions.
+     */
+    public int getStepsUntilCollisionPossible() {
+        return this.stepsUntilCollisionPossible;
+    }
+
+    /**
+     * @param steps The number of steps, or game ticks, that this object should remain immune from collisions.
+     */
+    public void setStepsUntilCollisionPossible(int steps) {
+        this.stepsUntilCollisionPossible = steps;
     }
 
     /**
@@ -1,10 +1,10 @@
 package aoop.asteroids.model.game_object;
 
+import aoop.asteroids.model.game.Game;
+
 import java.awt.*;
 import java.util.Random;
 
-import static aoop.asteroids.view.GameFrame.WINDOW_SIZE;
-
 /**
  * This class represents a player's ship. Like all other game objects, it has a location and velocity, but additionally,
  * the spaceship has a weapon that can be used to shoot bullets to destroy asteroids. The spaceship also slows down over
@@ -103,17 +103,18 @@ public class Spaceship extends GameObject {
 
 	/**
 	 * Constructs a new spaceship with given nickname and color. used for multiplayer games.
-	 * It starts at random location on screen, facing upwards with no velocity.
+	 * It starts in the middle of a world of the default size, facing upwards with no velocity. The game places it at a
+	 * random location, drawn from the game's random number generator, see resetAtRandomLocation().
 	 *
 	 * @param nickname given nickname for the ship
 	 * @param idColor given color for the ship
 	 */
 	public Spaceship(String nickname, Color idColor) {
-		super(WINDOW_SIZE.width / 2, WINDOW_SIZE.height / 2, 0, 0, 15);
+		super(Game.DEFAULT_WORLD_WIDTH / 2, Game.DEFAULT_WORLD_HEIGHT / 2, 0, 0, 15);
 		this.nickname = nickname;
 		this.idColor = idColor;
 		this.score = 0;
-		this.resetAtRandomLocation();
+		this.resetShipData();
 	}
 
 	/**
@@ -121,7 +122,7 @@ public class Spaceship extends GameObject {
 	 * with no velocity.
 	 */
 	public Spaceship() {
-		super(WINDOW_SIZE.width / 2, WINDOW_SIZE.height / 2, 0, 0, 15);
+		super(Game.DEFAULT_WORLD_WIDTH / 2, Game.DEFAULT_WORLD_HEIGHT / 2, 0, 0, 15);
 		this.idColor = Color.WHITE;
 		this.reset();
 	}
@@ -132,21 +133,24 @@ public class Spaceship extends GameObject {
 	 * Score is reset to 0
 	 */
 	public void reset() {
-		this.getLocation().x = WINDOW_SIZE.width / 2;
-		this.getLocation().y = WINDOW_SIZE.height / 2;
+		this.getLocation().x = Game.DEFAULT_WORLD_WIDTH / 2;
+		this.getLocation().y = Game.DEFAULT_WORLD_HEIGHT / 2;
 		this.score = 0;
 		resetShipData();
 	}
 
 	/**
 	 * Resets basic parameters to default values, so a new game can be started.
-	 * Location is randomly determined.
+	 * Location is randomly determined, away from the edges of the world.
 	 * Score is unchanged
+	 *
+	 * @param worldWidth The width of the world.
+	 * @param worldHeight The height of the world.
+	 * @param rng The random number generator of the game, see Game.getRandom().
 	 */
-	public void resetAtRandomLocation() {
-		Random rand = new Random();
-		this.getLocation().x = rand.nextInt(WINDOW_SIZE.width-80) + 50;
-		this.getLocation().y = rand.nextInt(WINDOW_SIZE.height-100) + 50;
+	public void resetAtRandomLocation(int worldWidth, int worldHeight, Random rng) {
+		this.getLocation().x = rng.nextInt(worldWidth-80) + 50;
+		this.getLocation().y = rng.nextInt(worldHeight-100) + 50;
 		resetShipData();
 	}
 
@@ -244,8 +248,8 @@ public class Spaceship extends GameObject {
 	 * ship, or accelerating the ship, or firing the weapon.
 	 */
 	@Override 
-	public void nextStep() {
-		super.nextStep();
+	public void nextStep(double worldWidth, double worldHeight) {
+		super.nextStep(worldWidth, worldHeight);
 
 		this.attemptToTurn();
 		this.attemptToAccelerate();
@@ -330,6 +334,31 @@ public class Spaceship extends GameObject {
 		return this.direction;
 	}
 
+	/**
+	 * Sets the direction the spaceship is pointed in.
+	 *
+	 * @param direction The new direction, in radians.
+	 */
+	public void setDirection(double direction) {
+		this.direction = direction;
+	}
+
+	/**
+	 * @return The amount of energy stored in the ship's batteries.
+	 */
+	public double getEnergy() {
+		return this.energy;
+	}
+
+	/**
+	 * Sets the amount of energy stored in the ship's batteries.
+	 *
+	 * @param energy The new amount of energy.
+	 */
+	public void setEnergy(double energy) {
+		this.energy = energy;
+	}
+
 	/**
 	 * @return The percentage of energy that is available on the ship, out of the total capacity.
 	 */
@@ -344,6 +373,27 @@ public class Spaceship extends GameObject {
 		return this.accelerateKeyPressed;
 	}
 
+	/**
+	 * @return true if the button that turns the ship left is pressed, false otherwise.
+	 */
+	public boolean isTurningLeft() {
+		return this.turnLeftKeyPressed;
+	}
+
+	/**
+	 * @return true if the button that turns the ship right is pressed, false otherwise.
+	 */
+	public boolean isTurningRight() {
+		return this.turnRightKeyPressed;
+	}
+
+	/**
+	 * @return true if the button that fires the weapon is pressed, false otherwise.
+	 */
+	public boolean isFiring() {
+		return this.isFiring;
+	}
+
 	/**
 	 * @return True if the spaceship may fire a bullet. A spaceship is allowed to fire if its weapon is done cooling
 	 * down, and it has enough energy, and the user is pressing the button to fire the weapon.
@@ -369,6 +419,15 @@ public class Spaceship extends GameObject {
 		this.score++;
 	}
 
+	/**
+	 * Sets the score of the player.
+	 *
+	 * @param score The new score.
+	 */
+	public void setScore(int score) {
+		this.score = score;
+	}
+
 	/**
 	 * @return the score
 	 */
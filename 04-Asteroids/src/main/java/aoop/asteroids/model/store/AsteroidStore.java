@@ -0,0 +1,126 @@
+package aoop.asteroids.model.store;
+
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import aoop.asteroids.model.game_object.GameObject;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static aoop.asteroids.model.game_object.Asteroid.SUCCESSOR_VELOCITY_DIFFERENCE;
+
+/**
+ * AsteroidStore holds asteroids in structure-of-arrays form, see EntityStore. Besides the common properties, it keeps
+ * the ordinal of every asteroid's size.
+ */
+public class AsteroidStore extends EntityStore {
+    /** asteroid sizes indexed by their ordinal **/
+    private static final AsteroidSize[] SIZES = AsteroidSize.values();
+
+    /** ordinal of the AsteroidSize of each asteroid **/
+    private byte[] size;
+
+    /**
+     * creates a new, empty AsteroidStore
+     * @param capacity number of asteroids it has room for before it has to grow
+     */
+    public AsteroidStore(int capacity) {
+        super(capacity);
+        size = new byte[getCapacity()];
+    }
+
+    /**
+     * appends a new asteroid, which like a newly constructed Asteroid is immune from collisions for a while
+     *
+     * @return index of the new asteroid
+     */
+    public int add(double locationX, double locationY, double speedX, double speedY, AsteroidSize asteroidSize) {
+        int i = add(locationX, locationY, speedX, speedY, (int) asteroidSize.getRadius(), 20);
+        size[i] = (byte) asteroidSize.ordinal();
+        return i;
+    }
+
+    /**
+     * appends the state of an asteroid
+     *
+     * @return index of the new asteroid
+     */
+    public int add(Asteroid asteroid) {
+        int i = add((GameObject) asteroid);
+        size[i] = (byte) asteroid.getSize().ordinal();
+        return i;
+    }
+
+    /**
+     * @param i index of an asteroid
+     * @return its size
+     */
+    public AsteroidSize getSize(int i) {
+        return SIZES[size[i]];
+    }
+
+    /**
+     * appends the successors of a destroyed asteroid, like Asteroid.getSuccessors() creates them: two asteroids of the
+     * next smaller size at the same location, with a random change in velocity. the smallest asteroids have none.
+     *
+     * @param i index of the destroyed asteroid
+     * @param rng random number generator for the change in velocity
+     * @return number of appended asteroids
+     */
+    public int addSuccessors(int i, Random rng) {
+        AsteroidSize successorSize = getSize(i).getSuccessorSize();
+        if (successorSize == null) return 0;
+        for (int n = 0; n < 2; n++) {
+            add(getX(i), getY(i),
+                    getVelocityX(i) + (rng.nextDouble() * 2 - 1) * SUCCESSOR_VELOCITY_DIFFERENCE,
+                    getVelocityY(i) + (rng.nextDouble() * 2 - 1) * SUCCESSOR_VELOCITY_DIFFERENCE,
+                    successorSize);
+        }
+        return 2;
+    }
+
+    /**
+     * @param i index of an asteroid
+     * @return a new Asteroid object holding the asteroid's state
+     */
+    public Asteroid view(int i) {
+        Asteroid asteroid = new Asteroid(new Point.Double(), new Point.Double(), getSize(i));
+        copyTo(i, asteroid);
+        return asteroid;
+    }
+
+    /**
+     * makes the list hold every asteroid of the store, in order, reusing the Asteroid objects already in the list
+     *
+     * @param asteroids list to overwrite
+     */
+    public void writeTo(List<Asteroid> asteroids) {
+        int count = getCount();
+        for (int i = 0; i < count; i++) {
+            if (i < asteroids.size()) {
+                Asteroid asteroid = asteroids.get(i);
+                if (asteroid.getSize() != getSize(i)) asteroid.setSize(getSize(i));
+                copyTo(i, asteroid);
+            } else {
+                asteroids.add(view(i));
+            }
+        }
+        while (asteroids.size() > count) {
+            asteroids.remove(asteroids.size() - 1);
+        }
+    }
+
+    @Override
+    void move(int from, int to) {
+        super.move(from, to);
+        size[to] = size[from];
+    }
+
+    @Override
+    void grow(int capacity) {
+        super.grow(capacity);
+        size = Arrays.copyOf(size, capacity);
+    }
+}
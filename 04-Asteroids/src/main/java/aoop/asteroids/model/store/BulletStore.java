@@ -0,0 +1,111 @@
+package aoop.asteroids.model.store;
+
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.GameObject;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BulletStore holds bullets in structure-of-arrays form, see EntityStore. Besides the common properties, it keeps the
+ * number of steps every bullet has left to live.
+ */
+public class BulletStore extends EntityStore {
+    /** number of steps, or game ticks, each bullet is still allowed to live **/
+    private int[] stepsLeft;
+
+    /**
+     * creates a new, empty BulletStore
+     * @param capacity number of bullets it has room for before it has to grow
+     */
+    public BulletStore(int capacity) {
+        super(capacity);
+        stepsLeft = new int[getCapacity()];
+    }
+
+    /**
+     * appends a new bullet, with the same lifetime and immunity from collisions as a newly constructed Bullet
+     *
+     * @return index of the new bullet
+     */
+    public int add(double locationX, double locationY, double speedX, double speedY) {
+        int i = add(locationX, locationY, speedX, speedY, 0, 3);
+        stepsLeft[i] = Bullet.DEFAULT_BULLET_STEP_LIFETIME;
+        return i;
+    }
+
+    /**
+     * appends the state of a bullet
+     *
+     * @return index of the new bullet
+     */
+    public int add(Bullet bullet) {
+        int i = add((GameObject) bullet);
+        stepsLeft[i] = bullet.getStepsLeft();
+        return i;
+    }
+
+    /**
+     * moves every bullet and shortens its life, destroying the bullets whose time is up.
+     * this does for all bullets what Bullet.nextStep() does for one.
+     *
+     * @param width width of the world
+     * @param height height of the world
+     */
+    @Override
+    public void move(double width, double height) {
+        super.move(width, height);
+        int[] stepsLeft = this.stepsLeft;
+        int count = getCount();
+        for (int i = 0; i < count; i++) {
+            if (--stepsLeft[i] <= 0) setDestroyed(i, true);
+        }
+    }
+
+    /**
+     * @param i index of a bullet
+     * @return a new Bullet object holding the bullet's state
+     */
+    public Bullet view(int i) {
+        Bullet bullet = new Bullet(0, 0, 0, 0);
+        copyTo(i, bullet);
+        return bullet;
+    }
+
+    /**
+     * makes the list hold every bullet of the store, in order, reusing the Bullet objects already in the list
+     *
+     * @param bullets list to overwrite
+     */
+    public void writeTo(List<Bullet> bullets) {
+        int count = getCount();
+        for (int i = 0; i < count; i++) {
+            if (i < bullets.size()) {
+                copyTo(i, bullets.get(i));
+            } else {
+                bullets.add(view(i));
+            }
+        }
+        while (bullets.size() > count) {
+            bullets.remove(bullets.size() - 1);
+        }
+    }
+
+    @Override
+    void copyTo(int i, GameObject object) {
+        super.copyTo(i, object);
+        ((Bullet) object).setStepsLeft(stepsLeft[i]);
+    }
+
+    @Override
+    void move(int from, int to) {
+        super.move(from, to);
+        stepsLeft[to] = stepsLeft[from];
+    }
+
+    @Override
+    void grow(int capacity) {
+        super.grow(capacity);
+        stepsLeft = Arrays.copyOf(stepsLeft, capacity);
+    }
+}
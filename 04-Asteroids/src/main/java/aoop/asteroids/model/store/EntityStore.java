@@ -0,0 +1,290 @@
+package aoop.asteroids.model.store;
+
+import aoop.asteroids.model.game_object.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * EntityStore holds one kind of game object in structure-of-arrays form: every property is a primitive array, and an
+ * object is an index into all of them. Moving every object is then a loop over a few plain arrays, rather than a call to
+ * nextStep() on every object and a visit to two Point.Double objects elsewhere on the heap.
+ *
+ * The objects are at the indices 0 up to (not including) getCount(). Removing destroyed objects keeps the order of the
+ * remaining ones, like ArrayList.removeIf() does for the lists of a Game.
+ */
+public abstract class EntityStore {
+    private int count;
+
+    /** ids of the objects, as GameObject.getId() would return them **/
+    private int[] id;
+
+    private double[] x;
+    private double[] y;
+    private double[] velocityX;
+    private double[] velocityY;
+    private double[] radius;
+
+    /** number of steps, or game ticks, for which the object is immune from collisions **/
+    private int[] stepsUntilCollisionPossible;
+
+    private boolean[] destroyed;
+
+    /**
+     * creates a new, empty EntityStore
+     * @param capacity number of objects it has room for before it has to grow
+     */
+    EntityStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        id = new int[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+        radius = new double[capacity];
+        stepsUntilCollisionPossible = new int[capacity];
+        destroyed = new boolean[capacity];
+    }
+
+    /**
+     * @return number of objects in the store
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return number of objects the store has room for before it has to grow
+     */
+    int getCapacity() {
+        return this.x.length;
+    }
+
+    /**
+     * @param i index of an object
+     * @return its id, see GameObject.getId()
+     */
+    public int getId(int i) {
+        return this.id[i];
+    }
+
+    /**
+     * @param i index of an object
+     * @return its location on the x-axis
+     */
+    public double getX(int i) {
+        return this.x[i];
+    }
+
+    /**
+     * @param i index of an object
+     * @return its location on the y-axis
+     */
+    public double getY(int i) {
+        return this.y[i];
+    }
+
+    /**
+     * @param i index of an object
+     * @return its velocity on the x-axis
+     */
+    public double getVelocityX(int i) {
+        return this.velocityX[i];
+    }
+
+    /**
+     * @param i index of an object
+     * @return its velocity on the y-axis
+     */
+    public double getVelocityY(int i) {
+        return this.velocityY[i];
+    }
+
+    /**
+     * @param i index of an object
+     * @return its radius
+     */
+    public double getRadius(int i) {
+        return this.radius[i];
+    }
+
+    /**
+     * @param i index of an object
+     * @return number of steps for which it is still immune from collisions
+     */
+    public int getStepsUntilCollisionPossible(int i) {
+        return this.stepsUntilCollisionPossible[i];
+    }
+
+    /**
+     * @param i index of an object
+     * @return whether it is destroyed
+     */
+    public boolean isDestroyed(int i) {
+        return this.destroyed[i];
+    }
+
+    /**
+     * @param i index of an object
+     * @param destroyed whether it is destroyed
+     */
+    public void setDestroyed(int i, boolean destroyed) {
+        this.destroyed[i] = destroyed;
+    }
+
+    /**
+     * removes every object
+     */
+    public void clear() {
+        this.count = 0;
+    }
+
+    /**
+     * appends an object that is not destroyed
+     *
+     * @return index of the new object
+     */
+    int add(double locationX, double locationY, double speedX, double speedY, double objectRadius, int steps) {
+        if (count == x.length) grow(2 * count);
+        int i = count++;
+        id[i] = GameObject.generateId();
+        x[i] = locationX;
+        y[i] = locationY;
+        velocityX[i] = speedX;
+        velocityY[i] = speedY;
+        radius[i] = objectRadius;
+        stepsUntilCollisionPossible[i] = steps;
+        destroyed[i] = false;
+        return i;
+    }
+
+    /**
+     * appends the state of a game object
+     *
+     * @return index of the new object
+     */
+    int add(GameObject object) {
+        int i = add(object.getLocation().x, object.getLocation().y, object.getVelocity().x, object.getVelocity().y,
+                object.getRadius(), object.getStepsUntilCollisionPossible());
+        id[i] = object.getId();
+        destroyed[i] = object.isDestroyed();
+        return i;
+    }
+
+    /**
+     * copies the state of an object in the store onto a game object
+     */
+    void copyTo(int i, GameObject object) {
+        object.setId(id[i]);
+        object.getLocation().setLocation(x[i], y[i]);
+        object.getVelocity().setLocation(velocityX[i], velocityY[i]);
+        object.setStepsUntilCollisionPossible(stepsUntilCollisionPossible[i]);
+        object.setDestroyed(destroyed[i]);
+    }
+
+    /**
+     * moves every object by its velocity, wrapping around the edges of the world, and counts down the steps until
+     * it may collide. this does for all objects what GameObject.nextStep() does for one.
+     * objects are wrapped by adding or subtracting the size of the world rather than with a floating point remainder,
+     * which is many times slower; the locations can differ from those of nextStep() in the last bits only.
+     *
+     * @param width width of the world
+     * @param height height of the world
+     */
+    public void move(double width, double height) {
+        double[] x = this.x, y = this.y, velocityX = this.velocityX, velocityY = this.velocityY;
+        int[] steps = this.stepsUntilCollisionPossible;
+        for (int i = 0; i < count; i++) {
+            x[i] = wrap(x[i] + velocityX[i], width);
+            y[i] = wrap(y[i] + velocityY[i], height);
+            if (steps[i] > 0) steps[i]--;
+        }
+    }
+
+    /**
+     * @return the coordinate wrapped into [0, size), assuming no object moves further than the size of the world in one
+     * step
+     */
+    private static double wrap(double coordinate, double size) {
+        if (coordinate < 0) {
+            coordinate += size;
+            return coordinate < size ? coordinate : 0; // A tiny negative coordinate rounds to size.
+        }
+        return coordinate < size ? coordinate : coordinate - size;
+    }
+
+    /**
+     * checks whether two objects collide, like GameObject.collides()
+     *
+     * @param i index of an object in this store
+     * @param other store holding the other object
+     * @param j index of the other object
+     * @return true if both objects may collide and overlap
+     */
+    public boolean collides(int i, EntityStore other, int j) {
+        if (stepsUntilCollisionPossible[i] > 0 || other.stepsUntilCollisionPossible[j] > 0) return false;
+        double distanceX = x[i] - other.x[j];
+        double distanceY = y[i] - other.y[j];
+        double radii = radius[i] + other.radius[j];
+        return distanceX * distanceX + distanceY * distanceY < radii * radii;
+    }
+
+    /**
+     * checks whether an object collides with a game object that is not in a store, like GameObject.collides()
+     *
+     * @param i index of an object in this store
+     * @param object the other object
+     * @return true if both objects may collide and overlap
+     */
+    public boolean collides(int i, GameObject object) {
+        if (stepsUntilCollisionPossible[i] > 0 || object.getStepsUntilCollisionPossible() > 0) return false;
+        double distanceX = x[i] - object.getLocation().x;
+        double distanceY = y[i] - object.getLocation().y;
+        double radii = radius[i] + object.getRadius();
+        return distanceX * distanceX + distanceY * distanceY < radii * radii;
+    }
+
+    /**
+     * removes every destroyed object, moving the others down so that they keep their order
+     *
+     * @return number of removed objects
+     */
+    public int removeDestroyed() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (destroyed[i]) continue;
+            if (kept != i) move(i, kept);
+            kept++;
+        }
+        int removed = count - kept;
+        count = kept;
+        return removed;
+    }
+
+    /**
+     * copies the object at one index to another, overwriting what was there
+     */
+    void move(int from, int to) {
+        id[to] = id[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        radius[to] = radius[from];
+        stepsUntilCollisionPossible[to] = stepsUntilCollisionPossible[from];
+        destroyed[to] = destroyed[from];
+    }
+
+    /**
+     * grows every array to the given capacity
+     */
+    void grow(int capacity) {
+        id = Arrays.copyOf(id, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        stepsUntilCollisionPossible = Arrays.copyOf(stepsUntilCollisionPossible, capacity);
+        destroyed = Arrays.copyOf(destroyed, capacity);
+    }
+}
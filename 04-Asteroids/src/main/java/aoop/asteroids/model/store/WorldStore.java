@@ -0,0 +1,110 @@
+package aoop.asteroids.model.store;
+
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game_object.Spaceship;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * WorldStore holds the state of a game in the form the simulation works on: the asteroids and bullets in an
+ * AsteroidStore and a BulletStore, and the spaceships as the objects they are. There are only a few ships, each with
+ * much more state and behaviour than an asteroid or a bullet, so there is nothing to gain from flattening them.
+ *
+ * The asteroid and bullet lists of a Game act as views of the store: load() reads them in, and writeTo() writes the
+ * store back into them, reusing the objects already in the lists, for the panels that draw the game and for tests.
+ */
+public class WorldStore {
+    /** number of objects of each kind a new store has room for **/
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final double width;
+    private final double height;
+    private final AsteroidStore asteroids = new AsteroidStore(DEFAULT_CAPACITY);
+    private final BulletStore bullets = new BulletStore(DEFAULT_CAPACITY);
+    private final ArrayList<Spaceship> ships = new ArrayList<>();
+
+    /** random number generator of the simulation, the game's once the store is loaded from a game **/
+    private Random random = new Random();
+
+    /**
+     * creates a new, empty WorldStore
+     * @param width width of the world
+     * @param height height of the world
+     */
+    public WorldStore(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * replaces the content of the store with the asteroids and bullets of a game, and the given ships. the store draws
+     * its random numbers from the game's random number generator from then on
+     *
+     * @param game game to read the asteroids and bullets of
+     * @param ships ships in the game, which are kept by reference
+     */
+    public void load(Game game, List<Spaceship> ships) {
+        asteroids.clear();
+        game.getAsteroids().forEach(asteroids::add);
+        bullets.clear();
+        game.getBullets().forEach(bullets::add);
+        this.ships.clear();
+        this.ships.addAll(ships);
+        this.random = game.getRandom();
+    }
+
+    /**
+     * writes the asteroids and bullets of the store into the lists of a game. the ships are shared, so they are up to
+     * date already.
+     *
+     * @param game game to write to
+     */
+    public void writeTo(Game game) {
+        asteroids.writeTo(game.getAsteroids());
+        bullets.writeTo(game.getBullets());
+    }
+
+    /**
+     * @return width of the world
+     */
+    public double getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return height of the world
+     */
+    public double getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return the asteroids
+     */
+    public AsteroidStore getAsteroids() {
+        return this.asteroids;
+    }
+
+    /**
+     * @return the bullets
+     */
+    public BulletStore getBullets() {
+        return this.bullets;
+    }
+
+    /**
+     * @return the ships
+     */
+    public ArrayList<Spaceship> getShips() {
+        return this.ships;
+    }
+
+    /**
+     * @return random number generator of the simulation, see Game.getRandom()
+     */
+    public Random getRandom() {
+        return this.random;
+    }
+}
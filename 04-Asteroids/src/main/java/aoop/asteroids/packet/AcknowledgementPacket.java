@@ -0,0 +1,54 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.DatagramTransport;
+
+import java.nio.ByteBuffer;
+
+/**
+ * AcknowledgementPacket tells the server which snapshot the client received last, so that the server can send the next
+ * ones as the difference with it. It is written in binary, like the SNAPSHOT packets it answers, and is reused for
+ * every acknowledgement.
+ */
+public class AcknowledgementPacket extends GamePacket {
+    private ByteBuffer buffer = ByteBuffer.allocate(8);
+    private int tick;
+
+    /**
+     * creates a new AcknowledgementPacket
+     *
+     * @param transport transport over which data will be sent
+     */
+    public AcknowledgementPacket(DatagramTransport transport) {
+        super(transport, PacketType.SNAPSHOT_ACK);
+    }
+
+    /**
+     * @param tick tick of the snapshot to acknowledge
+     */
+    public synchronized void setTick(int tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * writes the type id and the acknowledged tick
+     */
+    @Override
+    public synchronized void writePacket() {
+        buffer.clear();
+        buffer.putInt(type.getId());
+        buffer.putInt(tick);
+        buffer.flip();
+    }
+
+    /**
+     * sends the acknowledgement to the given address
+     *
+     * @param address destination Address
+     */
+    @Override
+    public synchronized void sendPacket(Address address) {
+        writePacket();
+        transport.send(buffer, address.toSocketAddress());
+    }
+}
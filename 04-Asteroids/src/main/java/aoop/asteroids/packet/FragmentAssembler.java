@@ -0,0 +1,163 @@
+package aoop.asteroids.packet;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FragmentAssembler puts the packets that were sent in pieces by FragmentPacket back together, on the receiving side.
+ * A few packets may be put together at the same time, since pieces of consecutive packets can arrive mixed up. A packet
+ * whose pieces have not all arrived within TIMEOUT is given up, as is the oldest one when a piece of yet another packet
+ * arrives; a lost snapshot is made up for by the next one.
+ *
+ * The assembler counts the packets it put together, the packets it gave up, and the pieces it could not use, so that
+ * the loss of large snapshots shows. It is used by a single receiving thread, and reuses its buffers.
+ */
+public class FragmentAssembler {
+    /** number of packets that are put together at the same time **/
+    static final int SLOTS = 4;
+
+    /** time after the first piece of a packet arrived at which the packet is given up **/
+    static final long TIMEOUT = TimeUnit.MILLISECONDS.toNanos(250);
+
+    /**
+     * a packet being put together
+     */
+    private static class Message {
+        boolean active;
+        int id;
+        int count;
+        int received;
+        int length;
+        long started;
+        final long[] receivedBits = new long[FragmentPacket.MAX_FRAGMENTS / 64];
+        byte[] data = new byte[0];
+        ByteBuffer view;
+
+        /**
+         * starts putting a new packet together, growing the buffer if the packet may not fit
+         */
+        void start(int id, int count, long now) {
+            this.active = true;
+            this.id = id;
+            this.count = count;
+            this.received = 0;
+            this.length = 0;
+            this.started = now;
+            Arrays.fill(receivedBits, 0);
+            if (data.length < count * FragmentPacket.MAX_PAYLOAD) {
+                data = new byte[count * FragmentPacket.MAX_PAYLOAD];
+                view = ByteBuffer.wrap(data);
+            }
+        }
+    }
+
+    private final Message[] messages = new Message[SLOTS];
+
+    private long completed = 0;
+    private long incomplete = 0;
+    private long droppedFragments = 0;
+
+    /**
+     * creates a new FragmentAssembler
+     */
+    public FragmentAssembler() {
+        for (int i = 0; i < SLOTS; i++) {
+            messages[i] = new Message();
+        }
+    }
+
+    /**
+     * adds a received piece
+     *
+     * @param fragment the piece, positioned right after the packet type id
+     * @param now System.nanoTime() at which the piece arrived
+     * @return the whole packet when this was its last missing piece, only valid until the next piece is added;
+     *         null otherwise
+     */
+    public ByteBuffer add(ByteBuffer fragment, long now) {
+        expire(now);
+        if (fragment.remaining() < FragmentPacket.HEADER_SIZE - 4) {
+            droppedFragments++;
+            return null;
+        }
+        int id = fragment.getInt();
+        int index = fragment.getShort() & 0xFFFF;
+        int count = fragment.getShort() & 0xFFFF;
+        int length = fragment.remaining();
+        if (count == 0 || count > FragmentPacket.MAX_FRAGMENTS || index >= count || length > FragmentPacket.MAX_PAYLOAD
+                || (index < count - 1 && length != FragmentPacket.MAX_PAYLOAD)) {
+            droppedFragments++;
+            return null;
+        }
+
+        Message message = find(id, count, now);
+        if (message.count != count) {
+            droppedFragments++;
+            return null;
+        }
+        long bit = 1L << (index & 63);
+        if ((message.receivedBits[index >> 6] & bit) != 0) return null; // A duplicate.
+        message.receivedBits[index >> 6] |= bit;
+        fragment.get(message.data, index * FragmentPacket.MAX_PAYLOAD, length);
+        if (index == count - 1) message.length = index * FragmentPacket.MAX_PAYLOAD + length;
+        if (++message.received < count) return null;
+
+        message.active = false;
+        completed++;
+        message.view.clear();
+        message.view.limit(message.length);
+        return message.view;
+    }
+
+    /**
+     * finds the packet with the given id, or starts a new one, giving up the oldest packet when no slot is free
+     */
+    private Message find(int id, int count, long now) {
+        Message oldest = null;
+        for (Message message : messages) {
+            if (message.active && message.id == id) return message;
+            if (!message.active) {
+                oldest = message;
+            } else if (oldest == null || (oldest.active && message.started - oldest.started < 0)) {
+                oldest = message;
+            }
+        }
+        if (oldest.active) incomplete++;
+        oldest.start(id, count, now);
+        return oldest;
+    }
+
+    /**
+     * gives up the packets whose pieces have not all arrived in time
+     */
+    private void expire(long now) {
+        for (Message message : messages) {
+            if (message.active && now - message.started > TIMEOUT) {
+                message.active = false;
+                incomplete++;
+            }
+        }
+    }
+
+    /**
+     * @return number of packets put together
+     */
+    public long getCompletedCount() {
+        return this.completed;
+    }
+
+    /**
+     * @return number of packets given up because pieces were missing
+     */
+    public long getIncompleteCount() {
+        return this.incomplete;
+    }
+
+    /**
+     * @return number of pieces that were invalid, or did not match the other pieces of their packet
+     */
+    public long getDroppedFragmentCount() {
+        return this.droppedFragments;
+    }
+}
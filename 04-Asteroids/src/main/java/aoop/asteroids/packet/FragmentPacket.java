@@ -0,0 +1,82 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.DatagramTransport;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FragmentPacket sends a packet that is too large to be sent in a single datagram below the MTU, such as the snapshot
+ * of a busy game, in pieces. Datagrams larger than the MTU are split by IP anyway, but then a single lost piece
+ * silently loses the whole datagram, and anything beyond 64 KiB can not be sent at all.
+ * Every piece is a FRAGMENT datagram written in binary : the type id, the id of the packet it is a piece of, the index
+ * of the piece and the number of pieces (both unsigned shorts), followed by the piece itself. Every piece but the last
+ * one is MAX_PAYLOAD bytes long. The receiver puts the packet back together with a FragmentAssembler.
+ *
+ * It is not a GamePacket of its own : it only sends the data of other packets, see GamePacket.sendData(). The buffer
+ * the pieces are written into is reused for every piece.
+ */
+public class FragmentPacket {
+    /** largest datagram that is sent as it is, which stays below the MTU of nearly every network path **/
+    public static final int MAX_DATAGRAM_SIZE = 1200;
+
+    /** number of bytes of the header **/
+    public static final int HEADER_SIZE = 12;
+
+    /** number of bytes of a piece **/
+    public static final int MAX_PAYLOAD = MAX_DATAGRAM_SIZE - HEADER_SIZE;
+
+    /** largest number of pieces of a packet **/
+    public static final int MAX_FRAGMENTS = 256;
+
+    /** largest packet that can be sent in pieces **/
+    public static final int MAX_MESSAGE_SIZE = MAX_FRAGMENTS * MAX_PAYLOAD;
+
+    /** id of the next packet that is split, shared by all senders so that packets sent to one client never share it **/
+    private static final AtomicInteger nextMessageId = new AtomicInteger();
+
+    private final DatagramTransport transport;
+    private final ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_SIZE);
+
+    /**
+     * creates a new FragmentPacket
+     *
+     * @param transport transport over which the pieces will be sent
+     */
+    public FragmentPacket(DatagramTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * splits the data into pieces and queues them to be sent to the given address
+     *
+     * @param data data to send, from its position up to its limit, which are left as they are
+     * @param address destination Address
+     */
+    public synchronized void send(ByteBuffer data, Address address) {
+        int length = data.remaining();
+        if (length > MAX_MESSAGE_SIZE) {
+            System.out.println("packet too large to send in fragments : " + length + " bytes");
+            return;
+        }
+        int start = data.position();
+        int limit = data.limit();
+        int messageId = nextMessageId.getAndIncrement();
+        int count = (length + MAX_PAYLOAD - 1) / MAX_PAYLOAD;
+        for (int index = 0; index < count; index++) {
+            buffer.clear();
+            buffer.putInt(PacketType.FRAGMENT.getId());
+            buffer.putInt(messageId);
+            buffer.putShort((short) index);
+            buffer.putShort((short) count);
+            data.limit(Math.min(limit, start + (index + 1) * MAX_PAYLOAD));
+            data.position(start + index * MAX_PAYLOAD);
+            buffer.put(data);
+            buffer.flip();
+            transport.send(buffer, address.toSocketAddress());
+        }
+        data.limit(limit);
+        data.position(start);
+    }
+}
@@ -1,35 +1,51 @@
 package aoop.asteroids.packet;
 
 import aoop.asteroids.model.entity.Address;
-import aoop.asteroids.util.Network;
+import aoop.asteroids.model.entity.DatagramTransport;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.InetAddress;
-
-import static aoop.asteroids.packet.PacketType.DISCONNECT;
+import java.nio.ByteBuffer;
 
 /**
  * GamePacket is an abstract class that hold the share features among the packets used for multiplayer game.
  *
  */
 public abstract class GamePacket {
-    private DatagramSocket socket;
+    DatagramTransport transport;
     PacketType type;
-    ByteArrayOutputStream byteOut;
+    PacketOutputStream byteOut;
     ObjectOutputStream out;
 
+    /** sends data too large for a single datagram in pieces, created when first needed **/
+    private FragmentPacket fragmentPacket;
+
+    /**
+     * ByteArrayOutputStream whose bytes can be sent as they are, without copying them into a new array first
+     */
+    static class PacketOutputStream extends ByteArrayOutputStream {
+        private ByteBuffer view;
+
+        /**
+         * @return the bytes written so far, as a buffer on the stream's own array
+         */
+        ByteBuffer toByteBuffer() {
+            if (view == null || view.array() != buf) view = ByteBuffer.wrap(buf);
+            view.clear();
+            view.limit(count);
+            return view;
+        }
+    }
+
     /**
      * Constructor of GamePacket objects
      *
-     * @param socket DatagramSocket that will send data
+     * @param transport DatagramTransport that will send data
      * @param type PacketType of the data
      */
-    public GamePacket(DatagramSocket socket, PacketType type) {
-        this.socket = socket;
+    public GamePacket(DatagramTransport transport, PacketType type) {
+        this.transport = transport;
         this.type = type;
     }
 
@@ -41,7 +57,8 @@ public abstract class GamePacket {
     public abstract void writePacket() throws IOException;
 
     /**
-     * Creates a new DatagramPacket and send it to the given address
+     * Writes the packet and queues it to be sent to the given address. the stream the packet is written into is
+     * kept, and reused by the next send.
      *
      * @param address destination Address
      */
@@ -50,23 +67,34 @@ public abstract class GamePacket {
             prepareOutputStream();
             writePacket();
             out.flush();
-            DatagramPacket packet = new DatagramPacket(byteOut.toByteArray(), byteOut.toByteArray().length, address.toSocketAddress());
-            socket.send(packet);
+            sendData(byteOut.toByteBuffer(), address);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Prepares new output streams
+     * queues data to be sent to the given address, in pieces when it does not fit in a single datagram below the MTU
+     *
+     * @param data data to send, from its position up to its limit, which are left as they are
+     * @param address destination Address
      */
-    private void prepareOutputStream() {
-        try {
-            byteOut = new ByteArrayOutputStream();
-            out = new ObjectOutputStream(byteOut);
-        } catch (IOException e) {
-            e.printStackTrace();
+    void sendData(ByteBuffer data, Address address) {
+        if (data.remaining() <= FragmentPacket.MAX_DATAGRAM_SIZE) {
+            transport.send(data, address.toSocketAddress());
+        } else {
+            if (fragmentPacket == null) fragmentPacket = new FragmentPacket(transport);
+            fragmentPacket.send(data, address);
         }
     }
 
+    /**
+     * Prepares the output streams. every packet starts with a new stream header, so only the bytes are reused
+     */
+    private void prepareOutputStream() throws IOException {
+        if (byteOut == null) byteOut = new PacketOutputStream();
+        byteOut.reset();
+        out = new ObjectOutputStream(byteOut);
+    }
+
 }
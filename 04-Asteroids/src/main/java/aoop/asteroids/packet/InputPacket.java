@@ -0,0 +1,118 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.DatagramTransport;
+import aoop.asteroids.model.game_object.Spaceship;
+
+import java.nio.ByteBuffer;
+
+/**
+ * InputPacket tells the server which buttons a player holds down, so that the server can steer the player's ship.
+ * It is written in binary : the type id, a sequence number, the tick of the last snapshot the client received, and
+ * one byte with a bit for every button. A joiner sends one input every tick of its own, numbered by that tick (see
+ * ShipPredictor), so a lost packet is made up for by the next one; the sequence number lets the server ignore inputs
+ * that arrive after a newer one, and tells the joiner which of its inputs a snapshot includes. The packet is reused
+ * for every input.
+ */
+public class InputPacket extends GamePacket {
+    /** number of bytes of the packet **/
+    public static final int SIZE = 13;
+
+    /** bit of the button that accelerates the ship **/
+    public static final int ACCELERATE = 1;
+
+    /** bit of the button that turns the ship left **/
+    public static final int TURN_LEFT = 2;
+
+    /** bit of the button that turns the ship right **/
+    public static final int TURN_RIGHT = 4;
+
+    /** bit of the button that fires the ship's weapon **/
+    public static final int FIRE = 8;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+    private int sequence;
+    private int tick;
+    private int buttons;
+
+    /**
+     * creates a new InputPacket
+     *
+     * @param transport transport over which data will be sent
+     */
+    public InputPacket(DatagramTransport transport) {
+        super(transport, PacketType.INPUT);
+    }
+
+    /**
+     * sets the input to send
+     *
+     * @param sequence sequence number of the input
+     * @param tick tick of the last snapshot the client received
+     * @param buttons bits of the buttons held down
+     */
+    public synchronized void setInput(int sequence, int tick, int buttons) {
+        this.sequence = sequence;
+        this.tick = tick;
+        this.buttons = buttons;
+    }
+
+    /**
+     * writes the type id, the sequence number, the tick and the buttons
+     */
+    @Override
+    public synchronized void writePacket() {
+        buffer.clear();
+        buffer.putInt(type.getId());
+        buffer.putInt(sequence);
+        buffer.putInt(tick);
+        buffer.put((byte) buttons);
+        buffer.flip();
+    }
+
+    /**
+     * sends the input to the given address
+     *
+     * @param address destination Address
+     */
+    @Override
+    public synchronized void sendPacket(Address address) {
+        writePacket();
+        transport.send(buffer, address.toSocketAddress());
+    }
+
+    /**
+     * @param accelerate whether the button that accelerates is held down
+     * @param turnLeft whether the button that turns left is held down
+     * @param turnRight whether the button that turns right is held down
+     * @param fire whether the button that fires is held down
+     * @return the bits of the buttons held down
+     */
+    public static int toButtons(boolean accelerate, boolean turnLeft, boolean turnRight, boolean fire) {
+        return (accelerate ? ACCELERATE : 0)
+                | (turnLeft ? TURN_LEFT : 0)
+                | (turnRight ? TURN_RIGHT : 0)
+                | (fire ? FIRE : 0);
+    }
+
+    /**
+     * @param ship ship that is steered
+     * @return the bits of the buttons that steer the ship at the moment, the opposite of apply()
+     */
+    public static int getButtons(Spaceship ship) {
+        return toButtons(ship.isAccelerating(), ship.isTurningLeft(), ship.isTurningRight(), ship.isFiring());
+    }
+
+    /**
+     * steers a ship as if the player held down the given buttons
+     *
+     * @param buttons bits of the buttons held down
+     * @param ship ship to steer
+     */
+    public static void apply(int buttons, Spaceship ship) {
+        ship.setAccelerateKeyPressed((buttons & ACCELERATE) != 0);
+        ship.setTurnLeftKeyPressed((buttons & TURN_LEFT) != 0);
+        ship.setTurnRightKeyPressed((buttons & TURN_RIGHT) != 0);
+        ship.setIsFiring((buttons & FIRE) != 0);
+    }
+}
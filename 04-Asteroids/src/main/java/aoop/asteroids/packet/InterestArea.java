@@ -0,0 +1,124 @@
+package aoop.asteroids.packet;
+
+/**
+ * InterestArea is the part of the game a client is sent, so that the snapshots of a client stay the same size however
+ * large the world grows : everything within a radius around a player's ship, or around a fixed point for a spectator
+ * that watches a region. Distances are measured across the edges of the world, which wraps around.
+ *
+ * Besides the objects in the area, a client is sent the objects that will be in it within LOOKAHEAD_TICKS if they keep
+ * their velocity (asteroids and bullets headed its way), the bullets its own ship fired, and every ship, which are few
+ * and make up the score table. See WorldSnapshot.filter().
+ */
+public class InterestArea {
+    /** number of ticks ahead in which an object that will enter the area counts as a threat **/
+    public static final int LOOKAHEAD_TICKS = 30;
+
+    /** idColor of a ship that is followed, or 0 for an area around a fixed point **/
+    private final int followedShip;
+    private final double centerX;
+    private final double centerY;
+    private final double radius;
+    private final double worldWidth;
+    private final double worldHeight;
+
+    /**
+     * creates a new InterestArea
+     */
+    private InterestArea(int followedShip, double centerX, double centerY, double radius, double worldWidth,
+                         double worldHeight) {
+        this.followedShip = followedShip;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.radius = radius;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * @param idColor idColor of the player's ship, as an RGB value
+     * @param radius radius of the area, in pixels
+     * @param worldWidth width of the world
+     * @param worldHeight height of the world
+     * @return an area that moves along with the ship
+     */
+    public static InterestArea aroundShip(int idColor, double radius, double worldWidth, double worldHeight) {
+        return new InterestArea(idColor, 0, 0, radius, worldWidth, worldHeight);
+    }
+
+    /**
+     * @param centerX center of the area on the x-axis
+     * @param centerY center of the area on the y-axis
+     * @param radius radius of the area, in pixels
+     * @param worldWidth width of the world
+     * @param worldHeight height of the world
+     * @return an area around a fixed point
+     */
+    public static InterestArea region(double centerX, double centerY, double radius, double worldWidth,
+                                      double worldHeight) {
+        return new InterestArea(0, centerX, centerY, radius, worldWidth, worldHeight);
+    }
+
+    /**
+     * @return idColor of the followed ship, or 0 for an area around a fixed point
+     */
+    public int getFollowedShip() {
+        return this.followedShip;
+    }
+
+    /**
+     * @return center of a fixed area on the x-axis
+     */
+    public double getCenterX() {
+        return this.centerX;
+    }
+
+    /**
+     * @return center of a fixed area on the y-axis
+     */
+    public double getCenterY() {
+        return this.centerY;
+    }
+
+    /**
+     * @return radius of the area, in pixels
+     */
+    public double getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * tells whether an object is in the area around the given center, or will be within LOOKAHEAD_TICKS
+     *
+     * @param centerX center of the area on the x-axis
+     * @param centerY center of the area on the y-axis
+     * @param x location of the object on the x-axis
+     * @param y location of the object on the y-axis
+     * @param velocityX velocity of the object on the x-axis
+     * @param velocityY velocity of the object on the y-axis
+     * @param objectRadius radius of the object
+     * @return whether the object is relevant
+     */
+    boolean isRelevant(double centerX, double centerY, double x, double y, double velocityX, double velocityY,
+                       double objectRadius) {
+        double reach = radius + objectRadius;
+        return isWithin(centerX, centerY, x, y, reach)
+                || isWithin(centerX, centerY, x + velocityX * LOOKAHEAD_TICKS, y + velocityY * LOOKAHEAD_TICKS, reach);
+    }
+
+    /**
+     * @return whether two points are no further apart than the given distance, the short way round the world
+     */
+    private boolean isWithin(double ax, double ay, double bx, double by, double distance) {
+        double dx = wrappedDistance(ax - bx, worldWidth);
+        double dy = wrappedDistance(ay - by, worldHeight);
+        return dx * dx + dy * dy <= distance * distance;
+    }
+
+    /**
+     * @return the distance between two coordinates whose difference is given, across the edge if that is shorter
+     */
+    private static double wrappedDistance(double difference, double size) {
+        double distance = Math.abs(difference) % size;
+        return Math.min(distance, size - distance);
+    }
+}
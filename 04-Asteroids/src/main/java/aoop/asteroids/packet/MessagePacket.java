@@ -1,52 +1,65 @@
 package aoop.asteroids.packet;
 
+import aoop.asteroids.model.entity.DatagramTransport;
+
 import java.io.IOException;
-import java.net.DatagramSocket;
 
 import static aoop.asteroids.packet.PacketType.ACCEPT_CONNECTION;
 import static aoop.asteroids.packet.PacketType.REQUEST_CONNECTION_JOINER;
+import static aoop.asteroids.packet.PacketType.REQUEST_CONNECTION_SPECTATOR;
 
 /**
  * MessagePacket contains simple data regarding connection among server and client.
+ * Connection requests carry the id of the room the client wants to join, right after the packet type id, so that a
+ * server hosting many games on one socket knows where to send the client, see RoomManager.
  */
 public class MessagePacket extends GamePacket {
     private String nickname;
     private int idColor;
+    private int roomId;
+    private int worldWidth;
+    private int worldHeight;
 
     /**
      * creates a new MessagePacket object
      *
-     * @param socket socket from which data will be sent
+     * @param transport transport over which data will be sent
      * @param type type of packet
      */
-    public MessagePacket(DatagramSocket socket, PacketType type) {
-        super(socket, type);
+    public MessagePacket(DatagramTransport transport, PacketType type) {
+        super(transport, type);
     }
 
     /**
      * creates a new MessagePacket object, specifically, a packet that requests connection to server
-     * the additional field String nickname is sent
+     * the additional fields int roomId and String nickname are sent
      *
-     * @param socket socket from which data will be sent
+     * @param transport transport over which data will be sent
      * @param type type of packet
      * @param nickname nickname of the player requesting connection
+     * @param roomId id of the room to join
      */
-    public MessagePacket(DatagramSocket socket, PacketType type, String nickname) {
-        super(socket, type);
+    public MessagePacket(DatagramTransport transport, PacketType type, String nickname, int roomId) {
+        super(transport, type);
         this.nickname = nickname;
+        this.roomId = roomId;
     }
 
     /**
      * creates a new MessagePacket object, specifically, a packet that accepts connection from client
-     * the additional field int idColor is sent
+     * the additional fields int idColor and the size of the world are sent
      *
-     * @param socket socket from which data will be sent
+     * @param transport transport over which data will be sent
      * @param type type of packet
      * @param idColor assigned color to the client's Spaceship
+     * @param worldWidth width of the server's world
+     * @param worldHeight height of the server's world
      */
-    public MessagePacket(DatagramSocket socket, PacketType type, int idColor) {
-        super(socket, type);
+    public MessagePacket(DatagramTransport transport, PacketType type, int idColor, int worldWidth, int worldHeight) {
+        super(transport, type);
         this.idColor = idColor;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
     }
 
     /**
@@ -57,10 +70,15 @@ public class MessagePacket extends GamePacket {
     @Override
     public void writePacket() throws IOException {
         out.writeInt(type.getId());
+        if (type == REQUEST_CONNECTION_JOINER || type == REQUEST_CONNECTION_SPECTATOR) {
+            out.writeInt(this.roomId);
+        }
         if (type == REQUEST_CONNECTION_JOINER) {
             out.writeObject(this.nickname);
         } else if (type == ACCEPT_CONNECTION) {
             out.writeInt(this.idColor);
+            out.writeInt(this.worldWidth);
+            out.writeInt(this.worldHeight);
         }
     }
 }
@@ -4,6 +4,10 @@ package aoop.asteroids.packet;
  * PacketType is an enumeration of possible types data sent via UDP.
  *   id from 0 to 4 is dedicated for message regarding connection
  *   id 5 and 6 are reserved for GameObjects (entire Game model and a single Spaceship)
+ *   id 7 is the entire Game model written in the compact binary format of SnapshotCodec
+ *   id 8 is a client's acknowledgement of the last SNAPSHOT it received
+ *   id 9 is a player's input : the buttons held down, which replaces sending the whole Spaceship (SHIP is no longer sent)
+ *   id 10 is a piece of a packet too large for a single datagram below the MTU, see FragmentPacket
  */
 public enum PacketType {
     REQUEST_CONNECTION_JOINER(0),
@@ -12,7 +16,11 @@ public enum PacketType {
     REJECT_CONNECTION(3),
     ACCEPT_CONNECTION(4),
     SHIP(5),
-    GAME_MODEL(6);
+    GAME_MODEL(6),
+    SNAPSHOT(7),
+    SNAPSHOT_ACK(8),
+    INPUT(9),
+    FRAGMENT(10);
 
     /**
      * int value that corresponds with each PacketType
@@ -59,6 +67,14 @@ public enum PacketType {
                 return SHIP;
             case 6:
                 return GAME_MODEL;
+            case 7:
+                return SNAPSHOT;
+            case 8:
+                return SNAPSHOT_ACK;
+            case 9:
+                return INPUT;
+            case 10:
+                return FRAGMENT;
             default:
                 return null;
         }
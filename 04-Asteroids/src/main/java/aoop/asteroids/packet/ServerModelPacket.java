@@ -1,12 +1,12 @@
 package aoop.asteroids.packet;
 
+import aoop.asteroids.model.entity.DatagramTransport;
 import aoop.asteroids.model.game.MultiplayerGame;
 import aoop.asteroids.model.game_object.Asteroid;
 import aoop.asteroids.model.game_object.Bullet;
 import aoop.asteroids.model.game_object.Spaceship;
 
 import java.io.IOException;
-import java.net.DatagramSocket;
 import java.util.Collection;
 
 /**
@@ -20,12 +20,12 @@ public class ServerModelPacket extends GamePacket {
     /**
      * creates a new ServerModelPacket
      *
-     * @param socket socket from which data will be sent
+     * @param transport transport over which data will be sent
      * @param type type of packet
      * @param game server-side game object
      */
-    public ServerModelPacket(DatagramSocket socket, PacketType type, MultiplayerGame game) {
-        super(socket, type);
+    public ServerModelPacket(DatagramTransport transport, PacketType type, MultiplayerGame game) {
+        super(transport, type);
         this.asteroids = game.getAsteroids();
         this.bullets = game.getBullets();
         this.ships = game.getShips();
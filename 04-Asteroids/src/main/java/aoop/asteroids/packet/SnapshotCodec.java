@@ -0,0 +1,298 @@
+package aoop.asteroids.packet;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static aoop.asteroids.packet.SnapshotTable.*;
+
+/**
+ * SnapshotCodec writes and reads WorldSnapshots in a compact binary format.
+ * Unlike the GAME_MODEL packet, no class descriptors or object graphs are sent, only the numbers a client needs to draw
+ * the game, and only those that changed since a baseline snapshot the client is known to have. The layout (after the
+ * packet type id) is:
+ *
+ *   int tick, int baseline tick (NO_TICK for a keyframe, which is encoded against an empty baseline)
+ *   then for the asteroids, the bullets and the ships in turn:
+ *     short destroyed count, per destroyed object : varint id (as the difference with the previous id)
+ *     short changed count, per spawned or changed object : varint id (likewise), varint field bits, changed fields
+ *
+ * The fields, in the order of their bits in SnapshotTable, are:
+ *   two shorts (the change of location in fixed point) or two ints (the location in fixed point),
+ *   two floats (velocity), byte (asteroid size), float (direction), short (energy), byte (flags), short (score),
+ *   unsigned short nickname length (0xFFFF for none) followed by its chars.
+ *
+ * Objects whose fields all equal those in the baseline are not written at all.
+ */
+public class SnapshotCodec {
+    /** nickname length written for a ship without a nickname **/
+    private static final int NO_NICKNAME = 0xFFFF;
+
+    /** longest nickname that is written, longer ones are cut off **/
+    static final int MAX_NICKNAME_LENGTH = NO_NICKNAME - 1;
+
+    /** number of nicknames remembered by the decoder, a power of two **/
+    private static final int NICKNAME_CACHE_SIZE = 64;
+
+    /** baseline of keyframes: no rows, and a first row of zeros for the fields of spawned objects to be compared to **/
+    private static final WorldSnapshot EMPTY = new WorldSnapshot();
+
+    /** ids of the objects destroyed since the baseline, read before the baseline's rows are copied **/
+    private int[] destroyedIds = new int[64];
+
+    /**
+     * nicknames read before, at their hash code modulo NICKNAME_CACHE_SIZE, so that a nickname that is read again, as
+     * in every keyframe, is not created again. only a nickname not read recently creates a new String.
+     */
+    private final String[] nicknames = new String[NICKNAME_CACHE_SIZE];
+
+    /** chars of the nickname being read **/
+    private char[] nicknameChars = new char[32];
+
+    /**
+     * writes a snapshot into the buffer as the difference with a baseline, starting at the buffer's current position
+     *
+     * @param snapshot snapshot to write
+     * @param baseline snapshot the receiver already has, or null to write a keyframe
+     * @param buffer buffer to write into
+     * @throws java.nio.BufferOverflowException when the snapshot does not fit in the remaining space of the buffer
+     */
+    public void encode(WorldSnapshot snapshot, WorldSnapshot baseline, ByteBuffer buffer) {
+        buffer.putInt(snapshot.tick);
+        buffer.putInt(baseline == null ? WorldSnapshot.NO_TICK : baseline.tick);
+        if (baseline == null) baseline = EMPTY;
+        encode(snapshot.asteroids, baseline.asteroids, buffer);
+        encode(snapshot.bullets, baseline.bullets, buffer);
+        encode(snapshot.ships, baseline.ships, buffer);
+    }
+
+    /**
+     * reads a snapshot from the buffer, rebuilding it from its baseline in the history, and stores it in the history.
+     * snapshots that are older than the newest one in the history, or whose baseline is no longer known, are dropped.
+     *
+     * @param buffer buffer positioned right after the packet type id
+     * @param history snapshots received before
+     * @return the decoded snapshot, or null if it was dropped
+     */
+    public WorldSnapshot decode(ByteBuffer buffer, SnapshotHistory history) {
+        int tick = buffer.getInt();
+        int baselineTick = buffer.getInt();
+        if (tick <= history.getLatestTick()) return null;
+
+        WorldSnapshot baseline = EMPTY;
+        if (baselineTick != WorldSnapshot.NO_TICK) {
+            baseline = history.get(baselineTick);
+            if (baseline == null) return null;
+        }
+        WorldSnapshot snapshot = history.prepare(tick);
+        if (snapshot == baseline) return null;
+
+        decode(buffer, baseline.asteroids, snapshot.asteroids);
+        decode(buffer, baseline.bullets, snapshot.bullets);
+        decode(buffer, baseline.ships, snapshot.ships);
+        history.complete(snapshot, tick);
+        return snapshot;
+    }
+
+    /**
+     * writes the differences between one kind of objects in the snapshot and in the baseline
+     */
+    private void encode(SnapshotTable table, SnapshotTable baseline, ByteBuffer buffer) {
+        // Objects in the baseline that are gone.
+        int countPosition = buffer.position();
+        buffer.putShort((short) 0);
+        int count = 0;
+        int previousId = 0;
+        int row = 0;
+        for (int baselineRow = 0; baselineRow < baseline.count; baselineRow++) {
+            int id = baseline.id[baselineRow];
+            while (row < table.count && table.id[row] < id) row++;
+            if (row < table.count && table.id[row] == id) continue;
+            putVarInt(buffer, id - previousId);
+            previousId = id;
+            count++;
+        }
+        buffer.putShort(countPosition, (short) count);
+
+        // Objects that are new, or that changed.
+        countPosition = buffer.position();
+        buffer.putShort((short) 0);
+        count = 0;
+        previousId = 0;
+        int baselineRow = 0;
+        for (row = 0; row < table.count; row++) {
+            int id = table.id[row];
+            while (baselineRow < baseline.count && baseline.id[baselineRow] < id) baselineRow++;
+            boolean known = baselineRow < baseline.count && baseline.id[baselineRow] == id;
+            SnapshotTable reference = known ? baseline : EMPTY.asteroids;
+            int referenceRow = known ? baselineRow : 0;
+
+            int fields = table.changedFields(row, reference, referenceRow);
+            if (fields == 0) continue;
+            putVarInt(buffer, id - previousId);
+            previousId = id;
+            putVarInt(buffer, fields);
+            putFields(buffer, table, row, reference, referenceRow, fields);
+            count++;
+        }
+        buffer.putShort(countPosition, (short) count);
+    }
+
+    /**
+     * reads one kind of objects, merging the baseline's rows with the destroyed and changed ones in the buffer
+     */
+    private void decode(ByteBuffer buffer, SnapshotTable baseline, SnapshotTable table) {
+        int destroyedCount = buffer.getShort() & 0xFFFF;
+        if (destroyedIds.length < destroyedCount) destroyedIds = Arrays.copyOf(destroyedIds, destroyedCount);
+        int id = 0;
+        for (int i = 0; i < destroyedCount; i++) {
+            id += getVarInt(buffer);
+            destroyedIds[i] = id;
+        }
+
+        table.clear();
+        int changedCount = buffer.getShort() & 0xFFFF;
+        int baselineRow = 0;
+        int destroyed = 0;
+        id = 0;
+        for (int i = 0; i < changedCount; i++) {
+            id += getVarInt(buffer);
+            int fields = getVarInt(buffer);
+            while (baselineRow < baseline.count && baseline.id[baselineRow] < id) {
+                destroyed = copyUnlessDestroyed(baseline, baselineRow++, table, destroyedCount, destroyed);
+            }
+            int row;
+            if (baselineRow < baseline.count && baseline.id[baselineRow] == id) {
+                row = table.addCopy(baseline, baselineRow++);
+            } else {
+                row = table.add(id);
+            }
+            getFields(buffer, table, row, fields);
+        }
+        while (baselineRow < baseline.count) {
+            destroyed = copyUnlessDestroyed(baseline, baselineRow++, table, destroyedCount, destroyed);
+        }
+    }
+
+    /**
+     * copies a row of the baseline into the table, unless its id is in the list of destroyed ids
+     *
+     * @return position in the list of destroyed ids to continue from
+     */
+    private int copyUnlessDestroyed(SnapshotTable baseline, int baselineRow, SnapshotTable table, int destroyedCount, int destroyed) {
+        int id = baseline.id[baselineRow];
+        while (destroyed < destroyedCount && destroyedIds[destroyed] < id) destroyed++;
+        if (destroyed < destroyedCount && destroyedIds[destroyed] == id) return destroyed + 1;
+        table.addCopy(baseline, baselineRow);
+        return destroyed;
+    }
+
+    /**
+     * writes the given fields of a row
+     */
+    private static void putFields(ByteBuffer buffer, SnapshotTable table, int row, SnapshotTable reference, int referenceRow, int fields) {
+        if ((fields & POSITION_DELTA) != 0) {
+            buffer.putShort((short) (table.x[row] - reference.x[referenceRow]));
+            buffer.putShort((short) (table.y[row] - reference.y[referenceRow]));
+        }
+        if ((fields & POSITION) != 0) {
+            buffer.putInt(table.x[row]);
+            buffer.putInt(table.y[row]);
+        }
+        if ((fields & VELOCITY) != 0) {
+            buffer.putFloat(table.velocityX[row]);
+            buffer.putFloat(table.velocityY[row]);
+        }
+        if ((fields & SIZE) != 0) buffer.put(table.size[row]);
+        if ((fields & DIRECTION) != 0) buffer.putFloat(table.direction[row]);
+        if ((fields & ENERGY) != 0) buffer.putShort(table.energy[row]);
+        if ((fields & FLAGS) != 0) buffer.put(table.flags[row]);
+        if ((fields & SCORE) != 0) buffer.putShort(table.score[row]);
+        if ((fields & NICKNAME) != 0) {
+            String nickname = table.nickname[row];
+            if (nickname == null) {
+                buffer.putShort((short) NO_NICKNAME);
+            } else {
+                int length = Math.min(nickname.length(), MAX_NICKNAME_LENGTH);
+                buffer.putShort((short) length);
+                for (int i = 0; i < length; i++) {
+                    buffer.putChar(nickname.charAt(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * reads the given fields into a row that holds the baseline's values (or zeros, for a spawned object)
+     */
+    private void getFields(ByteBuffer buffer, SnapshotTable table, int row, int fields) {
+        if ((fields & POSITION_DELTA) != 0) {
+            table.x[row] += buffer.getShort();
+            table.y[row] += buffer.getShort();
+        }
+        if ((fields & POSITION) != 0) {
+            table.x[row] = buffer.getInt();
+            table.y[row] = buffer.getInt();
+        }
+        if ((fields & VELOCITY) != 0) {
+            table.velocityX[row] = buffer.getFloat();
+            table.velocityY[row] = buffer.getFloat();
+        }
+        if ((fields & SIZE) != 0) table.size[row] = buffer.get();
+        if ((fields & DIRECTION) != 0) table.direction[row] = buffer.getFloat();
+        if ((fields & ENERGY) != 0) table.energy[row] = buffer.getShort();
+        if ((fields & FLAGS) != 0) table.flags[row] = buffer.get();
+        if ((fields & SCORE) != 0) table.score[row] = buffer.getShort();
+        if ((fields & NICKNAME) != 0) {
+            int length = buffer.getShort() & 0xFFFF;
+            table.nickname[row] = length == NO_NICKNAME ? null : getNickname(buffer, length);
+        }
+    }
+
+    /**
+     * reads the chars of a nickname, and returns the same String as the last time that nickname was read, if it is
+     * still remembered
+     */
+    private String getNickname(ByteBuffer buffer, int length) {
+        if (nicknameChars.length < length) nicknameChars = new char[length];
+        char[] chars = nicknameChars;
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            chars[i] = buffer.getChar();
+            hash = 31 * hash + chars[i]; // As String.hashCode() computes it.
+        }
+        int slot = hash & (NICKNAME_CACHE_SIZE - 1);
+        String cached = nicknames[slot];
+        if (cached != null && cached.length() == length) {
+            int i = 0;
+            while (i < length && cached.charAt(i) == chars[i]) i++;
+            if (i == length) return cached;
+        }
+        String nickname = new String(chars, 0, length);
+        nicknames[slot] = nickname;
+        return nickname;
+    }
+
+    /**
+     * writes an int in as few bytes as its size allows, seven bits per byte
+     */
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * reads an int written by putVarInt
+     */
+    private static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("malformed snapshot");
+    }
+}
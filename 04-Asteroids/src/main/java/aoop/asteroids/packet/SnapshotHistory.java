@@ -0,0 +1,74 @@
+package aoop.asteroids.packet;
+
+/**
+ * SnapshotHistory keeps the most recent WorldSnapshots in a ring, indexed by their tick.
+ * The server keeps the snapshots it sent, so that it can encode a new one as the difference with whichever one a client
+ * acknowledged last. The client keeps the snapshots it received, so that it can rebuild the new one from that same
+ * baseline. Both sides hold the same number of snapshots, so any baseline the server picks is still known to the client.
+ */
+public class SnapshotHistory {
+    /** number of snapshots kept, older baselines are answered with a keyframe **/
+    public static final int CAPACITY = 64;
+
+    private final WorldSnapshot[] snapshots = new WorldSnapshot[CAPACITY];
+
+    /** tick of the newest complete snapshot **/
+    private int latestTick = WorldSnapshot.NO_TICK;
+
+    /**
+     * creates a new SnapshotHistory, allocating all of its snapshots up front
+     */
+    public SnapshotHistory() {
+        for (int i = 0; i < CAPACITY; i++) {
+            snapshots[i] = new WorldSnapshot();
+        }
+    }
+
+    /**
+     * @param tick tick of the wanted snapshot
+     * @return the snapshot with the given tick, or null if it was never stored or has been overwritten since
+     */
+    public WorldSnapshot get(int tick) {
+        if (tick < 0) return null;
+        WorldSnapshot snapshot = snapshots[tick % CAPACITY];
+        return snapshot.tick == tick ? snapshot : null;
+    }
+
+    /**
+     * @return the newest complete snapshot, or null if there is none yet
+     */
+    public WorldSnapshot getLatest() {
+        return get(latestTick);
+    }
+
+    /**
+     * @return tick of the newest complete snapshot, or NO_TICK if there is none yet
+     */
+    public int getLatestTick() {
+        return this.latestTick;
+    }
+
+    /**
+     * hands out the snapshot that will hold the given tick, which is the oldest one in the ring.
+     * it is marked invalid until complete() is called, so that a half written snapshot is never used as a baseline.
+     *
+     * @param tick tick that will be stored
+     * @return snapshot to overwrite
+     */
+    WorldSnapshot prepare(int tick) {
+        WorldSnapshot snapshot = snapshots[tick % CAPACITY];
+        snapshot.tick = WorldSnapshot.NO_TICK;
+        return snapshot;
+    }
+
+    /**
+     * marks a prepared snapshot as complete, making it the newest one
+     *
+     * @param snapshot snapshot handed out by prepare()
+     * @param tick tick of the snapshot
+     */
+    void complete(WorldSnapshot snapshot, int tick) {
+        snapshot.tick = tick;
+        this.latestTick = tick;
+    }
+}
@@ -0,0 +1,154 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.game.MultiplayerGame;
+
+/**
+ * SnapshotInterpolator lets a client draw the other players' ships, the asteroids and the bullets smoothly, although
+ * snapshots arrive at the server's tick rate at best, and with jitter. Instead of drawing the newest snapshot, the
+ * client draws the game as it was a short, fixed delay ago, blending the two received snapshots around that moment.
+ *
+ * The moment to draw is kept on the server's clock, in ticks. The interpolator estimates how far the client's clock is
+ * ahead of it from the arrival times of the snapshots, and how much their arrival varies (the jitter, measured as RTP
+ * does). The delay is the usual gap between two snapshots plus twice that jitter, so that the newer of the two
+ * snapshots has almost always arrived by the time it is needed. On a quiet network that is a single tick.
+ *
+ * All methods are called while the lock of the client's game is held: add() by the thread that applies snapshots, and
+ * sample() by the game panel while it paints.
+ */
+public class SnapshotInterpolator {
+    /** number of received ticks remembered, which covers the longest delay **/
+    static final int CAPACITY = 32;
+
+    /** longest delay, in ticks, however bad the network gets **/
+    static final int MAX_DELAY_TICKS = 10;
+
+    /** number of jitters added to the gap between snapshots, as a safety margin **/
+    private static final double JITTER_MARGIN = 2;
+
+    /** weight of a new measurement in the running averages of the jitter and of the gap between snapshots **/
+    private static final double SMOOTHING = 1.0 / 16;
+
+    /** weight by which a slower arrival moves the clock offset, so that the offset follows the network getting slower **/
+    private static final double DRIFT = 1.0 / 256;
+
+    private final SnapshotHistory history;
+    private final long nanosecondsPerTick;
+
+    /** ticks of the received snapshots in a ring, in increasing order **/
+    private final int[] ticks = new int[CAPACITY];
+    private int count = 0;
+    private int newest = -1;
+
+    /** estimated arrival time of tick 0 on the client's clock, of a snapshot that meets no queueing at all **/
+    private double offset;
+
+    /** running average of the difference in transit time of consecutive snapshots, in nanoseconds **/
+    private double jitter;
+
+    /** running average of the number of ticks between two received snapshots **/
+    private double tickGap = 1;
+
+    /** transit time (arrival time minus server time) of the previous snapshot **/
+    private double lastTransit;
+
+    /** game that holds the interpolated objects, which is overwritten by every sample **/
+    private final MultiplayerGame view = new MultiplayerGame();
+
+    /**
+     * creates a new SnapshotInterpolator
+     *
+     * @param history history in which the client keeps the received snapshots
+     * @param nanosecondsPerTick duration of a server tick
+     */
+    public SnapshotInterpolator(SnapshotHistory history, long nanosecondsPerTick) {
+        this.history = history;
+        this.nanosecondsPerTick = nanosecondsPerTick;
+    }
+
+    /**
+     * records the arrival of a snapshot, which has been stored in the history. snapshots older than the newest one
+     * recorded are ignored.
+     *
+     * @param tick tick of the snapshot
+     * @param arrivalNanos System.nanoTime() at which the snapshot arrived
+     */
+    public void add(int tick, long arrivalNanos) {
+        double transit = arrivalNanos - (double) tick * nanosecondsPerTick;
+        if (count == 0) {
+            offset = transit;
+        } else {
+            int lastTick = ticks[newest];
+            if (tick <= lastTick) return;
+            tickGap += (Math.min(tick - lastTick, MAX_DELAY_TICKS) - tickGap) * SMOOTHING;
+            jitter += (Math.abs(transit - lastTransit) - jitter) * SMOOTHING;
+            if (transit < offset) {
+                offset = transit;
+            } else {
+                offset += (transit - offset) * DRIFT;
+            }
+        }
+        lastTransit = transit;
+        newest = (newest + 1) % CAPACITY;
+        ticks[newest] = tick;
+        if (count < CAPACITY) count++;
+    }
+
+    /**
+     * @return how far behind the server the game is drawn, in nanoseconds
+     */
+    public long getDelay() {
+        double delay = tickGap * nanosecondsPerTick + JITTER_MARGIN * jitter;
+        delay = Math.max(nanosecondsPerTick, Math.min(MAX_DELAY_TICKS * nanosecondsPerTick, delay));
+        return (long) delay;
+    }
+
+    /**
+     * @return running average of the jitter of the received snapshots, in nanoseconds
+     */
+    public long getJitter() {
+        return (long) this.jitter;
+    }
+
+    /**
+     * @param nowNanos System.nanoTime() of the moment to draw
+     * @return the tick, with its fraction, the game is drawn at
+     */
+    double getRenderTick(long nowNanos) {
+        return (nowNanos - offset - getDelay()) / nanosecondsPerTick;
+    }
+
+    /**
+     * interpolates the game at the moment that is drawn now. past the newest snapshot, objects stay where that
+     * snapshot put them, rather than being guessed ahead.
+     *
+     * @param nowNanos System.nanoTime() of the moment to draw
+     * @return game holding the interpolated objects, only valid until the next sample, or null before any snapshot
+     *         that is still in the history
+     */
+    public MultiplayerGame sample(long nowNanos) {
+        if (count == 0) return null;
+        double renderTick = getRenderTick(nowNanos);
+
+        int i = newest;
+        int steps = 0;
+        while (steps < count - 1 && ticks[i] > renderTick) {
+            i = (i + CAPACITY - 1) % CAPACITY;
+            steps++;
+        }
+        int from = ticks[i];
+        int to = i == newest || from > renderTick ? from : ticks[(i + 1) % CAPACITY];
+
+        WorldSnapshot toSnapshot = history.get(to);
+        WorldSnapshot fromSnapshot = history.get(from);
+        if (toSnapshot == null) {
+            toSnapshot = history.getLatest();
+            if (toSnapshot == null) return null;
+            fromSnapshot = toSnapshot;
+        } else if (fromSnapshot == null) {
+            fromSnapshot = toSnapshot;
+        }
+        double alpha = to == from ? 1 : Math.max(0, Math.min(1, (renderTick - from) / (to - from)));
+        toSnapshot.interpolate(fromSnapshot, alpha, view);
+        return view;
+    }
+}
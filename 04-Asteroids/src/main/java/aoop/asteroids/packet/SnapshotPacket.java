@@ -0,0 +1,175 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.ClientConnection;
+import aoop.asteroids.model.entity.DatagramTransport;
+import aoop.asteroids.model.game.MultiplayerGame;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * SnapshotPacket contains the data of server-side game, written by SnapshotCodec instead of Java serialization.
+ * After the type id comes the sequence number of the last input of the receiving player that the game applied (see
+ * ShipPredictor), or -1, which is the only part that differs from one client to the next.
+ * The packet is meant to be kept and reused: writePacket() takes a new numbered snapshot of the game, after which
+ * sendPacket() sends it to each client as the difference with the last snapshot that client acknowledged, or in full
+ * when that snapshot is no longer in the history. Clients that acknowledged the same snapshot share the encoded bytes.
+ * A client with an InterestArea is only sent the part of the game that is relevant to it. Its baseline is then rebuilt
+ * by filtering the acknowledged snapshot through the same area, which gives the very snapshot the client received.
+ */
+public class SnapshotPacket extends GamePacket {
+    /** largest snapshot, which is sent in pieces when it does not fit in a single datagram below the MTU **/
+    public static final int MAX_SIZE = FragmentPacket.MAX_MESSAGE_SIZE;
+
+    /** position of the receiving player's input sequence number in the packet **/
+    private static final int INPUT_SEQUENCE_POSITION = 4;
+
+    /** baseline tick of the encoded bytes when nothing has been encoded since the last snapshot was taken **/
+    private static final int NOT_ENCODED = -2;
+
+    private MultiplayerGame game;
+    private SnapshotCodec codec = new SnapshotCodec();
+    private SnapshotHistory history = new SnapshotHistory();
+    private ByteBuffer buffer = ByteBuffer.allocate(MAX_SIZE);
+
+    /** the most recent snapshot and a client's baseline, filtered through the client's interest area **/
+    private WorldSnapshot filtered = new WorldSnapshot();
+    private WorldSnapshot filteredBaseline = new WorldSnapshot();
+
+    /** number of bytes of the most recently encoded snapshot **/
+    private int size;
+
+    /** tick of the most recent snapshot **/
+    private int tick = WorldSnapshot.NO_TICK;
+
+    /** baseline tick of the bytes currently in the buffer **/
+    private int encodedBaseline = NOT_ENCODED;
+
+    /**
+     * creates a new SnapshotPacket
+     *
+     * @param transport transport over which data will be sent
+     * @param game server-side game object
+     */
+    public SnapshotPacket(DatagramTransport transport, MultiplayerGame game) {
+        super(transport, PacketType.SNAPSHOT);
+        this.game = game;
+    }
+
+    /**
+     * takes a snapshot of the current state of the game, numbered one higher than the previous one
+     */
+    @Override
+    public synchronized void writePacket() {
+        tick++;
+        WorldSnapshot snapshot = history.prepare(tick);
+        snapshot.capture(game, tick);
+        history.complete(snapshot, tick);
+        encodedBaseline = NOT_ENCODED;
+    }
+
+    /**
+     * sends the most recent snapshot to a client, relative to the snapshot it acknowledged last
+     *
+     * @param client destination client
+     */
+    public synchronized void sendPacket(ClientConnection client) {
+        WorldSnapshot baseline = history.get(client.getAcknowledgedTick());
+        InterestArea area = client.getInterestArea();
+        if (area == null) {
+            send(baseline, client.getAppliedSequence(), client.getAddress());
+        } else {
+            sendFiltered(baseline, area, client.getAppliedSequence(), client.getAddress());
+        }
+    }
+
+    /**
+     * sends the most recent snapshot to the given address as a keyframe
+     *
+     * @param address destination Address
+     */
+    @Override
+    public synchronized void sendPacket(Address address) {
+        send(null, -1, address);
+    }
+
+    /**
+     * encodes the most recent snapshot against the baseline, unless it already is, and queues it to be sent, in pieces
+     * if it is large. the transport copies the bytes, so the buffer can be encoded again right away
+     */
+    private void send(WorldSnapshot baseline, int inputSequence, Address address) {
+        WorldSnapshot snapshot = history.getLatest();
+        if (snapshot == null) return; // no snapshot taken (yet)
+        if (baseline == snapshot) baseline = null;
+        int baselineTick = baseline == null ? WorldSnapshot.NO_TICK : baseline.getTick();
+        try {
+            if (baselineTick != encodedBaseline) {
+                encode(snapshot, baseline);
+                encodedBaseline = baselineTick;
+            }
+            buffer.putInt(INPUT_SEQUENCE_POSITION, inputSequence);
+            sendData(buffer, address);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * encodes the part of the most recent snapshot within the area against the same part of the baseline, and queues
+     * it to be sent. the encoded bytes are only meant for this client, so they are not shared
+     */
+    private void sendFiltered(WorldSnapshot baseline, InterestArea area, int inputSequence, Address address) {
+        WorldSnapshot snapshot = history.getLatest();
+        if (snapshot == null) return; // no snapshot taken (yet)
+        filtered.filter(snapshot, area);
+        if (baseline != null && baseline != snapshot) {
+            filteredBaseline.filter(baseline, area);
+            baseline = filteredBaseline;
+        } else {
+            baseline = null;
+        }
+        try {
+            encode(filtered, baseline);
+            encodedBaseline = NOT_ENCODED;
+            buffer.putInt(INPUT_SEQUENCE_POSITION, inputSequence);
+            sendData(buffer, address);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * writes the packet type id and the snapshot into the buffer
+     *
+     * @throws IOException when the snapshot is too large to be sent, even in pieces
+     */
+    private void encode(WorldSnapshot snapshot, WorldSnapshot baseline) throws IOException {
+        buffer.clear();
+        buffer.putInt(type.getId());
+        buffer.putInt(-1);
+        try {
+            codec.encode(snapshot, baseline, buffer);
+        } catch (BufferOverflowException e) {
+            encodedBaseline = NOT_ENCODED;
+            throw new IOException("game model does not fit in " + MAX_SIZE + " bytes");
+        }
+        buffer.flip();
+        size = buffer.limit();
+    }
+
+    /**
+     * @return tick of the most recent snapshot
+     */
+    public synchronized int getTick() {
+        return this.tick;
+    }
+
+    /**
+     * @return number of bytes of the most recently encoded snapshot
+     */
+    public synchronized int getSize() {
+        return this.size;
+    }
+}
@@ -0,0 +1,241 @@
+package aoop.asteroids.packet;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * SnapshotTable holds one kind of game object of a WorldSnapshot, as columns of numbers with one row per object.
+ * Rows are kept in ascending order of their id, so that two tables can be compared in a single pass over both.
+ * Columns that do not apply to a kind of object (the size of a bullet, the score of an asteroid) simply stay zero.
+ */
+class SnapshotTable {
+    /** bits that tell which fields of a row differ from its baseline row **/
+    static final int POSITION_DELTA = 1;
+    static final int POSITION = 1 << 1;
+    static final int VELOCITY = 1 << 2;
+    static final int SIZE = 1 << 3;
+    static final int DIRECTION = 1 << 4;
+    static final int ENERGY = 1 << 5;
+    static final int FLAGS = 1 << 6;
+    static final int SCORE = 1 << 7;
+    static final int NICKNAME = 1 << 8;
+
+    /** number of rows in use **/
+    int count;
+
+    /** id of the object, or the idColor for ships **/
+    int[] id;
+
+    /** location in fixed point, see WorldSnapshot.POSITION_SCALE **/
+    int[] x;
+    int[] y;
+
+    float[] velocityX;
+    float[] velocityY;
+
+    /** ordinal of an asteroid's size **/
+    byte[] size;
+
+    float[] direction;
+
+    /** energy of a ship in hundredths **/
+    short[] energy;
+
+    /** destroyed and accelerating flags of a ship **/
+    byte[] flags;
+
+    short[] score;
+
+    String[] nickname;
+
+    /**
+     * idColor of the ship that fired a bullet, or 0. it is only known on the server, where it decides which bullets a
+     * player is sent (see InterestArea), and is never written by SnapshotCodec
+     */
+    int[] owner;
+
+    /**
+     * creates a new, empty SnapshotTable
+     */
+    SnapshotTable() {
+        allocate(16);
+    }
+
+    /**
+     * removes all rows, keeping the allocated columns for reuse
+     */
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * appends a row in which every field is zero
+     *
+     * @param rowId id of the new row
+     * @return index of the new row
+     */
+    int add(int rowId) {
+        if (count == id.length) allocate(2 * count);
+        int row = count++;
+        id[row] = rowId;
+        x[row] = 0;
+        y[row] = 0;
+        velocityX[row] = 0;
+        velocityY[row] = 0;
+        size[row] = 0;
+        direction[row] = 0;
+        energy[row] = 0;
+        flags[row] = 0;
+        score[row] = 0;
+        nickname[row] = null;
+        owner[row] = 0;
+        return row;
+    }
+
+    /**
+     * appends a copy of a row of another table
+     *
+     * @param other table holding the row
+     * @param otherRow index of the row in the other table
+     * @return index of the new row
+     */
+    int addCopy(SnapshotTable other, int otherRow) {
+        if (count == id.length) allocate(2 * count);
+        int row = count++;
+        id[row] = other.id[otherRow];
+        x[row] = other.x[otherRow];
+        y[row] = other.y[otherRow];
+        velocityX[row] = other.velocityX[otherRow];
+        velocityY[row] = other.velocityY[otherRow];
+        size[row] = other.size[otherRow];
+        direction[row] = other.direction[otherRow];
+        energy[row] = other.energy[otherRow];
+        flags[row] = other.flags[otherRow];
+        score[row] = other.score[otherRow];
+        nickname[row] = other.nickname[otherRow];
+        owner[row] = other.owner[otherRow];
+        return row;
+    }
+
+    /**
+     * sorts the rows on their id. objects are mostly added in the order in which they were created, so an insertion
+     * sort only has to move the few rows that are out of place.
+     */
+    void sortById() {
+        for (int i = 1; i < count; i++) {
+            for (int j = i; j > 0 && id[j - 1] > id[j]; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    /**
+     * finds a row of a table that has been sorted on id
+     *
+     * @param rowId id of the row
+     * @return index of the row, or -1 if there is no row with the id
+     */
+    int indexOf(int rowId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (id[middle] < rowId) {
+                low = middle + 1;
+            } else if (id[middle] > rowId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * compares a row with a row of the baseline table, to find out which of its fields have to be sent
+     *
+     * @param row index of the row in this table
+     * @param baseline table holding the baseline row, whose fields are all zero for an object that was just spawned
+     * @param baselineRow index of the row in the baseline table
+     * @return bits of the fields that changed
+     */
+    int changedFields(int row, SnapshotTable baseline, int baselineRow) {
+        int fields = 0;
+        int dx = x[row] - baseline.x[baselineRow];
+        int dy = y[row] - baseline.y[baselineRow];
+        if (dx != 0 || dy != 0) {
+            fields |= fitsInShort(dx) && fitsInShort(dy) ? POSITION_DELTA : POSITION;
+        }
+        if (Float.floatToIntBits(velocityX[row]) != Float.floatToIntBits(baseline.velocityX[baselineRow])
+                || Float.floatToIntBits(velocityY[row]) != Float.floatToIntBits(baseline.velocityY[baselineRow])) {
+            fields |= VELOCITY;
+        }
+        if (size[row] != baseline.size[baselineRow]) fields |= SIZE;
+        if (Float.floatToIntBits(direction[row]) != Float.floatToIntBits(baseline.direction[baselineRow])) {
+            fields |= DIRECTION;
+        }
+        if (energy[row] != baseline.energy[baselineRow]) fields |= ENERGY;
+        if (flags[row] != baseline.flags[baselineRow]) fields |= FLAGS;
+        if (score[row] != baseline.score[baselineRow]) fields |= SCORE;
+        if (!Objects.equals(nickname[row], baseline.nickname[baselineRow])) fields |= NICKNAME;
+        return fields;
+    }
+
+    /**
+     * @return true if the value can be written as a short
+     */
+    private static boolean fitsInShort(int value) {
+        return value == (short) value;
+    }
+
+    /**
+     * exchanges two rows
+     */
+    private void swap(int a, int b) {
+        int i = id[a]; id[a] = id[b]; id[b] = i;
+        i = x[a]; x[a] = x[b]; x[b] = i;
+        i = y[a]; y[a] = y[b]; y[b] = i;
+        float f = velocityX[a]; velocityX[a] = velocityX[b]; velocityX[b] = f;
+        f = velocityY[a]; velocityY[a] = velocityY[b]; velocityY[b] = f;
+        f = direction[a]; direction[a] = direction[b]; direction[b] = f;
+        byte by = size[a]; size[a] = size[b]; size[b] = by;
+        by = flags[a]; flags[a] = flags[b]; flags[b] = by;
+        short s = energy[a]; energy[a] = energy[b]; energy[b] = s;
+        s = score[a]; score[a] = score[b]; score[b] = s;
+        String n = nickname[a]; nickname[a] = nickname[b]; nickname[b] = n;
+        i = owner[a]; owner[a] = owner[b]; owner[b] = i;
+    }
+
+    /**
+     * grows (or first creates) every column to the given number of rows
+     */
+    private void allocate(int capacity) {
+        if (id == null) {
+            id = new int[capacity];
+            x = new int[capacity];
+            y = new int[capacity];
+            velocityX = new float[capacity];
+            velocityY = new float[capacity];
+            size = new byte[capacity];
+            direction = new float[capacity];
+            energy = new short[capacity];
+            flags = new byte[capacity];
+            score = new short[capacity];
+            nickname = new String[capacity];
+            owner = new int[capacity];
+            return;
+        }
+        id = Arrays.copyOf(id, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        size = Arrays.copyOf(size, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        energy = Arrays.copyOf(energy, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        score = Arrays.copyOf(score, capacity);
+        nickname = Arrays.copyOf(nickname, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+    }
+}
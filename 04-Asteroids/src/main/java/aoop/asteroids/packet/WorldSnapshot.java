@@ -0,0 +1,321 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.GameObject;
+import aoop.asteroids.model.game_object.Spaceship;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WorldSnapshot is the state of a MultiplayerGame at one numbered moment (its tick), reduced to the numbers that a
+ * client needs to draw the game. Snapshots are what the server sends in SNAPSHOT packets: either in full (a keyframe),
+ * or as the difference with an older snapshot that the client has acknowledged.
+ *
+ * Locations are kept in fixed point, so that a location can be rebuilt exactly from an older one and the difference
+ * between the two. Ships are identified by their idColor, asteroids and bullets by their id.
+ *
+ * The game updater also publishes a snapshot after every game tick for the game panel of its own game, see
+ * Game.getPublishedTicks(), so that the panel can draw without holding up the game ticks.
+ */
+public class WorldSnapshot {
+    /** tick of a snapshot that holds no valid state **/
+    public static final int NO_TICK = -1;
+
+    /** number of fixed point units per pixel **/
+    static final int POSITION_SCALE = 16;
+
+    /** flag bit set when a ship is destroyed **/
+    static final int FLAG_DESTROYED = 1;
+
+    /** flag bit set when a ship is accelerating **/
+    static final int FLAG_ACCELERATING = 1 << 1;
+
+    /**
+     * distance in pixels by which an object may stray from the path its velocity predicts between two snapshots, beyond
+     * which it is taken to have wrapped around the screen or respawned, and is not interpolated
+     */
+    private static final double MAX_INTERPOLATED_JUMP = 40;
+
+    /** asteroid sizes indexed by their ordinal **/
+    private static final AsteroidSize[] SIZES = AsteroidSize.values();
+
+    int tick = NO_TICK;
+    final SnapshotTable asteroids = new SnapshotTable();
+    final SnapshotTable bullets = new SnapshotTable();
+    final SnapshotTable ships = new SnapshotTable();
+
+    /**
+     * @return tick of the snapshot, or NO_TICK if it holds no valid state
+     */
+    public int getTick() {
+        return this.tick;
+    }
+
+    /**
+     * overwrites this snapshot with the current state of the game
+     *
+     * @param game game to take the snapshot of
+     * @param tick number of the snapshot
+     */
+    public void capture(MultiplayerGame game, int tick) {
+        capture(game, game.getShips(), tick);
+    }
+
+    /**
+     * overwrites this snapshot with the current state of a game whose ships are given separately, such as a single
+     * player game, which only has the player's own ship
+     *
+     * @param game game to take the snapshot of
+     * @param gameShips ships of the game
+     * @param tick number of the snapshot
+     */
+    public void capture(Game game, List<Spaceship> gameShips, int tick) {
+        asteroids.clear();
+        ArrayList<Asteroid> gameAsteroids = game.getAsteroids();
+        for (int i = 0; i < gameAsteroids.size(); i++) {
+            Asteroid asteroid = gameAsteroids.get(i);
+            int row = addMotion(asteroids, asteroid.getId(), asteroid);
+            asteroids.size[row] = (byte) asteroid.getSize().ordinal();
+        }
+        asteroids.sortById();
+
+        bullets.clear();
+        ArrayList<Bullet> gameBullets = game.getBullets();
+        for (int i = 0; i < gameBullets.size(); i++) {
+            Bullet bullet = gameBullets.get(i);
+            int row = addMotion(bullets, bullet.getId(), bullet);
+            bullets.owner[row] = bullet.getShooter();
+        }
+        bullets.sortById();
+
+        ships.clear();
+        for (int i = 0; i < gameShips.size(); i++) {
+            Spaceship ship = gameShips.get(i);
+            int row = addMotion(ships, ship.getIdColor().getRGB(), ship);
+            ships.direction[row] = (float) ship.getDirection();
+            ships.energy[row] = (short) Math.round(ship.getEnergy() * 100);
+            ships.score[row] = (short) (int) ship.getScore();
+            int flags = 0;
+            if (ship.isDestroyed()) flags |= FLAG_DESTROYED;
+            if (ship.isAccelerating()) flags |= FLAG_ACCELERATING;
+            ships.flags[row] = (byte) flags;
+            ships.nickname[row] = ship.getNickname();
+        }
+        ships.sortById();
+        this.tick = tick;
+    }
+
+    /**
+     * overwrites this snapshot with the part of another snapshot that is relevant to a client, see InterestArea.
+     * the result only depends on the source snapshot and the area, so the server can rebuild exactly the snapshot it
+     * once sent a client from its own history, to encode the next one as the difference with it.
+     * when the followed ship is not in the source snapshot, everything is relevant.
+     *
+     * @param source snapshot of the whole game
+     * @param area part of the game the client is interested in
+     */
+    public void filter(WorldSnapshot source, InterestArea area) {
+        ships.clear();
+        for (int row = 0; row < source.ships.count; row++) {
+            ships.addCopy(source.ships, row);
+        }
+
+        int followedShip = area.getFollowedShip();
+        double centerX = area.getCenterX();
+        double centerY = area.getCenterY();
+        boolean everything = false;
+        if (followedShip != 0) {
+            int shipRow = source.ships.indexOf(followedShip);
+            everything = shipRow == -1;
+            if (!everything) {
+                centerX = (double) source.ships.x[shipRow] / POSITION_SCALE;
+                centerY = (double) source.ships.y[shipRow] / POSITION_SCALE;
+            }
+        }
+
+        asteroids.clear();
+        for (int row = 0; row < source.asteroids.count; row++) {
+            double radius = SIZES[source.asteroids.size[row]].getRadius();
+            if (everything || isRelevant(source.asteroids, row, area, centerX, centerY, radius)) {
+                asteroids.addCopy(source.asteroids, row);
+            }
+        }
+
+        bullets.clear();
+        for (int row = 0; row < source.bullets.count; row++) {
+            if (everything || (followedShip != 0 && source.bullets.owner[row] == followedShip)
+                    || isRelevant(source.bullets, row, area, centerX, centerY, 0)) {
+                bullets.addCopy(source.bullets, row);
+            }
+        }
+        this.tick = source.tick;
+    }
+
+    /**
+     * @return whether the object of a row is relevant to the area around the given center
+     */
+    private static boolean isRelevant(SnapshotTable table, int row, InterestArea area, double centerX, double centerY,
+                                      double radius) {
+        return area.isRelevant(centerX, centerY,
+                (double) table.x[row] / POSITION_SCALE, (double) table.y[row] / POSITION_SCALE,
+                table.velocityX[row], table.velocityY[row], radius);
+    }
+
+    /**
+     * writes this snapshot into the game, reusing the objects the game already has wherever possible.
+     * ships are matched by their idColor, so that a client's own ship (and the PlayerKeyListener linked to it) stays
+     * the same object.
+     *
+     * @param game game whose model is overwritten
+     */
+    public void apply(MultiplayerGame game) {
+        ArrayList<Asteroid> gameAsteroids = game.getAsteroids();
+        for (int row = 0; row < asteroids.count; row++) {
+            Asteroid asteroid;
+            if (row < gameAsteroids.size()) {
+                asteroid = gameAsteroids.get(row);
+            } else {
+                asteroid = new Asteroid(new Point.Double(), new Point.Double(), AsteroidSize.SMALL);
+                gameAsteroids.add(asteroid);
+            }
+            getMotion(asteroids, row, asteroid);
+            AsteroidSize size = SIZES[asteroids.size[row]];
+            if (asteroid.getSize() != size) asteroid.setSize(size);
+            asteroid.setDestroyed(false);
+        }
+        trim(gameAsteroids, asteroids.count);
+
+        ArrayList<Bullet> gameBullets = game.getBullets();
+        for (int row = 0; row < bullets.count; row++) {
+            Bullet bullet;
+            if (row < gameBullets.size()) {
+                bullet = gameBullets.get(row);
+            } else {
+                bullet = new Bullet(0, 0, 0, 0);
+                gameBullets.add(bullet);
+            }
+            getMotion(bullets, row, bullet);
+            bullet.setDestroyed(false);
+        }
+        trim(gameBullets, bullets.count);
+
+        ArrayList<Spaceship> gameShips = game.getShips();
+        for (int row = 0; row < ships.count; row++) {
+            int idColor = ships.id[row];
+            int match = -1;
+            for (int j = row; j < gameShips.size(); j++) {
+                if (gameShips.get(j).getIdColor().getRGB() == idColor) {
+                    match = j;
+                    break;
+                }
+            }
+            if (match == -1) {
+                gameShips.add(row, new Spaceship(null, new Color(idColor, true)));
+            } else if (match != row) {
+                gameShips.set(match, gameShips.set(row, gameShips.get(match)));
+            }
+            Spaceship ship = gameShips.get(row);
+            getMotion(ships, row, ship);
+            ship.setDirection(ships.direction[row]);
+            ship.setEnergy(ships.energy[row] / 100.0);
+            ship.setScore(ships.score[row] & 0xFFFF);
+            ship.setDestroyed((ships.flags[row] & FLAG_DESTROYED) != 0);
+            ship.setAccelerateKeyPressed((ships.flags[row] & FLAG_ACCELERATING) != 0);
+            ship.setNickname(ships.nickname[row]);
+        }
+        trim(gameShips, ships.count);
+        game.setShips(gameShips); // Points myShip to the ship carrying its idColor.
+    }
+
+    /**
+     * writes the state in between an older snapshot and this one into the game, see apply(). objects are placed the
+     * given fraction of the way from where the older snapshot had them to where this one has them, and ships turn the
+     * short way round. objects that are not in the older snapshot, or that jumped, are placed as in this snapshot.
+     *
+     * @param from older snapshot
+     * @param alpha fraction of the way from the older snapshot to this one, between 0 and 1
+     * @param game game whose model is overwritten
+     */
+    public void interpolate(WorldSnapshot from, double alpha, MultiplayerGame game) {
+        apply(game);
+        if (from == this || alpha >= 1) return;
+        int ticks = this.tick - from.tick;
+
+        ArrayList<Asteroid> gameAsteroids = game.getAsteroids();
+        for (int row = 0; row < asteroids.count; row++) {
+            interpolateMotion(from.asteroids, asteroids, row, alpha, ticks, gameAsteroids.get(row));
+        }
+        ArrayList<Bullet> gameBullets = game.getBullets();
+        for (int row = 0; row < bullets.count; row++) {
+            interpolateMotion(from.bullets, bullets, row, alpha, ticks, gameBullets.get(row));
+        }
+        ArrayList<Spaceship> gameShips = game.getShips();
+        for (int row = 0; row < ships.count; row++) {
+            int fromRow = interpolateMotion(from.ships, ships, row, alpha, ticks, gameShips.get(row));
+            if (fromRow != -1) {
+                double turn = Math.IEEEremainder(ships.direction[row] - from.ships.direction[fromRow], 2 * Math.PI);
+                gameShips.get(row).setDirection(from.ships.direction[fromRow] + turn * alpha);
+            }
+        }
+    }
+
+    /**
+     * moves an object, which has been placed at a row of this snapshot, back towards its row in an older snapshot
+     *
+     * @return the object's row in the older snapshot, or -1 if it is not there
+     */
+    private static int interpolateMotion(SnapshotTable from, SnapshotTable to, int row, double alpha, int ticks,
+                                         GameObject object) {
+        int fromRow = from.indexOf(to.id[row]);
+        if (fromRow == -1) return -1;
+        double fromX = (double) from.x[fromRow] / POSITION_SCALE;
+        double fromY = (double) from.y[fromRow] / POSITION_SCALE;
+        double dx = object.getLocation().x - fromX;
+        double dy = object.getLocation().y - fromY;
+        double strayX = dx - (from.velocityX[fromRow] + to.velocityX[row]) / 2 * ticks;
+        double strayY = dy - (from.velocityY[fromRow] + to.velocityY[row]) / 2 * ticks;
+        if (Math.abs(strayX) > MAX_INTERPOLATED_JUMP || Math.abs(strayY) > MAX_INTERPOLATED_JUMP) return -1;
+        object.getLocation().x = fromX + dx * alpha;
+        object.getLocation().y = fromY + dy * alpha;
+        return fromRow;
+    }
+
+    /**
+     * appends a row holding the location and velocity of the object
+     *
+     * @return index of the new row
+     */
+    private static int addMotion(SnapshotTable table, int id, GameObject object) {
+        int row = table.add(id);
+        table.x[row] = (int) Math.round(object.getLocation().x * POSITION_SCALE);
+        table.y[row] = (int) Math.round(object.getLocation().y * POSITION_SCALE);
+        table.velocityX[row] = (float) object.getVelocity().x;
+        table.velocityY[row] = (float) object.getVelocity().y;
+        return row;
+    }
+
+    /**
+     * copies the location and velocity of a row into the object
+     */
+    private static void getMotion(SnapshotTable table, int row, GameObject object) {
+        object.getLocation().x = (double) table.x[row] / POSITION_SCALE;
+        object.getLocation().y = (double) table.y[row] / POSITION_SCALE;
+        object.getVelocity().x = table.velocityX[row];
+        object.getVelocity().y = table.velocityY[row];
+    }
+
+    /**
+     * removes objects from the end of the list until it has the given size
+     */
+    private static void trim(ArrayList<?> list, int size) {
+        while (list.size() > size) {
+            list.remove(list.size() - 1);
+        }
+    }
+}
@@ -1,31 +1,39 @@
 package aoop.asteroids.util;
 
 import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.DatagramTransport;
 import aoop.asteroids.model.entity.Joiner;
 import aoop.asteroids.model.entity.Server;
+import aoop.asteroids.model.game.Game;
 import aoop.asteroids.packet.*;
 
-import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 
 import static aoop.asteroids.packet.PacketType.GAME_MODEL;
-import static aoop.asteroids.packet.PacketType.SHIP;
+import static aoop.asteroids.packet.PacketType.SNAPSHOT;
 
 /**
  * Network class provides multiple static methods that sends wanted data over to the destination address.
  */
 public class Network {
     /**
-     * Sends server's game model to every clients
+     * Sends server's game model to every clients, in the format selected by the server.
+     * Clients that received a game model too recently for their rate limit are skipped this time.
      *
      * @param server server which will send the game model
      */
     public static void sendGameModel(Server server) {
-        ServerModelPacket gameModelPacket = new ServerModelPacket(server.getSocket(), GAME_MODEL, server.getGame());
-        server.getClientAddresses().forEach(address -> {
+        if (server.getGameModelType() == SNAPSHOT) {
+            sendSnapshot(server);
+            return;
+        }
+        ServerModelPacket gameModelPacket = new ServerModelPacket(server.getTransport(), GAME_MODEL, server.getGame());
+        long now = System.nanoTime();
+        server.getClients().forEach(client -> {
+            if (!client.takeSnapshotSlot(now)) return;
             try {
-                gameModelPacket.sendPacket(new Address(InetAddress.getLocalHost(), address.getPort()));
+                gameModelPacket.sendPacket(new Address(InetAddress.getLocalHost(), client.getAddress().getPort()));
             } catch (UnknownHostException e) {
                 e.printStackTrace();
             }
@@ -33,48 +41,72 @@ public class Network {
     }
 
     /**
-     * Sends joiner's ship model to its server
+     * Sends server's game model to every clients as a binary snapshot.
+     * A new numbered snapshot is taken once, and sent to each client as the difference with the snapshot it
+     * acknowledged last (and limited to its interest area, if it has one), straight to the address its packets came
+     * from (this avoids resolving the local host and its name for every client on every frame).
      *
-     * @param joiner joiner which will send the game model
+     * @param server server which will send the game model
+     */
+    private static void sendSnapshot(Server server) {
+        SnapshotPacket snapshotPacket = server.getSnapshotPacket();
+        snapshotPacket.writePacket();
+        long now = System.nanoTime();
+        server.getClients().forEach(client -> {
+            if (client.takeSnapshotSlot(now)) snapshotPacket.sendPacket(client);
+        });
+    }
+
+    /**
+     * Sends the buttons the joiner's player holds down to its server
+     *
+     * @param joiner joiner which will send its input
+     * @param sequence sequence number of the input
+     * @param buttons bits of the buttons held down
      */
-    public static void sendShipModel(Joiner joiner) {
-        PlayerModelPacket playerModelPacket = new PlayerModelPacket(joiner.getSocket(), SHIP, joiner.getGame().getMyShip());
-        playerModelPacket.sendPacket(joiner.getServerAddress());
+    public static void sendInput(Joiner joiner, int sequence, int buttons) {
+        InputPacket inputPacket = joiner.getInputPacket();
+        inputPacket.setInput(sequence, joiner.getReceivedTick(), buttons);
+        inputPacket.sendPacket(joiner.getServerAddress());
     }
 
     /**
      * Sends message to the destination address
      *
-     * @param socket socket from which the message will be sent
+     * @param transport transport over which the message will be sent
      * @param type type of Data
      * @param address destination address
      */
-    public static void sendMessage(DatagramSocket socket, PacketType type, Address address) {
-        MessagePacket message = new MessagePacket(socket, type);
+    public static void sendMessage(DatagramTransport transport, PacketType type, Address address) {
+        MessagePacket message = new MessagePacket(transport, type);
         message.sendPacket(address);
     }
 
     /**
      * Sends connection request message to the destination address
      *
-     * @param socket socket from which the message will be sent
+     * @param transport transport over which the message will be sent
      * @param type type of Data
+     * @param info nickname of a joiner, null for a spectator
+     * @param roomId id of the room to join
      * @param address destination address
      */
-    public static void sendConnectionMessage(DatagramSocket socket, PacketType type, String info, Address address) {
-        MessagePacket message = new MessagePacket(socket, type, info);
+    public static void sendConnectionMessage(DatagramTransport transport, PacketType type, String info, int roomId, Address address) {
+        MessagePacket message = new MessagePacket(transport, type, info, roomId);
         message.sendPacket(address);
     }
 
     /**
      * Sends connection acceptance message to the destination address
      *
-     * @param socket socket from which the message will be sent
+     * @param transport transport over which the message will be sent
      * @param type type of Data
+     * @param idColor color assigned to the joiner's ship, -1 for a spectator
+     * @param game game the client joins, whose world size is sent along
      * @param address destination address
      */
-    public static void sendAcceptanceMessage(DatagramSocket socket, PacketType type, int idColor, Address address) {
-        MessagePacket message = new MessagePacket(socket, type, idColor);
+    public static void sendAcceptanceMessage(DatagramTransport transport, PacketType type, int idColor, Game game, Address address) {
+        MessagePacket message = new MessagePacket(transport, type, idColor, game.getWorldWidth(), game.getWorldHeight());
         message.sendPacket(address);
     }
 
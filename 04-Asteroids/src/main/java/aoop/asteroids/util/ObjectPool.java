@@ -0,0 +1,67 @@
+package aoop.asteroids.util;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * ObjectPool keeps objects that are no longer used, so that they can be handed out again instead of allocating new
+ * ones. The game creates and throws away bullets and asteroids all the time; recycling them means that once the pools
+ * hold enough objects, the game loop no longer creates any garbage, and no longer gets paused to collect it.
+ *
+ * An object handed out by acquire() still holds whatever state it had when it was released, so it has to be reset by
+ * the caller. The pool is not thread safe, it is meant to be used by the game updater thread only.
+ *
+ * @param <T> type of the pooled objects
+ */
+public class ObjectPool<T> {
+    /** largest number of free objects kept, any more released objects are left to the garbage collector **/
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final Supplier<T> factory;
+    private final int capacity;
+    private final ArrayList<T> free = new ArrayList<>();
+
+    /**
+     * creates a new, empty ObjectPool holding at most DEFAULT_CAPACITY free objects
+     * @param factory creates new objects when the pool is empty
+     */
+    public ObjectPool(Supplier<T> factory) {
+        this(factory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * creates a new, empty ObjectPool
+     * @param factory creates new objects when the pool is empty
+     * @param capacity largest number of free objects kept
+     */
+    public ObjectPool(Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return a free object, or a new one if there is none
+     */
+    public T acquire() {
+        int size = free.size();
+        return size == 0 ? factory.get() : free.remove(size - 1);
+    }
+
+    /**
+     * returns an object to the pool. it must no longer be used by whoever released it.
+     *
+     * @param object object to recycle
+     */
+    public void release(T object) {
+        if (free.size() < capacity) {
+            free.add(object);
+        }
+    }
+
+    /**
+     * @return number of free objects in the pool
+     */
+    public int getFreeCount() {
+        return free.size();
+    }
+}
@@ -0,0 +1,69 @@
+package aoop.asteroids.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * TripleBuffer hands a value that one thread keeps producing over to one other thread, without either of them ever
+ * waiting for the other. The writer fills the back buffer and publishes it; the reader takes whatever was published
+ * last. The third buffer sits in between: publishing swaps it with the back buffer, and reading swaps it with the front
+ * buffer when something new was published. Both swaps are a single atomic operation, so a slow reader never holds up
+ * the writer, and the writer never touches the buffer that is being read.
+ *
+ * The buffers are reused, so a value taken by getLatest() stays the same only until the reader calls getLatest() again.
+ * There must be at most one writer thread and one reader thread.
+ *
+ * @param <T> type of the buffered values
+ */
+public class TripleBuffer<T> {
+    /** bit set next to the index of the middle buffer while it holds a value the reader has not taken yet **/
+    private static final int FRESH = 4;
+
+    private final Object[] buffers = new Object[3];
+
+    /** index of the buffer that the writer fills, only used by the writer **/
+    private int back = 0;
+
+    /** index of the buffer that the reader reads, only used by the reader **/
+    private int front = 1;
+
+    /** index of the buffer in between, and whether it is fresh **/
+    private final AtomicInteger middle = new AtomicInteger(2);
+
+    /**
+     * creates a new TripleBuffer
+     * @param factory creates each of the three buffers
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * @return the buffer the writer should fill next. it is not seen by the reader until it is published
+     */
+    @SuppressWarnings("unchecked")
+    public T getBackBuffer() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * hands the back buffer over to the reader, and makes the buffer in between the new back buffer
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & ~FRESH;
+    }
+
+    /**
+     * @return the most recently published buffer, or the one read before if nothing was published since. before the
+     * first publish(), this is a buffer as the factory created it
+     */
+    @SuppressWarnings("unchecked")
+    public T getLatest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & ~FRESH;
+        }
+        return (T) buffers[front];
+    }
+}
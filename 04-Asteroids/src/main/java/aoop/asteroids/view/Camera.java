@@ -0,0 +1,62 @@
+package aoop.asteroids.view;
+
+import aoop.asteroids.model.game.Game;
+
+import java.awt.*;
+
+/**
+ * Camera decides which part of the world is shown in a GamePanel. When the world is larger than the panel it keeps the
+ * followed ship in the middle of the panel, and since the world wraps around, objects beyond the edge of the world are
+ * drawn next to the ones on the other side. On an axis on which the whole world fits in the panel, nothing is moved,
+ * so a game of the default size looks exactly as it always has.
+ */
+public class Camera {
+    /** distance beyond the edges of the panel within which objects are still drawn, so that they slide into view **/
+    private static final double MARGIN = 60;
+
+    private double left;
+    private double top;
+    private double worldWidth = Game.DEFAULT_WORLD_WIDTH;
+    private double worldHeight = Game.DEFAULT_WORLD_HEIGHT;
+    private boolean scrollsHorizontally;
+    private boolean scrollsVertically;
+
+    /**
+     * moves the camera before a frame is drawn
+     *
+     * @param game game that is drawn
+     * @param focus location to keep in the middle of the panel, or null to show the middle of the world
+     * @param panelWidth width of the panel
+     * @param panelHeight height of the panel
+     */
+    public void update(Game game, Point.Double focus, int panelWidth, int panelHeight) {
+        this.worldWidth = game.getWorldWidth();
+        this.worldHeight = game.getWorldHeight();
+        this.scrollsHorizontally = worldWidth > panelWidth;
+        this.scrollsVertically = worldHeight > panelHeight;
+        double focusX = focus == null ? worldWidth / 2 : focus.x;
+        double focusY = focus == null ? worldHeight / 2 : focus.y;
+        this.left = scrollsHorizontally ? focusX - panelWidth / 2.0 : 0;
+        this.top = scrollsVertically ? focusY - panelHeight / 2.0 : 0;
+    }
+
+    /**
+     * @param location location in the world
+     * @return location in the panel, the short way round the world from the top left corner of the view
+     */
+    public Point.Double toScreen(Point.Double location) {
+        double x = location.x - left;
+        double y = location.y - top;
+        if (scrollsHorizontally) x = wrap(x + MARGIN, worldWidth) - MARGIN;
+        if (scrollsVertically) y = wrap(y + MARGIN, worldHeight) - MARGIN;
+        return new Point.Double(x, y);
+    }
+
+    /**
+     * @return the value wrapped into [0, size)
+     */
+    private static double wrap(double value, double size) {
+        double wrapped = value % size;
+        return wrapped < 0 ? wrapped + size : wrapped;
+    }
+}
@@ -2,6 +2,9 @@ package aoop.asteroids.view;
 
 import aoop.asteroids.game_observer.GameUpdateListener;
 import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.WorldSnapshot;
 
 import javax.swing.*;
 import java.awt.*;
@@ -26,6 +29,18 @@ public abstract class GamePanel extends JPanel implements GameUpdateListener {
      */
     long timeSinceLastTick = 0L;
 
+    /**
+     * The part of the world that is shown, which follows the player's ship when the world is larger than the panel.
+     */
+    Camera camera = new Camera();
+
+    /**
+     * The state of a game that runs here as it was after the last game tick. The panel draws this copy instead of the
+     * game itself, which only the game updater touches, so that neither has to wait for the other. It is only used on
+     * the event dispatch thread.
+     */
+    final MultiplayerGame tickView = new MultiplayerGame();
+
     /**
      * constructor of a new GamePanel object
      * @param game The model which will be drawn in this panel.
@@ -49,22 +64,43 @@ public abstract class GamePanel extends JPanel implements GameUpdateListener {
         this.setBackground(Color.BLACK);
     }
 
+    /**
+     * Brings the tick view up to date with the state of the game that the game updater published last.
+     *
+     * @return The tick view, or null if the game has not ticked yet.
+     */
+    MultiplayerGame updateTickView() {
+        WorldSnapshot snapshot = this.game.getPublishedTicks().getLatest();
+        if (snapshot.getTick() == WorldSnapshot.NO_TICK) return null;
+        snapshot.apply(this.tickView);
+        return this.tickView;
+    }
+
+    /**
+     * @return The copy of the player's ship in the tick view, or null if the player has no ship.
+     */
+    Spaceship getMyShipInTickView() {
+        Spaceship myShip = this.game.getMyShip();
+        return myShip == null ? null : this.tickView.getShipByIdColor(myShip.getIdColor());
+    }
+
     /**
      * Draws the ship's score and energy.
      *
      * @param graphics The graphics object that provides the drawing methods.
+     * @param ship The ship whose score and energy are drawn.
      */
-    void drawShipInformation(Graphics graphics) {
+    void drawShipInformation(Graphics graphics, Spaceship ship) {
         Graphics2D graphics2D = (Graphics2D) graphics;
         graphics2D.setColor(Color.WHITE);
         graphics2D.drawString(
-                String.valueOf(this.game.getMyShip().getScore()),
+                String.valueOf(ship.getScore()),
                 SCORE_INDICATOR_POSITION.x,
                 SCORE_INDICATOR_POSITION.y
         );
         graphics2D.setColor(Color.GREEN);
         graphics2D.drawRect(SCORE_INDICATOR_POSITION.x, SCORE_INDICATOR_POSITION.y + 20, 100, 15);
-        graphics2D.fillRect(SCORE_INDICATOR_POSITION.x, SCORE_INDICATOR_POSITION.y + 20, (int) this.game.getMyShip().getEnergyPercentage(), 15);
+        graphics2D.fillRect(SCORE_INDICATOR_POSITION.x, SCORE_INDICATOR_POSITION.y + 20, (int) ship.getEnergyPercentage(), 15);
     }
 
     /**
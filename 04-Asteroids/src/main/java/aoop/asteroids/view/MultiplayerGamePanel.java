@@ -1,10 +1,13 @@
 package aoop.asteroids.view;
 
+import aoop.asteroids.control.game_updater.GameUpdater;
 import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Spaceship;
 import aoop.asteroids.view.view_model.AsteroidViewModel;
 import aoop.asteroids.view.view_model.BulletViewModel;
 import aoop.asteroids.view.view_model.SpaceshipViewModel;
 
+import javax.swing.*;
 import java.awt.*;
 
 /**
@@ -16,28 +19,46 @@ public class MultiplayerGamePanel extends GamePanel {
     private final static int ROW_SPACING = 35;
     private MultiplayerGame game;
 
+    /** the game whose state is drawn in the current frame : the tick view on the server, the game on a client **/
+    private MultiplayerGame shown;
+
     /**
-     * creates a new MultiplayerGamePanel object
+     * creates a new MultiplayerGamePanel object. on a client, whose game is drawn through a SnapshotInterpolator, the
+     * panel repaints itself at the display rate, since the interpolated objects move between snapshots as well
      *
      * @param game The model which will be drawn in this panel.
      */
     public MultiplayerGamePanel(MultiplayerGame game) {
         super(game);
         this.game = game;
+        if (game.getInterpolator() != null) {
+            Timer timer = new Timer(1000 / GameUpdater.DISPLAY_FPS, null);
+            timer.addActionListener(event -> {
+                if (this.game.isAborted()) timer.stop();
+                repaint();
+            });
+            timer.start();
+        }
     }
 
     /**
      * the method provided by JPanel for 'painting' this component.
+     * on the server, the game is drawn as it was after the last game tick (see GamePanel.updateTickView()), so that
+     * drawing never holds up the game updater. on a client, the game itself is drawn.
      *
      * @param graphics The graphics object that exposes various drawing methods to use.
      */
     @Override
     public void paintComponent(Graphics graphics) {
         super.paintComponent(graphics);
-        if (this.game.getMyShip() != null)
-            drawShipInformation(graphics);
-        drawOpponentScores(graphics);
-        drawGameObjects(graphics);
+        this.shown = this.game.getInterpolator() == null ? this.updateTickView() : this.game;
+        if (this.shown != null) {
+            Spaceship myShip = this.shown == this.game ? this.game.getMyShip() : this.getMyShipInTickView();
+            if (myShip != null)
+                drawShipInformation(graphics, myShip);
+            drawOpponentScores(graphics);
+            drawGameObjects(graphics);
+        }
 
         if (this.game.isAborted()) drawQuitMessage(graphics);
     }
@@ -48,7 +69,7 @@ public class MultiplayerGamePanel extends GamePanel {
      */
     private void drawOpponentScores(Graphics graphics) {
         Graphics2D graphics2D = (Graphics2D) graphics;
-        this.game.getShips().forEach(ship -> {
+        this.shown.getShips().forEach(ship -> {
             if (ship.getNickname() != null) { // in case of spectator whose nickname is null, draw all
                 graphics2D.setColor(ship.getIdColor());
                 graphics2D.drawString(
@@ -69,6 +90,9 @@ public class MultiplayerGamePanel extends GamePanel {
 
     /**
      * Draws all of the game's objects. Wraps each object in a view model, then uses that to draw the object.
+     * On the server, the copy of the last game tick is drawn, which the game updater no longer touches, so no lock is
+     * needed. On a client, the objects are drawn as interpolated from the received snapshots, except for the player's
+     * own ship, which is predicted ahead of them; the game's lock keeps new snapshots out meanwhile.
      *
      * @param graphics The graphics object that provides the drawing methods.
      */
@@ -76,14 +100,65 @@ public class MultiplayerGamePanel extends GamePanel {
     void drawGameObjects(Graphics graphics) {
         Graphics2D graphics2D = (Graphics2D) graphics;
 
+        if (this.shown == this.tickView) {
+            this.camera.update(this.game, cameraFocus(this.getMyShipInTickView()), this.getWidth(), this.getHeight());
+            drawObjects(graphics2D, this.tickView);
+            return;
+        }
         synchronized (this.game) {
-            this.game.getShips().forEach(ship -> {
-                if (!ship.isDestroyed())
-                    new SpaceshipViewModel(ship).drawObject(graphics2D, this.timeSinceLastTick);
-            });
-            this.game.getAsteroids().forEach(asteroid -> new AsteroidViewModel(asteroid).drawObject(graphics2D, this.timeSinceLastTick));
-            this.game.getBullets().forEach(bullet -> new BulletViewModel(bullet).drawObject(graphics2D, this.timeSinceLastTick));
+            MultiplayerGame view = this.game.getInterpolator().sample(System.nanoTime());
+            this.camera.update(this.game, cameraFocus(this.game.getMyShip()), this.getWidth(), this.getHeight());
+            if (view != null) {
+                drawInterpolatedObjects(graphics2D, view);
+                return;
+            }
+            drawObjects(graphics2D, this.game);
+        }
+    }
+
+    /**
+     * Draws the objects of a game, moved along by their velocity for the time since the last game tick.
+     *
+     * @param graphics2D The graphics object that provides the drawing methods.
+     * @param shownGame The game whose objects are drawn.
+     */
+    private void drawObjects(Graphics2D graphics2D, MultiplayerGame shownGame) {
+        shownGame.getShips().forEach(ship -> {
+            if (!ship.isDestroyed())
+                new SpaceshipViewModel(ship).drawObject(graphics2D, this.timeSinceLastTick, this.camera);
+        });
+        shownGame.getAsteroids().forEach(asteroid -> new AsteroidViewModel(asteroid).drawObject(graphics2D, this.timeSinceLastTick, this.camera));
+        shownGame.getBullets().forEach(bullet -> new BulletViewModel(bullet).drawObject(graphics2D, this.timeSinceLastTick, this.camera));
+    }
+
+    /**
+     * Draws the objects of an interpolated game, and the player's own ship from the game itself.
+     *
+     * @param graphics2D The graphics object that provides the drawing methods.
+     * @param view The interpolated game.
+     */
+    private void drawInterpolatedObjects(Graphics2D graphics2D, MultiplayerGame view) {
+        Spaceship myShip = this.game.getMyShip();
+        view.getShips().forEach(ship -> {
+            if (!ship.isDestroyed() && (myShip == null || !ship.getIdColor().equals(myShip.getIdColor())))
+                new SpaceshipViewModel(ship).drawObject(graphics2D, 0, this.camera);
+        });
+        if (myShip != null && !myShip.isDestroyed())
+            new SpaceshipViewModel(myShip).drawObject(graphics2D, this.timeSinceLastTick, this.camera);
+        view.getAsteroids().forEach(asteroid -> new AsteroidViewModel(asteroid).drawObject(graphics2D, 0, this.camera));
+        view.getBullets().forEach(bullet -> new BulletViewModel(bullet).drawObject(graphics2D, 0, this.camera));
+    }
+
+    /**
+     * @param myShip the player's own ship, or null for a spectator
+     * @return location of the player's own ship, or of the first ship that is still flying for a spectator, or null
+     */
+    private Point.Double cameraFocus(Spaceship myShip) {
+        if (myShip != null) return myShip.getLocation();
+        for (Spaceship ship : this.shown.getShips()) {
+            if (!ship.isDestroyed()) return ship.getLocation();
         }
+        return null;
     }
 
     void drawQuitMessage(Graphics graphics) {
@@ -0,0 +1,46 @@
+package aoop.asteroids.view;
+
+import aoop.asteroids.control.game_updater.ReplayPlayer;
+import aoop.asteroids.model.game.Game;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game.SingleplayerGame;
+
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+/**
+ * Game frame that shows a replay as it is played, without taking any input
+ */
+public class ReplayFrame extends GameFrame {
+    private ReplayPlayer player;
+
+    /**
+     * creates a new ReplayFrame
+     * @param player player of the replay to be displayed
+     */
+    public ReplayFrame(ReplayPlayer player) {
+        this.player = player;
+        Game game = player.getGame();
+        if (game instanceof MultiplayerGame) {
+            this.add(new MultiplayerGamePanel((MultiplayerGame) game));
+        } else {
+            this.add(new SingleplayerGamePanel((SingleplayerGame) game));
+        }
+    }
+
+    /**
+     * set up UI
+     */
+    @Override
+    void initSwingUI() {
+        super.initSwingUI();
+        this.addWindowListener(new WindowAdapter() {
+            // stop playing upon closing
+            @Override
+            public void windowClosing(WindowEvent e) {
+                player.stop();
+                dispose();
+            }
+        });
+    }
+}
@@ -43,9 +43,7 @@ public class ServerLobbyFrame extends JFrame implements ServerListener {
             // disconnects all clients, abort the game and close socket upon clsoing
             @Override
             public void windowClosing(WindowEvent e) {
-                server.notifyServerClosed();
-                server.getGame().abort();
-                server.getSocket().close();
+                server.close();
                 dispose();
             }
         });
@@ -96,7 +94,7 @@ public class ServerLobbyFrame extends JFrame implements ServerListener {
         } catch (UnknownHostException e) {
             e.printStackTrace();
         }
-        String port = String.valueOf(server.getSocket().getLocalPort());
+        String port = String.valueOf(server.getTransport().getLocalPort());
         JTextArea addressText = new JTextArea("ip : " + ipAddress + "\n" +  "port : " + port);
         addressText.setEditable(false);
         addressText.setForeground(Color.WHITE);
@@ -1,6 +1,7 @@
 package aoop.asteroids.view;
 
 import aoop.asteroids.model.game.SingleplayerGame;
+import aoop.asteroids.model.game_object.Spaceship;
 import aoop.asteroids.view.view_model.AsteroidViewModel;
 import aoop.asteroids.view.view_model.BulletViewModel;
 import aoop.asteroids.view.view_model.SpaceshipViewModel;
@@ -29,28 +30,30 @@ public class SingleplayerGamePanel extends GamePanel {
     @Override
     public void paintComponent(Graphics graphics) {
         super.paintComponent(graphics);
-        drawShipInformation(graphics);
+        if (this.updateTickView() == null) return; // The game has not ticked yet.
+        drawShipInformation(graphics, this.getMyShipInTickView());
         drawGameObjects(graphics);
     }
 
     /**
-     * Draws all of the game's objects. Wraps each object in a view model, then uses that to draw the object.
+     * Draws all of the game's objects, as they were after the last game tick (see GamePanel.updateTickView(), which
+     * paintComponent() calls first). Wraps each object in a view model, then uses that to draw the object.
      *
      * @param graphics The graphics object that provides the drawing methods.
      */
     @Override
     void drawGameObjects(Graphics graphics) {
         /*
-         * Because the game engine is running concurrently in its own thread, we must obtain a lock for the game model
-         * while drawing to ensure that we don't encounter a concurrentModificationException, which would happen if we
-         * were in the middle of drawing while the game engine starts a new physics update.
+         * The game engine runs concurrently in its own thread, and keeps changing the game model while we draw. Instead
+         * of locking the game model, which would hold up the next game tick for as long as drawing takes, we draw the
+         * copy that the engine published after its last tick, which it no longer touches.
          */
         Graphics2D graphics2D = (Graphics2D) graphics;
-        synchronized (this.game) {
-            new SpaceshipViewModel(this.game.getMyShip()).drawObject(graphics2D, this.timeSinceLastTick);
-            this.game.getAsteroids().forEach(asteroid -> new AsteroidViewModel(asteroid).drawObject(graphics2D, this.timeSinceLastTick));
-            this.game.getBullets().forEach(bullet -> new BulletViewModel(bullet).drawObject(graphics2D, this.timeSinceLastTick));
-        }
+        Spaceship myShip = this.getMyShipInTickView();
+        this.camera.update(this.game, myShip.getLocation(), this.getWidth(), this.getHeight());
+        new SpaceshipViewModel(myShip).drawObject(graphics2D, this.timeSinceLastTick, this.camera);
+        this.tickView.getAsteroids().forEach(asteroid -> new AsteroidViewModel(asteroid).drawObject(graphics2D, this.timeSinceLastTick, this.camera));
+        this.tickView.getBullets().forEach(bullet -> new BulletViewModel(bullet).drawObject(graphics2D, this.timeSinceLastTick, this.camera));
     }
 
     /**
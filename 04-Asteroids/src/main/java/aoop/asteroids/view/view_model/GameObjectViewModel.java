@@ -3,6 +3,7 @@ package aoop.asteroids.view.view_model;
 
 import aoop.asteroids.control.game_updater.GameUpdater;
 import aoop.asteroids.model.game_object.GameObject;
+import aoop.asteroids.view.Camera;
 
 import java.awt.*;
 
@@ -61,12 +62,25 @@ public abstract class GameObjectViewModel<T extends GameObject> {
 	 * @param timeSinceLastTick The number of milliseconds since the last game tick.
 	 */
 	public void drawObject(Graphics2D graphics2D, long timeSinceLastTick) {
+		this.drawObject(graphics2D, timeSinceLastTick, null);
+	}
+
+	/**
+	 * Draws the object that was given to this view model like drawObject(Graphics2D, long) does, at the place in the
+	 * panel where the camera shows it.
+	 *
+	 * @param graphics2D The graphics object used to draw the object.
+	 * @param timeSinceLastTick The number of milliseconds since the last game tick.
+	 * @param camera The camera that decides which part of the world is shown, or null to draw at world coordinates.
+	 */
+	public void drawObject(Graphics2D graphics2D, long timeSinceLastTick, Camera camera) {
 		// What percent of a full game tick has elapsed? Only this percent of the object's velocity will be added.
 		double gameTickRatio = timeSinceLastTick / GameUpdater.MILLISECONDS_PER_TICK;
 		Point.Double simulatedLocation = new Point.Double(
 				this.gameObject.getLocation().getX() + this.gameObject.getVelocity().getX() * gameTickRatio,
 				this.gameObject.getLocation().getY() + this.gameObject.getVelocity().getY() * gameTickRatio
 		);
+		if (camera != null) simulatedLocation = camera.toScreen(simulatedLocation);
 
 		this.draw(graphics2D, simulatedLocation);
 	}
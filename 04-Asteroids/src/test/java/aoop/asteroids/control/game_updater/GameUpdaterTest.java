@@ -0,0 +1,203 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.ClientConnection;
+import aoop.asteroids.model.entity.DatagramTransport;
+import aoop.asteroids.model.entity.RoomManager;
+import aoop.asteroids.model.entity.Server;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game.SingleplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.PacketType;
+import aoop.asteroids.util.Network;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the fixed-timestep clock of the game updater, the recycling of destroyed objects, and that games with the same
+ * seed play out alike, and how often a server sends its game model. The clock is driven by hand here, by setting the time of the current pass of the main loop
+ * instead of waiting for it.
+ */
+class GameUpdaterTest {
+	/**
+	 * Ticks that were missed during a short stall should all be run, back to back.
+	 */
+	@Test
+	void testCatchUpAfterStall() {
+		GameUpdater updater = new SingleplayerGameUpdater(new SingleplayerGame(""));
+		updater.startClock();
+		long firstTick = updater.nextTickTime;
+
+		updater.currentTime = firstTick - 1;
+		updater.updatePhysicsData();
+		assertEquals(0, updater.updateCounter);
+
+		updater.currentTime = firstTick + 2 * GameUpdater.NANOSECONDS_PER_TICK - 1;
+		updater.updatePhysicsData();
+		assertEquals(2, updater.updateCounter);
+		assertEquals(2, updater.getTickStatistics().getTickCount());
+		assertEquals(firstTick + 2 * GameUpdater.NANOSECONDS_PER_TICK, updater.nextTickTime);
+	}
+
+	/**
+	 * After a long stall, only a limited number of ticks should be run, and the rest dropped, so that the schedule is
+	 * back in the future afterwards.
+	 */
+	@Test
+	void testLongStallDropsTicks() {
+		GameUpdater updater = new SingleplayerGameUpdater(new SingleplayerGame(""));
+		updater.startClock();
+
+		updater.currentTime = updater.nextTickTime + 20 * GameUpdater.NANOSECONDS_PER_TICK;
+		updater.updatePhysicsData();
+		assertEquals(GameUpdater.MAX_CATCH_UP_TICKS, updater.updateCounter);
+		assertEquals(21 - GameUpdater.MAX_CATCH_UP_TICKS, updater.getTickStatistics().getSkippedTicks());
+		assertTrue(updater.nextTickTime > updater.currentTime);
+	}
+
+	/**
+	 * Display frames that were missed are not made up for: only one is drawn.
+	 */
+	@Test
+	void testMissedDisplayFramesAreDropped() {
+		GameUpdater updater = new SingleplayerGameUpdater(new SingleplayerGame(""));
+		updater.startClock();
+		assertTrue(updater.isDisplayFrameDue());
+		assertFalse(updater.isDisplayFrameDue());
+
+		updater.currentTime += 10 * GameUpdater.NANOSECONDS_PER_DISPLAY_FRAME;
+		assertTrue(updater.isDisplayFrameDue());
+		assertFalse(updater.isDisplayFrameDue());
+	}
+
+	/**
+	 * Destroyed bullets and asteroids should be removed without changing the order of the others, and be handed out
+	 * again for new objects, in the state of a newly constructed object and with a new id.
+	 */
+	@Test
+	void testDestroyedObjectsAreRecycled() {
+		SingleplayerGame game = new SingleplayerGame("");
+		GameUpdater updater = new SingleplayerGameUpdater(game);
+		ArrayList<Bullet> bullets = game.getBullets();
+		for (int i = 0; i < 5; i++) {
+			bullets.add(new Bullet(i, 0, 0, 0));
+		}
+		bullets.get(1).destroy();
+		bullets.get(3).destroy();
+		Asteroid asteroid = new Asteroid(new Point.Double(), new Point.Double(), AsteroidSize.LARGE);
+		game.getAsteroids().add(asteroid);
+		asteroid.destroy();
+
+		updater.removeDestroyedObjects();
+		assertEquals(3, bullets.size());
+		assertEquals(0, bullets.get(0).getLocation().x);
+		assertEquals(2, bullets.get(1).getLocation().x);
+		assertEquals(4, bullets.get(2).getLocation().x);
+		assertEquals(2, updater.bulletPool.getFreeCount());
+		assertEquals(2, game.getAsteroids().size(), "the large asteroid should have broken up in two");
+		assertEquals(1, updater.asteroidPool.getFreeCount());
+
+		Bullet recycled = updater.bulletPool.acquire();
+		assertTrue(recycled.isDestroyed(), "a recycled bullet keeps its old state until it is reinitialized");
+		int id = recycled.getId();
+		recycled.reinitialize(10, 20, 1, 2);
+		assertFalse(recycled.isDestroyed());
+		assertEquals(Bullet.DEFAULT_BULLET_STEP_LIFETIME, recycled.getStepsLeft());
+		assertEquals(recycled.getDefaultStepsUntilCollisionPossible(), recycled.getStepsUntilCollisionPossible());
+		assertEquals(new Point.Double(10, 20), recycled.getLocation());
+		assertNotEquals(id, recycled.getId());
+	}
+
+	/**
+	 * Runs a multiplayer game with two ships that fire all the time, so that asteroids spawn, break up and destroy the
+	 * ships, and the game restarts with the ships at random locations.
+	 */
+	private static MultiplayerGame playSeededGame(long seed) {
+		MultiplayerGame game = new MultiplayerGame();
+		game.setSeed(seed);
+		game.addShip(new Spaceship("a", new Color(1)));
+		game.addShip(new Spaceship("b", new Color(2)));
+		game.initializeGameData();
+		MultiplayerGameUpdater updater = new MultiplayerGameUpdater(game);
+		for (int tick = 0; tick < 3000; tick++) {
+			for (Spaceship ship : game.getShips()) {
+				ship.setIsFiring(true);
+				ship.setTurnLeftKeyPressed(tick % 50 < 20);
+			}
+			updater.updatePhysics();
+			if (game.isGameOver() || game.getShips().stream().allMatch(Spaceship::isDestroyed)) {
+				updater.restartGame();
+			}
+		}
+		return game;
+	}
+
+	/**
+	 * Two games with the same seed and the same input should play out exactly alike, and a game with another seed
+	 * should not.
+	 */
+	@Test
+	void testSameSeedPlaysAlike() {
+		MultiplayerGame game = playSeededGame(42);
+		MultiplayerGame again = playSeededGame(42);
+		MultiplayerGame other = playSeededGame(43);
+
+		assertFalse(game.getAsteroids().isEmpty());
+		assertEquals(game.getAsteroids().size(), again.getAsteroids().size());
+		for (int i = 0; i < game.getAsteroids().size(); i++) {
+			assertEquals(game.getAsteroids().get(i).getLocation(), again.getAsteroids().get(i).getLocation());
+		}
+		for (int i = 0; i < 2; i++) {
+			assertEquals(game.getShips().get(i).getLocation(), again.getShips().get(i).getLocation());
+		}
+		assertNotEquals(game.getShips().get(0).getLocation(), other.getShips().get(0).getLocation());
+	}
+
+	/**
+	 * A server that sends its game model every third game tick should send it on ticks 0, 3 and 6 out of the first nine.
+	 * The room is one of a room manager, with a single player, so that its game does not start and only the game
+	 * ticks driven here send the game model.
+	 */
+	@Test
+	void testGameModelIsSentEveryFewTicks() throws Exception {
+		DatagramTransport transport = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		DatagramTransport client = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		RoomManager roomManager = new RoomManager(transport, 1, 1, 2, 60);
+		roomManager.setTicksPerSnapshot(3);
+		roomManager.setMaxSnapshotRate(0);
+		new Thread(roomManager).start();
+		try {
+			Address address = new Address(InetAddress.getLoopbackAddress(), transport.getLocalPort());
+			Network.sendConnectionMessage(client, PacketType.REQUEST_CONNECTION_JOINER, "player", RoomManager.DEFAULT_ROOM, address);
+			client.poll((data, sender) -> {}, 0);
+			long deadline = System.currentTimeMillis() + 5000;
+			while (roomManager.getRoom(RoomManager.DEFAULT_ROOM) == null
+					|| roomManager.getRoom(RoomManager.DEFAULT_ROOM).getClients().isEmpty()) {
+				assertTrue(System.currentTimeMillis() < deadline, "timed out");
+				Thread.sleep(10);
+			}
+			Server server = roomManager.getRoom(RoomManager.DEFAULT_ROOM);
+			ClientConnection connection = server.getClients().get(0);
+			long sentBefore = connection.getSentSnapshotCount();
+
+			MultiplayerGameUpdater updater = new MultiplayerGameUpdater(server.getGame(), server);
+			for (int tick = 0; tick < 9; tick++) {
+				updater.updateCounter = tick;
+				updater.onPhysicsUpdated();
+			}
+			assertEquals(3, connection.getSentSnapshotCount() - sentBefore);
+		} finally {
+			roomManager.close();
+			client.close();
+		}
+	}
+}
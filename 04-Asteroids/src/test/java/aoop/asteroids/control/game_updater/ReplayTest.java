@@ -0,0 +1,167 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game.SingleplayerGame;
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a game played again from its replay ends up exactly where the recorded game did. Most games have no
+ * asteroids spawning, so that nothing but the recorded buttons steers them; the random choices of the others are
+ * played out again from the recorded seed.
+ */
+class ReplayTest {
+	private final File file = new File(System.getProperty("java.io.tmpdir"), "test" + System.nanoTime() + ".replay");
+
+	@AfterEach
+	void tearDown() {
+		this.file.delete();
+	}
+
+	/**
+	 * Buttons that change every so often, the same for the same ship and tick.
+	 */
+	private static int script(int ship, int tick) {
+		return ((tick + 7 * ship) / 9) % 16;
+	}
+
+	private static void assertSameShip(Spaceship expected, Spaceship actual) {
+		assertEquals(expected.getLocation(), actual.getLocation());
+		assertEquals(expected.getVelocity(), actual.getVelocity());
+		assertEquals(expected.getDirection(), actual.getDirection());
+		assertEquals(expected.getEnergy(), actual.getEnergy());
+		assertEquals(expected.isDestroyed(), actual.isDestroyed());
+	}
+
+	/**
+	 * A single player game that is steered around, fires, and restarts halfway should be played again into the same
+	 * state, matching every keyframe on the way.
+	 */
+	@Test
+	void testSingleplayerReplay() throws IOException {
+		SingleplayerGame game = new SingleplayerGame("player");
+		SingleplayerGameUpdater updater = new SingleplayerGameUpdater(game);
+		updater.asteroidsLimit = 0;
+		updater.setRecorder(new ReplayRecorder(this.file, 25));
+		for (int tick = 0; tick < 120; tick++) {
+			InputPacket.apply(script(0, tick), game.getMyShip());
+			updater.updatePhysics();
+		}
+		updater.restartGame();
+		updater.asteroidsLimit = 0;
+		for (int tick = 0; tick < 50; tick++) {
+			InputPacket.apply(script(0, tick + 70), game.getMyShip());
+			updater.updatePhysics();
+		}
+		updater.stopRecording();
+
+		ReplayPlayer player = new ReplayPlayer(this.file);
+		player.play(false);
+		SingleplayerGame replayed = (SingleplayerGame) player.getGame();
+		assertEquals(7, player.getKeyframeCount()); // Every 25 ticks, and at the restart.
+		assertEquals(0, player.getDivergentKeyframeCount());
+		assertEquals(50, player.getTickStatistics().getTickCount() - 120);
+		assertSameShip(game.getMyShip(), replayed.getMyShip());
+		assertEquals(game.getBullets().size(), replayed.getBullets().size());
+		assertFalse(game.getBullets().isEmpty());
+	}
+
+	/**
+	 * Ships of a multiplayer game that fire at each other, with a ship joining halfway, should be played again into the
+	 * same state.
+	 */
+	@Test
+	void testMultiplayerReplay() throws IOException {
+		MultiplayerGame game = new MultiplayerGame();
+		MultiplayerGameUpdater updater = new MultiplayerGameUpdater(game);
+		updater.asteroidsLimit = 0;
+		game.addShip(new Spaceship("a", new Color(1)));
+		game.addShip(new Spaceship("b", new Color(2)));
+		updater.setRecorder(new ReplayRecorder(this.file, ReplayRecorder.DEFAULT_KEYFRAME_INTERVAL));
+		for (int tick = 0; tick < 200; tick++) {
+			if (tick == 60) game.addShip(new Spaceship("c", new Color(3)));
+			List<Spaceship> ships = game.getShips();
+			for (int i = 0; i < ships.size(); i++) {
+				InputPacket.apply(script(i, tick), ships.get(i));
+			}
+			updater.updatePhysics();
+		}
+		updater.stopRecording();
+
+		ReplayPlayer player = new ReplayPlayer(this.file);
+		player.play(false);
+		MultiplayerGame replayed = (MultiplayerGame) player.getGame();
+		assertEquals(2, player.getKeyframeCount());
+		assertEquals(0, player.getDivergentKeyframeCount());
+		assertEquals(3, replayed.getShips().size());
+		for (int i = 0; i < 3; i++) {
+			assertSameShip(game.getShips().get(i), replayed.getShips().get(i));
+		}
+		assertEquals(game.getBullets().size(), replayed.getBullets().size());
+	}
+
+	/**
+	 * A game in which asteroids spawn and break up should be played again into the same state, as the random choices
+	 * are drawn from the same seeded random number generator, between the keyframes as well.
+	 */
+	@Test
+	void testReplayWithAsteroids() throws IOException {
+		SingleplayerGame game = new SingleplayerGame("player");
+		SingleplayerGameUpdater updater = new SingleplayerGameUpdater(game);
+		updater.setRecorder(new ReplayRecorder(this.file, 250));
+		for (int tick = 0; tick < 1000; tick++) {
+			InputPacket.apply(script(0, tick) | InputPacket.FIRE, game.getMyShip());
+			updater.updatePhysics();
+		}
+		updater.stopRecording();
+
+		ReplayPlayer player = new ReplayPlayer(this.file);
+		player.play(false);
+		SingleplayerGame replayed = (SingleplayerGame) player.getGame();
+		assertEquals(4, player.getKeyframeCount());
+		assertEquals(0, player.getDivergentKeyframeCount());
+		assertFalse(game.getAsteroids().isEmpty());
+		assertEquals(game.getAsteroids().size(), replayed.getAsteroids().size());
+		for (int i = 0; i < game.getAsteroids().size(); i++) {
+			assertEquals(game.getAsteroids().get(i).getLocation(), replayed.getAsteroids().get(i).getLocation());
+			assertEquals(game.getAsteroids().get(i).getVelocity(), replayed.getAsteroids().get(i).getVelocity());
+		}
+		assertSameShip(game.getMyShip(), replayed.getMyShip());
+	}
+
+	/**
+	 * A replay whose end was cut off, as when the game stopped while it was being recorded, should play up to its last
+	 * complete record.
+	 */
+	@Test
+	void testCutOffReplay() throws IOException {
+		SingleplayerGame game = new SingleplayerGame("player");
+		SingleplayerGameUpdater updater = new SingleplayerGameUpdater(game);
+		updater.asteroidsLimit = 0;
+		updater.setRecorder(new ReplayRecorder(this.file, 25));
+		for (int tick = 0; tick < 100; tick++) {
+			InputPacket.apply(script(0, tick), game.getMyShip());
+			updater.updatePhysics();
+		}
+		updater.stopRecording();
+		try (RandomAccessFile replay = new RandomAccessFile(this.file, "rw")) {
+			replay.setLength(replay.length() - 7);
+		}
+
+		ReplayPlayer player = new ReplayPlayer(this.file);
+		player.play(false);
+		long ticks = player.getTickStatistics().getTickCount();
+		assertTrue(ticks > 75 && ticks < 100, "played " + ticks + " ticks");
+		assertEquals(0, player.getDivergentKeyframeCount());
+	}
+}
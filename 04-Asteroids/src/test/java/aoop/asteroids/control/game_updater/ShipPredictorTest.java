@@ -0,0 +1,71 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a predicted ship ends up where the server will have it, once the server has applied the same inputs.
+ */
+class ShipPredictorTest {
+	/**
+	 * The client runs ahead of the server by a number of inputs. Replaying those on top of the server's ship should
+	 * give the same ship as the client predicted, whatever keys were held down.
+	 */
+	@Test
+	void testReconcileCatchesUpWithPrediction() {
+		ThreadLocalRandom rng = ThreadLocalRandom.current();
+		ShipPredictor predictor = new ShipPredictor();
+		Spaceship predicted = new Spaceship();
+		Spaceship server = new Spaceship();
+		int[] inputs = new int[60];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = rng.nextInt(16);
+			assertEquals(i, predictor.nextTick(predicted, inputs[i]));
+		}
+
+		int applied = 41;
+		for (int i = 0; i <= applied; i++) {
+			this.serverTick(server, inputs[i]);
+		}
+		predictor.reconcile(server, applied);
+		this.assertSameShip(predicted, server);
+	}
+
+	/**
+	 * Before the server has applied any input, all remembered inputs should be replayed.
+	 */
+	@Test
+	void testReconcileWithoutAppliedInputReplaysAll() {
+		ShipPredictor predictor = new ShipPredictor();
+		Spaceship predicted = new Spaceship();
+		Spaceship server = new Spaceship();
+		for (int i = 0; i < 10; i++) {
+			predictor.nextTick(predicted, InputPacket.ACCELERATE | InputPacket.TURN_LEFT);
+		}
+		predictor.reconcile(server, -1);
+		this.assertSameShip(predicted, server);
+	}
+
+	/**
+	 * one tick of a ship as MultiplayerGameUpdater runs it
+	 */
+	private void serverTick(Spaceship ship, int buttons) {
+		InputPacket.apply(buttons, ship);
+		ship.nextStep();
+		if (ship.canFireWeapon() && !ship.isDestroyed()) ship.setFired();
+	}
+
+	private void assertSameShip(Spaceship expected, Spaceship actual) {
+		assertEquals(expected.getLocation().x, actual.getLocation().x, 1e-9);
+		assertEquals(expected.getLocation().y, actual.getLocation().y, 1e-9);
+		assertEquals(expected.getVelocity().x, actual.getVelocity().x, 1e-9);
+		assertEquals(expected.getVelocity().y, actual.getVelocity().y, 1e-9);
+		assertEquals(expected.getDirection(), actual.getDirection(), 1e-9);
+		assertEquals(expected.getEnergy(), actual.getEnergy(), 1e-9);
+	}
+}
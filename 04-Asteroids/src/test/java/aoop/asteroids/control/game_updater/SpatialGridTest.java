@@ -0,0 +1,98 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.GameObject;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the broadphase of collision detection. Whatever the grid leaves out must be something that could not have
+ * collided anyway, so its candidates are compared with checking every pair.
+ */
+class SpatialGridTest {
+	/**
+	 * Every asteroid that a bullet collides with should be among the candidates found for that bullet, also for objects
+	 * on the edges of the world and slightly outside of it.
+	 */
+	@RepeatedTest(20)
+	void testCandidatesIncludeAllCollisions() {
+		ThreadLocalRandom rng = ThreadLocalRandom.current();
+		AsteroidSize[] sizes = AsteroidSize.values();
+		ArrayList<Asteroid> asteroids = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			asteroids.add(new Asteroid(new Point.Double(rng.nextDouble(-20, 820), rng.nextDouble(-20, 820)), new Point.Double(), sizes[rng.nextInt(sizes.length)]));
+		}
+		SpatialGrid grid = new SpatialGrid();
+		grid.build(asteroids, 800, 800);
+
+		for (int i = 0; i < 300; i++) {
+			Bullet bullet = new Bullet(rng.nextDouble(-20, 820), rng.nextDouble(-20, 820), 0, 0);
+			this.makeCollidable(bullet);
+			int count = grid.findCandidates(bullet);
+			int[] candidates = grid.getCandidates();
+			for (int j = 0; j < asteroids.size(); j++) {
+				Asteroid asteroid = asteroids.get(j);
+				this.makeCollidable(asteroid);
+				if (asteroid.collides(bullet)) {
+					assertTrue(this.contains(candidates, count, j), "asteroid " + j + " collides with the bullet, but is no candidate");
+				}
+			}
+		}
+	}
+
+	/**
+	 * A search far away from every object should not turn up any candidates, and the grid should not keep objects from
+	 * an earlier build.
+	 */
+	@Test
+	void testRebuild() {
+		ArrayList<Asteroid> asteroids = new ArrayList<>();
+		asteroids.add(new Asteroid(new Point.Double(50, 50), new Point.Double(), AsteroidSize.LARGE));
+		SpatialGrid grid = new SpatialGrid();
+		grid.build(asteroids, 800, 800);
+
+		Bullet farAway = new Bullet(700, 700, 0, 0);
+		assertEquals(0, grid.findCandidates(farAway));
+		Bullet nearby = new Bullet(60, 60, 0, 0);
+		assertEquals(1, grid.findCandidates(nearby));
+
+		asteroids.get(0).getLocation().setLocation(690, 690);
+		grid.build(asteroids, 800, 800);
+		assertEquals(0, grid.findCandidates(nearby));
+		assertEquals(1, grid.findCandidates(farAway));
+	}
+
+	/**
+	 * Steps the object until its grace period for collisions is over, keeping it in place.
+	 */
+	private void makeCollidable(GameObject object) {
+		Point.Double velocity = new Point.Double(object.getVelocity().x, object.getVelocity().y);
+		Point.Double location = new Point.Double(object.getLocation().x, object.getLocation().y);
+		object.getVelocity().setLocation(0, 0);
+		for (int i = 0; i < object.getDefaultStepsUntilCollisionPossible(); i++) {
+			object.nextStep();
+		}
+		object.getLocation().setLocation(location);
+		object.getVelocity().setLocation(velocity);
+	}
+
+	/**
+	 * @return True if the first count elements of the array contain the value.
+	 */
+	private boolean contains(int[] array, int count, int value) {
+		for (int i = 0; i < count; i++) {
+			if (array[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
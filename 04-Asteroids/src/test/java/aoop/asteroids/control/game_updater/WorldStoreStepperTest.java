@@ -0,0 +1,126 @@
+package aoop.asteroids.control.game_updater;
+
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.GameObject;
+import aoop.asteroids.model.store.WorldStore;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that running game ticks on a WorldStore gives the same game as running them on the game objects themselves.
+ */
+class WorldStoreStepperTest {
+	/**
+	 * Two copies of the same crowded game of small asteroids (which have no random successors) and bullets are run side
+	 * by side, one by calling nextStep() and collides() on the objects, the other through a WorldStore. After every
+	 * tick, the objects written back from the store should be the same as the ones that were stepped themselves, up
+	 * to rounding in the wrapping of locations around the edges of the world.
+	 */
+	@Test
+	void testStepMatchesGameObjects() {
+		ThreadLocalRandom rng = ThreadLocalRandom.current();
+		MultiplayerGame expected = new MultiplayerGame();
+		MultiplayerGame actual = new MultiplayerGame();
+		for (int i = 0; i < 300; i++) {
+			double x = rng.nextDouble(800), y = rng.nextDouble(800), vx = rng.nextDouble(-3, 3), vy = rng.nextDouble(-3, 3);
+			expected.getAsteroids().add(new Asteroid(new Point.Double(x, y), new Point.Double(vx, vy), AsteroidSize.SMALL));
+			actual.getAsteroids().add(new Asteroid(new Point.Double(x, y), new Point.Double(vx, vy), AsteroidSize.SMALL));
+			x = rng.nextDouble(800); y = rng.nextDouble(800); vx = rng.nextDouble(-15, 15); vy = rng.nextDouble(-15, 15);
+			expected.getBullets().add(new Bullet(x, y, vx, vy));
+			actual.getBullets().add(new Bullet(x, y, vx, vy));
+		}
+		WorldStore world = new WorldStore(800, 800);
+		world.load(actual, Collections.emptyList());
+		WorldStoreStepper stepper = new WorldStoreStepper(false);
+
+		for (int tick = 0; tick < 60; tick++) {
+			this.step(expected);
+			stepper.step(world);
+			world.writeTo(actual);
+
+			assertEquals(expected.getAsteroids().size(), actual.getAsteroids().size());
+			assertEquals(expected.getBullets().size(), actual.getBullets().size());
+			for (int i = 0; i < expected.getAsteroids().size(); i++) {
+				this.assertSameObject(expected.getAsteroids().get(i), actual.getAsteroids().get(i));
+			}
+			for (int i = 0; i < expected.getBullets().size(); i++) {
+				this.assertSameObject(expected.getBullets().get(i), actual.getBullets().get(i));
+				assertEquals(expected.getBullets().get(i).getStepsLeft(), actual.getBullets().get(i).getStepsLeft());
+			}
+		}
+		assertTrue(actual.getBullets().isEmpty(), "every bullet should have run out of steps");
+	}
+
+	/**
+	 * A destroyed large asteroid should be replaced by two medium ones at its location, which are immune from collisions
+	 * for a while and get new ids.
+	 */
+	@Test
+	void testDestroyedAsteroidBreaksUp() {
+		MultiplayerGame game = new MultiplayerGame();
+		Asteroid asteroid = new Asteroid(new Point.Double(400, 400), new Point.Double(), AsteroidSize.LARGE);
+		asteroid.setStepsUntilCollisionPossible(0);
+		game.getAsteroids().add(asteroid);
+		int id = asteroid.getId();
+		Bullet bullet = new Bullet(400, 400, 0, 0);
+		bullet.setStepsUntilCollisionPossible(0);
+		game.getBullets().add(bullet);
+
+		WorldStore world = new WorldStore(800, 800);
+		world.load(game, Collections.emptyList());
+		new WorldStoreStepper(false).step(world);
+		world.writeTo(game);
+
+		assertTrue(game.getBullets().isEmpty());
+		assertEquals(2, game.getAsteroids().size());
+		for (Asteroid successor : game.getAsteroids()) {
+			assertEquals(AsteroidSize.MEDIUM, successor.getSize());
+			assertEquals(AsteroidSize.MEDIUM.getRadius(), successor.getRadius());
+			assertEquals(400, successor.getLocation().x, 1e-9);
+			assertTrue(successor.getStepsUntilCollisionPossible() > 0);
+			assertFalse(successor.isDestroyed());
+			assertNotEquals(id, successor.getId());
+		}
+	}
+
+	/**
+	 * runs one tick on the objects of a game, without ships, like MultiplayerGameUpdater.updatePhysics() does
+	 */
+	private void step(MultiplayerGame game) {
+		ArrayList<Asteroid> asteroids = game.getAsteroids();
+		ArrayList<Bullet> bullets = game.getBullets();
+		asteroids.forEach(GameObject::nextStep);
+		bullets.forEach(GameObject::nextStep);
+		for (Bullet bullet : bullets) {
+			for (Asteroid asteroid : asteroids) {
+				if (asteroid.collides(bullet)) {
+					asteroid.destroy();
+					bullet.destroy();
+				}
+			}
+		}
+		asteroids.removeIf(GameObject::isDestroyed);
+		bullets.removeIf(GameObject::isDestroyed);
+	}
+
+	/**
+	 * asserts that two objects are in the same state, with a tolerance for rounding in their locations
+	 */
+	private void assertSameObject(GameObject expected, GameObject actual) {
+		assertEquals(expected.getLocation().x, actual.getLocation().x, 1e-6);
+		assertEquals(expected.getLocation().y, actual.getLocation().y, 1e-6);
+		assertEquals(expected.getVelocity(), actual.getVelocity());
+		assertEquals(expected.getRadius(), actual.getRadius());
+		assertEquals(expected.getStepsUntilCollisionPossible(), actual.getStepsUntilCollisionPossible());
+		assertEquals(expected.isDestroyed(), actual.isDestroyed());
+	}
+}
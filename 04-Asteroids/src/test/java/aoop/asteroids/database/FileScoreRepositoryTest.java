@@ -0,0 +1,93 @@
+package aoop.asteroids.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a FileScoreRepository finds the best scores it stored, also after it is opened again, and that it
+ * recovers from a log whose last record was only partly written.
+ */
+class FileScoreRepositoryTest {
+	private final File directory = new File(System.getProperty("java.io.tmpdir"), "scores" + System.nanoTime());
+	private final File log = new File(this.directory, "scores.log");
+
+	@AfterEach
+	void tearDown() {
+		this.log.delete();
+		this.directory.delete();
+	}
+
+	private static List<String> rows(List<Score> scores) {
+		List<String> rows = new ArrayList<>();
+		for (Score score : scores) rows.add(score.getNickname() + ":" + score.getScore());
+		return rows;
+	}
+
+	/**
+	 * Scores inserted in a few batches should come back best first, with equal scores in the order they were inserted,
+	 * and no more of them than asked for. The directory of the log should be created when it does not exist.
+	 */
+	@Test
+	void testFindTop() throws IOException {
+		FileScoreRepository repository = new FileScoreRepository(this.log);
+		assertTrue(repository.findTop(10).isEmpty());
+		repository.insert(Arrays.asList(new Score("ann", 30), new Score("bob", 10)));
+		repository.insert(Arrays.asList(new Score("\u00e9mile", 50), new Score("dan", 30)));
+
+		assertEquals(Arrays.asList("\u00e9mile:50", "ann:30", "dan:30"), rows(repository.findTop(3)));
+		assertEquals(4, repository.findTop(10).size());
+		repository.close();
+		assertTrue(this.log.isFile());
+	}
+
+	/**
+	 * The index should be built again from the log when it is opened again, and new scores should be appended after
+	 * the old ones.
+	 */
+	@Test
+	void testReopen() throws IOException {
+		FileScoreRepository repository = new FileScoreRepository(this.log);
+		repository.insert(Arrays.asList(new Score("ann", 30), new Score("bob", 10)));
+		repository.close();
+
+		repository = new FileScoreRepository(this.log);
+		repository.insert(Collections.singletonList(new Score("cid", 20)));
+		assertEquals(Arrays.asList("ann:30", "cid:20", "bob:10"), rows(repository.findTop(10)));
+		repository.close();
+	}
+
+	/**
+	 * A record that was cut off halfway, as when the game stops while writing it, should be ignored and removed, so
+	 * that the next record is written right after the last complete one.
+	 */
+	@Test
+	void testPartialRecordIsCutOff() throws IOException {
+		FileScoreRepository repository = new FileScoreRepository(this.log);
+		repository.insert(Collections.singletonList(new Score("ann", 30)));
+		repository.close();
+		long complete = this.log.length();
+		try (RandomAccessFile file = new RandomAccessFile(this.log, "rw")) {
+			file.seek(complete);
+			file.writeInt(99);
+			file.writeShort(5);
+			file.write(new byte[]{'b', 'o'});
+		}
+
+		repository = new FileScoreRepository(this.log);
+		assertEquals(Collections.singletonList("ann:30"), rows(repository.findTop(10)));
+		assertEquals(complete, this.log.length());
+		repository.insert(Collections.singletonList(new Score("bob", 40)));
+		assertEquals(Arrays.asList("bob:40", "ann:30"), rows(repository.findTop(10)));
+		repository.close();
+	}
+}
@@ -0,0 +1,78 @@
+package aoop.asteroids.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a Leaderboard keeps the best scores in order as they are added, and that loading it from the database
+ * neither loses the scores that are not written yet nor counts the written ones twice.
+ */
+class LeaderboardTest {
+	private static List<Integer> scores(Leaderboard leaderboard) {
+		return scores(leaderboard.getTop());
+	}
+
+	private static List<Integer> scores(List<Score> top) {
+		List<Integer> scores = new ArrayList<>();
+		for (Score score : top) scores.add(score.getScore());
+		return scores;
+	}
+
+	/**
+	 * Scores added in any order should end up best first, and only the best ones should be kept.
+	 */
+	@Test
+	void testAddKeepsBestScores() {
+		Leaderboard leaderboard = new Leaderboard(3);
+		for (int score : new int[]{5, 1, 9, 7, 3, 9}) {
+			leaderboard.add(new Score("player", score));
+		}
+		assertEquals(Arrays.asList(9, 9, 7), scores(leaderboard));
+
+		List<Score> top = leaderboard.getTop();
+		leaderboard.add(new Score("player", 8));
+		assertEquals(Arrays.asList(9, 9, 7), scores(top), "a list that was handed out should not change");
+		assertEquals(Arrays.asList(9, 9, 8), scores(leaderboard));
+	}
+
+	/**
+	 * A score that is still pending should survive a load from a database that does not have it yet, while a score that
+	 * was written should only be there once, as it came from the database.
+	 */
+	@Test
+	void testLoadKeepsPendingScores() {
+		Leaderboard leaderboard = new Leaderboard(3);
+		Score written = new Score("written", 6);
+		Score pending = new Score("pending", 4);
+		leaderboard.add(written);
+		leaderboard.add(pending);
+		leaderboard.settle(Collections.singletonList(written));
+
+		leaderboard.load(Arrays.asList(new Score("other", 8), new Score("written", 6), new Score("old", 2)));
+		assertEquals(Arrays.asList(8, 6, 4), scores(leaderboard));
+		assertTrue(leaderboard.getTop().contains(pending));
+		assertTrue(leaderboard.awaitFirstLoad(0));
+	}
+
+	/**
+	 * A score that was dropped should be taken off the leaderboard, and not come back with the next load.
+	 */
+	@Test
+	void testDiscard() {
+		Leaderboard leaderboard = new Leaderboard(3);
+		Score dropped = new Score("dropped", 10);
+		leaderboard.add(new Score("kept", 5));
+		leaderboard.add(dropped);
+		leaderboard.discard(dropped);
+		assertEquals(Collections.singletonList(5), scores(leaderboard));
+
+		leaderboard.load(Collections.emptyList());
+		assertEquals(Collections.singletonList(5), scores(leaderboard));
+	}
+}
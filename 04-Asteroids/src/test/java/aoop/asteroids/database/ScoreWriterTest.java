@@ -0,0 +1,204 @@
+package aoop.asteroids.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that scores are written in batches in the background, without the games that submit them ever waiting for the
+ * database, and over the same connection however many scores there are. The database is a stand-in that records the
+ * batches, and that can be held up to act like a slow database.
+ */
+class ScoreWriterTest {
+	private final AtomicInteger openedConnections = new AtomicInteger();
+	private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> rows = Collections.synchronizedList(new ArrayList<>());
+
+	/** best scores the database answers with when the leaderboard is loaded **/
+	private final List<Score> stored = Arrays.asList(new Score("best", 50), new Score("second", 40));
+
+	/** executing a batch waits until this is counted down **/
+	private final CountDownLatch databaseAvailable = new CountDownLatch(1);
+
+	private final JdbcScoreRepository repository = new JdbcScoreRepository(new ConnectionPool(this::openConnection, 2));
+
+	private Connection openConnection() {
+		this.openedConnections.incrementAndGet();
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+				(proxy, method, args) -> {
+					if (method.getName().equals("prepareStatement")) return this.prepareStatement();
+					if (method.getName().equals("isValid")) return true;
+					return defaultValue(method.getReturnType());
+				});
+	}
+
+	private PreparedStatement prepareStatement() {
+		List<String> pending = new ArrayList<>();
+		String[] row = new String[2];
+		return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+						case "setString":
+						case "setInt":
+							row[(Integer) args[0] - 1] = String.valueOf(args[1]);
+							return null;
+						case "addBatch":
+							pending.add(row[0] + ":" + row[1]);
+							return null;
+						case "executeQuery":
+							return this.resultSet();
+						case "executeBatch":
+							this.databaseAvailable.await();
+							this.batchSizes.add(pending.size());
+							this.rows.addAll(pending);
+							pending.clear();
+							return new int[0];
+						default:
+							return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	private ResultSet resultSet() {
+		int[] row = {-1};
+		return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+						case "next":
+							return ++row[0] < this.stored.size();
+						case "getString":
+							return this.stored.get(row[0]).getNickname();
+						case "getInt":
+							return this.stored.get(row[0]).getScore();
+						default:
+							return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) return false;
+		if (type == int.class) return 0;
+		return null;
+	}
+
+	/**
+	 * Several games submit scores while the database is held up. Submitting should not wait for it, and once the
+	 * database is available, every score should be written in batches of at most MAX_BATCH_SIZE, over one connection.
+	 */
+	@Test
+	void testScoresAreWrittenInBatchesWithoutWaiting() throws InterruptedException {
+		ScoreWriter writer = new ScoreWriter(this.repository, ScoreWriter.DEFAULT_QUEUE_CAPACITY);
+		List<Thread> games = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int game = 0; game < 4; game++) {
+			int player = game;
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 100; i++) assertTrue(writer.submit(new Score("player" + player, i)));
+			});
+			thread.start();
+			games.add(thread);
+		}
+		for (Thread thread : games) thread.join();
+		assertTrue(System.nanoTime() - start < 1_000_000_000L, "submitting scores waited for the database");
+		assertTrue(this.rows.isEmpty());
+
+		this.databaseAvailable.countDown();
+		writer.close(5000);
+		assertEquals(400, writer.getWrittenCount());
+		assertEquals(400, this.rows.size());
+		assertTrue(this.rows.contains("player3:99"));
+		assertTrue(this.batchSizes.size() < 400, "scores were not batched");
+		this.batchSizes.forEach(size -> assertTrue(size <= ScoreWriter.MAX_BATCH_SIZE));
+		assertEquals(1, this.openedConnections.get());
+	}
+
+	/**
+	 * When the database is held up for so long that the queue fills up, new scores should be dropped and counted, and
+	 * the scores that were queued should still be written afterwards.
+	 */
+	@Test
+	void testFullQueueDropsScores() {
+		ScoreWriter writer = new ScoreWriter(this.repository, 10);
+		int accepted = 0;
+		for (int i = 0; i < 200; i++) {
+			if (writer.submit(new Score("player", i))) accepted++;
+		}
+		assertTrue(accepted <= 10 + ScoreWriter.MAX_BATCH_SIZE, "more scores were accepted than fit in the queue");
+		assertEquals(200 - accepted, writer.getDroppedCount());
+
+		this.databaseAvailable.countDown();
+		writer.close(5000);
+		assertEquals(accepted, writer.getWrittenCount());
+		assertFalse(writer.submit(new Score("late", 1)), "a closed writer should not take new scores");
+	}
+
+	/**
+	 * A writer with a leaderboard should load it when it starts, and a submitted score should show up on it right away,
+	 * while the database is still held up, and stay there once the score is written.
+	 */
+	@Test
+	void testLeaderboardIsKeptUpToDate() {
+		Leaderboard leaderboard = new Leaderboard(3);
+		ScoreWriter writer = new ScoreWriter(this.repository, ScoreWriter.DEFAULT_QUEUE_CAPACITY, leaderboard);
+		assertTrue(leaderboard.awaitFirstLoad(5000), "the leaderboard was not loaded");
+		assertEquals(2, leaderboard.getTop().size());
+
+		Score score = new Score("new", 45);
+		assertTrue(writer.submit(score));
+		writer.submit(new Score("low", 1));
+		assertSame(score, leaderboard.getTop().get(1));
+		assertEquals(40, leaderboard.getTop().get(2).getScore());
+		assertTrue(this.rows.isEmpty());
+
+		this.databaseAvailable.countDown();
+		writer.close(5000);
+		assertEquals(2, writer.getWrittenCount());
+		assertSame(score, leaderboard.getTop().get(1));
+	}
+
+	/**
+	 * When a batch fails to be written, its scores were never stored, so they should leave the leaderboard rather than
+	 * stay on it until the next load from the database succeeds.
+	 */
+	@Test
+	void testFailedScoresLeaveLeaderboard() {
+		ScoreRepository failing = new ScoreRepository() {
+			@Override
+			public void insert(List<Score> scores) throws IOException {
+				throw new IOException("database is down");
+			}
+
+			@Override
+			public List<Score> findTop(int count) {
+				return ScoreWriterTest.this.stored;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		Leaderboard leaderboard = new Leaderboard(3);
+		ScoreWriter writer = new ScoreWriter(failing, ScoreWriter.DEFAULT_QUEUE_CAPACITY, leaderboard);
+		assertTrue(leaderboard.awaitFirstLoad(5000), "the leaderboard was not loaded");
+
+		Score score = new Score("lost", 45);
+		assertTrue(writer.submit(score));
+		writer.close(5000);
+		assertEquals(1, writer.getFailedCount());
+		assertFalse(leaderboard.getTop().contains(score), "a score that was not stored is still on the leaderboard");
+		assertEquals(2, leaderboard.getTop().size());
+	}
+}
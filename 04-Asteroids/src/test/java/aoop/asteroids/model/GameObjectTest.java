@@ -78,6 +78,27 @@ class GameObjectTest {
 		}
 	}
 
+	/**
+	 * Tests stepping through game ticks in a world that is larger than the window, and not square. The object should
+	 * move past the edges of the window, and only wrap across the edges of the world.
+	 */
+	@RepeatedTest(100)
+	void testNextStepInLargerWorld() {
+		double width = 3000;
+		double height = 1800;
+		GameObject obj = this.getRandomGameObjectImplementation();
+		boolean leftWindow = false;
+		for (int i = 0; i < 1000; i++) {
+			Point.Double locationBeforeStep = (Point.Double) obj.getLocation().clone();
+			obj.nextStep(width, height);
+			Point.Double locationAfterStep = (Point.Double) obj.getLocation().clone();
+			assertEquals((width + locationBeforeStep.getX() + obj.getVelocity().getX()) % width, locationAfterStep.getX(), 0.000001);
+			assertEquals((height + locationBeforeStep.getY() + obj.getVelocity().getY()) % height, locationAfterStep.getY(), 0.000001);
+			leftWindow |= locationAfterStep.getX() > GameFrame.WINDOW_SIZE.width || locationAfterStep.getY() > GameFrame.WINDOW_SIZE.height;
+		}
+		assertTrue(leftWindow || obj.getSpeed() < 2, "A moving object never left the area of the window.");
+	}
+
 	/**
 	 * Tests the default implementation for checking collisions of game objects. Checks first that any object whose
 	 * invulnerability has not worn out cannot collide, and then goes through very many steps, moving the objects across
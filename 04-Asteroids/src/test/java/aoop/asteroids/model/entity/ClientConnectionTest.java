@@ -0,0 +1,78 @@
+package aoop.asteroids.model.entity;
+
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the input received from a player steers its ship, that inputs arriving out of order do not, and that the
+ * game models sent to a player are capped to its rate.
+ */
+class ClientConnectionTest {
+	/**
+	 * The newest input should be applied to the ship, and an input with an older sequence number that arrives late
+	 * should be ignored. A resent input, with the same sequence number, should be accepted again.
+	 */
+	@Test
+	void testNewestInputSteersShip() {
+		ClientConnection client = new ClientConnection(new Address(InetAddress.getLoopbackAddress(), 9000));
+		Spaceship ship = new Spaceship("player", new Color(9000));
+		client.setShip(ship);
+
+		client.receiveInput(1, 10, InputPacket.ACCELERATE | InputPacket.FIRE);
+		client.receiveInput(0, 9, InputPacket.TURN_LEFT);
+		client.applyInput();
+		assertTrue(ship.isAccelerating());
+		assertTrue(ship.canFireWeapon());
+		assertEquals(10, client.getInputTick());
+
+		client.receiveInput(2, 11, InputPacket.TURN_RIGHT);
+		client.receiveInput(2, 12, InputPacket.TURN_RIGHT);
+		client.applyInput();
+		assertFalse(ship.isAccelerating());
+		assertFalse(ship.canFireWeapon());
+		assertEquals(InputPacket.TURN_RIGHT, client.getButtons());
+		assertEquals(12, client.getInputTick());
+
+		double direction = ship.getDirection();
+		ship.nextStep();
+		assertEquals(direction + Spaceship.ROTATION_PER_TICK, ship.getDirection(), 1e-9);
+	}
+
+	/**
+	 * A spectator has no ship, so applying its (absent) input should do nothing.
+	 */
+	@Test
+	void testSpectatorHasNoShipToSteer() {
+		ClientConnection client = new ClientConnection(new Address(InetAddress.getLoopbackAddress(), 9001));
+		client.receiveInput(0, 0, InputPacket.ACCELERATE);
+		client.applyInput();
+		assertNull(client.getShip());
+	}
+
+	/**
+	 * With a cap of 10 game models per second, a game model should not be sent within a tenth of a second of the
+	 * previous one, but should be once that tenth has passed. Without a cap, every game model should be sent.
+	 */
+	@Test
+	void testSnapshotRateIsCapped() {
+		ClientConnection client = new ClientConnection(new Address(InetAddress.getLoopbackAddress(), 9002));
+		client.setMaxSnapshotRate(10);
+		long start = System.nanoTime();
+		assertTrue(client.takeSnapshotSlot(start));
+		assertFalse(client.takeSnapshotSlot(start + 50_000_000L));
+		assertTrue(client.takeSnapshotSlot(start + 100_000_000L));
+		assertEquals(2, client.getSentSnapshotCount());
+
+		client.setMaxSnapshotRate(0);
+		for (int i = 0; i < 5; i++) {
+			assertTrue(client.takeSnapshotSlot(start + 100_000_000L));
+		}
+		assertEquals(7, client.getSentSnapshotCount());
+	}
+}
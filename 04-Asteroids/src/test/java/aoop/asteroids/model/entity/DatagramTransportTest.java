@@ -0,0 +1,90 @@
+package aoop.asteroids.model.entity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that packets sent over a transport arrive as they were sent, between two transports on the loopback address.
+ */
+class DatagramTransportTest {
+	private DatagramTransport sender;
+	private DatagramTransport receiver;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.sender = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		this.receiver = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.sender.close();
+		this.receiver.close();
+	}
+
+	/**
+	 * A batch of packets of different sizes, some larger than a fresh pooled buffer, should all arrive with their own
+	 * content, from the sender's address. Reusing the source buffer right after each send should not affect what was
+	 * queued.
+	 */
+	@Test
+	void testQueuedPacketsArriveIntact() throws Exception {
+		int packets = 50;
+		ByteBuffer data = ByteBuffer.allocate(DatagramTransport.MAX_PACKET_SIZE);
+		for (int i = 0; i < packets; i++) {
+			data.clear();
+			data.putInt(i);
+			while (data.position() < 4 + i * 100) data.put((byte) i);
+			data.flip();
+			this.sender.send(data, this.receiver.getLocalAddress());
+			assertEquals(0, data.position(), "sending should leave the buffer as it was");
+		}
+		this.sender.poll((d, s) -> {}, 0);
+
+		List<Integer> received = new ArrayList<>();
+		long deadline = System.currentTimeMillis() + 2000;
+		while (received.size() < packets && System.currentTimeMillis() < deadline) {
+			this.receiver.poll((d, s) -> {
+				int i = d.getInt();
+				assertEquals(4 + i * 100, d.limit());
+				while (d.hasRemaining()) assertEquals((byte) i, d.get());
+				assertEquals(this.sender.getLocalPort(), s.getPort());
+				received.add(i);
+			}, 100);
+		}
+		assertEquals(packets, received.size());
+		for (int i = 0; i < packets; i++) {
+			assertEquals(i, (int) received.get(i), "packets on the loopback address should arrive in order");
+		}
+	}
+
+	/**
+	 * Packets that are still queued when the transport closes should be sent before it does, so that a DISCONNECT
+	 * message sent right before closing reaches the other side. Afterwards, the transport drops whatever is sent.
+	 */
+	@Test
+	void testCloseSendsQueuedPackets() throws Exception {
+		ByteBuffer data = ByteBuffer.allocate(4);
+		data.putInt(42).flip();
+		this.sender.send(data, this.receiver.getLocalAddress());
+		this.sender.close();
+		assertFalse(this.sender.isOpen());
+		this.sender.send(data, this.receiver.getLocalAddress());
+
+		int[] received = new int[1];
+		long deadline = System.currentTimeMillis() + 2000;
+		while (received[0] == 0 && System.currentTimeMillis() < deadline) {
+			this.receiver.poll((d, s) -> received[0] = d.getInt(), 100);
+		}
+		assertEquals(42, received[0]);
+	}
+}
@@ -0,0 +1,174 @@
+package aoop.asteroids.model.entity;
+
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.InputPacket;
+import aoop.asteroids.packet.PacketType;
+import aoop.asteroids.util.Network;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a room manager keeps the games of different rooms apart, while they share one transport. The clients are
+ * plain transports on the loopback address that send the same packets as a Joiner would.
+ */
+class RoomManagerTest {
+	private DatagramTransport transport;
+	private RoomManager roomManager;
+	private Address address;
+	private List<DatagramTransport> clients = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.transport = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		this.address = new Address(InetAddress.getLoopbackAddress(), this.transport.getLocalPort());
+		this.roomManager = new RoomManager(this.transport, 2, 4, 2, 60);
+		new Thread(this.roomManager).start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.roomManager.close();
+		this.clients.forEach(DatagramTransport::close);
+	}
+
+	/**
+	 * Players that ask for the same room should end up in the same game, which starts once two of them joined and
+	 * then sends its game model to them. A player asking for another room gets a game of its own.
+	 */
+	@Test
+	void testPlayersAreRoutedToTheirRoom() throws Exception {
+		DatagramTransport first = this.join("first", 7);
+		DatagramTransport second = this.join("second", 7);
+		DatagramTransport third = this.join("third", 8);
+
+		this.waitFor(() -> this.roomManager.getRoomCount() == 2 && this.roomManager.getRoom(7).getGame().isRunning());
+		Server room = this.roomManager.getRoom(7);
+		assertEquals(2, room.getGame().getShips().size());
+		assertNotNull(room.getGame().getShipByIdColor(new Color(first.getLocalPort())));
+		assertNotNull(room.getGame().getShipByIdColor(new Color(second.getLocalPort())));
+		assertNull(room.getGame().getShipByIdColor(new Color(third.getLocalPort())));
+		assertEquals(1, this.roomManager.getRoom(8).getGame().getShips().size());
+		assertFalse(this.roomManager.getRoom(8).getGame().isRunning(), "a room with one player should keep waiting");
+
+		assertTrue(this.receivesSnapshot(first));
+		assertTrue(this.receivesSnapshot(second));
+
+		// Input from the first player should steer its own ship, and no other.
+		InputPacket input = new InputPacket(first);
+		input.setInput(0, 0, InputPacket.ACCELERATE);
+		input.sendPacket(this.address);
+		first.poll((data, sender) -> {}, 0);
+		Spaceship firstShip = room.getGame().getShipByIdColor(new Color(first.getLocalPort()));
+		Spaceship secondShip = room.getGame().getShipByIdColor(new Color(second.getLocalPort()));
+		this.waitFor(firstShip::isAccelerating);
+		assertFalse(secondShip.isAccelerating());
+
+		// The third player disconnecting should only affect its own room.
+		Network.sendMessage(third, PacketType.DISCONNECT, this.address);
+		third.poll((data, sender) -> {}, 0);
+		this.waitFor(() -> this.roomManager.getRoom(8) == null || this.roomManager.getRoom(8).getGame().getShips().isEmpty());
+		assertEquals(2, room.getGame().getShips().size());
+	}
+
+	/**
+	 * A room should be created with the snapshot interval and the cap on the snapshot rate of its room manager.
+	 */
+	@Test
+	void testRoomsTakeSnapshotSettings() throws Exception {
+		this.roomManager.setTicksPerSnapshot(3);
+		this.roomManager.setMaxSnapshotRate(10);
+		this.join("first", 7);
+
+		this.waitFor(() -> this.roomManager.getRoom(7) != null);
+		Server room = this.roomManager.getRoom(7);
+		assertEquals(3, room.getTicksPerSnapshot());
+		assertEquals(10, room.getMaxSnapshotRate());
+	}
+
+	/**
+	 * A started room that is closed should tell its players once that it closed, although both closing it and its
+	 * game loop stopping send that.
+	 */
+	@Test
+	void testClosedRoomDisconnectsPlayersOnce() throws Exception {
+		DatagramTransport first = this.join("first", 7);
+		this.join("second", 7);
+		this.waitFor(() -> this.roomManager.getRoomCount() == 1 && this.roomManager.getRoom(7).getGame().isRunning());
+		assertTrue(this.receivesSnapshot(first));
+
+		this.roomManager.getRoom(7).close();
+		int[] disconnects = new int[1];
+		long deadline = System.currentTimeMillis() + 1000;
+		while (System.currentTimeMillis() < deadline) {
+			first.poll((data, sender) -> {
+				if (isMessage(data, PacketType.DISCONNECT)) disconnects[0]++;
+			}, 100);
+		}
+		assertEquals(1, disconnects[0]);
+	}
+
+	/**
+	 * @return whether the data is a serialized message of the given type
+	 */
+	private static boolean isMessage(ByteBuffer data, PacketType type) {
+		if (!UDPEntity.isSerialized(data)) return false;
+		byte[] bytes = new byte[data.remaining()];
+		data.duplicate().get(bytes);
+		try {
+			ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+			return in.readInt() == type.getId();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return a client transport that asked to join the given room
+	 */
+	private DatagramTransport join(String nickname, int roomId) throws Exception {
+		DatagramTransport client = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		this.clients.add(client);
+		Network.sendConnectionMessage(client, PacketType.REQUEST_CONNECTION_JOINER, nickname, roomId, this.address);
+		client.poll((data, sender) -> {}, 0);
+		return client;
+	}
+
+	/**
+	 * @return whether the client receives a SNAPSHOT packet within a few seconds
+	 */
+	private boolean receivesSnapshot(DatagramTransport client) throws Exception {
+		boolean[] received = new boolean[1];
+		long deadline = System.currentTimeMillis() + 2000;
+		while (!received[0] && System.currentTimeMillis() < deadline) {
+			client.poll((data, sender) -> {
+				if (!UDPEntity.isSerialized(data) && data.getInt() == PacketType.SNAPSHOT.getId()) received[0] = true;
+			}, 100);
+		}
+		return received[0];
+	}
+
+	/**
+	 * waits up to a few seconds for the condition to hold
+	 */
+	private void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "timed out");
+			Thread.sleep(10);
+		}
+	}
+}
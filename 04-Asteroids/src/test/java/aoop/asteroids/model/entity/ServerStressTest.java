@@ -0,0 +1,140 @@
+package aoop.asteroids.model.entity;
+
+import aoop.asteroids.control.game_updater.MultiplayerGameUpdater;
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Spaceship;
+import aoop.asteroids.packet.PacketType;
+import aoop.asteroids.util.Network;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that players can join and leave a server while its game updater and other threads go through the lists of
+ * ships and clients, without any of them running into a list that changes under its hands.
+ */
+class ServerStressTest {
+	private static final int PLAYERS = 16;
+	private static final int FIRST_PORT = 20000;
+	private static final int CHURN_CYCLES = 3000;
+
+	private DatagramTransport transport;
+	private Server server;
+	private final AtomicBoolean done = new AtomicBoolean();
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		this.transport = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		this.server = new Server("stress", this.transport);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.transport.close();
+	}
+
+	/**
+	 * Writes a message the way a MessagePacket does.
+	 */
+	private static ByteBuffer message(PacketType type, String nickname) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeInt(type.getId());
+		if (type == PacketType.REQUEST_CONNECTION_JOINER) {
+			out.writeInt(0);
+			out.writeObject(nickname);
+		}
+		out.flush();
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+	private static InetSocketAddress player(int index) {
+		return new InetSocketAddress(InetAddress.getLoopbackAddress(), FIRST_PORT + index);
+	}
+
+	/**
+	 * Runs the given work over and over on a new thread until the test is done, keeping the first failure.
+	 */
+	private Thread hammer(Runnable work) {
+		Thread thread = new Thread(() -> {
+			try {
+				while (!this.done.get() && this.failure.get() == null) work.run();
+			} catch (Throwable e) {
+				this.failure.compareAndSet(null, e);
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * One thread connects and disconnects players as fast as it can, like the thread that receives packets would. Meanwhile,
+	 * a game updater runs game ticks and sends the game model back to back, and two more threads read the lists of ships
+	 * and clients like the game panel and the room manager do. No thread should fail, every list a thread gets should
+	 * stay the same while it goes through it, and in the end the game should hold exactly the players that are still
+	 * connected.
+	 */
+	@Test
+	void testJoinAndLeaveWhileTicking() throws Exception {
+		MultiplayerGame game = this.server.getGame();
+		MultiplayerGameUpdater updater = new MultiplayerGameUpdater(game, this.server);
+		List<Thread> threads = new ArrayList<>();
+		threads.add(this.hammer(() -> {
+			updater.updatePhysics();
+			Network.sendGameModel(this.server);
+		}));
+		for (int i = 0; i < 2; i++) {
+			threads.add(this.hammer(() -> {
+				ArrayList<Spaceship> ships = game.getShips();
+				int size = ships.size();
+				int count = 0;
+				for (Spaceship ship : ships) {
+					assertNotNull(ship);
+					count++;
+				}
+				assertEquals(size, count);
+				assertEquals(size, ships.size(), "a published list of ships was changed");
+				for (ClientConnection client : this.server.getClients()) {
+					assertNotNull(client.getAddress());
+					this.server.hasClient(client.getAddress());
+				}
+			}));
+		}
+
+		boolean[] connected = new boolean[PLAYERS];
+		ByteBuffer disconnect = message(PacketType.DISCONNECT, null);
+		for (int cycle = 0; cycle < CHURN_CYCLES && this.failure.get() == null; cycle++) {
+			int index = cycle % PLAYERS;
+			if (connected[index]) {
+				disconnect.rewind();
+				this.server.handlePacket(disconnect, player(index));
+			} else {
+				this.server.handlePacket(message(PacketType.REQUEST_CONNECTION_JOINER, "player" + index), player(index));
+			}
+			connected[index] = !connected[index];
+			if (index == PLAYERS - 1) Thread.yield();
+		}
+		this.done.set(true);
+		for (Thread thread : threads) thread.join();
+
+		assertNull(this.failure.get(), String.valueOf(this.failure.get()));
+		int expected = 0;
+		for (boolean isConnected : connected) if (isConnected) expected++;
+		assertEquals(expected, game.getShips().size());
+		assertEquals(expected, this.server.getClients().size());
+	}
+}
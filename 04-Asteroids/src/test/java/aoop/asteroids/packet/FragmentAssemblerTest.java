@@ -0,0 +1,131 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.entity.Address;
+import aoop.asteroids.model.entity.DatagramTransport;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that packets too large for a single datagram are split into pieces below the MTU, and put back together as they
+ * were, and that pieces that are lost or broken are counted instead of corrupting what is received.
+ */
+class FragmentAssemblerTest {
+	private static final long NOW = 1_000_000_000L;
+
+	private FragmentAssembler assembler = new FragmentAssembler();
+
+	/**
+	 * Writes a piece of the data the way FragmentPacket does, positioned right after the packet type id.
+	 */
+	private static ByteBuffer fragment(int id, int index, byte[] data) {
+		int count = (data.length + FragmentPacket.MAX_PAYLOAD - 1) / FragmentPacket.MAX_PAYLOAD;
+		int start = index * FragmentPacket.MAX_PAYLOAD;
+		int length = Math.min(FragmentPacket.MAX_PAYLOAD, data.length - start);
+		ByteBuffer buffer = ByteBuffer.allocate(FragmentPacket.HEADER_SIZE - 4 + length);
+		buffer.putInt(id).putShort((short) index).putShort((short) count).put(data, start, length);
+		buffer.flip();
+		return buffer;
+	}
+
+	private static byte[] data(int length) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) data[i] = (byte) (i * 31 + 7);
+		return data;
+	}
+
+	/**
+	 * A packet sent by a FragmentPacket over the loopback address should arrive in datagrams no larger than
+	 * MAX_DATAGRAM_SIZE, and be put back together byte for byte.
+	 */
+	@Test
+	void testSplitAndReassembleOverTransport() throws Exception {
+		DatagramTransport sender = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		DatagramTransport receiver = DatagramTransport.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		try {
+			byte[] original = data(20_000);
+			ByteBuffer data = ByteBuffer.wrap(original);
+			Address address = new Address(InetAddress.getLoopbackAddress(), receiver.getLocalPort());
+			new FragmentPacket(sender).send(data, address);
+			assertEquals(0, data.position(), "sending should leave the buffer as it was");
+			sender.poll((d, s) -> {}, 0);
+
+			List<byte[]> received = new ArrayList<>();
+			long deadline = System.currentTimeMillis() + 2000;
+			while (received.isEmpty() && System.currentTimeMillis() < deadline) {
+				receiver.poll((d, s) -> {
+					assertTrue(d.remaining() <= FragmentPacket.MAX_DATAGRAM_SIZE);
+					assertEquals(PacketType.FRAGMENT, PacketType.getType(d.getInt()));
+					ByteBuffer message = this.assembler.add(d, System.nanoTime());
+					if (message != null) {
+						byte[] bytes = new byte[message.remaining()];
+						message.get(bytes);
+						received.add(bytes);
+					}
+				}, 100);
+			}
+			assertEquals(1, received.size());
+			assertArrayEquals(original, received.get(0));
+		} finally {
+			sender.close();
+			receiver.close();
+		}
+	}
+
+	/**
+	 * Pieces that arrive out of order, mixed with the pieces of another packet, or twice, should still make up both
+	 * packets.
+	 */
+	@Test
+	void testOutOfOrderAndDuplicatePieces() {
+		byte[] first = data(3000);
+		byte[] second = data(2500);
+		assertNull(this.assembler.add(fragment(1, 2, first), NOW));
+		assertNull(this.assembler.add(fragment(2, 1, second), NOW));
+		assertNull(this.assembler.add(fragment(1, 0, first), NOW));
+		assertNull(this.assembler.add(fragment(1, 0, first), NOW));
+		assertNull(this.assembler.add(fragment(2, 0, second), NOW));
+
+		ByteBuffer message = this.assembler.add(fragment(2, 2, second), NOW);
+		assertNotNull(message);
+		byte[] bytes = new byte[message.remaining()];
+		message.get(bytes);
+		assertArrayEquals(second, bytes);
+
+		message = this.assembler.add(fragment(1, 1, first), NOW);
+		assertNotNull(message);
+		bytes = new byte[message.remaining()];
+		message.get(bytes);
+		assertArrayEquals(first, bytes);
+		assertEquals(2, this.assembler.getCompletedCount());
+		assertEquals(0, this.assembler.getIncompleteCount());
+	}
+
+	/**
+	 * A packet with a lost piece should be given up after the timeout, and broken pieces should be dropped; both should
+	 * be counted.
+	 */
+	@Test
+	void testLostAndBrokenPiecesAreCounted() {
+		byte[] data = data(3000);
+		assertNull(this.assembler.add(fragment(1, 0, data), NOW));
+		assertNull(this.assembler.add(fragment(1, 1, data), NOW));
+		assertNull(this.assembler.add(fragment(2, 0, data), NOW + FragmentAssembler.TIMEOUT + 1));
+		assertEquals(1, this.assembler.getIncompleteCount());
+		assertNull(this.assembler.add(fragment(1, 2, data), NOW + FragmentAssembler.TIMEOUT + 1),
+				"the rest of a packet that was given up should not complete it");
+
+		ByteBuffer broken = fragment(3, 0, data);
+		broken.limit(broken.limit() - 1);
+		assertNull(this.assembler.add(broken, NOW));
+		assertNull(this.assembler.add(ByteBuffer.allocate(3), NOW));
+		assertEquals(2, this.assembler.getDroppedFragmentCount());
+		assertEquals(0, this.assembler.getCompletedCount());
+	}
+}
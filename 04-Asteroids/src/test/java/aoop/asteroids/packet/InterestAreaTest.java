@@ -0,0 +1,145 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.Spaceship;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a player is only sent the part of the game around its ship, including what is headed its way and its own
+ * bullets, and that snapshots limited in this way can still be sent as the difference with an acknowledged one.
+ */
+class InterestAreaTest {
+	private static final Color PLAYER = new Color(1234);
+	private static final Color OPPONENT = new Color(5678);
+
+	private MultiplayerGame game;
+	private InterestArea area = InterestArea.aroundShip(PLAYER.getRGB(), 150, 800, 800);
+
+	@BeforeEach
+	void setUp() {
+		this.game = new MultiplayerGame();
+		this.game.getAsteroids().clear();
+		Spaceship player = new Spaceship("player", PLAYER);
+		player.getLocation().setLocation(100, 100);
+		Spaceship opponent = new Spaceship("opponent", OPPONENT);
+		opponent.getLocation().setLocation(600, 600);
+		this.game.getShips().add(player);
+		this.game.getShips().add(opponent);
+	}
+
+	private Asteroid addAsteroid(double x, double y, double velocityX) {
+		Asteroid asteroid = new Asteroid(new Point.Double(x, y), new Point.Double(velocityX, 0), AsteroidSize.SMALL);
+		this.game.getAsteroids().add(asteroid);
+		return asteroid;
+	}
+
+	private Bullet addBullet(double x, double y, Color shooter) {
+		Bullet bullet = new Bullet(x, y, 0, 0);
+		bullet.setShooter(shooter.getRGB());
+		this.game.getBullets().add(bullet);
+		return bullet;
+	}
+
+	private static boolean contains(SnapshotTable table, int id) {
+		return table.indexOf(id) != -1;
+	}
+
+	/**
+	 * Objects close by, also across the edge of the world, and objects that will soon be close by should be sent; objects
+	 * far away should not, unless they are the player's own bullets. Every ship is sent.
+	 */
+	@Test
+	void testFilterKeepsRelevantObjects() {
+		Asteroid near = this.addAsteroid(150, 100, 0);
+		Asteroid far = this.addAsteroid(500, 500, 0);
+		Asteroid acrossEdge = this.addAsteroid(790, 100, 0);
+		Asteroid approaching = this.addAsteroid(400, 100, -5);
+		Asteroid leaving = this.addAsteroid(400, 100, 5);
+		Bullet ownBullet = this.addBullet(500, 500, PLAYER);
+		Bullet otherBullet = this.addBullet(500, 500, OPPONENT);
+		Bullet nearBullet = this.addBullet(120, 120, OPPONENT);
+
+		WorldSnapshot full = new WorldSnapshot();
+		full.capture(this.game, 1);
+		WorldSnapshot filtered = new WorldSnapshot();
+		filtered.filter(full, this.area);
+
+		assertEquals(1, filtered.getTick());
+		assertTrue(contains(filtered.asteroids, near.getId()));
+		assertFalse(contains(filtered.asteroids, far.getId()));
+		assertTrue(contains(filtered.asteroids, acrossEdge.getId()));
+		assertTrue(contains(filtered.asteroids, approaching.getId()));
+		assertFalse(contains(filtered.asteroids, leaving.getId()));
+		assertTrue(contains(filtered.bullets, ownBullet.getId()));
+		assertFalse(contains(filtered.bullets, otherBullet.getId()));
+		assertTrue(contains(filtered.bullets, nearBullet.getId()));
+		assertEquals(2, filtered.ships.count);
+	}
+
+	/**
+	 * A fixed region around its center, for spectators, should work the same way without any own bullets.
+	 */
+	@Test
+	void testRegionAroundFixedPoint() {
+		Asteroid inside = this.addAsteroid(400, 420, 0);
+		Asteroid outside = this.addAsteroid(100, 100, 0);
+		Bullet bullet = this.addBullet(100, 110, PLAYER);
+
+		WorldSnapshot full = new WorldSnapshot();
+		full.capture(this.game, 1);
+		WorldSnapshot filtered = new WorldSnapshot();
+		filtered.filter(full, InterestArea.region(400, 400, 100, 800, 800));
+
+		assertTrue(contains(filtered.asteroids, inside.getId()));
+		assertFalse(contains(filtered.asteroids, outside.getId()));
+		assertFalse(contains(filtered.bullets, bullet.getId()));
+	}
+
+	/**
+	 * As the player's ship moves, objects enter and leave its area. A filtered snapshot sent as the difference with the
+	 * filtered baseline should rebuild exactly the filtered snapshot on the client.
+	 */
+	@Test
+	void testFilteredDeltaRoundTrip() {
+		for (int i = 0; i < 20; i++) {
+			this.addAsteroid(i * 40, 100 + i * 10, 0);
+		}
+		SnapshotHistory serverHistory = new SnapshotHistory();
+		SnapshotHistory clientHistory = new SnapshotHistory();
+		SnapshotCodec codec = new SnapshotCodec();
+		ByteBuffer buffer = ByteBuffer.allocate(SnapshotPacket.MAX_SIZE);
+		WorldSnapshot filtered = new WorldSnapshot();
+		WorldSnapshot filteredBaseline = new WorldSnapshot();
+
+		for (int tick = 0; tick < 10; tick++) {
+			this.game.getShips().get(0).getLocation().x += 60;
+			WorldSnapshot snapshot = serverHistory.prepare(tick);
+			snapshot.capture(this.game, tick);
+			serverHistory.complete(snapshot, tick);
+
+			filtered.filter(snapshot, this.area);
+			WorldSnapshot baseline = serverHistory.get(clientHistory.getLatestTick());
+			if (baseline != null) filteredBaseline.filter(baseline, this.area);
+
+			buffer.clear();
+			codec.encode(filtered, baseline == null ? null : filteredBaseline, buffer);
+			buffer.flip();
+			WorldSnapshot received = codec.decode(buffer, clientHistory);
+			assertNotNull(received);
+			assertEquals(filtered.asteroids.count, received.asteroids.count);
+			for (int row = 0; row < filtered.asteroids.count; row++) {
+				assertEquals(filtered.asteroids.id[row], received.asteroids.id[row]);
+				assertEquals(filtered.asteroids.x[row], received.asteroids.x[row]);
+			}
+		}
+	}
+}
@@ -0,0 +1,315 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import aoop.asteroids.model.game_object.Bullet;
+import aoop.asteroids.model.game_object.Spaceship;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the binary snapshot format. A game written by the codec should be read back into an equal game, and it should
+ * take far fewer bytes than sending the same game through Java serialization, which is what GAME_MODEL packets do.
+ * Snapshots sent as the difference with an acknowledged one should rebuild the same game in even fewer bytes.
+ */
+class SnapshotCodecTest {
+	/**
+	 * Floats and fixed point locations are sent instead of doubles, so values only survive the round trip up to that
+	 * precision.
+	 */
+	private static final double DELTA = 0.05;
+
+	/**
+	 * Both ends of the connection: what the server sent, and what the client received.
+	 */
+	private SnapshotHistory serverHistory = new SnapshotHistory();
+	private SnapshotHistory clientHistory = new SnapshotHistory();
+	private SnapshotCodec serverCodec = new SnapshotCodec();
+	private SnapshotCodec clientCodec = new SnapshotCodec();
+	private ByteBuffer buffer = ByteBuffer.allocate(SnapshotPacket.MAX_SIZE);
+	private int tick = 0;
+
+	/**
+	 * Encodes a busy game and decodes it into an empty spectator game, then checks that every object came across.
+	 */
+	@Test
+	void testRoundTrip() {
+		MultiplayerGame original = this.generateGame(40, 25, 4);
+		MultiplayerGame copy = new MultiplayerGame();
+		this.send(original, WorldSnapshot.NO_TICK).apply(copy);
+		this.assertSameModel(original, copy);
+	}
+
+	/**
+	 * Changes every kind of object after a first snapshot, and checks that a snapshot sent relative to the first one
+	 * rebuilds the changed game.
+	 */
+	@Test
+	void testDeltaRoundTrip() {
+		MultiplayerGame original = this.generateGame(40, 25, 4);
+		MultiplayerGame copy = new MultiplayerGame();
+		int baseline = this.send(original, WorldSnapshot.NO_TICK).getTick();
+
+		original.getAsteroids().forEach(Asteroid::nextStep);
+		original.getAsteroids().remove(3);
+		original.getAsteroids().add(new Asteroid(new Point.Double(1, 2), new Point.Double(3, 4), AsteroidSize.LARGE));
+		original.getBullets().remove(0);
+		original.getBullets().add(new Bullet(700, 10, -10, 2));
+		original.getShips().get(1).increaseScore();
+		original.getShips().get(2).setNickname("renamed");
+		original.getShips().remove(3);
+		original.getShips().get(0).getLocation().x = 799;
+
+		this.send(original, baseline).apply(copy);
+		this.assertSameModel(original, copy);
+	}
+
+	/**
+	 * Snapshots sent relative to an acknowledged one should only carry what changed.
+	 */
+	@Test
+	void testDeltaIsSmallerThanKeyframe() {
+		MultiplayerGame game = this.generateGame(40, 25, 4);
+		int baseline = this.send(game, WorldSnapshot.NO_TICK).getTick();
+		int keyframeSize = this.buffer.position();
+
+		game.getAsteroids().forEach(Asteroid::nextStep);
+		game.getBullets().forEach(Bullet::nextStep);
+		this.send(game, baseline);
+		int deltaSize = this.buffer.position();
+		assertTrue(deltaSize * 2 < keyframeSize, "delta: " + deltaSize + " bytes, keyframe: " + keyframeSize + " bytes");
+
+		baseline = this.tick;
+		this.send(game, baseline);
+		assertEquals(8 + 3 * 4, this.buffer.position(), "an unchanged game only takes the headers");
+	}
+
+	/**
+	 * Snapshots that are older than the last one received, or whose baseline the client does not have, are dropped.
+	 */
+	@Test
+	void testStaleSnapshotsAreDropped() {
+		MultiplayerGame game = this.generateGame(10, 10, 2);
+		this.send(game, WorldSnapshot.NO_TICK);
+		this.send(game, WorldSnapshot.NO_TICK);
+
+		this.capture(game, 1);
+		this.encode(1, WorldSnapshot.NO_TICK);
+		assertNull(this.clientCodec.decode(this.buffer, this.clientHistory));
+
+		this.capture(game, 7);
+		this.capture(game, 6);
+		this.encode(7, 6);
+		assertNull(this.clientCodec.decode(this.buffer, this.clientHistory));
+		assertEquals(2, this.clientHistory.getLatestTick());
+	}
+
+	/**
+	 * Checks that every object of the original game came across to the copy.
+	 */
+	private void assertSameModel(MultiplayerGame original, MultiplayerGame copy) {
+		assertEquals(original.getAsteroids().size(), copy.getAsteroids().size());
+		for (int i = 0; i < original.getAsteroids().size(); i++) {
+			Asteroid expected = original.getAsteroids().get(i);
+			Asteroid actual = copy.getAsteroids().get(i);
+			assertEquals(expected.getLocation().getX(), actual.getLocation().getX(), DELTA);
+			assertEquals(expected.getLocation().getY(), actual.getLocation().getY(), DELTA);
+			assertEquals(expected.getVelocity().getX(), actual.getVelocity().getX(), DELTA);
+			assertEquals(expected.getVelocity().getY(), actual.getVelocity().getY(), DELTA);
+			assertEquals(expected.getSize(), actual.getSize());
+			assertEquals(expected.getRadius(), actual.getRadius());
+		}
+
+		assertEquals(original.getBullets().size(), copy.getBullets().size());
+		for (int i = 0; i < original.getBullets().size(); i++) {
+			Bullet expected = original.getBullets().get(i);
+			Bullet actual = copy.getBullets().get(i);
+			assertEquals(expected.getLocation().getX(), actual.getLocation().getX(), DELTA);
+			assertEquals(expected.getLocation().getY(), actual.getLocation().getY(), DELTA);
+			assertEquals(expected.getVelocity().getX(), actual.getVelocity().getX(), DELTA);
+			assertEquals(expected.getVelocity().getY(), actual.getVelocity().getY(), DELTA);
+		}
+
+		assertEquals(original.getShips().size(), copy.getShips().size());
+		for (Spaceship expected : original.getShips()) {
+			Spaceship actual = copy.getShipByIdColor(expected.getIdColor()); // Ships are sent in order of their idColor.
+			assertNotNull(actual);
+			assertEquals(expected.getNickname(), actual.getNickname());
+			assertEquals(expected.getLocation().getX(), actual.getLocation().getX(), DELTA);
+			assertEquals(expected.getLocation().getY(), actual.getLocation().getY(), DELTA);
+			assertEquals(expected.getDirection(), actual.getDirection(), DELTA);
+			assertEquals(expected.getEnergy(), actual.getEnergy(), 0.01);
+			assertEquals(expected.getScore(), actual.getScore());
+			assertEquals(expected.isDestroyed(), actual.isDestroyed());
+			assertEquals(expected.isAccelerating(), actual.isAccelerating());
+		}
+	}
+
+	/**
+	 * Decoding a second snapshot should write into the objects created by the first one instead of creating new ones,
+	 * and a joiner's own ship should stay the very same object.
+	 */
+	@Test
+	void testDecodeReusesObjects() {
+		MultiplayerGame original = this.generateGame(10, 10, 3);
+		MultiplayerGame copy = new MultiplayerGame("joiner");
+		copy.getMyShip().setIdColor(original.getShips().get(2).getIdColor());
+		Spaceship myShip = copy.getMyShip();
+
+		int baseline = this.send(original, WorldSnapshot.NO_TICK).getTick();
+		this.send(original, WorldSnapshot.NO_TICK).apply(copy);
+		Asteroid firstAsteroid = copy.getAsteroids().get(0);
+		Bullet firstBullet = copy.getBullets().get(0);
+		assertSame(myShip, copy.getMyShip());
+
+		original.getAsteroids().forEach(Asteroid::nextStep);
+		original.getBullets().remove(original.getBullets().size() - 1);
+		this.send(original, baseline).apply(copy);
+		assertSame(firstAsteroid, copy.getAsteroids().get(0));
+		assertSame(firstBullet, copy.getBullets().get(0));
+		assertSame(myShip, copy.getMyShip());
+		assertEquals(original.getBullets().size(), copy.getBullets().size());
+		assertEquals(original.getAsteroids().get(0).getLocation().getX(), firstAsteroid.getLocation().getX(), DELTA);
+	}
+
+	/**
+	 * Nicknames have no limit on their length. Long ones should come across whole, and should not throw the fields and
+	 * objects after them out of step, which a length of 255, or one cut off at 256, used to do.
+	 */
+	@Test
+	void testLongNicknames() {
+		MultiplayerGame original = this.generateGame(5, 5, 4);
+		original.getShips().get(1).setNickname(repeat('a', 255));
+		original.getShips().get(2).setNickname(repeat('b', 300));
+		MultiplayerGame copy = new MultiplayerGame();
+		int baseline = this.send(original, WorldSnapshot.NO_TICK).getTick();
+		this.send(original, baseline).apply(copy);
+		this.assertSameModel(original, copy);
+		assertEquals(255, copy.getShipByIdColor(original.getShips().get(1).getIdColor()).getNickname().length());
+		assertEquals(300, copy.getShipByIdColor(original.getShips().get(2).getIdColor()).getNickname().length());
+
+		original.getShips().get(1).setNickname(repeat('c', 256));
+		this.send(original, baseline).apply(copy);
+		this.assertSameModel(original, copy);
+	}
+
+	/**
+	 * A nickname that is received again, as it is in every keyframe, should be the same String as before rather than
+	 * a new one.
+	 */
+	@Test
+	void testDecodeReusesNicknames() {
+		MultiplayerGame original = this.generateGame(5, 5, 3);
+		String[] first = this.send(original, WorldSnapshot.NO_TICK).ships.nickname.clone();
+		String[] second = this.send(original, WorldSnapshot.NO_TICK).ships.nickname;
+		for (int row = 0; row < original.getShips().size(); row++) {
+			assertNotNull(second[row]);
+			assertSame(first[row], second[row]);
+		}
+	}
+
+	/**
+	 * @return A string of the given number of the given character.
+	 */
+	private static String repeat(char c, int count) {
+		char[] chars = new char[count];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+
+	/**
+	 * Compares the size of a binary snapshot with the size of the same game sent as a GAME_MODEL packet.
+	 */
+	@Test
+	void testSnapshotIsSmallerThanSerializedModel() throws IOException {
+		MultiplayerGame game = this.generateGame(40, 25, 4);
+
+		this.send(game, WorldSnapshot.NO_TICK);
+		int snapshotSize = Integer.BYTES + this.buffer.position(); // The packet type id comes first.
+
+		ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(byteOut);
+		out.writeInt(PacketType.GAME_MODEL.getId());
+		out.writeObject(game.getAsteroids());
+		out.writeObject(game.getBullets());
+		out.writeObject(game.getShips());
+		out.flush();
+		int serializedSize = byteOut.size();
+
+		assertTrue(snapshotSize * 3 < serializedSize, "snapshot: " + snapshotSize + " bytes, serialized: " + serializedSize + " bytes");
+	}
+
+	/**
+	 * Takes the next snapshot of the game on the server, and sends it to the client relative to the given baseline.
+	 * Afterwards, the buffer's position is at the end of the encoded snapshot.
+	 *
+	 * @return The snapshot as decoded by the client.
+	 */
+	private WorldSnapshot send(MultiplayerGame game, int baselineTick) {
+		this.capture(game, ++this.tick);
+		this.encode(this.tick, baselineTick);
+		int size = this.buffer.limit();
+		WorldSnapshot snapshot = this.clientCodec.decode(this.buffer, this.clientHistory);
+		assertNotNull(snapshot);
+		assertFalse(this.buffer.hasRemaining());
+		this.buffer.position(size);
+		return snapshot;
+	}
+
+	/**
+	 * Stores a snapshot of the game in the server's history.
+	 */
+	private void capture(MultiplayerGame game, int tick) {
+		this.serverHistory.prepare(tick).capture(game, tick);
+	}
+
+	/**
+	 * Encodes a snapshot from the server's history, and flips the buffer so that it can be decoded.
+	 */
+	private void encode(int tick, int baselineTick) {
+		this.buffer.clear();
+		this.serverCodec.encode(this.serverHistory.get(tick), this.serverHistory.get(baselineTick), this.buffer);
+		this.buffer.flip();
+	}
+
+	/**
+	 * @return A game with the given number of randomly placed objects, where some of the ships are in special states.
+	 */
+	private MultiplayerGame generateGame(int asteroidCount, int bulletCount, int shipCount) {
+		ThreadLocalRandom rng = ThreadLocalRandom.current();
+		MultiplayerGame game = new MultiplayerGame("host");
+		AsteroidSize[] sizes = AsteroidSize.values();
+		for (int i = 0; i < asteroidCount; i++) {
+			game.getAsteroids().add(new Asteroid(
+					new Point.Double(rng.nextDouble(800), rng.nextDouble(800)),
+					new Point.Double(rng.nextDouble(-3, 3), rng.nextDouble(-3, 3)),
+					sizes[rng.nextInt(sizes.length)]
+			));
+		}
+		for (int i = 0; i < bulletCount; i++) {
+			game.getBullets().add(new Bullet(rng.nextDouble(800), rng.nextDouble(800), rng.nextDouble(-15, 15), rng.nextDouble(-15, 15)));
+		}
+		for (int i = 1; i < shipCount; i++) {
+			Spaceship ship = new Spaceship("player" + i, new Color(8000 + i));
+			ship.setDirection(rng.nextDouble(2 * Math.PI));
+			ship.setEnergy(rng.nextDouble(Spaceship.ENERGY_CAPACITY));
+			for (int j = 0; j < i; j++) {
+				ship.increaseScore();
+			}
+			game.getShips().add(ship);
+		}
+		game.getShips().get(1 % shipCount).destroy();
+		game.getShips().get(0).setAccelerateKeyPressed(true);
+		return game;
+	}
+}
@@ -0,0 +1,116 @@
+package aoop.asteroids.packet;
+
+import aoop.asteroids.model.game.MultiplayerGame;
+import aoop.asteroids.model.game_object.Asteroid;
+import aoop.asteroids.model.game_object.AsteroidSize;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a client draws the game between the two snapshots around the moment it renders, and that the delay at
+ * which it renders grows with the jitter of the snapshots, within its bounds.
+ */
+class SnapshotInterpolatorTest {
+	private static final long TICK = 33_333_333L;
+	private static final long START = 1_000_000_000L;
+	private static final double DELTA = 0.1;
+
+	private SnapshotHistory history;
+	private SnapshotInterpolator interpolator;
+	private MultiplayerGame game;
+	private Asteroid asteroid;
+
+	@BeforeEach
+	void setUp() {
+		this.history = new SnapshotHistory();
+		this.interpolator = new SnapshotInterpolator(this.history, TICK);
+		this.game = new MultiplayerGame();
+		this.game.getAsteroids().clear();
+		this.asteroid = new Asteroid(new Point.Double(100, 100), new Point.Double(3, -2), AsteroidSize.LARGE);
+		this.game.getAsteroids().add(this.asteroid);
+	}
+
+	/**
+	 * Stores the game as the snapshot of the given tick, as if it arrived at the given time.
+	 */
+	private void receive(int tick, long arrival) {
+		WorldSnapshot snapshot = this.history.prepare(tick);
+		snapshot.capture(this.game, tick);
+		this.history.complete(snapshot, tick);
+		this.interpolator.add(tick, arrival);
+	}
+
+	/**
+	 * Snapshots that arrive exactly once a tick have no jitter, so the game is drawn a single tick behind.
+	 */
+	@Test
+	void testSteadySnapshotsGiveOneTickDelay() {
+		for (int tick = 0; tick < 100; tick++) {
+			this.receive(tick, START + tick * TICK);
+		}
+		assertEquals(0, this.interpolator.getJitter());
+		assertEquals(TICK, this.interpolator.getDelay());
+	}
+
+	/**
+	 * Snapshots that arrive late every other tick should push the delay up, but never past its bound.
+	 */
+	@Test
+	void testJitterRaisesDelay() {
+		for (int tick = 0; tick < 100; tick++) {
+			this.receive(tick, START + tick * TICK + (tick % 2) * TICK / 2);
+		}
+		assertTrue(this.interpolator.getJitter() > TICK / 4, "jitter is " + this.interpolator.getJitter());
+		assertTrue(this.interpolator.getDelay() > TICK + TICK / 2, "delay is " + this.interpolator.getDelay());
+
+		for (int tick = 100; tick < 200; tick++) {
+			this.receive(tick, START + tick * TICK + (tick % 2) * 20 * TICK);
+		}
+		assertEquals(SnapshotInterpolator.MAX_DELAY_TICKS * TICK, this.interpolator.getDelay());
+	}
+
+	/**
+	 * Halfway between two snapshots, an object should be drawn halfway between where they had it.
+	 */
+	@Test
+	void testInterpolatesBetweenSnapshots() {
+		this.receive(0, START);
+		this.asteroid.nextStep();
+		this.receive(1, START + TICK);
+
+		MultiplayerGame view = this.interpolator.sample(START + TICK + TICK / 2);
+		assertNotNull(view);
+		assertEquals(1, view.getAsteroids().size());
+		assertEquals(101.5, view.getAsteroids().get(0).getLocation().x, DELTA);
+		assertEquals(99, view.getAsteroids().get(0).getLocation().y, DELTA);
+
+		view = this.interpolator.sample(START + 10 * TICK);
+		assertEquals(103, view.getAsteroids().get(0).getLocation().x, DELTA, "past the newest snapshot, nothing moves");
+	}
+
+	/**
+	 * An object that wrapped around the screen between two snapshots should not be drawn sweeping across it.
+	 */
+	@Test
+	void testWrappedObjectIsNotInterpolated() {
+		this.asteroid.getLocation().x = 799;
+		this.receive(0, START);
+		this.asteroid.getLocation().x = 2;
+		this.receive(1, START + TICK);
+
+		MultiplayerGame view = this.interpolator.sample(START + TICK + TICK / 2);
+		assertEquals(2, view.getAsteroids().get(0).getLocation().x, DELTA);
+	}
+
+	/**
+	 * Before any snapshot arrived, there is nothing to draw.
+	 */
+	@Test
+	void testNothingToSampleBeforeFirstSnapshot() {
+		assertNull(this.interpolator.sample(START));
+	}
+}
@@ -0,0 +1,68 @@
+package aoop.asteroids.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a TripleBuffer hands over what its writer published last, and that a reader never sees a buffer that the
+ * writer is still filling, even while both run at full speed.
+ */
+class TripleBufferTest {
+	/**
+	 * Before anything is published the reader should get an untouched buffer; afterwards the most recently published
+	 * one, also when it reads several times in between.
+	 */
+	@Test
+	void testGetLatest() {
+		TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+		assertEquals(0, buffer.getLatest()[0]);
+
+		buffer.getBackBuffer()[0] = 1;
+		buffer.publish();
+		buffer.getBackBuffer()[0] = 2;
+		buffer.publish();
+		assertEquals(2, buffer.getLatest()[0]);
+		assertEquals(2, buffer.getLatest()[0]);
+
+		buffer.getBackBuffer()[0] = 3;
+		assertEquals(2, buffer.getLatest()[0], "a buffer that is not published yet should not be read");
+		buffer.publish();
+		assertEquals(3, buffer.getLatest()[0]);
+	}
+
+	/**
+	 * A writer fills every element of a buffer with the same increasing number, while a reader keeps taking the latest
+	 * buffer. Every buffer the reader gets should be filled with one number only, and the numbers should never go back.
+	 */
+	@Test
+	void testConcurrentWriterAndReader() throws InterruptedException {
+		TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[64]);
+		long published = 200_000;
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread writer = new Thread(() -> {
+			for (long value = 1; value <= published; value++) {
+				long[] values = buffer.getBackBuffer();
+				for (int i = 0; i < values.length; i++) values[i] = value;
+				buffer.publish();
+			}
+		});
+		writer.start();
+
+		long last = 0;
+		while (last < published && failure.get() == null) {
+			long[] values = buffer.getLatest();
+			long value = values[0];
+			for (int i = 1; i < values.length; i++) {
+				if (values[i] != value) failure.set(new AssertionError("read a buffer that was being written"));
+			}
+			if (value < last) failure.set(new AssertionError("read " + value + " after " + last));
+			last = value;
+		}
+		writer.join();
+		assertNull(failure.get(), String.valueOf(failure.get()));
+		assertEquals(published, buffer.getLatest()[0]);
+	}
+}